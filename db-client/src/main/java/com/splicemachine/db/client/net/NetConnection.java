@@ -31,6 +31,7 @@ import com.splicemachine.db.client.am.PreparedStatement;
 import com.splicemachine.db.client.am.Statement;
 import com.splicemachine.db.client.am.*;
 import com.splicemachine.db.iapi.reference.Attribute;
+import com.splicemachine.db.iapi.reference.DRDAConstants;
 import com.splicemachine.db.jdbc.ClientBaseDataSource;
 import com.splicemachine.db.jdbc.ClientDriver;
 import com.splicemachine.db.shared.common.i18n.MessageUtil;
@@ -1579,22 +1580,32 @@ public class NetConnection extends ClientConnection {
                 CharBuffer.wrap(extnam_, 0, extnamTruncateLength),
                 prddta_, agent_);
 
+        prddtaLen += NetConfiguration.PRDDTA_APPL_ID_FIXED_LEN;
+
+        prddtaLen += NetConfiguration.PRDDTA_USER_ID_FIXED_LEN;
+
+        // Announce in the accounting suffix that we can read LZ4 compressed
+        // QRYDTA and extra query blocks (see Reply.decompressData()).
+        prddta_.position(NetConfiguration.PRDDTA_ACCT_SUFFIX_LEN_BYTE + 1);
+        ccsidMgr.startEncoding();
+        success &= ccsidMgr.encode(
+                CharBuffer.wrap(DRDAConstants.PRDDTA_ACCT_SUFFIX_LZ4),
+                prddta_, agent_);
+        int suffixLen = prddta_.position() -
+                (NetConfiguration.PRDDTA_ACCT_SUFFIX_LEN_BYTE + 1);
+
         if (SanityManager.DEBUG) {
             // The encode() calls above should all complete without overflow,
             // since we control the contents of the strings. Verify this in
             // sane mode so that we notice it if the strings change so that
             // they go beyond the max size of PRDDTA.
             SanityManager.ASSERT(success,
-                "PRDID, PRDDTA_PLATFORM_ID and EXTNAM exceeded PRDDTA_MAXSIZE");
+                "PRDID, PRDDTA_PLATFORM_ID, EXTNAM and the accounting " +
+                "suffix exceeded PRDDTA_MAXSIZE");
         }
 
-        prddtaLen += NetConfiguration.PRDDTA_APPL_ID_FIXED_LEN;
-
-        prddtaLen += NetConfiguration.PRDDTA_USER_ID_FIXED_LEN;
-
-        // Mark that we have an empty suffix in PRDDTA_ACCT_SUFFIX_LEN_BYTE.
-        prddta_.put(NetConfiguration.PRDDTA_ACCT_SUFFIX_LEN_BYTE, (byte) 0);
-        prddtaLen++;
+        prddta_.put(NetConfiguration.PRDDTA_ACCT_SUFFIX_LEN_BYTE, (byte) suffixLen);
+        prddtaLen += 1 + suffixLen;
 
         // the length byte value does not include itself.
         prddta_.put(NetConfiguration.PRDDTA_LEN_BYTE, (byte) (prddtaLen - 1));
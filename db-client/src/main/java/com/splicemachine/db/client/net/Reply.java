@@ -33,6 +33,8 @@ import com.splicemachine.db.client.am.SignedBinary;
 import com.splicemachine.db.client.am.SqlException;
 import com.splicemachine.db.client.am.DisconnectException;
 import com.splicemachine.db.client.am.ClientMessageId;
+import com.splicemachine.db.iapi.reference.DRDAConstants;
+import com.splicemachine.db.shared.common.compression.LZ4BlockCodec;
 
 import com.splicemachine.db.shared.common.reference.SQLState;
 import com.splicemachine.db.shared.common.reference.MessageId;
@@ -343,7 +345,9 @@ public class Reply {
         // If the GDS id is not valid, or
         // if the reply is not an RPYDSS nor
         // a OBJDSS, then throw an exception.
-        if ((buffer_[pos_++] & 0xFF) != 0xd0) {
+        int gdsId = buffer_[pos_++] & 0xFF;
+        boolean compressed = (gdsId == DRDAConstants.GDS_ID_LZ4);
+        if (gdsId != DssConstants.GDS_ID && !compressed) {
             doSyntaxrmSemantics(CodePoint.SYNERRCD_CBYTE_NOT_D0);
         }
 
@@ -393,6 +397,9 @@ public class Reply {
             dssCorrelationID_ = nextCorrelationID;
         }
         dssLength_ -= 6;
+        if (compressed) {
+            decompressData();
+        }
         if ((gdsFormatter & 0x04) == 0x04) {
             decryptData(gdsFormatter, oldDssLength);  //we have to decrypt data here because
         }
@@ -403,6 +410,53 @@ public class Reply {
     }
 
 
+    // The server compresses QRYDTA for clients that announce
+    // DRDAConstants.PRDDTA_ACCT_SUFFIX_LZ4 in PRDDTA. The data of such a DSS,
+    // across all its continuation segments, is the uncompressed length
+    // followed by an LZ4 block. Replace it in the buffer with the clear data
+    // as one segment, so that the rest of the reply parses it like any DSS.
+    private void decompressData() throws DisconnectException {
+        boolean readHeader;
+        int copySize = dssLength_;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(copySize);
+        do {
+            readHeader = dssIsContinued_;
+            ensureALayerDataInBuffer(copySize);
+            baos.write(buffer_, pos_, copySize);
+            pos_ += copySize;
+            if (readHeader) {
+                readDSSContinuationHeader();
+            }
+            copySize = dssLength_;
+        } while (readHeader);
+
+        byte[] compressedBytes = baos.toByteArray();
+        if (compressedBytes.length < 4) {
+            doSyntaxrmSemantics(CodePoint.SYNERRCD_DSS_LENGTH_BYTE_NUMBER_MISMATCH);
+        }
+        int clearLength = ((compressedBytes[0] & 0xFF) << 24) +
+                ((compressedBytes[1] & 0xFF) << 16) +
+                ((compressedBytes[2] & 0xFF) << 8) +
+                ((compressedBytes[3] & 0xFF) << 0);
+
+        // keep whatever follows this DSS in the buffer behind the clear data
+        int remaining = count_ - pos_;
+        byte[] newBuffer = new byte[Math.max(buffer_.length, clearLength + remaining)];
+        try {
+            LZ4BlockCodec.decompress(compressedBytes, 4, compressedBytes.length - 4,
+                    newBuffer, 0, clearLength);
+        } catch (IllegalArgumentException e) {
+            doSyntaxrmSemantics(CodePoint.SYNERRCD_DSS_LENGTH_BYTE_NUMBER_MISMATCH);
+        }
+        System.arraycopy(buffer_, pos_, newBuffer, clearLength, remaining);
+
+        buffer_ = newBuffer;
+        pos_ = 0;
+        count_ = clearLength + remaining;
+        dssLength_ = clearLength;
+        dssIsContinued_ = false;
+    }
+
     private void decryptData(int gdsFormatter, int oldDssLength) throws DisconnectException {
         boolean readHeader;
 
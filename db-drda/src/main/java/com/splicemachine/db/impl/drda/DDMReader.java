@@ -37,6 +37,8 @@ import java.io.InputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.net.Socket;
+import java.net.SocketException;
 
 /**
 	The DDMReader is used to read DRDA protocol.   DRDA Protocol is divided into
@@ -224,6 +226,51 @@ class DDMReader
 		dssIsChainedWithSameID = false;
 	}
 
+	/**
+	 * Whether bytes received from the client are still waiting in the
+	 * buffer, i.e. the client has already sent more than we have parsed.
+	 */
+	protected boolean hasBufferedData()
+	{
+		return pos < count;
+	}
+
+	/**
+	 * Wait a while for the client to send more data, and buffer whatever
+	 * it sends.
+	 *
+	 * @param socket the socket this reader reads from
+	 * @param timeout how many milliseconds to wait
+	 * @return true if data was received, false if the client sent nothing
+	 *         in time
+	 * @exception DRDAProtocolException if the client went away
+	 */
+	protected boolean awaitData(Socket socket, int timeout)
+		throws DRDAProtocolException
+	{
+		int previousTimeout;
+		try {
+			previousTimeout = socket.getSoTimeout();
+			socket.setSoTimeout(timeout);
+		} catch (SocketException se) {
+			agent.markCommunicationsFailure("DDMReader.awaitData()",
+				"Socket.setSoTimeout()", se.getMessage(), "*");
+			return false;
+		}
+		try {
+			fill(1);
+			return true;
+		} catch (DRDASocketTimeoutException ste) {
+			return false;
+		} finally {
+			try {
+				socket.setSoTimeout(previousTimeout);
+			} catch (SocketException se) {
+				// the socket is closed; the next read fails
+			}
+		}
+	}
+
 	// Switch the ccsidManager to the UTF-8 instance
     protected void setUtf8Ccsid() {
         ccsidManager = utf8CcsidManager;
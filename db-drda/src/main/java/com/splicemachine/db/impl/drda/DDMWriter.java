@@ -52,6 +52,7 @@ import com.splicemachine.db.iapi.services.property.PropertyUtil;
 import com.splicemachine.db.iapi.services.sanity.SanityManager;
 import com.splicemachine.db.iapi.services.io.DynamicByteArrayOutputStream;
 import com.splicemachine.db.iapi.types.RowLocation;
+import com.splicemachine.db.shared.common.compression.LZ4BlockCodec;
 import com.splicemachine.compression.SpliceSnappy;
 import org.apache.log4j.Logger;
 
@@ -73,6 +74,9 @@ class DDMWriter
 	// Default buffer size
 	private final static int DEFAULT_BUFFER_SIZE = 32767;
 
+	// Smallest QRYDTA DSS which is worth compressing with LZ4
+	private final static int LZ4_MIN_DSS_LENGTH = 1024;
+
     /**
      * The maximum length in bytes for strings sent by {@code writeLDString()},
      * which is the maximum unsigned integer value that fits in two bytes.
@@ -136,6 +140,9 @@ class DDMWriter
 	// that immediately precedes the mark.
 	private int lastDSSBeforeMark;
 
+	// Scratch space for LZ4 compression of QRYDTA, reused across DSSes
+	private byte[] lz4Buffer;
+
 	/** Encoder which encodes strings with the server's default encoding. */
 	private final CharsetEncoder encoder;
 
@@ -1529,6 +1536,36 @@ class DDMWriter
 				totalSize = offset - dssLengthLocation;
 			}
 		}
+		else if (totalSize > LZ4_MIN_DSS_LENGTH && agent.canCompressQueryData() &&
+				((buffer.getShort(dssLengthLocation + 8) & 0xFFFF) == CodePoint.QRYDTA))
+		{
+			// LZ4 compression of query data, the payload is prefixed with
+			// its uncompressed length
+			final int uncompressedSize = totalSize - 6;
+			final int bound = 4 + LZ4BlockCodec.maxCompressedLength(uncompressedSize);
+			if (lz4Buffer == null || lz4Buffer.length < bound)
+				lz4Buffer = new byte[bound];
+			int compressedSize = 4 + LZ4BlockCodec.compress(buffer.array(), dssLengthLocation + 6,
+				uncompressedSize, lz4Buffer, 4);
+
+			if (LOG.isTraceEnabled()) {
+				LOG.trace("COMPRESS LZ4 original size: " + uncompressedSize + " compressed size: " + compressedSize);
+			}
+
+			if (compressedSize < uncompressedSize)
+			{
+				lz4Buffer[0] = (byte) (uncompressedSize >>> 24);
+				lz4Buffer[1] = (byte) (uncompressedSize >>> 16);
+				lz4Buffer[2] = (byte) (uncompressedSize >>> 8);
+				lz4Buffer[3] = (byte) uncompressedSize;
+				System.arraycopy(lz4Buffer, 0, buffer.array(), dssLengthLocation + 6, compressedSize);
+				buffer.array()[dssLengthLocation + 2] = (byte) DRDAConstants.GDS_ID_LZ4;
+				buffer.position(dssLengthLocation + 6 + compressedSize);
+
+				offset = buffer.position();
+				totalSize = offset - dssLengthLocation;
+			}
+		}
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("COMPRESS post compression totalSize: " + totalSize);
 		}
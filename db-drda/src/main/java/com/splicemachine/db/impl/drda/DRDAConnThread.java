@@ -257,6 +257,10 @@ class DRDAConnThread extends Thread {
         return session.canCompress();
     }
 
+    public boolean canCompressQueryData() {
+        return session.canReadLz4QueryData() && server.getCompressQueryData();
+    }
+
     private void parsePRDDTA() throws DRDAProtocolException
     {
         if (reader.getDdmLength() > CodePoint.MAX_NAME)
@@ -269,6 +273,8 @@ class DRDAConnThread extends Thread {
         String prdDTA = reader.convertBytes(prd);
         if(prdDTA.compareTo(SPLICE_ODBC_NAME) == 0)
             session.enableCompress(true);
+        else if (prdDTA.endsWith(DRDAConstants.PRDDTA_ACCT_SUFFIX_LZ4))
+            session.enableLz4QueryData(true);
 
         if (!appRequester.srvclsnm.equals("QDERBY/JVM")) {
             // make sure this request is coming from the splice driver
@@ -320,6 +326,9 @@ class DRDAConnThread extends Thread {
 
             // get a new session
             prevSession = session;
+            // another thread may pick the session up once its time slice is over
+            if (session != null && session.state != Session.CLOSED)
+                session.threadState = new ThreadState(this);
             session = server.getNextSession(session);
             if (session == null)
                 close();
@@ -348,6 +357,10 @@ class DRDAConnThread extends Thread {
                         do {
                             try {
                                 processCommands();
+                                // The chain has been answered; don't wait
+                                // on this thread for the client's next one.
+                                if (parkIdleSession())
+                                    break;
                             } catch (DRDASocketTimeoutException ste) {
                                 // Just ignore the exception. This was
                                 // a timeout on the read call in
@@ -703,13 +716,31 @@ class DRDAConnThread extends Thread {
         appRequester = session.appRequester;
 
         // set sqlamLevel
-        if (session.state == Session.ATTEXC)
+        if (session.state >= Session.ATTEXC && session.state != Session.CLOSED
+                && appRequester != null)
             sqlamLevel = appRequester.getManagerLevel(CodePoint.SQLAM);
 
         /* All sessions MUST start as EBCDIC */
         reader.setEbcdicCcsid();
         writer.setEbcdicCcsid();
 
+        // A session resumed after ACCSEC continues in the CCSID that was
+        // negotiated on the thread that served it before.
+        if ((session.state == Session.SECACC || session.state == Session.CHKSEC)
+                && appRequester != null && appRequester.supportsUtf8Ccsid()) {
+            switchToUtf8();
+        }
+        if (session.state == Session.CHKSEC && appRequester != null)
+            sendWarningsOnCNTQRY =
+                (appRequester.getClientType() == AppRequester.DNC_CLIENT);
+
+        // Take over what the thread that served the session before
+        // negotiated with the client and parsed from its requests.
+        if (session.threadState != null) {
+            session.threadState.restore(this);
+            session.threadState = null;
+        }
+
         // Associate current session remote user to this thread
         RemoteUser.setRemoteUser(session.getRemoteUser());
     }
@@ -819,6 +850,7 @@ class DRDAConnThread extends Thread {
                         if (stmt != null)
                         {
                             writeQRYDTA(stmt);
+                            writeExtraQRYDTA(stmt);
                             if (stmt.rsIsClosed())
                             {
                                 writeENDQRYRM(CodePoint.SVRCOD_WARNING);
@@ -7279,6 +7311,39 @@ class DRDAConnThread extends Thread {
         }
     }
 
+    /**
+     * Write extra query blocks after the one answering a CNTQRY, for
+     * clients which announced that they read them (together with LZ4
+     * compressed query data). The number of blocks adapts to how quickly the
+     * client comes back for more, see DRDAResultSet.nextPrefetchDepth().
+     * Each block is still limited by QRYBLKSZ.
+     *
+     * @param stmt    DRDA statement we are processing
+     * @throws DRDAProtocolException
+     * @throws SQLException
+     */
+    private void writeExtraQRYDTA(DRDAStatement stmt)
+        throws DRDAProtocolException, SQLException
+    {
+        DRDAResultSet drdars = stmt.getCurrentDrdaResultSet();
+        if (drdars == null || !session.canReadLz4QueryData())
+            return;
+
+        if (stmt.getQryprctyp() == CodePoint.LMTBLKPRC &&
+                !stmt.isScrollable() && !drdars.hasLobColumns())
+        {
+            int extraBlocks = drdars.nextPrefetchDepth(System.currentTimeMillis());
+            for (; extraBlocks > 0; extraBlocks--)
+            {
+                if (stmt.rsIsClosed() || !stmt.hasdata() ||
+                        stmt.getExtDtaObjects() != null)
+                    break;
+                writeQRYDTA(stmt);
+            }
+        }
+        drdars.markReplySent(System.currentTimeMillis());
+    }
+
     /**
      * This routine places some data into the current QRYDTA block using
      * FDODTA (Formatted Data Object DaTA rules).
@@ -8675,6 +8740,46 @@ class DRDAConnThread extends Thread {
                                           this, codePoint,
                                           CodePoint.PRCCNVCD_RDBNAM_MISMATCH);
     }
+    /**
+     * Hand the current session to the server's session selector if the
+     * client has nothing more buffered for us to read, so that this thread
+     * can serve other sessions while the client is idle.
+     * <p>
+     * Only sessions with an accessed database are parked. The connect
+     * handshake, XA transactions, deferred resets and pending statement
+     * timeouts keep state in this thread across chains.
+     *
+     * @return true if the session was parked and this thread no longer
+     *         owns it
+     */
+    private boolean parkIdleSession() throws DRDAProtocolException
+    {
+        if (session == null || session.state != Session.CHKSEC ||
+                database == null || database.getConnection() == null ||
+                appRequester == null || appRequester.isXARequester() ||
+                deferredReset || pendingStatementTimeout >= 0 ||
+                reader.hasBufferedData() || !server.canParkSession(session))
+            return false;
+        // Clients usually send their next chain right away; only hand the
+        // session over once it has been idle for a while.
+        int grace = server.getParkIdleSessionsAfter();
+        if (grace > 0 && reader.awaitData(session.clientSocket, grace))
+            return false;
+
+        session.threadState = new ThreadState(this);
+        if (!server.parkSession(session)) {
+            session.threadState = null;
+            return false;
+        }
+
+        session = null;
+        database = null;
+        appRequester = null;
+        sockis = null;
+        sockos = null;
+        return true;
+    }
+
     /**
      * Close the current session
      */
@@ -9463,4 +9568,68 @@ class DRDAConnThread extends Thread {
         }
     }
 
+
+    /**
+     * What a connection thread keeps about the session it serves, besides
+     * the <code>Session</code> itself: the protocol levels negotiated at
+     * connect time and what later requests may refer back to. It moves with
+     * the session when another thread picks the session up.
+     */
+    static final class ThreadState
+    {
+        private final int sqlamLevel;
+        private final byte diagnosticLevel;
+        private final boolean sendWarningsOnCNTQRY;
+        private final Pkgnamcsn prevPkgnamcsn;
+        private final byte[] rdbnam;
+        private final byte[] rdbcolid;
+        private final byte[] pkgid;
+        private final byte[] pkgcnstkn;
+        private final int pkgsn;
+        private final byte[] myPublicKey;
+        private final byte[] myTargetSeed;
+        private final GSSContext gssContext;
+        private final User user;
+
+        ThreadState(DRDAConnThread thread)
+        {
+            sqlamLevel = thread.sqlamLevel;
+            diagnosticLevel = thread.diagnosticLevel;
+            sendWarningsOnCNTQRY = thread.sendWarningsOnCNTQRY;
+            prevPkgnamcsn = thread.prevPkgnamcsn;
+            rdbnam = copyOf(thread.rdbnam);
+            rdbcolid = copyOf(thread.rdbcolid);
+            pkgid = copyOf(thread.pkgid);
+            pkgcnstkn = copyOf(thread.pkgcnstkn);
+            pkgsn = thread.pkgsn;
+            myPublicKey = thread.myPublicKey;
+            myTargetSeed = thread.myTargetSeed;
+            gssContext = thread.gssContext;
+            user = thread.user;
+        }
+
+        void restore(DRDAConnThread thread)
+        {
+            thread.sqlamLevel = sqlamLevel;
+            thread.diagnosticLevel = diagnosticLevel;
+            thread.sendWarningsOnCNTQRY = sendWarningsOnCNTQRY;
+            thread.prevPkgnamcsn = prevPkgnamcsn;
+            thread.rdbnam.setBytes(rdbnam, 0, rdbnam.length);
+            thread.rdbcolid.setBytes(rdbcolid, 0, rdbcolid.length);
+            thread.pkgid.setBytes(pkgid, 0, pkgid.length);
+            thread.pkgcnstkn.setBytes(pkgcnstkn, 0, pkgcnstkn.length);
+            thread.pkgsn = pkgsn;
+            thread.myPublicKey = myPublicKey;
+            thread.myTargetSeed = myTargetSeed;
+            thread.gssContext = gssContext;
+            thread.user = user;
+        }
+
+        private static byte[] copyOf(DRDAString s)
+        {
+            byte[] bytes = new byte[s.length()];
+            System.arraycopy(s.getBytes(), 0, bytes, 0, bytes.length);
+            return bytes;
+        }
+    }
 }
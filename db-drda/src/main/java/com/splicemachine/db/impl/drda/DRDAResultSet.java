@@ -97,6 +97,12 @@ class DRDAResultSet
 
 	protected ConsistencyToken pkgcnstkn; // Unique consistency token for ResultSet 0
 
+	// Adaptive prefetch of extra query blocks on CNTQRY
+	private static final int MAX_PREFETCH_DEPTH = 16;
+	private static final long PREFETCH_WINDOW_MILLIS = 1000;
+	private int prefetchDepth;			// extra blocks sent with the last reply
+	private long lastReplyTime;			// when the last reply was written
+
 	// splitQRYDTA is normally null. If it is non-null, it means that
 	// the last QRYDTA response which was sent for this statement was
 	// split according to the LMTBLKPRC protocol, and this array contains
@@ -398,6 +404,42 @@ class DRDAResultSet
 		rsExtPositions = null;
 		pkgcnstkn = null;
 		splitQRYDTA = null;	
+		prefetchDepth = 0;
+		lastReplyTime = 0;
+	}
+
+	/**
+	 * Get the number of extra query blocks to send with the reply to a
+	 * CNTQRY. A client which asks for more data shortly after the previous
+	 * reply is consuming the cursor as fast as it can, so the depth doubles
+	 * with every such request, up to MAX_PREFETCH_DEPTH and MAXBLKEXT. A
+	 * client which pauses between requests goes back to a single block.
+	 *
+	 * @param now current time in milliseconds
+	 * @return number of extra query blocks
+	 */
+	protected int nextPrefetchDepth(long now)
+	{
+		if (lastReplyTime != 0 && now - lastReplyTime <= PREFETCH_WINDOW_MILLIS)
+			prefetchDepth = (prefetchDepth == 0) ? 1 :
+				Math.min(prefetchDepth * 2, MAX_PREFETCH_DEPTH);
+		else
+			prefetchDepth = 0;
+		// MAXBLKEXT of -1 means no limit
+		if (maxblkext >= 0)
+			prefetchDepth = Math.min(prefetchDepth, maxblkext);
+		return prefetchDepth;
+	}
+
+	/**
+	 * Note that a reply with query data has been written for this
+	 * result set.
+	 *
+	 * @param now current time in milliseconds
+	 */
+	protected void markReplySent(long now)
+	{
+		lastReplyTime = now;
 	}
 
 
@@ -62,9 +62,11 @@ import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 import java.io.*;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.charset.Charset;
 import java.security.*;
 import java.sql.Connection;
@@ -260,6 +262,9 @@ public final class NetworkServerControlImpl {
 										// and changing timeSlice
 
 	private boolean keepAlive = true;   // keepAlive value for client socket 
+	private boolean parkIdleSessions;	// hand idle sessions to sessionSelector
+	private int parkIdleSessionsAfter = 500;	// ms a session must be idle to be parked
+	private boolean compressQueryData = true;	// LZ4 query data for clients that read it
 	private int minPoolSize;			//minimum pool size for pooled connections
 	private int maxPoolSize;			//maximum pool size for pooled connections
 	private Object poolSync = new Object();	// object to use for syning reading
@@ -307,6 +312,13 @@ public final class NetworkServerControlImpl {
 	// number of DRDAConnThreads waiting for something to do
 	private int freeThreads;
 
+	// object to use for syncing the scheduling of sessions onto threads
+	private final Object scheduleSync = new Object();
+
+	// watches idle sessions, null unless parkIdleSessions is set and the
+	// listener socket supports it
+	private SessionSelector sessionSelector;
+
 	// known application requesters
 	private Hashtable appRequesterTable = new Hashtable();
 
@@ -670,6 +682,13 @@ public final class NetworkServerControlImpl {
 		switch (getSSLMode()) {
 		case SSL_OFF:
 		default:
+			if (parkIdleSessions) {
+				// Sockets accepted from a channel can be handed to the
+				// session selector while their session is idle.
+				ServerSocketChannel ssc = ServerSocketChannel.open();
+				ssc.socket().bind(new InetSocketAddress(hostAddress, portNumber), 0);
+				return ssc.socket();
+			}
 			ServerSocketFactory sf =
 				ServerSocketFactory.getDefault();
 			return sf.createServerSocket(portNumber
@@ -788,6 +807,19 @@ public final class NetworkServerControlImpl {
                             NetworkServerMBean.class,
                             "type=NetworkServer");
 
+		if (serverSocket.getChannel() != null) {
+			sessionSelector = new SessionSelector(new SessionSelector.Scheduler() {
+				public void scheduleSession(Session session) {
+					NetworkServerControlImpl.this.scheduleSession(session);
+				}
+
+				public void failed(Throwable t) {
+					consoleExceptionPrintTrace(t);
+				}
+			});
+			sessionSelector.start();
+		}
+
 		// We accept clients on a separate thread so we don't run into a problem
 		// blocking on the accept when trying to process a shutdown
 		final ClientThread clientThread =	 
@@ -834,6 +866,10 @@ public final class NetworkServerControlImpl {
 	        	consolePrintAndIgnore("DRDA_UnexpectedException.S", exception, true);
 	        }
 			
+	 		// Stop watching idle sessions; they are closed below with the rest
+	 		if (sessionSelector != null)
+	 			sessionSelector.close();
+
 	 		// Close out the sessions
 	 		synchronized(sessionTable) {
 	 			for (Enumeration e = sessionTable.elements(); e.hasMoreElements(); )
@@ -3074,6 +3110,23 @@ public final class NetworkServerControlImpl {
 			StringUtil.SQLEqualsIgnoreCase(propval,"false"))
 			keepAlive = false;
 		
+		propval = PropertyUtil.getSystemProperty(
+			Property.DRDA_PROP_PARK_IDLE_SESSIONS);
+		if (propval != null &&
+			StringUtil.SQLEqualsIgnoreCase(propval,"true"))
+			parkIdleSessions = true;
+
+		propval = PropertyUtil.getSystemProperty(
+			Property.DRDA_PROP_PARK_IDLE_SESSIONS_AFTER);
+		if (propval != null)
+			parkIdleSessionsAfter = getIntPropVal(Property.DRDA_PROP_PARK_IDLE_SESSIONS_AFTER, propval);
+
+		propval = PropertyUtil.getSystemProperty(
+			Property.DRDA_PROP_COMPRESS_QUERY_DATA);
+		if (propval != null &&
+			StringUtil.SQLEqualsIgnoreCase(propval,"false"))
+			compressQueryData = false;
+
 		propval = PropertyUtil.getSystemProperty( 
 			Property.DRDA_PROP_HOSTNAME);
 		if (propval != null){
@@ -3687,6 +3740,15 @@ public final class NetworkServerControlImpl {
 		return keepAlive;
 	}
 
+	/**
+	 * Get whether query data may be LZ4 compressed for clients that
+	 * announce they can read it
+	 */
+	protected boolean getCompressQueryData()
+	{
+		return compressQueryData;
+	}
+
 	/**
 	 * Get the current value of minimum number of threads to create at start
 	 *
@@ -3881,6 +3943,9 @@ public final class NetworkServerControlImpl {
 		retval.put(Property.DRDA_PROP_PORTNUMBER, new Integer(portNumber).toString());
 		retval.put(Property.DRDA_PROP_HOSTNAME, hostArg);
 		retval.put(Property.DRDA_PROP_KEEPALIVE, new Boolean(keepAlive).toString());
+		retval.put(Property.DRDA_PROP_PARK_IDLE_SESSIONS, Boolean.toString(parkIdleSessions));
+		retval.put(Property.DRDA_PROP_PARK_IDLE_SESSIONS_AFTER, Integer.toString(parkIdleSessionsAfter));
+		retval.put(Property.DRDA_PROP_COMPRESS_QUERY_DATA, Boolean.toString(compressQueryData));
 
 		String tracedir = getTraceDirectory();
 		if (tracedir != null)
@@ -3954,43 +4019,89 @@ public final class NetworkServerControlImpl {
 
 		sessionTable.put(new Integer(connectionNumber), session);
 
-		// Check whether there are enough free threads to service all the
-		// threads in the run queue in addition to the newly added session.
-		boolean enoughThreads;
-		synchronized (runQueue) {
-			enoughThreads = (runQueue.size() < freeThreads);
-		}
-		// No need to hold the synchronization on runQueue any longer than
-		// this. Since no other threads can make runQueue grow, and no other
-		// threads will reduce the number of free threads without removing
-		// sessions from runQueue, (runQueue.size() < freeThreads) cannot go
-		// from true to false until addSession() returns.
-
-		DRDAConnThread thread = null;
-
-		// try to start a new thread if we don't have enough free threads
-		if (!enoughThreads) {
-			// Synchronize on threadsSync to ensure that the value of
-			// maxThreads doesn't change until the new thread is added to
-			// threadList.
-			synchronized (threadsSync) {
-				// only start a new thread if we have no maximum number of
-				// threads or the maximum number of threads is not exceeded
-				if ((maxThreads == 0) || (threadList.size() < maxThreads)) {
-					thread = new DRDAConnThread(session, this, getTimeSlice(),
-												getLogConnections());
-					threadList.add(thread);
-					thread.start();
+		scheduleSession(session);
+	}
+
+	/**
+	 * Hand a session to a <code>DRDAConnThread</code>. Put the session into
+	 * the run queue, and start a new thread if there are more sessions
+	 * waiting than there are free threads and the maximum number of threads
+	 * is not exceeded. Used for newly accepted sessions and for sessions
+	 * resumed by the session selector.
+	 *
+	 * @param session the session that has work to do
+	 */
+	void scheduleSession(Session session) {
+		// Both ClientThread and the session selector schedule sessions, so
+		// serialize them to keep the free thread check below accurate.
+		synchronized (scheduleSync) {
+			// Check whether there are enough free threads to service all the
+			// threads in the run queue in addition to this session.
+			boolean enoughThreads;
+			synchronized (runQueue) {
+				enoughThreads = (runQueue.size() < freeThreads);
+			}
+			// No need to hold the synchronization on runQueue any longer than
+			// this. Since no other threads can make runQueue grow, and no other
+			// threads will reduce the number of free threads without removing
+			// sessions from runQueue, (runQueue.size() < freeThreads) cannot go
+			// from true to false until we leave scheduleSync.
+
+			DRDAConnThread thread = null;
+
+			// try to start a new thread if we don't have enough free threads
+			if (!enoughThreads) {
+				// Synchronize on threadsSync to ensure that the value of
+				// maxThreads doesn't change until the new thread is added to
+				// threadList.
+				synchronized (threadsSync) {
+					// only start a new thread if we have no maximum number of
+					// threads or the maximum number of threads is not exceeded
+					if ((maxThreads == 0) || (threadList.size() < maxThreads)) {
+						thread = new DRDAConnThread(session, this, getTimeSlice(),
+													getLogConnections());
+						threadList.add(thread);
+						thread.start();
+					}
 				}
 			}
-		}
 
-		// add the session to the run queue if we didn't start a new thread
-		if (thread == null) {
-			runQueueAdd(session);
+			// add the session to the run queue if we didn't start a new thread
+			if (thread == null) {
+				runQueueAdd(session);
+			}
 		}
 	}
 
+	/**
+	 * Park an idle session - for use by <code>DRDAConnThread</code> once it
+	 * has answered a request chain and the client has sent nothing more.
+	 *
+	 * @param session the session, owned by the calling thread
+	 * @return true if the session was handed to the session selector and
+	 *         the calling thread should move on to other work
+	 */
+	boolean parkSession(Session session) {
+		SessionSelector selector = sessionSelector;
+		return selector != null && !shutdown && selector.park(session);
+	}
+
+	/**
+	 * @return true if the session could be parked, i.e. idle sessions are
+	 *         parked and its socket can be watched by the session selector
+	 */
+	boolean canParkSession(Session session) {
+		return sessionSelector != null && !shutdown &&
+			session.clientSocket.getChannel() != null;
+	}
+
+	/**
+	 * @return how many milliseconds a session must be idle to be parked
+	 */
+	int getParkIdleSessionsAfter() {
+		return parkIdleSessionsAfter;
+	}
+
 	/**
 	 * Remove a thread from the thread list. Should be called when a
 	 * <code>DRDAConnThread</code> has been closed.
@@ -4076,6 +4187,11 @@ public final class NetworkServerControlImpl {
     int getRunQueueSize() {
         return runQueue.size();
     }
+
+    int getParkedSessions() {
+        SessionSelector selector = sessionSelector;
+        return selector == null ? 0 : selector.getParkedCount();
+    }
     
     int getThreadListSize() {
         return threadList.size();
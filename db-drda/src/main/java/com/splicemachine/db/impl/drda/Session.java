@@ -79,11 +79,15 @@ class Session
 	protected int qryinsid;				// unique identifier for each query
 	protected LocalizedResource langUtil;		// localization information for command session
 										// client
+	protected DRDAConnThread.ThreadState threadState;	// left by the thread that served
+										// the session before, if any
 
 	private	Hashtable	dbtable;		// Table of databases accessed in this session
 	private NetworkServerControlImpl nsctrl;        // NetworkServerControlImpl needed for logging
                                                         // message if tracing fails.
         private boolean enableOutboundCompression;
+	// client announced that it reads LZ4 compressed QRYDTA and extra query blocks
+	private boolean lz4QueryData;
 
 	private RemoteUser remoteUser;
 
@@ -96,6 +100,16 @@ class Session
  	{
  		enableOutboundCompression = enable;
  	}
+
+	protected boolean canReadLz4QueryData()
+	{
+		return lz4QueryData;
+	}
+
+	protected void enableLz4QueryData(boolean enable)
+	{
+		lz4QueryData = enable;
+	}
                                                         
 
 	// constructor
@@ -302,6 +316,7 @@ class Session
 		state = INIT;
 
                 enableOutboundCompression = false;
+		lz4QueryData = false;
 	}
 
 	protected  String buildRuntimeInfo(String indent, LocalizedResource localLangUtil)
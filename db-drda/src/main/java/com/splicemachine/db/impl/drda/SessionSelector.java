@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.drda;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Watches the sockets of idle sessions so that they don't tie up a
+ * <code>DRDAConnThread</code> while the client has nothing to say.
+ * <p>
+ * A connection thread parks a session once it has answered a request chain
+ * and no further input is buffered. The socket is switched to non-blocking
+ * mode and registered for reads on a single selector. When the client sends
+ * its next request (or goes away), the key is cancelled, the socket is
+ * switched back to blocking mode and the session is handed back to the
+ * server to be scheduled like a newly accepted one.
+ * <p>
+ * Only sessions whose socket has a channel can be parked, i.e. sockets
+ * accepted from a <code>ServerSocketChannel</code>. SSL sockets never do.
+ */
+final class SessionSelector extends Thread {
+
+    /**
+     * Where resumed sessions go; the network server, outside of tests.
+     */
+    interface Scheduler {
+        /**
+         * Hand a session whose client has sent more data, or gone away, to
+         * a connection thread.
+         */
+        void scheduleSession(Session session);
+
+        /**
+         * Report an unexpected failure of the selector.
+         */
+        void failed(Throwable t);
+    }
+
+    private final Scheduler scheduler;
+    private final Selector selector;
+    // sessions waiting to be registered by the selector thread
+    private final ConcurrentLinkedQueue<Session> pending = new ConcurrentLinkedQueue<>();
+    // sessions handed to us and not yet handed back
+    private final AtomicInteger parkedCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    SessionSelector(Scheduler scheduler) throws IOException {
+        super();
+        NetworkServerControlImpl.setUniqueThreadName(this, "DRDASessionSelector");
+        setDaemon(true);
+        this.scheduler = scheduler;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Park a session until its client sends more data.
+     *
+     * @param session a session with no buffered input, owned by the calling
+     *                thread
+     * @return true if the session was parked, in which case the caller must
+     *         no longer touch it; false if it cannot be parked
+     */
+    boolean park(Session session) {
+        if (closed || session.clientSocket.getChannel() == null)
+            return false;
+        parkedCount.incrementAndGet();
+        pending.add(session);
+        selector.wakeup();
+        return true;
+    }
+
+    /**
+     * @return the number of sessions currently parked
+     */
+    int getParkedCount() {
+        return parkedCount.get();
+    }
+
+    /**
+     * Stop watching. Parked sessions are not resumed; the server closes
+     * them through its session table on shutdown.
+     */
+    void close() {
+        closed = true;
+        try {
+            selector.close();
+        } catch (IOException ioe) {
+            // ignore, we are shutting down
+        }
+    }
+
+    public void run() {
+        while (!closed) {
+            try {
+                registerPending();
+                selector.select();
+                if (closed)
+                    break;
+
+                List<Session> ready = new ArrayList<>();
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    key.cancel();
+                    ready.add((Session) key.attachment());
+                }
+                if (ready.isEmpty())
+                    continue;
+
+                // Cancelled keys are only deregistered by the next selection
+                // operation, and a channel cannot be put back into blocking
+                // mode while it is still registered.
+                selector.selectNow();
+                for (Session session : ready)
+                    resume(session);
+            } catch (ClosedSelectorException cse) {
+                break;
+            } catch (IOException ioe) {
+                scheduler.failed(ioe);
+            }
+        }
+    }
+
+    private void registerPending() {
+        Session session;
+        while ((session = pending.poll()) != null) {
+            SocketChannel channel = session.clientSocket.getChannel();
+            try {
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, session);
+            } catch (IOException ioe) {
+                // The client went away while the session was being parked.
+                // Hand it back so that a connection thread notices the
+                // disconnect and cleans the session up.
+                resume(session);
+            }
+        }
+    }
+
+    private void resume(Session session) {
+        parkedCount.decrementAndGet();
+        try {
+            session.clientSocket.getChannel().configureBlocking(true);
+        } catch (IOException ioe) {
+            // The channel is closed; the connection thread will see the
+            // failure on its first read.
+        }
+        try {
+            scheduler.scheduleSession(session);
+        } catch (Exception e) {
+            scheduler.failed(e);
+        }
+    }
+}
@@ -276,8 +276,8 @@ public interface NetworkServerMBean {
     
     /**
      * <p>
-     * Gets the total number of current connections (waiting or active) to the
-     * Network Server.</p>
+     * Gets the total number of current connections (waiting, active or idle)
+     * to the Network Server.</p>
      * <p>
      * Requires <code>SystemPermission("server", "monitor")</code> if a security
      * manager is installed.</p>
@@ -285,6 +285,7 @@ public interface NetworkServerMBean {
      * @return the number of current connections
      * @see #getActiveConnectionCount()
      * @see #getWaitingConnectionCount()
+     * @see #getIdleConnectionCount()
      */
     int getConnectionCount();
 
@@ -330,6 +331,20 @@ public interface NetworkServerMBean {
      * @see #getDrdaTimeSlice()
      */
     int getWaitingConnectionCount();
+
+    /**
+     * <p>
+     * Gets the number of connections that currently hold no connection
+     * thread because they are waiting for the client's next request. This
+     * number will always be 0 unless derby.drda.parkIdleSessions is true.</p>
+     * <p>
+     * Requires <code>SystemPermission("server", "monitor")</code> if a security
+     * manager is installed.</p>
+     *
+     * @return the number of idle connections
+     * @see #getActiveConnectionCount()
+     */
+    int getIdleConnectionCount();
     
     /**
      * <p>
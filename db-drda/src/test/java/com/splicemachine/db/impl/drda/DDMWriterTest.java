@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.drda;
+
+import com.splicemachine.db.iapi.reference.DRDAConstants;
+import com.splicemachine.db.shared.common.compression.LZ4BlockCodec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DDMWriterTest {
+
+    @Test
+    public void compressesQueryData() throws Exception {
+        byte[] data = rows(8000);
+        byte[] plain = writeDss(false, CodePoint.QRYDTA, data);
+        byte[] compressed = writeDss(true, CodePoint.QRYDTA, data);
+
+        Assert.assertEquals(0xD0, plain[2] & 0xFF);
+        Assert.assertEquals(DRDAConstants.GDS_ID_LZ4, compressed[2] & 0xFF);
+        Assert.assertEquals(compressed.length, dssLength(compressed));
+        Assert.assertTrue(compressed.length < plain.length / 4);
+        // the rest of the header is unchanged
+        Assert.assertArrayEquals(Arrays.copyOfRange(plain, 3, 6), Arrays.copyOfRange(compressed, 3, 6));
+
+        // the payload is the uncompressed length followed by the LZ4 block of the clear data
+        int clearLength = ((compressed[6] & 0xFF) << 24) | ((compressed[7] & 0xFF) << 16) |
+                ((compressed[8] & 0xFF) << 8) | (compressed[9] & 0xFF);
+        Assert.assertEquals(plain.length - 6, clearLength);
+        byte[] clear = new byte[clearLength];
+        LZ4BlockCodec.decompress(compressed, 10, compressed.length - 10, clear, 0, clearLength);
+        Assert.assertArrayEquals(Arrays.copyOfRange(plain, 6, plain.length), clear);
+    }
+
+    @Test
+    public void sendsIncompressibleQueryDataAsIs() throws Exception {
+        byte[] data = new byte[8000];
+        new Random(17).nextBytes(data);
+        Assert.assertArrayEquals(writeDss(false, CodePoint.QRYDTA, data), writeDss(true, CodePoint.QRYDTA, data));
+    }
+
+    @Test
+    public void compressesOnlyLargeQueryData() throws Exception {
+        byte[] small = rows(500);
+        Assert.assertArrayEquals(writeDss(false, CodePoint.QRYDTA, small), writeDss(true, CodePoint.QRYDTA, small));
+        byte[] large = rows(8000);
+        Assert.assertArrayEquals(writeDss(false, CodePoint.SQLCARD, large), writeDss(true, CodePoint.SQLCARD, large));
+    }
+
+    private static byte[] writeDss(boolean compressQueryData, int codePoint, byte[] data) {
+        DRDAConnThread agent = mock(DRDAConnThread.class);
+        when(agent.canCompressQueryData()).thenReturn(compressQueryData);
+        DDMWriter writer = new DDMWriter(agent, null);
+        writer.createDssObject();
+        writer.startDdm(codePoint);
+        writer.writeBytes(data);
+        writer.endDdmAndDss();
+        return writer.getBufferContents(0);
+    }
+
+    private static int dssLength(byte[] dss) {
+        return ((dss[0] & 0xFF) << 8) | (dss[1] & 0xFF);
+    }
+
+    // repetitive data, like rows of a result set
+    private static byte[] rows(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+            data[i] = (byte) (i % 40 < 8 ? i / 40 : 'a' + i % 40);
+        return data;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.drda;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DRDAResultSetTest {
+
+    @Test
+    public void prefetchDepthGrowsWhileClientKeepsUp() {
+        DRDAResultSet rs = new DRDAResultSet();
+        rs.maxblkext = -1;
+        long now = 10000;
+        // the first CNTQRY gets no extra blocks
+        Assert.assertEquals(0, rs.nextPrefetchDepth(now));
+        rs.markReplySent(now);
+
+        int[] expected = {1, 2, 4, 8, 16, 16};
+        for (int depth : expected) {
+            now += 100;
+            Assert.assertEquals(depth, rs.nextPrefetchDepth(now));
+            rs.markReplySent(now);
+        }
+    }
+
+    @Test
+    public void prefetchDepthDropsWhenClientPauses() {
+        DRDAResultSet rs = new DRDAResultSet();
+        rs.maxblkext = -1;
+        long now = 10000;
+        rs.nextPrefetchDepth(now);
+        rs.markReplySent(now);
+        for (int i = 0; i < 3; i++) {
+            now += 10;
+            rs.nextPrefetchDepth(now);
+            rs.markReplySent(now);
+        }
+
+        now += 5000;
+        Assert.assertEquals(0, rs.nextPrefetchDepth(now));
+        rs.markReplySent(now);
+        now += 10;
+        Assert.assertEquals(1, rs.nextPrefetchDepth(now));
+    }
+
+    @Test
+    public void prefetchDepthIsLimitedByMaxblkext() {
+        DRDAResultSet rs = new DRDAResultSet();
+        rs.maxblkext = 3;
+        long now = 10000;
+        rs.nextPrefetchDepth(now);
+        rs.markReplySent(now);
+        int[] expected = {1, 2, 3, 3};
+        for (int depth : expected) {
+            now += 10;
+            Assert.assertEquals(depth, rs.nextPrefetchDepth(now));
+            rs.markReplySent(now);
+        }
+
+        rs.maxblkext = 0;
+        now += 10;
+        Assert.assertEquals(0, rs.nextPrefetchDepth(now));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.drda;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class SessionSelectorTest {
+    private final BlockingQueue<Session> scheduled = new LinkedBlockingQueue<>();
+    private final List<Throwable> failures = new ArrayList<>();
+    private final List<Socket> sockets = new ArrayList<>();
+    private ServerSocketChannel listener;
+    private SessionSelector selector;
+
+    @Before
+    public void setUp() throws Exception {
+        listener = ServerSocketChannel.open();
+        listener.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        selector = new SessionSelector(new SessionSelector.Scheduler() {
+            @Override
+            public void scheduleSession(Session session) {
+                scheduled.add(session);
+            }
+
+            @Override
+            public void failed(Throwable t) {
+                synchronized (failures) {
+                    failures.add(t);
+                }
+            }
+        });
+        selector.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        selector.close();
+        selector.join(10000);
+        for (Socket socket : sockets)
+            socket.close();
+        listener.close();
+        synchronized (failures) {
+            Assert.assertTrue("Unexpected failures: " + failures, failures.isEmpty());
+        }
+    }
+
+    @Test
+    public void resumesWhenClientSendsData() throws Exception {
+        Socket client = connect();
+        Session session = accept();
+
+        Assert.assertTrue(selector.park(session));
+        Assert.assertEquals(1, selector.getParkedCount());
+        Assert.assertNull("Nothing was sent yet", scheduled.poll(100, TimeUnit.MILLISECONDS));
+
+        client.getOutputStream().write(42);
+        client.getOutputStream().flush();
+        Assert.assertSame(session, scheduled.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals(0, selector.getParkedCount());
+
+        // the session is handed back in blocking mode, with the data still unread
+        Assert.assertTrue(session.clientSocket.getChannel().isBlocking());
+        Assert.assertEquals(42, session.sessionInput.read());
+    }
+
+    @Test
+    public void resumesWhenClientGoesAway() throws Exception {
+        Socket client = connect();
+        Session session = accept();
+
+        Assert.assertTrue(selector.park(session));
+        client.close();
+        Assert.assertSame(session, scheduled.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals(-1, session.sessionInput.read());
+    }
+
+    @Test
+    public void resumesOnlySessionsWithData() throws Exception {
+        Socket idleClient = connect();
+        Session idle = accept();
+        Socket busyClient = connect();
+        Session busy = accept();
+
+        Assert.assertTrue(selector.park(idle));
+        Assert.assertTrue(selector.park(busy));
+        Assert.assertEquals(2, selector.getParkedCount());
+
+        busyClient.getOutputStream().write(1);
+        Assert.assertSame(busy, scheduled.poll(10, TimeUnit.SECONDS));
+        Assert.assertNull(scheduled.poll(100, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(1, selector.getParkedCount());
+
+        // a resumed session can be parked again
+        Assert.assertEquals(1, busy.sessionInput.read());
+        Assert.assertTrue(selector.park(busy));
+        idleClient.getOutputStream().write(2);
+        busyClient.getOutputStream().write(3);
+        List<Session> resumed = new ArrayList<>();
+        resumed.add(scheduled.poll(10, TimeUnit.SECONDS));
+        resumed.add(scheduled.poll(10, TimeUnit.SECONDS));
+        Assert.assertTrue(resumed.contains(idle));
+        Assert.assertTrue(resumed.contains(busy));
+        Assert.assertEquals(0, selector.getParkedCount());
+    }
+
+    @Test
+    public void socketsWithoutChannelAreNotParked() throws Exception {
+        try (ServerSocket plain = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            sockets.add(new Socket(plain.getInetAddress(), plain.getLocalPort()));
+            Socket accepted = plain.accept();
+            sockets.add(accepted);
+            Session session = new Session(null, 1, accepted, null, false);
+            Assert.assertFalse(selector.park(session));
+            Assert.assertEquals(0, selector.getParkedCount());
+        }
+    }
+
+    @Test
+    public void closedSelectorParksNothing() throws Exception {
+        connect();
+        Session session = accept();
+        selector.close();
+        Assert.assertFalse(selector.park(session));
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(listener.socket().getInetAddress(), listener.socket().getLocalPort());
+        sockets.add(socket);
+        return socket;
+    }
+
+    private Session accept() throws Exception {
+        SocketChannel channel = listener.accept();
+        sockets.add(channel.socket());
+        return new Session(null, sockets.size(), channel.socket(), null, false);
+    }
+}
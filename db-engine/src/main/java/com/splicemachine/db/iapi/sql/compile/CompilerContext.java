@@ -48,6 +48,7 @@ import com.splicemachine.db.iapi.types.DataTypeDescriptor;
 
 import com.splicemachine.db.iapi.store.access.StoreCostController;
 import com.splicemachine.db.iapi.store.access.SortCostController;
+import com.splicemachine.db.impl.sql.compile.LiteralSelectivityGuard;
 import com.splicemachine.db.impl.sql.compile.subquery.aggregate.AggregateSubqueryFlatteningVisitor;
 import com.splicemachine.system.SimpleSparkVersion;
 import com.splicemachine.system.SparkVersion;
@@ -710,4 +711,29 @@ public interface CompilerContext extends Context
     public boolean isSSQFlatteningForUpdateDisabled();
 
     public void setSSQFlatteningForUpdateDisabled(boolean onOff);
+
+    /**
+     * The guard recording selectivities derived from auto-parameterized literals,
+     * or null if the statement being compiled was not auto-parameterized.
+     */
+    public LiteralSelectivityGuard getLiteralSelectivityGuard();
+
+    public void setLiteralSelectivityGuard(LiteralSelectivityGuard guard);
+
+    /**
+     * When optimization of the statement being compiled started, in
+     * milliseconds, or 0 if it has not started. The optimizers measure the
+     * planning time budget from here.
+     */
+    public long getPlanningStartTime();
+
+    public void setPlanningStartTime(long startTime);
+
+    /**
+     * Whether an optimizer ran out of the planning time budget while
+     * compiling this statement.
+     */
+    public boolean isPlanningBudgetExceeded();
+
+    public void setPlanningBudgetExceeded(boolean exceeded);
 }
@@ -42,6 +42,8 @@ public enum OptimizerFlag{
     NEXT_ROUND(INFO),
     MAX_TIME_EXCEEDED(INFO),
     BEST_TIME_EXCEEDED(INFO),
+    PLANNING_BUDGET_EXCEEDED(INFO),
+    CACHED_JOIN_ORDER(INFO),
     NO_TABLES(INFO),
     COMPLETE_JOIN_ORDER(DEBUG),
     COST_OF_SORTING(TRACE),
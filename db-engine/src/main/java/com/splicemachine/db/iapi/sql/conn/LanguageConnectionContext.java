@@ -54,6 +54,7 @@ import com.splicemachine.db.iapi.sql.execute.CursorActivation;
 import com.splicemachine.db.iapi.sql.execute.ExecPreparedStatement;
 import com.splicemachine.db.iapi.sql.execute.ExecutionStmtValidator;
 import com.splicemachine.db.iapi.store.access.TransactionController;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.DataValueFactory;
 import com.splicemachine.db.impl.sql.execute.TriggerExecutionContext;
 import com.splicemachine.db.impl.sql.execute.TriggerExecutionStack;
@@ -1447,6 +1448,29 @@ public interface LanguageConnectionContext extends Context {
     CommentStripper getCommentStripper();
     boolean getIgnoreCommentOptEnabled();
 
+    /**
+     * @return true if literals in plain statements should be replaced by internal parameters
+     * before the statement cache lookup.
+     */
+    boolean getAutoParameterizeLiteralsEnabled();
+
+    /**
+     * Prepare a statement whose literals have been replaced by parameters, using the
+     * original literal values as parameter defaults for cost estimation when the
+     * statement has to be compiled.
+     *
+     * @param compilationSchema schema
+     * @param sqlText           the normalized statement text
+     * @param isForReadOnly     if the statement is opened with level CONCUR_READ_ONLY
+     * @param literals          the literal values removed from the original text
+     * @return the prepared statement, possibly shared with other literal values, or null if the
+     * normalized text cannot be used for these literals and the original text should be prepared
+     */
+    PreparedStatement prepareAutoParameterizedStatement(SchemaDescriptor compilationSchema,
+                                                        String sqlText,
+                                                        boolean isForReadOnly,
+                                                        DataValueDescriptor[] literals) throws StandardException;
+
     // True if the connecting client can read decimal
     // data with 38 digits of precision.
     boolean clientSupportsDecimal38();
@@ -53,7 +53,8 @@ public interface SessionProperties {
         SPARK_RESULT_STREAMING_BATCHES(9),
         SPARK_RESULT_STREAMING_BATCH_SIZE(10),
         TABLELIMITFOREXHAUSTIVESEARCH(11),
-        DISABLE_NLJ_PREDICATE_PUSH_DOWN(12);
+        DISABLE_NLJ_PREDICATE_PUSH_DOWN(12),
+        SHOWPLANNINGTIME(13);
 
         public static final int COUNT = PROPERTYNAME.values().length;
 
@@ -99,6 +100,7 @@ public interface SessionProperties {
             case SKIPSTATS:
             case DISABLE_TC_PUSHED_DOWN_INTO_VIEWS:
             case DISABLE_NLJ_PREDICATE_PUSH_DOWN:
+            case SHOWPLANNINGTIME:
                 try {
                     Boolean.parseBoolean(valString);
                 } catch (Exception e) {
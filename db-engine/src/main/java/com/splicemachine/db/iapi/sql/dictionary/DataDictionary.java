@@ -851,6 +851,18 @@ public interface DataDictionary{
     void deletePartitionStatistics(long conglomerate,
                                    TransactionController tc) throws StandardException;
 
+    /**
+     * Removes the Table and Column Statistics of a single partition from SYSTABLESTATS and SYSCOLUMNSTATS.
+     *
+     * @param conglomerate
+     * @param partitionId
+     * @param tc
+     * @throws StandardException
+     */
+    void deletePartitionStatistics(long conglomerate,
+                                   String partitionId,
+                                   TransactionController tc) throws StandardException;
+
 
     void clearCaches();
 
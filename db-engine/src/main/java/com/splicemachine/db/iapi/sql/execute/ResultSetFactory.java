@@ -2118,11 +2118,13 @@ public interface ResultSetFactory {
 
     NoPutResultSet getExplainResultSet(ResultSet source, Activation activation,
 									   int resultSetNumber, String sparkExplainKind,
-									   int noStatsTablesRef, int noStatsColumnsRef) throws StandardException;
+									   int noStatsTablesRef, int noStatsColumnsRef,
+									   long planningTime, boolean planningBudgetExceeded) throws StandardException;
 
     NoPutResultSet getExplainResultSet(NoPutResultSet source, Activation activation,
 									   int resultSetNumber, String sparkExplainKind,
-									   int noStatsTablesRef, int noStatsColumnsRef) throws StandardException;
+									   int noStatsTablesRef, int noStatsColumnsRef,
+									   long planningTime, boolean planningBudgetExceeded) throws StandardException;
 
     /**
      * Export
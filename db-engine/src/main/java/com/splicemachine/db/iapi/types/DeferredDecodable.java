@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.iapi.types;
+
+import com.splicemachine.db.iapi.error.StandardException;
+
+/**
+ * A DataValueDescriptor which can be bound to the encoded bytes of its value
+ * instead of holding the decoded value.
+ *
+ * When bound, the descriptor is non-null and keeps only a view over the source
+ * bytes; the {@link Decoder} is invoked the first time the value is actually read.
+ * Any subsequent set discards the binding, so the descriptor can be reused from row to row.
+ *
+ * The source array is <em>not</em> copied, so the caller must guarantee it is not
+ * modified until the descriptor is either read or re-bound.
+ */
+public interface DeferredDecodable {
+
+    interface Decoder {
+
+        /**
+         * Decode the bound bytes into {@code dvd}. Called at most once per binding.
+         */
+        void materialize(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException;
+    }
+
+    void bindDeferred(Decoder decoder, byte[] data, int offset, int length, boolean desc);
+
+    /**
+     * @return true if the value is still held in its encoded form.
+     */
+    boolean isDeferred();
+}
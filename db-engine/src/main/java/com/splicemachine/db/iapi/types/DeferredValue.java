@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.iapi.types;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.utils.ByteSlice;
+
+/**
+ * Binding state shared by the {@link DeferredDecodable} implementations. One instance is
+ * allocated per descriptor and re-bound for every row.
+ */
+final class DeferredValue {
+    private final ByteSlice slice = new ByteSlice();
+    private DeferredDecodable.Decoder decoder;
+    private boolean desc;
+
+    void bind(DeferredDecodable.Decoder decoder, byte[] data, int offset, int length, boolean desc) {
+        this.decoder = decoder;
+        this.desc = desc;
+        slice.set(data, offset, length);
+    }
+
+    boolean isBound() {
+        return decoder != null;
+    }
+
+    void discard() {
+        if (decoder == null) return;
+        decoder = null;
+        slice.reset();
+    }
+
+    /**
+     * Decode the bound bytes into {@code dvd}. The binding is released before decoding so that
+     * the setter invoked by the decoder does not see it.
+     */
+    void materialize(DataValueDescriptor dvd) throws StandardException {
+        DeferredDecodable.Decoder d = decoder;
+        byte[] data = slice.array();
+        int offset = slice.offset();
+        int length = slice.length();
+        discard();
+        d.materialize(dvd, data, offset, length, desc);
+    }
+}
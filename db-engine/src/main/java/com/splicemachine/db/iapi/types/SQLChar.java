@@ -94,7 +94,7 @@ import java.util.MissingResourceException;
  **/
 
 public class SQLChar
-    extends DataType implements StringDataValue, StreamStorable
+    extends DataType implements StringDataValue, StreamStorable, DeferredDecodable
 {
     private static Logger logger = Logger.getLogger(SQLChar.class);
     /**************************************************************************
@@ -189,6 +189,12 @@ public class SQLChar
     /* Locale info (for International support) */
     private LocaleFinder localeFinder;
 
+    /**
+     * The encoded value, when bound through {@link #bindDeferred}. Decoded into
+     * value on first read.
+     */
+    private transient DeferredValue deferred;
+
 
     /**************************************************************************
      * Constructors for This class:
@@ -287,6 +293,7 @@ public class SQLChar
      */
     public  char[]  getRawDataAndZeroIt()
     {
+        inflate();
         if ( rawData == null ) {
             if (value != null) {
                 return value.toCharArray(); // Needs to be hidden
@@ -657,6 +664,7 @@ public class SQLChar
      * Set this value to the on-disk format stream.
      */
     public void setStream(InputStream newStream) {
+        discardDeferred();
         this.value = null;
         this.rawLength = -1;
         this.stream = newStream;
@@ -716,6 +724,7 @@ public class SQLChar
      * @exception StandardException     Thrown on error
      */
     public int getLength() throws StandardException {
+        inflate();
         if ( _clobValue != null ) { return getClobLength(); }
         if (rawLength != -1)
             return rawLength;
@@ -775,6 +784,7 @@ public class SQLChar
      */
     public String getString() throws StandardException
     {
+        inflate();
         if (value == null) {
 
             int len = rawLength;
@@ -886,7 +896,48 @@ public class SQLChar
      */
     private boolean evaluateNull()
     {
-        return ((value == null) && (rawLength == -1) && (stream == null) && (_clobValue == null));
+        return ((value == null) && (rawLength == -1) && (stream == null) && (_clobValue == null) && !isDeferred());
+    }
+
+    @Override
+    public void bindDeferred(Decoder decoder, byte[] data, int offset, int length, boolean desc) {
+        if (deferred == null)
+            deferred = new DeferredValue();
+        value = null;
+        rawLength = -1;
+        stream = null;
+        _clobValue = null;
+        cKey = null;
+        deferred.bind(decoder, data, offset, length, desc);
+        isNull = false;
+    }
+
+    @Override
+    public boolean isDeferred() {
+        return deferred != null && deferred.isBound();
+    }
+
+    @Override
+    public boolean isLazy() {
+        return isDeferred();
+    }
+
+    /**
+     * Decode the bound bytes, if any, so that the fields of this class hold the value.
+     */
+    private void inflate() {
+        if (!isDeferred())
+            return;
+        try {
+            deferred.materialize(this);
+        } catch (StandardException se) {
+            throw new RuntimeException(se);
+        }
+    }
+
+    private void discardDeferred() {
+        if (deferred != null)
+            deferred.discard();
     }
 
     /**
@@ -940,6 +991,7 @@ public class SQLChar
 
     */
     public void writeExternal(ObjectOutput out) throws IOException {
+        inflate();
         out.writeBoolean(isNull);
 
         if (isNull()) {
@@ -1102,6 +1154,7 @@ public class SQLChar
 
     private void setRaw(char[] data, int length)
     {
+        discardDeferred();
         rawData = data;
         rawLength = length;
         isNull = evaluateNull();
@@ -1173,6 +1226,7 @@ public class SQLChar
      * Resets state after materializing value from an array.
      */
     private void resetForMaterialization() {
+        discardDeferred();
         value  = null;
         stream = null;
         cKey = null;
@@ -1180,6 +1234,7 @@ public class SQLChar
     }
 
     public void readExternal(ObjectInput in) throws IOException {
+        discardDeferred();
         isNull = in.readBoolean();
 
         if (isNull()) {
@@ -1408,6 +1463,7 @@ public class SQLChar
      */
     public void restoreToNull()
     {
+        discardDeferred();
         value = null;
         _clobValue = null;
         stream = null;
@@ -1555,6 +1611,7 @@ public class SQLChar
 
     public void setValue(Clob theValue)
     {
+        discardDeferred();
         stream = null;
         rawLength = -1;
         cKey = null;
@@ -1566,6 +1623,7 @@ public class SQLChar
 
     public void setValue(String theValue)
     {
+        discardDeferred();
         stream = null;
         rawLength = -1;
         cKey = null;
@@ -3210,6 +3268,7 @@ public class SQLChar
 
     public String toString()
     {
+        inflate();
         if (isNull()) {
             return "NULL";
         }
@@ -3366,6 +3425,7 @@ public class SQLChar
 
     public void copyState(SQLChar other)
     {
+        other.inflate();
         copyState
             (
              other.value,
@@ -3389,6 +3449,7 @@ public class SQLChar
          LocaleFinder otherLocaleFinder
          )
     {
+        discardDeferred();
         value = otherValue;
         rawData = otherRawData;
         rawLength = otherRawLength;
@@ -3467,6 +3528,7 @@ public class SQLChar
         if (row.isNullAt(ordinal))
             setToNull();
         else {
+            discardDeferred();
             isNull = false;
             value = row.getString(ordinal);
         }
@@ -3479,6 +3541,7 @@ public class SQLChar
 
 
     public void updateThetaSketch(UpdateSketch updateSketch) {
+        inflate();
         updateSketch.update(value);
     }
 
@@ -3487,6 +3550,7 @@ public class SQLChar
         if (sparkObject == null)
             setToNull();
         else {
+            discardDeferred();
             value = sparkObject.toString();
             setIsNull(false);
         }
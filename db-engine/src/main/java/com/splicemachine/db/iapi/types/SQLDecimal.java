@@ -71,7 +71,7 @@ import java.sql.Types;
  * when the value is null.
  *
  */
-public final class SQLDecimal extends NumberDataType implements VariableSizeDataValue
+public final class SQLDecimal extends NumberDataType implements VariableSizeDataValue, DeferredDecodable
 {
 	/**
 	 * object state.  Note that scale and precision are
@@ -107,6 +107,12 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 	*/
 	private int			rawScale;
 
+	/**
+		The encoded value, when bound through bindDeferred. Decoded
+		on first read, like rawData.
+	*/
+	private transient DeferredValue deferred;
+
     private static final int BASE_MEMORY_USAGE = ClassSize.estimateBaseFromCatalog( SQLDecimal.class);
     private static final int BIG_DECIMAL_MEMORY_USAGE = ClassSize.estimateBaseFromCatalog( BigDecimal.class);
 
@@ -287,6 +293,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 
 	public BigDecimal getBigDecimal()
 	{
+		inflate();
 		if (isNull())
 			return null;
 		if ((value == null) && (rawData != null))
@@ -380,7 +387,47 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 	 */
 	private boolean evaluateNull()
 	{
-		return (value == null) && (rawData == null);
+		return (value == null) && (rawData == null) && !isDeferred();
+	}
+
+	@Override
+	public void bindDeferred(Decoder decoder, byte[] data, int offset, int length, boolean desc)
+	{
+		if (deferred == null)
+			deferred = new DeferredValue();
+		value = null;
+		rawData = null;
+		deferred.bind(decoder, data, offset, length, desc);
+		isNull = false;
+	}
+
+	@Override
+	public boolean isDeferred()
+	{
+		return deferred != null && deferred.isBound();
+	}
+
+	@Override
+	public boolean isLazy()
+	{
+		return isDeferred();
+	}
+
+	private void inflate()
+	{
+		if (!isDeferred())
+			return;
+		try {
+			deferred.materialize(this);
+		} catch (StandardException se) {
+			throw new RuntimeException(se);
+		}
+	}
+
+	private void discardDeferred()
+	{
+		if (deferred != null)
+			deferred.discard();
 	}
 
 	/**
@@ -392,6 +439,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 	 *
 	 */
 	public void writeExternal(ObjectOutput out) throws IOException {
+		inflate();
         out.writeBoolean(isNull);
         if (isNull)
             return;
@@ -459,6 +507,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 
 		// clear the previous value to ensure that the
 		// rawData value will be used
+		discardDeferred();
 		value = null;
 
 		rawScale = in.readUnsignedByte();
@@ -484,6 +533,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 	{
 		// clear the previous value to ensure that the
 		// rawData value will be used
+		discardDeferred();
 		value = null;
 
 		rawScale = in.readUnsignedByte();
@@ -511,6 +561,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 	 */
 	public void restoreToNull()
 	{
+		discardDeferred();
 		value = null;
 		rawData = null;
 		isNull = true;
@@ -644,6 +695,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 	 */
 	public void setValue(long theValue)
 	{
+		discardDeferred();
 		value = BigDecimal.valueOf(theValue);
 		rawData = null;
 		isNull = evaluateNull();
@@ -717,6 +769,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 
 	private void setCoreValue(BigDecimal theValue)
 	{
+		discardDeferred();
 		value = theValue;
 		if (value !=null) {
 			precision = getValuePrecision();
@@ -727,6 +780,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 	}
 
 	private void setCoreValue(double theValue) {
+		discardDeferred();
 		value = new BigDecimal(Double.toString(theValue));
 		if (value !=null) {
 			precision = getValuePrecision();
@@ -1095,6 +1149,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 	 */
 	public int getDecimalValueScale()
 	{
+		inflate();
 		if (isNull())
 			return 0;
 
@@ -1168,6 +1223,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 		if (row.isNullAt(ordinal))
 			setToNull();
 		else {
+			discardDeferred();
 			isNull = false;
 			value = row.getDecimal(ordinal);
 		}
@@ -1222,6 +1278,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 	}
 
 	public void updateThetaSketch(UpdateSketch updateSketch) {
+		inflate();
 		updateSketch.update(this.value.toEngineeringString());
 	}
 
@@ -1230,6 +1287,7 @@ public final class SQLDecimal extends NumberDataType implements VariableSizeData
 		if (sparkObject == null)
 			setToNull();
 		else {
+			discardDeferred();
 			value = (BigDecimal) sparkObject; //
 			setIsNull(false);
 		}
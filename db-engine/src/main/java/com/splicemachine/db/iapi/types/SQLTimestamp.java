@@ -77,7 +77,7 @@ import java.util.GregorianCalendar;
  */
 
 public final class SQLTimestamp extends DataType
-						implements DateTimeDataValue
+						implements DateTimeDataValue, DeferredDecodable
 {
     static final int MAX_FRACTION_DIGITS = 9; // Only nanosecond resolution on conversion to/from strings
     static final int FRACTION_TO_NANO = 1; // 10**(9 - MAX_FRACTION_DIGITS)
@@ -100,6 +100,9 @@ public final class SQLTimestamp extends DataType
     private int	encodedDate;
 	private int	encodedTime;
 	private int	nanos;
+
+	/* The encoded value, when bound through bindDeferred. Decoded on first read. */
+	private transient DeferredValue deferred;
 	/*
 	** DataValueDescriptor interface
 	** (mostly implemented in DataType)
@@ -186,6 +189,7 @@ public final class SQLTimestamp extends DataType
 	 */
 	public Date	getDate( Calendar cal) throws StandardException
 	{
+		inflate();
 		if (isNull())
 			return null;
 
@@ -211,6 +215,7 @@ public final class SQLTimestamp extends DataType
 	 */
 	public Time	getTime( Calendar cal) throws StandardException
 	{
+		inflate();
 		if (isNull())
 			return null;
         
@@ -256,6 +261,7 @@ public final class SQLTimestamp extends DataType
 
 	*/
 	public void writeExternal(ObjectOutput out) throws IOException {
+		inflate();
 
 		out.writeBoolean(isNull);
 		/*
@@ -302,6 +308,7 @@ public final class SQLTimestamp extends DataType
 	/** @see DataValueDescriptor#cloneValue */
 	public DataValueDescriptor cloneValue(boolean forceMaterialization)
 	{
+		inflate();
 		// Call constructor with all of our info
 		if (isNull)
 			return new SQLTimestamp();
@@ -321,6 +328,7 @@ public final class SQLTimestamp extends DataType
 	 */
 	public void restoreToNull()
 	{
+		discardDeferred();
 		// clear numeric representation
 		encodedDate = 0;
 		encodedTime = 0;
@@ -348,6 +356,7 @@ public final class SQLTimestamp extends DataType
 	public int compare(DataValueDescriptor other)
 		throws StandardException
 	{
+		inflate();
 		/* Use compare method from dominant type, negating result
 		 * to reflect flipping of sides.
 		 */
@@ -391,6 +400,7 @@ public final class SQLTimestamp extends DataType
 		if (other instanceof SQLTimestamp)
 		{
 			SQLTimestamp st = (SQLTimestamp)other;
+			st.inflate();
 			otherEncodedDate= st.encodedDate;
 			otherEncodedTime= st.encodedTime;
 			otherNanos= st.nanos;
@@ -667,8 +677,9 @@ public final class SQLTimestamp extends DataType
 	protected void setFrom(DataValueDescriptor theValue) throws StandardException {
 
 		if (theValue instanceof SQLTimestamp) {
-			restoreToNull();
 			SQLTimestamp tvst = (SQLTimestamp) theValue;
+			tvst.inflate();
+			restoreToNull();
 			setValue(tvst.encodedDate, tvst.encodedTime, tvst.nanos);
         }
 		else
@@ -768,6 +779,7 @@ public final class SQLTimestamp extends DataType
 	public NumberDataValue getYear(NumberDataValue result)
 							throws StandardException
 	{
+		inflate();
         if (isNull()) {
             return nullValueInt();
         } else {    
@@ -783,6 +795,7 @@ public final class SQLTimestamp extends DataType
     public NumberDataValue getQuarter(NumberDataValue result)
         throws StandardException
     {
+        inflate();
         if (isNull()) {
             return nullValueInt();
         } else {
@@ -798,6 +811,7 @@ public final class SQLTimestamp extends DataType
 	public NumberDataValue getMonth(NumberDataValue result)
 							throws StandardException
 	{
+		inflate();
         if (isNull()) {
             return nullValueInt();
         } else {    
@@ -812,6 +826,7 @@ public final class SQLTimestamp extends DataType
 	 */
     public StringDataValue getMonthName(StringDataValue result)
         throws StandardException {
+        inflate();
         if (isNull()) {
             return new SQLVarchar();
         } else {
@@ -826,6 +841,7 @@ public final class SQLTimestamp extends DataType
      */
     public NumberDataValue getWeek(NumberDataValue result)
         throws StandardException {
+        inflate();
         if (isNull()) {
             return nullValueInt();
         } else {
@@ -840,6 +856,7 @@ public final class SQLTimestamp extends DataType
      */
     public NumberDataValue getWeekDay(NumberDataValue result)
         throws StandardException {
+        inflate();
         if (isNull()) {
             return nullValueInt();
         } else {
@@ -854,6 +871,7 @@ public final class SQLTimestamp extends DataType
 	 */
     public StringDataValue getWeekDayName(StringDataValue result)
         throws StandardException {
+        inflate();
         if (isNull()) {
             return new SQLVarchar();
         } else {
@@ -868,6 +886,7 @@ public final class SQLTimestamp extends DataType
      */
     public NumberDataValue getDayOfYear(NumberDataValue result)
         throws StandardException {
+        inflate();
         if (isNull()) {
             return nullValueInt();
         } else {
@@ -883,6 +902,7 @@ public final class SQLTimestamp extends DataType
 	public NumberDataValue getDate(NumberDataValue result)
 							throws StandardException
 	{
+		inflate();
         if (isNull()) {
             return nullValueInt();
         } else {    
@@ -898,6 +918,7 @@ public final class SQLTimestamp extends DataType
 	public NumberDataValue getHours(NumberDataValue result)
 							throws StandardException
 	{
+		inflate();
         if (isNull()) {
             return nullValueInt();
         } else {    
@@ -913,6 +934,7 @@ public final class SQLTimestamp extends DataType
 	public NumberDataValue getMinutes(NumberDataValue result)
 							throws StandardException
 	{
+		inflate();
         if (isNull()) {
             return nullValueInt();
         } else {    
@@ -928,6 +950,7 @@ public final class SQLTimestamp extends DataType
 	public NumberDataValue getSeconds(NumberDataValue source)
 							throws StandardException
 	{
+		inflate();
 		if (SanityManager.DEBUG)
 		{
 			SanityManager.ASSERT(source == null || source.isDoubleType(),
@@ -971,6 +994,7 @@ public final class SQLTimestamp extends DataType
 	 */
 	public int hashCode()
 	{
+		inflate();
 		if (isNull())
 		{
 			return 0;
@@ -993,7 +1017,48 @@ public final class SQLTimestamp extends DataType
 	 */
 	private boolean evaluateNull()
 	{
-		return (encodedDate == 0);
+		return (encodedDate == 0) && !isDeferred();
+	}
+
+	@Override
+	public void bindDeferred(Decoder decoder, byte[] data, int offset, int length, boolean desc)
+	{
+		if (deferred == null)
+			deferred = new DeferredValue();
+		encodedDate = 0;
+		encodedTime = 0;
+		nanos = 0;
+		deferred.bind(decoder, data, offset, length, desc);
+		isNull = false;
+	}
+
+	@Override
+	public boolean isDeferred()
+	{
+		return deferred != null && deferred.isBound();
+	}
+
+	@Override
+	public boolean isLazy()
+	{
+		return isDeferred();
+	}
+
+	private void inflate()
+	{
+		if (!isDeferred())
+			return;
+		try {
+			deferred.materialize(this);
+		} catch (StandardException se) {
+			throw new RuntimeException(se);
+		}
+	}
+
+	private void discardDeferred()
+	{
+		if (deferred != null)
+			deferred.discard();
 	}
 
 	/**
@@ -1004,6 +1069,7 @@ public final class SQLTimestamp extends DataType
 	 */
 	public Timestamp getTimestamp(java.util.Calendar cal)
 	{
+		inflate();
 		if (isNull())
 			return null;
 
@@ -1044,6 +1110,7 @@ public final class SQLTimestamp extends DataType
 	}
 
     public DateTime getDateTime() {
+        inflate();
 		return createDateTime();
     }
 
@@ -1606,6 +1673,7 @@ public final class SQLTimestamp extends DataType
 			setToNull();
 		else {
 			Timestamp ts = row.getTimestamp(ordinal);
+			discardDeferred();
 			setNumericTimestamp(ts,null);
 			isNull = false;
 		}
@@ -1619,6 +1687,7 @@ public final class SQLTimestamp extends DataType
 
 	@Override
 	public void updateThetaSketch(UpdateSketch updateSketch) {
+		inflate();
 		updateSketch.update(new int[]{encodedDate,encodedTime,nanos});
 	}
 
@@ -1632,7 +1701,7 @@ public final class SQLTimestamp extends DataType
 		}
 	}
 
-	public int getNanos() { return nanos; }
-	public int getEncodedDate() { return encodedDate; }
-	public int getEncodedTime() { return encodedTime; }
+	public int getNanos() { inflate(); return nanos; }
+	public int getEncodedDate() { inflate(); return encodedDate; }
+	public int getEncodedTime() { inflate(); return encodedTime; }
 }
@@ -40,7 +40,12 @@ import com.splicemachine.db.iapi.sql.ParameterValueSet;
 import com.splicemachine.db.iapi.sql.PreparedStatement;
 import com.splicemachine.db.iapi.sql.ResultSet;
 import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
+import com.splicemachine.db.iapi.types.DataTypeDescriptor;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLChar;
+import com.splicemachine.db.iapi.types.TypeId;
 import com.splicemachine.db.iapi.util.InterruptStatus;
+import com.splicemachine.db.impl.sql.LiteralParameterizer;
 
 import java.sql.SQLException;
 import java.sql.SQLWarning;
@@ -617,14 +622,18 @@ public class EmbedStatement extends ConnectionChild implements EngineStatement {
             SQLText = sql;
 
             try {
-                Activation activation;
+                Activation activation = null;
                 try {
-                    PreparedStatement preparedStatement = lcc.prepareInternalStatement
-                            (lcc.getDefaultSchema(), sql, resultSetConcurrency ==
-                                    java.sql.ResultSet.CONCUR_READ_ONLY, false);
-                    activation =
-                            preparedStatement.getActivation(lcc, resultSetType ==
-                                    java.sql.ResultSet.TYPE_SCROLL_INSENSITIVE);
+                    if (lcc.getAutoParameterizeLiteralsEnabled())
+                        activation = getAutoParameterizedActivation(sql);
+                    if (activation == null) {
+                        PreparedStatement preparedStatement = lcc.prepareInternalStatement
+                                (lcc.getDefaultSchema(), sql, resultSetConcurrency ==
+                                        java.sql.ResultSet.CONCUR_READ_ONLY, false);
+                        activation =
+                                preparedStatement.getActivation(lcc, resultSetType ==
+                                        java.sql.ResultSet.TYPE_SCROLL_INSENSITIVE);
+                    }
                     checkRequiresCallableStatement(activation);
                     InterruptStatus.restoreIntrFlagIfSeen(lcc);
                 } catch (Throwable t) {
@@ -1527,6 +1536,78 @@ public class EmbedStatement extends ConnectionChild implements EngineStatement {
             throw sqle;
     }
 
+    /**
+     * Get an activation for {@code sql} from the plan shared by all statements that differ
+     * from it only in the literals they compare against, with those literals bound as
+     * parameters.
+     *
+     * A literal is only replaced when the parameter takes a type of the same family: the
+     * literal text may compare through a conversion, e.g. a VARCHAR column against a number
+     * compares as DOUBLE, which a parameter of the column's type would not.
+     *
+     * @return the activation, or null if the statement does not qualify or the shared plan
+     * cannot represent its literal values exactly, in which case the original text should
+     * be compiled
+     */
+    private Activation getAutoParameterizedActivation(String sql) throws StandardException {
+        LiteralParameterizer.Result normalized = LiteralParameterizer.parameterize(sql);
+        while (normalized != null) {
+            DataValueDescriptor[] literals = normalized.getLiterals();
+            PreparedStatement preparedStatement = lcc.prepareAutoParameterizedStatement
+                    (lcc.getDefaultSchema(), normalized.getText(), resultSetConcurrency ==
+                            java.sql.ResultSet.CONCUR_READ_ONLY, literals);
+            if (preparedStatement == null)
+                return null;
+            DataTypeDescriptor[] types = preparedStatement.getParameterTypes();
+            if (types == null || types.length != literals.length)
+                return null;
+
+            boolean[] replace = new boolean[literals.length];
+            boolean allReplaced = true;
+            for (int i = 0; i < literals.length; i++) {
+                replace[i] = isSameTypeFamily(literals[i], types[i]);
+                allReplaced &= replace[i];
+            }
+            if (!allReplaced) {
+                // leave the other literals in the text, it is a different statement then
+                normalized = normalized.retain(replace);
+                continue;
+            }
+
+            Activation activation = preparedStatement.getActivation(lcc, resultSetType ==
+                    java.sql.ResultSet.TYPE_SCROLL_INSENSITIVE);
+            ParameterValueSet pvs = activation.getParameterValueSet();
+            try {
+                for (int i = 0; i < literals.length; i++) {
+                    // the parameter takes the type of the other operand, so the literal must
+                    // survive conversion to it unchanged for the shared plan to be equivalent
+                    DataValueDescriptor param = pvs.getParameterForSet(i);
+                    DataValueDescriptor value = types[i].normalize(literals[i], param);
+                    if (value != param)
+                        param.setValue(value);
+                    if (param.compare(literals[i]) != 0) {
+                        activation.close();
+                        return null;
+                    }
+                }
+            } catch (StandardException se) {
+                activation.close();
+                return null;
+            }
+            return activation;
+        }
+        return null;
+    }
+
+    private static boolean isSameTypeFamily(DataValueDescriptor literal, DataTypeDescriptor type) {
+        if (type == null)
+            return false;
+        TypeId typeId = type.getTypeId();
+        if (literal instanceof SQLChar)
+            return typeId.isStringTypeId() && !typeId.isLOBTypeId();
+        return typeId.isNumericTypeId();
+    }
+
     /**
      * Check to see if a statement requires to be executed via a callable statement.
      */
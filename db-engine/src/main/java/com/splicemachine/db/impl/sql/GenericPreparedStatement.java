@@ -59,6 +59,7 @@ import com.splicemachine.db.iapi.types.DataTypeDescriptor;
 import com.splicemachine.db.iapi.util.ByteArray;
 import com.splicemachine.db.impl.sql.catalog.DataDictionaryCache;
 import com.splicemachine.db.impl.sql.compile.CursorNode;
+import com.splicemachine.db.impl.sql.compile.LiteralSelectivityGuard;
 import com.splicemachine.db.impl.sql.compile.StatementNode;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -162,6 +163,9 @@ public class GenericPreparedStatement implements ExecPreparedStatement {
     private boolean hasXPlainTableOrProcedure;
 
     private DataSetProcessorType datasetProcessorType;
+
+    /* Selectivities the plan was costed with, when compiled from auto-parameterized literals. */
+    private volatile LiteralSelectivityGuard literalSelectivityGuard;
     //
     // constructors
     //
@@ -1135,4 +1139,12 @@ public class GenericPreparedStatement implements ExecPreparedStatement {
     public void setDatasetProcessorType(DataSetProcessorType datasetProcessorType) {
         this.datasetProcessorType = datasetProcessorType;
     }
+
+    public LiteralSelectivityGuard getLiteralSelectivityGuard() {
+        return literalSelectivityGuard;
+    }
+
+    public void setLiteralSelectivityGuard(LiteralSelectivityGuard literalSelectivityGuard) {
+        this.literalSelectivityGuard = literalSelectivityGuard;
+    }
 }
@@ -46,10 +46,12 @@ import com.splicemachine.db.iapi.sql.depend.Dependency;
 import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
 import com.splicemachine.db.iapi.sql.dictionary.SchemaDescriptor;
 import com.splicemachine.db.iapi.sql.execute.ExecutionContext;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.util.ByteArray;
 import com.splicemachine.db.iapi.util.InterruptStatus;
 import com.splicemachine.db.impl.ast.JsonTreeBuilderVisitor;
 import com.splicemachine.db.impl.sql.compile.ExplainNode;
+import com.splicemachine.db.impl.sql.compile.LiteralSelectivityGuard;
 import com.splicemachine.db.impl.sql.compile.StatementNode;
 import com.splicemachine.db.impl.sql.conn.GenericLanguageConnectionContext;
 import com.splicemachine.db.impl.sql.misc.CommentStripper;
@@ -83,6 +85,8 @@ public class GenericStatement implements Statement{
     private GenericStorablePreparedStatement preparedStmt;
     private String sessionPropertyValues = "null";
     private final String statementTextTrimed;
+    // literal values replaced by parameters when this statement was auto-parameterized
+    private DataValueDescriptor[] literalDefaults;
 
     /**
      * Constructor for a Statement given the text of the statement in a String
@@ -169,6 +173,25 @@ public class GenericStatement implements Statement{
         }
     }
 
+    /**
+     * Prepare an auto-parameterized statement. If the statement has to be compiled, the literal
+     * values it was derived from are used as parameter defaults so that the optimizer costs the
+     * plan as it would for the original text.
+     *
+     * @param literals the literal values replaced by parameters, in parameter order
+     * @return the prepared statement, or null if a cached plan exists but was costed for literals
+     * whose selectivity differs too much from {@code literals}
+     */
+    public PreparedStatement prepareWithLiteralDefaults(LanguageConnectionContext lcc,
+                                                        DataValueDescriptor[] literals) throws StandardException{
+        this.literalDefaults=literals;
+        GenericPreparedStatement ps=(GenericPreparedStatement)prepare(lcc);
+        LiteralSelectivityGuard guard=ps.getLiteralSelectivityGuard();
+        if(guard!=null && !guard.isCompiledWith(literals) && !guard.isStable(lcc,literals))
+            return null;
+        return ps;
+    }
+
     /**
      * Generates an execution plan given a set of named parameters.
      * Does so for a storable prepared statement.
@@ -258,6 +281,9 @@ public class GenericStatement implements Statement{
                                          SchemaDescriptor spsSchema,
                                          boolean internalSQL) throws StandardException{
 
+        if(paramDefaults==null)
+            paramDefaults=literalDefaults;
+
         /*
          * An array holding timestamps for various points in time. The order is
          *
@@ -414,6 +440,9 @@ public class GenericStatement implements Statement{
             ** call a noop.
             */
             CompilerContext cc=lcc.pushCompilerContext(compilationSchema);
+            if(literalDefaults!=null && paramDefaults==literalDefaults){
+                cc.setLiteralSelectivityGuard(new LiteralSelectivityGuard(literalDefaults));
+            }
 
             if(prepareIsolationLevel!=ExecutionContext.UNSPECIFIED_ISOLATION_LEVEL){
                 cc.setScanIsolationLevel(prepareIsolationLevel);
@@ -637,7 +666,7 @@ public class GenericStatement implements Statement{
 
             DataDictionary dataDictionary = lcc.getDataDictionary();
 
-            bindAndOptimize(lcc, timestamps, foundInCache, qt, dataDictionary);
+            bindAndOptimize(lcc, timestamps, foundInCache, qt, dataDictionary, cc);
 
             /* we need to move the commit of nested sub-transaction
              * after we mark PS valid, during compilation, we might need
@@ -650,6 +679,11 @@ public class GenericStatement implements Statement{
              */
             generate(lcc, timestamps, cc, qt);
 
+            LiteralSelectivityGuard guard = cc.getLiteralSelectivityGuard();
+            if (guard != null)
+                guard.compiled();
+            preparedStmt.setLiteralSelectivityGuard(guard == null || guard.isEmpty() ? null : guard);
+
             saveTree(qt, CompilationPhase.AFTER_GENERATE);
 
             lcc.logEndCompiling(getSource(), System.nanoTime() - startTime);
@@ -687,7 +721,8 @@ public class GenericStatement implements Statement{
                                  long[] timestamps,
                                  boolean foundInCache,
                                  StatementNode qt,
-                                 DataDictionary dataDictionary) throws StandardException{
+                                 DataDictionary dataDictionary,
+                                 CompilerContext cc) throws StandardException{
 
         try{
             // start a nested transaction -- all locks acquired by bind
@@ -747,7 +782,11 @@ public class GenericStatement implements Statement{
             if(foundInCache && qt instanceof ExplainNode){
                 ((GenericLanguageConnectionContext)lcc).removeStatement(this);
             }
+            long planningStarted=System.currentTimeMillis();
+            cc.setPlanningStartTime(planningStarted);
             qt.optimizeStatement();
+            dataDictionary.getDataDictionaryCache().getPlanningStatistics()
+                    .record(System.currentTimeMillis()-planningStarted,cc.isPlanningBudgetExceeded());
             dumpOptimizedTree(lcc,qt,false);
             timestamps[3]=getCurrentTimeMillis(lcc);
 
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLChar;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLDouble;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Rewrites the text of a plain SELECT, UPDATE or DELETE statement so that the numeric and
+ * character literals it compares against become parameters, e.g.
+ * <pre>
+ *     select * from t where a = 10 and b &lt; 'x'   =&gt;   select * from t where a = ? and b &lt; ?
+ * </pre>
+ * Statements differing only in such literals then share a single statement cache entry.
+ *
+ * The rewrite is deliberately conservative: a literal is only replaced when it is the complete
+ * right hand side of a comparison (optionally signed) and is followed by the end of the
+ * statement, a closing parenthesis, a comma or a clause keyword, so the parameter type can
+ * always be inferred from the other operand. Statements which already contain parameters,
+ * and anything the tokenizer does not understand, are left alone.
+ */
+public final class LiteralParameterizer {
+
+    private static final Set<String> STATEMENT_KEYWORDS = new HashSet<>(Arrays.asList(
+            "SELECT", "UPDATE", "DELETE", "WITH"));
+
+    private static final Set<String> COMPARISONS = new HashSet<>(Arrays.asList(
+            "=", "<>", "!=", "<", ">", "<=", ">="));
+
+    private static final Set<String> FOLLOWING_KEYWORDS = new HashSet<>(Arrays.asList(
+            "AND", "OR", "THEN", "ELSE", "END", "WHEN", "WHERE", "ORDER", "GROUP", "HAVING",
+            "UNION", "EXCEPT", "INTERSECT", "FETCH", "OFFSET", "LIMIT", "FOR", "WITH"));
+
+    private LiteralParameterizer() {
+    }
+
+    /**
+     * The outcome of a successful rewrite.
+     */
+    public static final class Result {
+        private final String sql;
+        private final String text;
+        private final DataValueDescriptor[] literals;
+        // where each literal, with its sign, is in the original statement
+        private final int[] starts;
+        private final int[] ends;
+
+        Result(String sql, String text, DataValueDescriptor[] literals, int[] starts, int[] ends) {
+            this.sql = sql;
+            this.text = text;
+            this.literals = literals;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        /** @return the statement text with literals replaced by {@code ?} */
+        public String getText() {
+            return text;
+        }
+
+        /** @return the replaced literal values, in parameter order */
+        public DataValueDescriptor[] getLiterals() {
+            return literals;
+        }
+
+        /**
+         * @param replace which of the literals to replace by parameters, in parameter order
+         * @return the rewrite with the other literals left in place, or null if none is replaced
+         */
+        public Result retain(boolean[] replace) {
+            StringBuilder retainedText = new StringBuilder(sql.length());
+            List<DataValueDescriptor> retained = new ArrayList<>(literals.length);
+            List<Integer> positions = new ArrayList<>(literals.length);
+            int copied = 0;
+            for (int i = 0; i < literals.length; i++) {
+                if (!replace[i])
+                    continue;
+                retainedText.append(sql, copied, starts[i]).append('?');
+                copied = ends[i];
+                retained.add(literals[i]);
+                positions.add(i);
+            }
+            if (retained.isEmpty())
+                return null;
+            retainedText.append(sql, copied, sql.length());
+            int[] retainedStarts = new int[positions.size()];
+            int[] retainedEnds = new int[positions.size()];
+            for (int i = 0; i < retainedStarts.length; i++) {
+                retainedStarts[i] = starts[positions.get(i)];
+                retainedEnds[i] = ends[positions.get(i)];
+            }
+            return new Result(sql, retainedText.toString(),
+                    retained.toArray(new DataValueDescriptor[retained.size()]), retainedStarts, retainedEnds);
+        }
+    }
+
+    private enum Kind { WORD, NUMBER, STRING, OPERATOR, PUNCTUATION }
+
+    private static final class Token {
+        final Kind kind;
+        final int start;
+        final int end;
+        final String text;
+
+        Token(Kind kind, int start, int end, String text) {
+            this.kind = kind;
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+
+        boolean is(String s) {
+            return kind != Kind.STRING && text.equals(s);
+        }
+    }
+
+    /**
+     * @param sql the statement text
+     * @return the rewritten statement, or null if the statement does not qualify or has no
+     * literal that can be replaced
+     */
+    public static Result parameterize(String sql) {
+        List<Token> tokens = tokenize(sql);
+        if (tokens == null || tokens.isEmpty())
+            return null;
+        Token first = tokens.get(0);
+        if (first.kind != Kind.WORD || !STATEMENT_KEYWORDS.contains(first.text))
+            return null;
+
+        StringBuilder text = new StringBuilder(sql.length());
+        List<DataValueDescriptor> literals = new ArrayList<>();
+        List<int[]> positions = new ArrayList<>();
+        int copied = 0;
+        try {
+            for (int i = 1; i < tokens.size(); i++) {
+                Token t = tokens.get(i);
+                if (t.kind != Kind.NUMBER && t.kind != Kind.STRING)
+                    continue;
+                int opIndex = i - 1;
+                boolean negative = false;
+                Token prev = tokens.get(opIndex);
+                if (t.kind == Kind.NUMBER && (prev.is("-") || prev.is("+"))) {
+                    negative = prev.is("-");
+                    opIndex--;
+                }
+                if (opIndex < 1 || !COMPARISONS.contains(tokens.get(opIndex).text)
+                        || tokens.get(opIndex).kind != Kind.OPERATOR)
+                    continue;
+                if (i + 1 < tokens.size() && !isLiteralBoundary(tokens.get(i + 1)))
+                    continue;
+
+                int literalStart = tokens.get(opIndex + 1).start;
+                literals.add(t.kind == Kind.STRING ? new SQLChar(t.text) : numericLiteral(t.text, negative));
+                text.append(sql, copied, literalStart).append('?');
+                positions.add(new int[]{literalStart, t.end});
+                copied = t.end;
+            }
+        } catch (StandardException | NumberFormatException e) {
+            return null;
+        }
+        if (literals.isEmpty())
+            return null;
+        text.append(sql, copied, sql.length());
+        int[] starts = new int[positions.size()];
+        int[] ends = new int[positions.size()];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = positions.get(i)[0];
+            ends[i] = positions.get(i)[1];
+        }
+        return new Result(sql, text.toString(), literals.toArray(new DataValueDescriptor[literals.size()]), starts, ends);
+    }
+
+    private static boolean isLiteralBoundary(Token next) {
+        if (next.kind == Kind.PUNCTUATION)
+            return next.is(")") || next.is(",");
+        return next.kind == Kind.WORD && FOLLOWING_KEYWORDS.contains(next.text);
+    }
+
+    /*
+     * Type the literal the way the parser would: INTEGER or BIGINT when it fits, otherwise
+     * DECIMAL, and DOUBLE for the exponent form.
+     */
+    private static DataValueDescriptor numericLiteral(String text, boolean negative) throws StandardException {
+        String signed = negative ? "-" + text : text;
+        if (text.indexOf('E') >= 0 || text.indexOf('e') >= 0)
+            return new SQLDouble(Double.parseDouble(signed));
+        if (text.indexOf('.') < 0) {
+            try {
+                return new SQLInteger(Integer.parseInt(signed));
+            } catch (NumberFormatException ignored) {
+                // too large for an INTEGER
+            }
+            try {
+                return new SQLLongint(Long.parseLong(signed));
+            } catch (NumberFormatException ignored) {
+                // too large for a BIGINT
+            }
+        }
+        return new SQLDecimal(new BigDecimal(signed));
+    }
+
+    /**
+     * Split the statement into tokens, dropping whitespace and comments.
+     *
+     * @return the tokens, or null if the statement contains a parameter or text that is not
+     * understood
+     */
+    private static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                while (i < n && sql.charAt(i) != '\n' && sql.charAt(i) != '\r')
+                    i++;
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                if (end < 0)
+                    return null;
+                i = end + 2;
+            } else if (c == '\'') {
+                StringBuilder value = new StringBuilder();
+                int j = i + 1;
+                for (;;) {
+                    if (j >= n)
+                        return null;
+                    char d = sql.charAt(j);
+                    if (d == '\'') {
+                        if (j + 1 < n && sql.charAt(j + 1) == '\'') {
+                            value.append('\'');
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    value.append(d);
+                    j++;
+                }
+                tokens.add(new Token(Kind.STRING, i, j + 1, value.toString()));
+                i = j + 1;
+            } else if (c == '"') {
+                int j = i + 1;
+                for (;;) {
+                    if (j >= n)
+                        return null;
+                    if (sql.charAt(j) == '"') {
+                        if (j + 1 < n && sql.charAt(j + 1) == '"') {
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                tokens.add(new Token(Kind.WORD, i, j + 1, sql.substring(i, j + 1)));
+                i = j + 1;
+            } else if (isDigit(c) || (c == '.' && i + 1 < n && isDigit(sql.charAt(i + 1)))) {
+                int j = i;
+                while (j < n && isDigit(sql.charAt(j)))
+                    j++;
+                if (j < n && sql.charAt(j) == '.') {
+                    j++;
+                    while (j < n && isDigit(sql.charAt(j)))
+                        j++;
+                }
+                if (j < n && (sql.charAt(j) == 'e' || sql.charAt(j) == 'E')) {
+                    int k = j + 1;
+                    if (k < n && (sql.charAt(k) == '+' || sql.charAt(k) == '-'))
+                        k++;
+                    if (k >= n || !isDigit(sql.charAt(k)))
+                        return null;
+                    j = k;
+                    while (j < n && isDigit(sql.charAt(j)))
+                        j++;
+                }
+                if (j < n && (Character.isLetterOrDigit(sql.charAt(j)) || sql.charAt(j) == '_' || sql.charAt(j) == '.'))
+                    return null;
+                tokens.add(new Token(Kind.NUMBER, i, j, sql.substring(i, j)));
+                i = j;
+            } else if (Character.isLetter(c) || c == '_') {
+                int j = i + 1;
+                while (j < n && (Character.isLetterOrDigit(sql.charAt(j)) || sql.charAt(j) == '_' || sql.charAt(j) == '$'))
+                    j++;
+                tokens.add(new Token(Kind.WORD, i, j, sql.substring(i, j).toUpperCase(Locale.ENGLISH)));
+                i = j;
+            } else if (c == '?') {
+                return null;
+            } else if (c == '<' || c == '>' || c == '!' || c == '=') {
+                int j = i + 1;
+                if (j < n && (sql.charAt(j) == '=' || (c == '<' && sql.charAt(j) == '>')))
+                    j++;
+                tokens.add(new Token(Kind.OPERATOR, i, j, sql.substring(i, j)));
+                i = j;
+            } else if (c == '(' || c == ')' || c == ',' || c == ';' || c == '.') {
+                tokens.add(new Token(Kind.PUNCTUATION, i, i + 1, String.valueOf(c)));
+                i++;
+            } else {
+                tokens.add(new Token(Kind.OPERATOR, i, i + 1, String.valueOf(c)));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
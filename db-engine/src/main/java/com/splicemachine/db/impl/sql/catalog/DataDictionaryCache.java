@@ -89,11 +89,13 @@ public class DataDictionaryCache {
     private ManagedCache<ByteSlice,TokenDescriptor> tokenCache;
     private ManagedCache<String, Optional<String>> propertyCache;
     private ManagedCache<Long, Optional<String>> catalogVersionCache;
+    private ManagedCache<String, int[]> joinOrderCache;
+    private final PlanningStatistics planningStatistics = new PlanningStatistics();
     private DataDictionary dd;
     @SuppressFBWarnings(value = "MS_PKGPROTECT", justification = "DB-9844")
     private static final String [] cacheNames = new String[] {"oidTdCache", "nameTdCache", "spsNameCache", "sequenceGeneratorCache", "permissionsCache", "partitionStatisticsCache",
             "storedPreparedStatementCache", "conglomerateCache", "statementCache", "schemaCache", "aliasDescriptorCache", "roleCache", "defaultRoleCache", "roleGrantCache",
-            "tokenCache", "propertyCache", "conglomerateDescriptorCache", "oldSchemaCache", "catalogVersionCache", "txnAwareConglomerateCache"};
+            "tokenCache", "propertyCache", "conglomerateDescriptorCache", "oldSchemaCache", "catalogVersionCache", "txnAwareConglomerateCache", "joinOrderCache"};
 
     public static List<String> getCacheNames() {
         return Collections.unmodifiableList(Arrays.asList(cacheNames));
@@ -144,6 +146,8 @@ public class DataDictionaryCache {
                 Property.LANG_PROPERTY_CACHE_SIZE_DEFAULT);
         int catalogVersionCacheSize = getCacheSize(startParams, Property.LANG_PROPERTY_CACHE_SIZE,
                 Property.LANG_PROPERTY_CACHE_SIZE_DEFAULT);
+        int joinOrderCacheSize = getCacheSize(startParams, Property.LANG_JOIN_ORDER_CACHE_SIZE,
+                Property.LANG_JOIN_ORDER_CACHE_SIZE_DEFAULT);
 
         RemovalListener<Object,Dependent> dependentInvalidator = new RemovalListener<Object, Dependent>() {
             @Override
@@ -194,6 +198,8 @@ public class DataDictionaryCache {
                 (propertyCacheSize).build(), propertyCacheSize);
         catalogVersionCache = new ManagedCache<>(CacheBuilder.newBuilder().recordStats().maximumSize
                 (catalogVersionCacheSize).build(), catalogVersionCacheSize);
+        joinOrderCache = new ManagedCache<>(CacheBuilder.newBuilder().recordStats().maximumSize
+                (joinOrderCacheSize).build(), joinOrderCacheSize);
         this.dd = dd;
     }
 
@@ -507,6 +513,7 @@ public class DataDictionaryCache {
         aliasDescriptorCache.invalidateAll();
         catalogVersionCache.invalidateAll();
         txnAwareConglomerateCache.invalidateAll();
+        joinOrderCache.invalidateAll();
     }
 
     public void clearAliasCache() {
@@ -728,6 +735,39 @@ public class DataDictionaryCache {
         conglomerateDescriptorCache.invalidate(conglomId);
     }
 
+    /**
+     * Find the best join order remembered for a join graph.
+     *
+     * @param joinGraphKey normalized join graph, see JoinOrderSignature
+     * @return the join order over the canonical positions of the key,
+     *         or null
+     */
+    public int[] joinOrderCacheFind(String joinGraphKey) throws StandardException {
+        if (!dd.canReadCache(null))
+            return null;
+        if (LOG.isDebugEnabled())
+            LOG.debug("joinOrderCacheFind " + joinGraphKey);
+        return joinOrderCache.getIfPresent(joinGraphKey);
+    }
+
+    public void joinOrderCacheAdd(String joinGraphKey, int[] joinOrder) throws StandardException {
+        if (!dd.canWriteCache(null))
+            return;
+        if (LOG.isDebugEnabled())
+            LOG.debug("joinOrderCacheAdd " + joinGraphKey + " : " + Arrays.toString(joinOrder));
+        joinOrderCache.put(joinGraphKey, joinOrder);
+    }
+
+    public void clearJoinOrderCache() {
+        if (LOG.isDebugEnabled())
+            LOG.debug("clearJoinOrderCache");
+        joinOrderCache.invalidateAll();
+    }
+
+    public PlanningStatistics getPlanningStatistics() {
+        return planningStatistics;
+    }
+
     @MXBean
     @SuppressWarnings("UnusedDeclaration")
     public interface DataDictionaryCacheIFace {
@@ -738,7 +778,7 @@ public class DataDictionaryCache {
         try{
             ManagedCache [] mc = new ManagedCache[] {oidTdCache, nameTdCache, spsNameCache, sequenceGeneratorCache, permissionsCache, partitionStatisticsCache, storedPreparedStatementCache,
                     conglomerateCache, statementCache, schemaCache, aliasDescriptorCache, roleCache, defaultRoleCache, roleGrantCache, tokenCache, propertyCache, conglomerateDescriptorCache,
-                    oidSchemaCache, catalogVersionCache, txnAwareConglomerateCache};
+                    oidSchemaCache, catalogVersionCache, txnAwareConglomerateCache, joinOrderCache};
             //Passing in objects from mc array and names of objects from cacheNames array (static above)
             for(int i = 0; i < mc.length; i++){
                 ObjectName cacheName = new ObjectName("com.splicemachine.db.impl.sql.catalog:type="+cacheNames[i]);
@@ -747,6 +787,8 @@ public class DataDictionaryCache {
             ObjectName totCache = new ObjectName("com.splicemachine.db.impl.sql.catalog:type=TotalManagedCache");
             TotalManagedCache tm = new TotalManagedCache(Arrays.asList(mc));
             mbs.registerMBean(tm, totCache);
+            ObjectName planning = new ObjectName("com.splicemachine.db.impl.sql.catalog:type=PlanningStatistics");
+            mbs.registerMBean(planningStatistics, planning);
         }catch(InstanceAlreadyExistsException ignored){
             /*
              * For most purposes, this should never happen. However, it's possible to happen
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.db.impl.sql.catalog;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time spent optimizing statements of one database, and how often the
+ * planning time budget ran out.
+ */
+public class PlanningStatistics implements PlanningStatisticsMBean {
+
+    private final AtomicLong plannedStatementCount = new AtomicLong();
+    private final AtomicLong totalPlanningTime = new AtomicLong();
+    private final AtomicLong maxPlanningTime = new AtomicLong();
+    private final AtomicLong budgetExceededCount = new AtomicLong();
+
+    public void record(long planningTimeMillis, boolean budgetExceeded) {
+        plannedStatementCount.incrementAndGet();
+        totalPlanningTime.addAndGet(planningTimeMillis);
+        long max;
+        while ((max = maxPlanningTime.get()) < planningTimeMillis
+                && !maxPlanningTime.compareAndSet(max, planningTimeMillis)) {
+        }
+        if (budgetExceeded)
+            budgetExceededCount.incrementAndGet();
+    }
+
+    @Override public long getPlannedStatementCount(){ return plannedStatementCount.get(); }
+    @Override public long getTotalPlanningTimeMillis(){ return totalPlanningTime.get(); }
+    @Override public long getMaxPlanningTimeMillis(){ return maxPlanningTime.get(); }
+    @Override public long getBudgetExceededCount(){ return budgetExceededCount.get(); }
+
+    @Override
+    public double getAveragePlanningTimeMillis(){
+        long count = plannedStatementCount.get();
+        return count > 0 ? ((totalPlanningTime.get()*1.0)/count) : 0;
+    }
+
+    @Override
+    public void reset(){
+        plannedStatementCount.set(0);
+        totalPlanningTime.set(0);
+        maxPlanningTime.set(0);
+        budgetExceededCount.set(0);
+    }
+}
@@ -141,6 +141,9 @@ public class CompilerContextImpl extends ContextImpl
         nextOJLevel = 1;
         outerJoinFlatteningDisabled = false;
         ssqFlatteningForUpdateDisabled = false;
+        literalSelectivityGuard = null;
+        planningStartTime = 0;
+        planningBudgetExceeded = false;
     }
 
     //
@@ -300,6 +303,30 @@ public class CompilerContextImpl extends ContextImpl
         ssqFlatteningForUpdateDisabled = onOff;
     }
 
+    public LiteralSelectivityGuard getLiteralSelectivityGuard() {
+        return literalSelectivityGuard;
+    }
+
+    public void setLiteralSelectivityGuard(LiteralSelectivityGuard guard) {
+        literalSelectivityGuard = guard;
+    }
+
+    public long getPlanningStartTime() {
+        return planningStartTime;
+    }
+
+    public void setPlanningStartTime(long startTime) {
+        planningStartTime = startTime;
+    }
+
+    public boolean isPlanningBudgetExceeded() {
+        return planningBudgetExceeded;
+    }
+
+    public void setPlanningBudgetExceeded(boolean exceeded) {
+        planningBudgetExceeded = exceeded;
+    }
+
     /**
      * Get the current next subquery number from this CompilerContext.
      *
@@ -568,6 +595,8 @@ public class CompilerContextImpl extends ContextImpl
 
         /* Put it in the array */
         storeCostControllers.put(pairedKey, retval);
+        if (literalSelectivityGuard != null)
+            literalSelectivityGuard.costControllerOpened(retval, td, cd, skipStats, defaultRowCount);
 
         return retval;
     }
@@ -1161,6 +1190,9 @@ public class CompilerContextImpl extends ContextImpl
     private int                 nextOJLevel = 1;
     private boolean             outerJoinFlatteningDisabled;
     private boolean             ssqFlatteningForUpdateDisabled;
+    private LiteralSelectivityGuard literalSelectivityGuard;
+    private long                planningStartTime;
+    private boolean             planningBudgetExceeded;
     /**
      * Saved execution time default schema, if we need to change it
      * temporarily.
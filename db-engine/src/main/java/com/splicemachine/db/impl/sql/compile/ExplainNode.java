@@ -38,8 +38,10 @@ import com.splicemachine.db.iapi.services.compiler.MethodBuilder;
 import com.splicemachine.db.iapi.services.io.FormatableArrayHolder;
 import com.splicemachine.db.iapi.sql.ResultColumnDescriptor;
 import com.splicemachine.db.iapi.sql.ResultDescription;
+import com.splicemachine.db.iapi.sql.compile.CompilerContext;
 import com.splicemachine.db.iapi.sql.compile.DataSetProcessorType;
 import com.splicemachine.db.iapi.sql.compile.Visitor;
+import com.splicemachine.db.iapi.sql.conn.SessionProperties;
 import com.splicemachine.db.iapi.sql.dictionary.TableDescriptor;
 import com.splicemachine.db.iapi.sql.execute.ConstantAction;
 import com.splicemachine.db.iapi.types.DataTypeDescriptor;
@@ -61,6 +63,10 @@ public class ExplainNode extends DMLStatementNode {
     StatementNode node;
     private SparkExplainKind sparkExplainKind;
     private boolean showNoStatsObjects;
+    // time spent optimizing the statement, for the plan text if the showPlanningTime session property is set
+    private boolean showPlanningTime;
+    private long planningTime;
+    private boolean planningBudgetExceeded;
 
     private final List<SQLVarchar> noStatsTables  = new ArrayList<>();
     private final List<SQLVarchar> noStatsColumns = new ArrayList<>();
@@ -114,7 +120,13 @@ public class ExplainNode extends DMLStatementNode {
         if (sparkExplainKind != SparkExplainKind.NONE) {
             getCompilerContext().setDataSetProcessorType(DataSetProcessorType.FORCED_SPARK);
         }
+        CompilerContext cc = getCompilerContext();
+        long planningStarted = cc.getPlanningStartTime() > 0 ? cc.getPlanningStartTime() : System.currentTimeMillis();
         node.optimizeStatement();
+        planningTime = System.currentTimeMillis() - planningStarted;
+        planningBudgetExceeded = cc.isPlanningBudgetExceeded();
+        showPlanningTime = Boolean.TRUE.equals(getLanguageConnectionContext().getSessionProperties()
+                .getProperty(SessionProperties.PROPERTYNAME.SHOWPLANNINGTIME));
 
         // collect tables and columns that are missing statistics only for splice explain
         // showNoStatsObjects == false for all kinds of spark explain
@@ -144,8 +156,10 @@ public class ExplainNode extends DMLStatementNode {
 
         int noStatsColumnsRef = acb.addItem(new FormatableArrayHolder(noStatsColumns.toArray()));
         mb.push(noStatsColumnsRef);
+        mb.push(showPlanningTime ? planningTime : -1L);
+        mb.push(planningBudgetExceeded);
 
-        mb.callMethod(VMOpcode.INVOKEINTERFACE,null, "getExplainResultSet", ClassName.NoPutResultSet, 6);
+        mb.callMethod(VMOpcode.INVOKEINTERFACE,null, "getExplainResultSet", ClassName.NoPutResultSet, 8);
     }
 
     @Override
@@ -3279,7 +3279,7 @@ public class FromBaseTable extends FromTable {
     private boolean gotRowCount=false;
     private long rowCount=0;
 
-    private long baseRowCount() throws StandardException{
+    long baseRowCount() throws StandardException{
         if(!gotRowCount){
             StoreCostController scc=getBaseCostController();
             rowCount=scc.getEstimatedRowCount();
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.compile;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.compile.Optimizable;
+import com.splicemachine.db.iapi.sql.compile.OptimizableList;
+import com.splicemachine.db.iapi.sql.compile.OptimizablePredicateList;
+import com.splicemachine.db.iapi.util.JBitSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Normalized description of the join graph of an {@link OptimizerImpl}, used as
+ * the key of the join order cache in the data dictionary cache.
+ *
+ * The optimizables are put in a canonical order by their signature: table id and
+ * row count from the current statistics for base tables, node type for anything
+ * else. Predicates joining several optimizables become edges between canonical
+ * positions. Statements joining the same tables the same way, with unchanged
+ * statistics, get the same key whatever the order of their FROM lists, and join
+ * orders are remembered over canonical positions so that they can be mapped back
+ * onto either list.
+ *
+ * The key is only a hint. Self joins and derived tables can map different graphs
+ * onto the same key; the optimizer checks a seeded join order for legality and
+ * keeps searching from it.
+ */
+class JoinOrderSignature {
+    private final String key;
+    // optimizable list index of each canonical position
+    private final int[] listIndex;
+
+    private JoinOrderSignature(String key, int[] listIndex) {
+        this.key = key;
+        this.listIndex = listIndex;
+    }
+
+    static JoinOrderSignature build(OptimizableList optimizables,
+                                    OptimizablePredicateList predicates) throws StandardException {
+        int size = optimizables.size();
+        final String[] signatures = new String[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            signatures[i] = signatureOf(optimizables.getOptimizable(i));
+            order[i] = i;
+        }
+        // stable, so equal signatures keep their list order
+        Arrays.sort(order, Comparator.comparing((Integer i) -> signatures[i]));
+
+        int[] listIndex = new int[size];
+        StringBuilder sb = new StringBuilder();
+        for (int pos = 0; pos < size; pos++) {
+            listIndex[pos] = order[pos];
+            sb.append(signatures[order[pos]]).append(',');
+        }
+
+        if (predicates != null) {
+            List<String> edges = new ArrayList<>();
+            for (int p = 0; p < predicates.size(); p++) {
+                JBitSet referenced = predicates.getOptPredicate(p).getReferencedMap();
+                if (referenced == null)
+                    continue;
+                StringBuilder edge = new StringBuilder();
+                int joined = 0;
+                for (int pos = 0; pos < size; pos++) {
+                    JBitSet tables = optimizables.getOptimizable(listIndex[pos]).getReferencedTableMap();
+                    if (tables != null && tables.intersects(referenced)) {
+                        edge.append(joined++ == 0 ? "" : "-").append(pos);
+                    }
+                }
+                if (joined > 1)
+                    edges.add(edge.toString());
+            }
+            Collections.sort(edges);
+            sb.append(edges);
+        }
+        return new JoinOrderSignature(sb.toString(), listIndex);
+    }
+
+    private static String signatureOf(Optimizable optimizable) throws StandardException {
+        ResultSetNode node = (ResultSetNode) optimizable;
+        while (node instanceof ProjectRestrictNode)
+            node = ((ProjectRestrictNode) node).getChildResult();
+        if (node instanceof FromBaseTable) {
+            FromBaseTable table = (FromBaseTable) node;
+            return table.getTableDescriptor().getUUID() + "/" + table.baseRowCount();
+        }
+        JBitSet tables = optimizable.getReferencedTableMap();
+        return node.getClass().getSimpleName() + "/" + (tables == null ? 0 : tables.cardinality());
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the given join order of list indexes as canonical positions
+     */
+    int[] toCanonical(int[] joinOrder) {
+        int[] canonicalPosition = new int[listIndex.length];
+        for (int pos = 0; pos < listIndex.length; pos++)
+            canonicalPosition[listIndex[pos]] = pos;
+        int[] canonical = new int[joinOrder.length];
+        for (int i = 0; i < joinOrder.length; i++)
+            canonical[i] = canonicalPosition[joinOrder[i]];
+        return canonical;
+    }
+
+    /**
+     * @return the given join order of canonical positions as list indexes,
+     *         or null if it is not a join order of this graph
+     */
+    int[] fromCanonical(int[] canonical) {
+        if (canonical == null || canonical.length != listIndex.length)
+            return null;
+        boolean[] seen = new boolean[listIndex.length];
+        int[] joinOrder = new int[canonical.length];
+        for (int i = 0; i < canonical.length; i++) {
+            int pos = canonical[i];
+            if (pos < 0 || pos >= listIndex.length || seen[pos])
+                return null;
+            seen[pos] = true;
+            joinOrder[i] = listIndex[pos];
+        }
+        return joinOrder;
+    }
+}
@@ -37,6 +37,8 @@ import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
 import com.splicemachine.db.iapi.sql.dictionary.ConglomerateDescriptor;
 import com.splicemachine.db.iapi.sql.dictionary.IndexRowGenerator;
 
+import java.util.Arrays;
+
 /**
  * @author Scott Fines
  *         Date: 4/3/15
@@ -87,6 +89,12 @@ public class Level2OptimizerTrace implements OptimizerTrace{
             case BEST_TIME_EXCEEDED:
                 traceString="Optimization previous best time already exceeded: "+doubleParam+", Best: "+bestCost();
                 break;
+            case PLANNING_BUDGET_EXCEEDED:
+                traceString="Planning time budget exceeded: "+doubleParam+" Budget: "+optimizer.getPlanningTimeBudget();
+                break;
+            case CACHED_JOIN_ORDER:
+                traceString="Jumping to cached join order "+Arrays.toString((int[])objectParam1);
+                break;
             case NO_TABLES:
                 traceString="No tables to optimize.";
                 break;
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.compile;
+
+import com.splicemachine.db.catalog.UUID;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.conn.LanguageConnectionContext;
+import com.splicemachine.db.iapi.sql.dictionary.ConglomerateDescriptor;
+import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
+import com.splicemachine.db.iapi.sql.dictionary.TableDescriptor;
+import com.splicemachine.db.iapi.store.access.StoreCostController;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the range selectivities the optimizer derived from auto-parameterized literals
+ * while compiling a statement, so that a later execution with different literal values can
+ * tell whether the shared plan was costed for a very different row count.
+ *
+ * A plan is considered unsafe to share when the selectivity of any recorded range moves by
+ * more than {@link #SELECTIVITY_RATIO_THRESHOLD} times, unless both estimates are below
+ * {@link #MIN_SIGNIFICANT_SELECTIVITY} (a very selective predicate stays very selective).
+ *
+ * The guard is shared by every connection that reuses the plan, so it only remembers which
+ * conglomerate each selectivity came from, and opens its own cost controllers to check them.
+ */
+public class LiteralSelectivityGuard {
+    public static final double SELECTIVITY_RATIO_THRESHOLD = 10.0d;
+    public static final double MIN_SIGNIFICANT_SELECTIVITY = 0.01d;
+
+    private final DataValueDescriptor[] literals;
+    private final List<Probe> probes = new ArrayList<>();
+    // where the cost controllers of the compiling connection came from, only kept while compiling
+    private Map<StoreCostController, CostSource> sources = new IdentityHashMap<>();
+
+    public LiteralSelectivityGuard(DataValueDescriptor[] literals) {
+        this.literals = literals;
+    }
+
+    /**
+     * Remember how a cost controller used while compiling was opened, so that the selectivities
+     * it computes can be checked again later.
+     */
+    public void costControllerOpened(StoreCostController scc, TableDescriptor td, ConglomerateDescriptor cd,
+                                     boolean skipStats, long defaultRowCount) {
+        if (sources != null)
+            sources.put(scc, new CostSource(td.getUUID(), cd.getConglomerateNumber(), skipStats, defaultRowCount));
+    }
+
+    /**
+     * Called once the statement is compiled: the cost controllers of the compiling connection
+     * are not used past this point.
+     */
+    public void compiled() {
+        sources = null;
+    }
+
+    /**
+     * Record a range selectivity computed during costing. Ranges that do not involve any of the
+     * auto-parameterized literals, or whose cost controller is not known, are ignored.
+     */
+    public void record(StoreCostController scc, int colNum,
+                       DataValueDescriptor start, boolean includeStart,
+                       DataValueDescriptor stop, boolean includeStop,
+                       boolean useExtrapolation, double selectivity) {
+        int startParam = indexOf(start);
+        int stopParam = indexOf(stop);
+        if (startParam < 0 && stopParam < 0)
+            return;
+        CostSource source = sources == null ? null : sources.get(scc);
+        if (source == null)
+            return;
+        Probe probe = new Probe(source, colNum, start, startParam, includeStart,
+                stop, stopParam, includeStop, useExtrapolation, selectivity);
+        for (Probe p : probes) {
+            if (p.sameRange(probe))
+                return;
+        }
+        probes.add(probe);
+    }
+
+    /**
+     * @return true if the plan was compiled with exactly these literal values
+     */
+    public boolean isCompiledWith(DataValueDescriptor[] values) {
+        return values == literals;
+    }
+
+    public boolean isEmpty() {
+        return probes.isEmpty();
+    }
+
+    /**
+     * @param lcc    the connection about to reuse the plan
+     * @param values the literal values of the statement about to reuse the plan, in parameter order
+     * @return true if every recorded range has a comparable selectivity with {@code values}
+     */
+    public boolean isStable(LanguageConnectionContext lcc, DataValueDescriptor[] values) throws StandardException {
+        if (values.length != literals.length)
+            return false;
+        Map<CostSource, StoreCostController> opened = new HashMap<>();
+        try {
+            for (Probe p : probes) {
+                StoreCostController scc = opened.get(p.source);
+                if (scc == null) {
+                    scc = p.source.open(lcc);
+                    if (scc == null)
+                        return false;
+                    opened.put(p.source, scc);
+                }
+                DataValueDescriptor start = p.startParam >= 0 ? values[p.startParam] : p.start;
+                DataValueDescriptor stop = p.stopParam >= 0 ? values[p.stopParam] : p.stop;
+                double selectivity = scc.getSelectivity(p.colNum, start, p.includeStart,
+                        stop, p.includeStop, p.useExtrapolation);
+                if (!similar(p.selectivity, selectivity))
+                    return false;
+            }
+            return true;
+        } finally {
+            for (StoreCostController scc : opened.values()) {
+                scc.close();
+            }
+        }
+    }
+
+    static boolean similar(double compiled, double current) {
+        double high = Math.max(compiled, current);
+        double low = Math.min(compiled, current);
+        if (high < MIN_SIGNIFICANT_SELECTIVITY)
+            return true;
+        if (low <= 0d)
+            return false;
+        return high / low < SELECTIVITY_RATIO_THRESHOLD;
+    }
+
+    private int indexOf(DataValueDescriptor value) {
+        if (value == null)
+            return -1;
+        for (int i = 0; i < literals.length; i++) {
+            if (literals[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    private static final class CostSource {
+        final UUID tableId;
+        final long conglomerateNumber;
+        final boolean skipStats;
+        final long defaultRowCount;
+
+        CostSource(UUID tableId, long conglomerateNumber, boolean skipStats, long defaultRowCount) {
+            this.tableId = tableId;
+            this.conglomerateNumber = conglomerateNumber;
+            this.skipStats = skipStats;
+            this.defaultRowCount = defaultRowCount;
+        }
+
+        /*
+         * @return a cost controller of the given connection, or null if the conglomerate is gone
+         */
+        StoreCostController open(LanguageConnectionContext lcc) throws StandardException {
+            DataDictionary dd = lcc.getDataDictionary();
+            TableDescriptor td = dd.getTableDescriptor(tableId);
+            if (td == null)
+                return null;
+            ConglomerateDescriptor cd = td.getConglomerateDescriptor(conglomerateNumber);
+            if (cd == null)
+                return null;
+            return lcc.getTransactionCompile().openStoreCost(td, cd, skipStats, defaultRowCount);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof CostSource))
+                return false;
+            CostSource other = (CostSource) o;
+            return conglomerateNumber == other.conglomerateNumber && tableId.equals(other.tableId)
+                    && skipStats == other.skipStats
+                    && defaultRowCount == other.defaultRowCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(conglomerateNumber) * 31 + (skipStats ? 1 : 0);
+        }
+    }
+
+    private static final class Probe {
+        final CostSource source;
+        final int colNum;
+        final DataValueDescriptor start;
+        final int startParam;
+        final boolean includeStart;
+        final DataValueDescriptor stop;
+        final int stopParam;
+        final boolean includeStop;
+        final boolean useExtrapolation;
+        final double selectivity;
+
+        Probe(CostSource source, int colNum,
+              DataValueDescriptor start, int startParam, boolean includeStart,
+              DataValueDescriptor stop, int stopParam, boolean includeStop,
+              boolean useExtrapolation, double selectivity) {
+            this.source = source;
+            this.colNum = colNum;
+            this.start = start;
+            this.startParam = startParam;
+            this.includeStart = includeStart;
+            this.stop = stop;
+            this.stopParam = stopParam;
+            this.includeStop = includeStop;
+            this.useExtrapolation = useExtrapolation;
+            this.selectivity = selectivity;
+        }
+
+        boolean sameRange(Probe other) {
+            return source.equals(other.source) && colNum == other.colNum
+                    && start == other.start && stop == other.stop
+                    && includeStart == other.includeStart && includeStop == other.includeStop;
+        }
+    }
+}
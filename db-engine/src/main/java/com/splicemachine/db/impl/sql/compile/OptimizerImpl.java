@@ -33,6 +33,7 @@ package com.splicemachine.db.impl.sql.compile;
 
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.reference.SQLState;
+import com.splicemachine.db.iapi.services.context.ContextService;
 import com.splicemachine.db.iapi.sql.compile.*;
 import com.splicemachine.db.iapi.sql.dictionary.ConglomerateDescriptor;
 import com.splicemachine.db.iapi.sql.dictionary.DataDictionary;
@@ -41,6 +42,7 @@ import com.splicemachine.db.iapi.store.access.AggregateCostController;
 import com.splicemachine.db.iapi.store.access.SortCostController;
 import com.splicemachine.db.iapi.util.JBitSet;
 import com.splicemachine.db.iapi.util.StringUtil;
+import com.splicemachine.db.impl.sql.catalog.DataDictionaryCache;
 
 import java.util.*;
 
@@ -174,6 +176,25 @@ public class OptimizerImpl implements Optimizer{
     private static final int NANOS_TO_MILLIS = 1000000;
     private boolean forSpark = false;
 
+    /* Join order cache. The best join order found for a join graph is
+     * remembered in the data dictionary cache, and the next optimizer
+     * for the same graph jumps to it first instead of to the order
+     * suggested by the row counts.  joinOrderSignature is null if the
+     * cache was not consulted.
+     */
+    private JoinOrderSignature joinOrderSignature;
+    private boolean joinOrderSeedChecked;
+
+    /* Planning time budget for the whole statement, counted from the
+     * start of its optimize phase (or of this optimizer, if there is no
+     * compiler context).  Once exceeded without a complete join order,
+     * we jump to the tables sorted by their best row count and stop
+     * after that one order.
+     */
+    private long planningStarted;
+    private boolean planningBudgetExceeded;
+    private boolean greedyFallback;
+
     protected OptimizerImpl(OptimizableList optimizableList,
                             OptimizablePredicateList predicateList,
                             DataDictionary dDictionary,
@@ -240,6 +261,8 @@ public class OptimizerImpl implements Optimizer{
 
         /* Get the time that optimization starts */
         timeOptimizationStarted=System.currentTimeMillis();
+        CompilerContext cc=(CompilerContext)ContextService.getContextOrNull(CompilerContext.CONTEXT_ID);
+        planningStarted=cc!=null && cc.getPlanningStartTime()>0?cc.getPlanningStartTime():timeOptimizationStarted;
         reloadBestPlan=false;
         savedJoinOrders=null;
         timeLimit=Double.MAX_VALUE;
@@ -359,6 +382,33 @@ public class OptimizerImpl implements Optimizer{
         //check whether or not optimization time has been exceeded
         checkTimeout();
 
+        if(!joinOrderSeedChecked){
+            joinOrderSeedChecked=true;
+            seedJoinOrderFromCache();
+        }
+
+        if(timeExceeded && planningBudgetExceeded && bestCost.isUninitialized() && !foundABestPlan){
+            /* The planning time budget ran out before we found a single
+             * complete join order.  Rather than keep permuting, jump to
+             * the tables ordered by their best row count so far, and keep
+             * going (ignoring the timeout) until that order is complete.
+             * If it turns out to be illegal, the usual permutation logic
+             * moves on to the nearest legal one.
+             */
+            if(!greedyFallback){
+                greedyFallback=true;
+                if(firstLookOrder==null)
+                    firstLookOrder=new int[numOptimizables];
+                fillGreedyJoinOrder(firstLookOrder);
+                permuteState=JUMPING;
+                if(joinPosition>=0){
+                    rewindJoinOrder();
+                    joinPosition=-1;
+                }
+            }
+            timeExceeded=false;
+        }
+
         if(bestCost.isUninitialized()
                 && foundABestPlan
                 && ((!usingPredsPushedFromAbove && !bestJoinOrderUsedPredsFromAbove) || timeExceeded)){
@@ -1239,6 +1289,11 @@ public class OptimizerImpl implements Optimizer{
 
         verifyBestPlanFound();
 
+        if(joinOrderSignature!=null && foundABestPlan){
+            dDictionary.getDataDictionaryCache().joinOrderCacheAdd(joinOrderSignature.getKey(),
+                    joinOrderSignature.toCanonical(bestJoinOrder));
+        }
+
         /* Change the join order of the list of optimizables */
         optimizableList.reOrder(bestJoinOrder);
 
@@ -2464,6 +2519,23 @@ public class OptimizerImpl implements Optimizer{
          ** no timeout.
          */
         if(noTimeout) return false;
+        if(!timeExceeded){
+            long planningDuration=System.currentTimeMillis()-planningStarted;
+            if(planningDuration>getPlanningTimeBudget()){
+                // We've exceeded the planning time budget of the statement.
+                // Checked on every call, as nextJoinOrder() resets the flag
+                // until it has a complete join order.
+                timeExceeded=true;
+                if(!planningBudgetExceeded){
+                    planningBudgetExceeded=true;
+                    CompilerContext cc=(CompilerContext)ContextService.getContextOrNull(CompilerContext.CONTEXT_ID);
+                    if(cc!=null)
+                        cc.setPlanningBudgetExceeded(true);
+                    tracer().trace(OptimizerFlag.PLANNING_BUDGET_EXCEEDED,0,0,planningDuration);
+                }
+                return true;
+            }
+        }
         if(timeExceeded || numOptimizables<=optimizableList.getTableLimitForExhaustiveSearch()) return timeExceeded;
 
         // All of the following are assumed to be in milliseconds,
@@ -2512,6 +2584,60 @@ public class OptimizerImpl implements Optimizer{
         return Long.MAX_VALUE; // milliseconds
     }
 
+    /**
+     * Returns the time the whole statement may spend in the optimizer before
+     * checkTimeout() returns true, whatever the number of tables. Unlike the
+     * other timeouts it is counted from the start of the optimize phase of the
+     * statement, so it covers all the optimizers of its query blocks. By default,
+     * this returns {@link Long#MAX_VALUE}, which means no budget.<br/>
+     * Should only be called by checkTimeout().
+     *
+     * @return planning time budget in milliseconds
+     */
+    protected long getPlanningTimeBudget() {
+        return Long.MAX_VALUE; // milliseconds
+    }
+
+    /**
+     * Jump to the join order found best for the same join graph by an
+     * earlier optimizer, if there is one in the join order cache.  Only done
+     * when we would otherwise jump to the order suggested by the row counts,
+     * i.e. for join graphs too large for an exhaustive search.
+     */
+    private void seedJoinOrderFromCache() throws StandardException{
+        if(permuteState!=READY_TO_JUMP || joinPosition>=0 || usingPredsPushedFromAbove || dDictionary==null)
+            return;
+        DataDictionaryCache cache=dDictionary.getDataDictionaryCache();
+        if(cache==null)
+            return;
+        joinOrderSignature=JoinOrderSignature.build(optimizableList,predicateList);
+        int[] cachedOrder=joinOrderSignature.fromCanonical(cache.joinOrderCacheFind(joinOrderSignature.getKey()));
+        if(cachedOrder==null)
+            return;
+        System.arraycopy(cachedOrder,0,firstLookOrder,0,numOptimizables);
+        permuteState=JUMPING;
+        tracer().trace(OptimizerFlag.CACHED_JOIN_ORDER,0,0,0.0,(Object)cachedOrder);
+    }
+
+    /**
+     * Fill the given array with the optimizables sorted by the row count of
+     * the best access path found for them so far. Optimizables that have none
+     * yet go last, in list order.
+     */
+    private void fillGreedyJoinOrder(int[] joinOrder){
+        Integer[] order=new Integer[numOptimizables];
+        final double[] rowCounts=new double[numOptimizables];
+        for(int i=0;i<numOptimizables;i++){
+            order[i]=i;
+            AccessPath ap=optimizableList.getOptimizable(i).getBestAccessPath();
+            CostEstimate ce=ap==null?null:ap.getCostEstimate();
+            rowCounts[i]=ce==null || ce.isUninitialized()?Double.MAX_VALUE:ce.singleScanRowCount();
+        }
+        Arrays.sort(order,Comparator.comparingDouble((Integer i) -> rowCounts[i]));
+        for(int i=0;i<numOptimizables;i++)
+            joinOrder[i]=order[i];
+    }
+
     /**
      * In the presence of consecutive broadcast joins, we should not only check whether
      * individual join can fit in memory but also the accumulative memory usage.
@@ -32,6 +32,8 @@
 package com.splicemachine.db.impl.sql.compile;
 
 import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.context.ContextService;
+import com.splicemachine.db.iapi.sql.compile.CompilerContext;
 import com.splicemachine.db.iapi.store.access.StoreCostController;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 
@@ -64,6 +66,9 @@ public class RangeSelectivity extends AbstractSelectivityHolder {
     public double getSelectivity()  throws StandardException {
         if (selectivity==-1.0d) {
             selectivity = storeCost.getSelectivity(colNum, start, includeStart, stop, includeStop, useExtrapolation);
+            CompilerContext cc = (CompilerContext) ContextService.getContextOrNull(CompilerContext.CONTEXT_ID);
+            if (cc != null && cc.getLiteralSelectivityGuard() != null)
+                cc.getLiteralSelectivityGuard().record(storeCost, colNum, start, includeStart, stop, includeStop, useExtrapolation, selectivity);
             if (selectivityFactor > 0)
                 selectivity *= selectivityFactor;
         }
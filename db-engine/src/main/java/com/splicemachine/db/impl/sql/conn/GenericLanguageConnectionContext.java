@@ -57,6 +57,7 @@ import com.splicemachine.db.iapi.sql.execute.CursorActivation;
 import com.splicemachine.db.iapi.sql.execute.*;
 import com.splicemachine.db.iapi.store.access.TransactionController;
 import com.splicemachine.db.iapi.store.access.XATransactionController;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.iapi.types.DataValueFactory;
 import com.splicemachine.db.iapi.util.IdUtil;
 import com.splicemachine.db.iapi.util.InterruptStatus;
@@ -75,6 +76,7 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
+import static com.splicemachine.db.iapi.reference.Property.AUTO_PARAMETERIZE_LITERALS_ENABLED;
 import static com.splicemachine.db.iapi.reference.Property.MATCHING_STATEMENT_CACHE_IGNORING_COMMENT_OPTIMIZATION_ENABLED;
 
 /**
@@ -113,6 +115,8 @@ public class GenericLanguageConnectionContext extends ContextImpl implements Lan
     private final static int XA_ONE_PHASE=1;
     private final static int XA_TWO_PHASE=2;
 
+    private final static int MAX_AUTO_PARAMETERIZE_FAILURES=64;
+
     /*
         fields
      */
@@ -339,6 +343,14 @@ public class GenericLanguageConnectionContext extends ContextImpl implements Lan
     private SessionPropertiesImpl sessionProperties;
     private final CommentStripper commentStripper;
     private boolean ignoreCommentOptEnabled = false;
+    private boolean autoParameterizeLiteralsEnabled = false;
+    // normalized statement texts which failed to compile, so they are not retried on every execution
+    private final Map<String,Boolean> autoParameterizeFailures=new LinkedHashMap<String,Boolean>(16,0.75f,true){
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String,Boolean> eldest){
+            return size()>MAX_AUTO_PARAMETERIZE_FAILURES;
+        }
+    };
     private String origStmtTxt;
 
     private String defaultSchema;
@@ -458,6 +470,7 @@ public class GenericLanguageConnectionContext extends ContextImpl implements Lan
 
         String ignoreCommentOptEnabledStr = PropertyUtil.getCachedDatabaseProperty(this, MATCHING_STATEMENT_CACHE_IGNORING_COMMENT_OPTIMIZATION_ENABLED);
         ignoreCommentOptEnabled = Boolean.valueOf(ignoreCommentOptEnabledStr);
+        autoParameterizeLiteralsEnabled = Boolean.valueOf(PropertyUtil.getCachedDatabaseProperty(this, AUTO_PARAMETERIZE_LITERALS_ENABLED));
 
     }
 
@@ -927,6 +940,8 @@ public class GenericLanguageConnectionContext extends ContextImpl implements Lan
         // read again the property in case it is changed
         String ignoreCommentOptEnabledStr = PropertyUtil.getCachedDatabaseProperty(this, MATCHING_STATEMENT_CACHE_IGNORING_COMMENT_OPTIMIZATION_ENABLED);
         ignoreCommentOptEnabled = Boolean.valueOf(ignoreCommentOptEnabledStr);
+        autoParameterizeLiteralsEnabled = Boolean.valueOf(PropertyUtil.getCachedDatabaseProperty(this, AUTO_PARAMETERIZE_LITERALS_ENABLED));
+        autoParameterizeFailures.clear();
         origStmtTxt = null;
     }
 
@@ -1258,6 +1273,35 @@ public class GenericLanguageConnectionContext extends ContextImpl implements Lan
     }
 
 
+    @Override
+    public PreparedStatement prepareAutoParameterizedStatement(SchemaDescriptor compilationSchema,
+                                                               String sqlText,
+                                                               boolean isForReadOnly,
+                                                               DataValueDescriptor[] literals) throws StandardException{
+        if(restoreMode){
+            throw StandardException.newException(SQLState.CONNECTION_RESET_ON_RESTORE_MODE);
+        }
+        if(autoParameterizeFailures.containsKey(sqlText))
+            return null;
+        int depth=getStatementDepth();
+        try{
+            GenericStatement statement=(GenericStatement)connFactory.getStatement(compilationSchema,sqlText,isForReadOnly,this);
+            return statement.prepareWithLiteralDefaults(this,literals);
+        }catch(StandardException se){
+            if(se.getSeverity()>ExceptionSeverity.STATEMENT_SEVERITY)
+                throw se;
+            // The normalized text does not compile (e.g. a parameter whose type cannot be
+            // inferred); let the caller compile the original text, and remember compilation
+            // errors so the normalized text is not tried again.
+            while(getStatementDepth()>depth){
+                popStatementContext(getStatementContext(),null);
+            }
+            if(se.getSQLState()!=null && se.getSQLState().startsWith("42"))
+                autoParameterizeFailures.put(sqlText,Boolean.TRUE);
+            return null;
+        }
+    }
+
     @Override
     public PreparedStatement prepareInternalStatement(String sqlText) throws StandardException{
         if(restoreMode){
@@ -3934,6 +3978,11 @@ public class GenericLanguageConnectionContext extends ContextImpl implements Lan
         return ignoreCommentOptEnabled;
     }
 
+    @Override
+    public boolean getAutoParameterizeLiteralsEnabled() {
+        return autoParameterizeLiteralsEnabled;
+    }
+
     public boolean clientSupportsDecimal38() { return clientSupportsDecimal38; }
 
     public void setClientSupportsDecimal38(boolean newVal) {
@@ -100,6 +100,10 @@ public class SessionPropertiesImpl implements SessionProperties {
                 boolean disablePushDown = Boolean.valueOf(valString);
                 properties[DISABLE_NLJ_PREDICATE_PUSH_DOWN.getId()] = disablePushDown;
                 break;
+            case SHOWPLANNINGTIME:
+                boolean showPlanningTime = Boolean.valueOf(valString);
+                properties[SHOWPLANNINGTIME.getId()] = showPlanningTime;
+                break;
             default:
                 break;
         }
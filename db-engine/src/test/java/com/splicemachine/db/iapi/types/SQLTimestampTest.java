@@ -139,4 +139,23 @@ public class SQLTimestampTest extends SQLDataValueDescriptorTest {
                 double range = stats.selectivityExcludingValueIfSkewed(sqlTimestamp);
                 Assert.assertTrue(range + " did not match expected value of 1.0d", (range == 1.0d));
         }
+
+        @Test
+        public void testSetValueFromDeferredTimestamp() throws Exception {
+                final Timestamp expected = Timestamp.valueOf("2016-03-14 15:09:26.535897");
+                SQLTimestamp source = new SQLTimestamp();
+                source.bindDeferred(new DeferredDecodable.Decoder() {
+                        @Override
+                        public void materialize(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException {
+                                dvd.setValue(expected);
+                        }
+                }, new byte[8], 0, 8, false);
+                Assert.assertTrue(source.isDeferred());
+
+                SQLTimestamp copy = new SQLTimestamp();
+                copy.setValue(source);
+                Assert.assertFalse(copy.isNull());
+                Assert.assertEquals(expected, copy.getTimestamp(null));
+                Assert.assertEquals(expected, source.getTimestamp(null));
+        }
 }
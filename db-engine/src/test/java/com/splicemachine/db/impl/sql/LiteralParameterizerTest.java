@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql;
+
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLChar;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLDouble;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LiteralParameterizerTest {
+
+    @Test
+    public void testReplacesComparedLiterals() throws Exception {
+        LiteralParameterizer.Result r = LiteralParameterizer.parameterize(
+                "select a from t where a = 10 and b <> 'it''s' and c >= -2.5");
+        assertEquals("select a from t where a = ? and b <> ? and c >= ?", r.getText());
+        DataValueDescriptor[] literals = r.getLiterals();
+        assertEquals(3, literals.length);
+        assertTrue(literals[0] instanceof SQLInteger);
+        assertEquals(10, literals[0].getInt());
+        assertTrue(literals[1] instanceof SQLChar);
+        assertEquals("it's", literals[1].getString());
+        assertTrue(literals[2] instanceof SQLDecimal);
+        assertEquals("-2.5", literals[2].getString());
+    }
+
+    @Test
+    public void testNumericLiteralTypes() throws Exception {
+        DataValueDescriptor[] literals = LiteralParameterizer.parameterize(
+                "delete from t where a = 3000000000 or b = 1e3 or c = 123456789012345678901234").getLiterals();
+        assertTrue(literals[0] instanceof SQLLongint);
+        assertTrue(literals[1] instanceof SQLDouble);
+        assertTrue(literals[2] instanceof SQLDecimal);
+    }
+
+    @Test
+    public void testUpdateSetAndWhere() {
+        LiteralParameterizer.Result r = LiteralParameterizer.parameterize(
+                "UPDATE t SET a = 1, b = 'x' WHERE c = 2");
+        assertEquals("UPDATE t SET a = ?, b = ? WHERE c = ?", r.getText());
+    }
+
+    @Test
+    public void testLeavesExpressionsAndOtherPositionsAlone() {
+        assertNull(LiteralParameterizer.parameterize("select a from t where a = b + 1"));
+        assertNull(LiteralParameterizer.parameterize("select a from t where a = 1 + b"));
+        assertNull(LiteralParameterizer.parameterize("select a from t where a in (1, 2) order by 1"));
+        assertNull(LiteralParameterizer.parameterize("select a from t where a between 1 and 2"));
+        assertNull(LiteralParameterizer.parameterize("select a from t where d = date '2020-01-01'"));
+        assertNull(LiteralParameterizer.parameterize("select a from t where a like 'x%'"));
+        assertNull(LiteralParameterizer.parameterize("select a = 1 from t"));
+    }
+
+    @Test
+    public void testSkipsQuotedIdentifiersAndComments() {
+        LiteralParameterizer.Result r = LiteralParameterizer.parameterize(
+                "select \"a = 1\" from t --splice-properties index=null\n where /* b = 2 */ b = 3");
+        assertEquals("select \"a = 1\" from t --splice-properties index=null\n where /* b = 2 */ b = ?", r.getText());
+        assertEquals(1, r.getLiterals().length);
+    }
+
+    @Test
+    public void testRetainLeavesOtherLiteralsInPlace() throws Exception {
+        LiteralParameterizer.Result r = LiteralParameterizer.parameterize(
+                "select a from t where v = -1 and b = 'x' and c = 2");
+        LiteralParameterizer.Result retained = r.retain(new boolean[]{false, true, true});
+        assertEquals("select a from t where v = -1 and b = ? and c = ?", retained.getText());
+        assertEquals(2, retained.getLiterals().length);
+        assertEquals("x", retained.getLiterals()[0].getString());
+        assertEquals(2, retained.getLiterals()[1].getInt());
+
+        retained = retained.retain(new boolean[]{true, false});
+        assertEquals("select a from t where v = -1 and b = ? and c = 2", retained.getText());
+        assertNull(retained.retain(new boolean[]{false}));
+    }
+
+    @Test
+    public void testIgnoresStatementsThatDoNotQualify() {
+        assertNull(LiteralParameterizer.parameterize("insert into t values (1)"));
+        assertNull(LiteralParameterizer.parameterize("call proc(1)"));
+        assertNull(LiteralParameterizer.parameterize("select a from t where a = ? and b = 1"));
+        assertNull(LiteralParameterizer.parameterize("select a from t where b = 'unterminated"));
+        assertNull(LiteralParameterizer.parameterize("select a from t"));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.compile;
+
+import com.splicemachine.db.iapi.sql.compile.Optimizable;
+import com.splicemachine.db.iapi.sql.compile.OptimizableList;
+import com.splicemachine.db.iapi.sql.compile.OptimizablePredicate;
+import com.splicemachine.db.iapi.sql.compile.OptimizablePredicateList;
+import com.splicemachine.db.iapi.sql.dictionary.TableDescriptor;
+import com.splicemachine.db.iapi.util.JBitSet;
+import com.splicemachine.db.impl.services.uuid.BasicUUID;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JoinOrderSignatureTest {
+    private static final int NUM_TABLES = 3;
+
+    @Test
+    public void testSameGraphInAnyOrderHasSameKey() throws Exception {
+        Optimizable a = table(0, 1, 100);
+        Optimizable b = table(1, 2, 200);
+        Optimizable c = table(2, 3, 300);
+        OptimizablePredicateList preds = predicates(edge(0, 1), edge(1, 2));
+
+        JoinOrderSignature abc = JoinOrderSignature.build(list(a, b, c), preds);
+        JoinOrderSignature cab = JoinOrderSignature.build(list(c, a, b), preds);
+        assertEquals(abc.getKey(), cab.getKey());
+
+        // a join order found for one list maps onto the same tables in the other
+        int[] canonical = abc.toCanonical(new int[]{2, 0, 1}); // c, a, b
+        assertArrayEquals(new int[]{0, 1, 2}, cab.fromCanonical(canonical));
+        assertArrayEquals(new int[]{2, 0, 1}, abc.fromCanonical(canonical));
+    }
+
+    @Test
+    public void testDifferentGraphsHaveDifferentKeys() throws Exception {
+        Optimizable a = table(0, 1, 100);
+        Optimizable b = table(1, 2, 200);
+        Optimizable c = table(2, 3, 300);
+        String chain = JoinOrderSignature.build(list(a, b, c), predicates(edge(0, 1), edge(1, 2))).getKey();
+
+        // other join predicates
+        assertNotEquals(chain, JoinOrderSignature.build(list(a, b, c), predicates(edge(0, 1), edge(0, 2))).getKey());
+        // other tables
+        assertNotEquals(chain, JoinOrderSignature.build(list(a, b, table(2, 4, 300)), predicates(edge(0, 1), edge(1, 2))).getKey());
+        // other statistics
+        assertNotEquals(chain, JoinOrderSignature.build(list(a, b, table(2, 3, 301)), predicates(edge(0, 1), edge(1, 2))).getKey());
+    }
+
+    @Test
+    public void testSingleTablePredicatesAreNotEdges() throws Exception {
+        Optimizable a = table(0, 1, 100);
+        Optimizable b = table(1, 2, 200);
+        assertEquals(JoinOrderSignature.build(list(a, b), predicates(edge(0, 1))).getKey(),
+                JoinOrderSignature.build(list(a, b), predicates(edge(0, 1), edge(1))).getKey());
+    }
+
+    @Test
+    public void testForeignJoinOrdersAreRejected() throws Exception {
+        JoinOrderSignature signature = JoinOrderSignature.build(list(table(0, 1, 100), table(1, 2, 200)), null);
+        assertNull(signature.fromCanonical(null));
+        assertNull(signature.fromCanonical(new int[]{0}));
+        assertNull(signature.fromCanonical(new int[]{0, 0}));
+        assertNull(signature.fromCanonical(new int[]{0, 2}));
+    }
+
+    private static Optimizable table(int tableNumber, long tableId, long rowCount) throws Exception {
+        FromBaseTable table = mock(FromBaseTable.class);
+        TableDescriptor td = mock(TableDescriptor.class);
+        when(td.getUUID()).thenReturn(new BasicUUID(tableId, 0L, 0));
+        when(table.getTableDescriptor()).thenReturn(td);
+        when(table.baseRowCount()).thenReturn(rowCount);
+        when(table.getReferencedTableMap()).thenReturn(tableMap(tableNumber));
+        return table;
+    }
+
+    private static OptimizableList list(Optimizable... optimizables) {
+        OptimizableList list = mock(OptimizableList.class);
+        when(list.size()).thenReturn(optimizables.length);
+        for (int i = 0; i < optimizables.length; i++)
+            when(list.getOptimizable(i)).thenReturn(optimizables[i]);
+        return list;
+    }
+
+    private static OptimizablePredicate edge(int... tableNumbers) {
+        OptimizablePredicate pred = mock(OptimizablePredicate.class);
+        when(pred.getReferencedMap()).thenReturn(tableMap(tableNumbers));
+        return pred;
+    }
+
+    private static OptimizablePredicateList predicates(OptimizablePredicate... preds) {
+        OptimizablePredicateList list = mock(OptimizablePredicateList.class);
+        when(list.size()).thenReturn(preds.length);
+        for (int i = 0; i < preds.length; i++)
+            when(list.getOptPredicate(i)).thenReturn(preds[i]);
+        return list;
+    }
+
+    private static JBitSet tableMap(int... tableNumbers) {
+        JBitSet map = new JBitSet(NUM_TABLES);
+        for (int tableNumber : tableNumbers)
+            map.set(tableNumber);
+        return map;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.impl.sql.compile;
+
+import com.splicemachine.db.iapi.sql.compile.AccessPath;
+import com.splicemachine.db.iapi.sql.compile.JoinStrategy;
+import com.splicemachine.db.iapi.sql.compile.Optimizable;
+import com.splicemachine.db.iapi.sql.compile.OptimizableList;
+import com.splicemachine.db.iapi.sql.compile.OptimizablePredicateList;
+import com.splicemachine.db.iapi.util.JBitSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OptimizerImplTest {
+    // row counts of the tables, in list order
+    private static final double[] ROW_COUNTS = {1000, 10, 100};
+
+    @Test
+    public void testJoinOrderWithoutBudget() throws Exception {
+        OptimizerImpl optimizer = optimizer(Long.MAX_VALUE);
+        assertTrue(optimizer.nextJoinOrder());
+        // no budget, so the search walks the list in order
+        assertEquals(0, optimizer.proposedJoinOrder[0]);
+    }
+
+    @Test
+    public void testExceededBudgetJumpsToRowCountOrder() throws Exception {
+        OptimizerImpl optimizer = optimizer(0L);
+        Thread.sleep(5);
+        for (int i = 0; i < ROW_COUNTS.length; i++)
+            assertTrue(optimizer.nextJoinOrder());
+        // out of budget before any complete join order: the smallest tables go first
+        assertArrayEquals(new int[]{1, 2, 0}, optimizer.proposedJoinOrder);
+    }
+
+    private static OptimizerImpl optimizer(final long planningTimeBudget) throws Exception {
+        OptimizableList list = mock(OptimizableList.class);
+        when(list.size()).thenReturn(ROW_COUNTS.length);
+        when(list.optimizeJoinOrder()).thenReturn(true);
+        for (int i = 0; i < ROW_COUNTS.length; i++) {
+            Optimizable table = table(i, ROW_COUNTS[i]);
+            when(list.getOptimizable(i)).thenReturn(table);
+        }
+        OptimizablePredicateList predicates = mock(OptimizablePredicateList.class);
+
+        return new OptimizerImpl(list, predicates, null, false, false, true, 0,
+                new JoinStrategy[0], 0, null, ROW_COUNTS.length) {
+            @Override
+            protected long getPlanningTimeBudget() {
+                return planningTimeBudget;
+            }
+        };
+    }
+
+    private static Optimizable table(int tableNumber, double rowCount) {
+        FromBaseTable table = mock(FromBaseTable.class);
+        JBitSet map = new JBitSet(ROW_COUNTS.length);
+        map.set(tableNumber);
+        when(table.getReferencedTableMap()).thenReturn(map);
+        when(table.legalJoinOrder(any(JBitSet.class))).thenReturn(true);
+        AccessPath bestAccessPath = mock(AccessPath.class);
+        when(bestAccessPath.getCostEstimate()).thenReturn(new CostEstimateImpl(rowCount, rowCount, rowCount));
+        when(table.getBestAccessPath()).thenReturn(bestAccessPath);
+        return table;
+    }
+}
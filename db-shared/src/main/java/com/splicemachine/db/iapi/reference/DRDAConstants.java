@@ -54,6 +54,15 @@ public	interface	DRDAConstants
 
     // Maximum size of a DDM block
 	int DATA_STREAM_STRUCTURE_MAX_LENGTH = 32767;
+
+    // Product specific extension: PRDDTA accounting suffix sent by clients
+    // that read LZ4 compressed QRYDTA and extra query blocks on any CNTQRY.
+	String PRDDTA_ACCT_SUFFIX_LZ4 = "SPLICE_LZ4";
+
+    // GDS identifier replacing 0xD0 in the header of a DSS whose data is a
+    // 4 byte uncompressed length followed by an LZ4 block. Only sent to
+    // clients that announced PRDDTA_ACCT_SUFFIX_LZ4.
+	int GDS_ID_LZ4 = 0xD2;
 	
 	///////////////////////
 	//
@@ -742,6 +742,16 @@ public interface Property {
     String	LANG_PROPERTY_CACHE_SIZE = "derby.language.propertyCacheSize";
     int		LANG_PROPERTY_CACHE_SIZE_DEFAULT =128;
 
+    /**
+     * The size of the cache of best join orders which the optimizer
+     * uses to seed the join order search of large joins. 0 disables
+     * it.  Database.  Static.
+     * <p>
+     * Undocumented.
+     */
+    String	LANG_JOIN_ORDER_CACHE_SIZE = "derby.language.joinOrderCacheSize";
+    int		LANG_JOIN_ORDER_CACHE_SIZE_DEFAULT =1024;
+
     /**
      * Name of the implementation of SequencePreallocator which is used
      * to tune how many values Derby pre-allocates for identity columns
@@ -1143,6 +1153,40 @@ public interface Property {
     String DRDA_PROP_MAXTHREADS = "derby.drda.maxThreads";
     String DRDA_PROP_TIMESLICE = "derby.drda.timeSlice";
 
+    /**
+     * db.drda.parkIdleSessions
+     *<BR>
+     * If true, a connection thread that has answered a request and gets no
+     * further input from the client for parkIdleSessionsAfter milliseconds
+     * hands the session to a shared selector and moves on, so idle
+     * connections hold no thread. Only applies when sslMode is off.
+     *<BR>
+     * Default: false
+     */
+    String DRDA_PROP_PARK_IDLE_SESSIONS = "derby.drda.parkIdleSessions";
+
+    /**
+     * db.drda.parkIdleSessionsAfter
+     *<BR>
+     * When idle sessions are parked, how many milliseconds a connection
+     * thread waits for the client's next request before it hands the
+     * session over. 0 parks sessions as soon as they are idle.
+     *<BR>
+     * Default: 500
+     */
+    String DRDA_PROP_PARK_IDLE_SESSIONS_AFTER = "derby.drda.parkIdleSessionsAfter";
+
+    /**
+     * db.drda.compressQueryData
+     *<BR>
+     * If true, query data sent to client drivers that announce LZ4 support
+     * is compressed, one DSS at a time. Set to false to send it uncompressed
+     * to such clients as well.
+     *<BR>
+     * Default: true
+     */
+    String DRDA_PROP_COMPRESS_QUERY_DATA = "derby.drda.compressQueryData";
+
 
     /**
      * db.drda.sslMode
@@ -1349,6 +1393,14 @@ public interface Property {
     String MATCHING_STATEMENT_CACHE_IGNORING_COMMENT_OPTIMIZATION_ENABLED =
             "derby.database.matchStmtCacheIgnoreCommentOptimizationEnabled";
 
+    /**
+     * If true, plain (non-prepared) SELECT, UPDATE and DELETE statements have the literals
+     * they compare against replaced by internal parameters before the statement cache lookup,
+     * so statements differing only in those literals share one compiled plan.
+     */
+    String AUTO_PARAMETERIZE_LITERALS_ENABLED =
+            "derby.database.autoParameterizeLiterals";
+
     /**
      * The maximum number of IN list items the optimizer is allowed to generate by combining
      * IN lists involving index or primary key columns into a single multicolumn IN list.
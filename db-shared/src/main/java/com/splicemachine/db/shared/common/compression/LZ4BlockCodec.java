@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.shared.common.compression;
+
+/**
+ * Encoder and decoder for the LZ4 block format, used to compress QRYDTA
+ * between the network server and the client driver.
+ * <p>
+ * The client driver must not carry third party libraries, so this is a
+ * small self-contained implementation of the format rather than a wrapper.
+ * The compressor is the greedy single-probe variant; its output can be read
+ * by any LZ4 block decoder. Neither method keeps state between calls.
+ */
+public final class LZ4BlockCodec {
+
+    private static final int MIN_MATCH = 4;
+    // the last 5 bytes of a block are always literals
+    private static final int LAST_LITERALS = 5;
+    // the last match must start at least 12 bytes before the end of a block
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int RUN_MASK = 0x0F;
+    private static final int HASH_LOG = 12;
+
+    private LZ4BlockCodec() {
+    }
+
+    /**
+     * @return the largest number of bytes {@link #compress} can produce for
+     *         an input of the given length
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compress <code>srcLen</code> bytes of <code>src</code> into
+     * <code>dest</code>, which must have room for
+     * {@link #maxCompressedLength(int)} bytes from <code>destOff</code>.
+     *
+     * @return the number of bytes written to <code>dest</code>
+     */
+    public static int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff) {
+        final int srcEnd = srcOff + srcLen;
+        int dOff = destOff;
+        int anchor = srcOff;
+
+        if (srcLen > MF_LIMIT) {
+            final int mfLimit = srcEnd - MF_LIMIT;
+            final int matchLimit = srcEnd - LAST_LITERALS;
+            final int[] table = new int[1 << HASH_LOG];
+            java.util.Arrays.fill(table, srcOff);
+
+            int sOff = srcOff + 1;
+            while (sOff <= mfLimit) {
+                int h = hash(readInt(src, sOff));
+                int ref = table[h];
+                table[h] = sOff;
+                if (sOff - ref > MAX_DISTANCE || ref >= sOff || readInt(src, ref) != readInt(src, sOff)) {
+                    sOff++;
+                    continue;
+                }
+
+                // extend the match backwards over pending literals
+                while (sOff > anchor && ref > srcOff && src[sOff - 1] == src[ref - 1]) {
+                    sOff--;
+                    ref--;
+                }
+                int matchLen = MIN_MATCH;
+                while (sOff + matchLen < matchLimit && src[sOff + matchLen] == src[ref + matchLen])
+                    matchLen++;
+
+                dOff = writeSequence(src, anchor, sOff - anchor, sOff - ref, matchLen, dest, dOff);
+                sOff += matchLen;
+                anchor = sOff;
+                if (sOff <= mfLimit)
+                    table[hash(readInt(src, sOff - 2))] = sOff - 2;
+            }
+        }
+
+        // last literals, a sequence without a match
+        int litLen = srcEnd - anchor;
+        int token = dOff++;
+        dest[token] = 0;
+        dOff = writeLength(litLen, token, 4, dest, dOff);
+        System.arraycopy(src, anchor, dest, dOff, litLen);
+        return dOff + litLen - destOff;
+    }
+
+    /**
+     * Decompress an LZ4 block of <code>srcLen</code> bytes into exactly
+     * <code>destLen</code> bytes of <code>dest</code>.
+     *
+     * @throws IllegalArgumentException if the block is malformed or does not
+     *         decompress to <code>destLen</code> bytes
+     */
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen) {
+        final int srcEnd = srcOff + srcLen;
+        final int destEnd = destOff + destLen;
+        int sOff = srcOff;
+        int dOff = destOff;
+
+        while (true) {
+            if (sOff >= srcEnd)
+                throw new IllegalArgumentException("Truncated LZ4 block");
+            int token = src[sOff++] & 0xFF;
+
+            int litLen = token >>> 4;
+            if (litLen == RUN_MASK) {
+                int b;
+                do {
+                    if (sOff >= srcEnd)
+                        throw new IllegalArgumentException("Truncated LZ4 block");
+                    b = src[sOff++] & 0xFF;
+                    litLen += b;
+                } while (b == 0xFF);
+            }
+            if (litLen > srcEnd - sOff || litLen > destEnd - dOff)
+                throw new IllegalArgumentException("LZ4 literal run out of bounds");
+            System.arraycopy(src, sOff, dest, dOff, litLen);
+            sOff += litLen;
+            dOff += litLen;
+
+            if (sOff == srcEnd)
+                break;
+
+            if (srcEnd - sOff < 2)
+                throw new IllegalArgumentException("Truncated LZ4 block");
+            int offset = (src[sOff] & 0xFF) | ((src[sOff + 1] & 0xFF) << 8);
+            sOff += 2;
+            if (offset == 0 || offset > dOff - destOff)
+                throw new IllegalArgumentException("LZ4 match offset out of bounds");
+
+            int matchLen = token & RUN_MASK;
+            if (matchLen == RUN_MASK) {
+                int b;
+                do {
+                    if (sOff >= srcEnd)
+                        throw new IllegalArgumentException("Truncated LZ4 block");
+                    b = src[sOff++] & 0xFF;
+                    matchLen += b;
+                } while (b == 0xFF);
+            }
+            matchLen += MIN_MATCH;
+            if (matchLen > destEnd - dOff)
+                throw new IllegalArgumentException("LZ4 match out of bounds");
+
+            int ref = dOff - offset;
+            if (offset >= matchLen) {
+                System.arraycopy(dest, ref, dest, dOff, matchLen);
+            } else {
+                // overlapping match, repeats the last offset bytes
+                for (int i = 0; i < matchLen; i++)
+                    dest[dOff + i] = dest[ref + i];
+            }
+            dOff += matchLen;
+        }
+
+        if (dOff != destEnd)
+            throw new IllegalArgumentException("LZ4 block decompressed to " + (dOff - destOff)
+                    + " bytes, expected " + destLen);
+    }
+
+    private static int writeSequence(byte[] src, int litOff, int litLen, int offset, int matchLen,
+                                     byte[] dest, int dOff) {
+        int token = dOff++;
+        dest[token] = 0;
+        dOff = writeLength(litLen, token, 4, dest, dOff);
+        System.arraycopy(src, litOff, dest, dOff, litLen);
+        dOff += litLen;
+
+        dest[dOff++] = (byte) offset;
+        dest[dOff++] = (byte) (offset >>> 8);
+
+        return writeLength(matchLen - MIN_MATCH, token, 0, dest, dOff);
+    }
+
+    /**
+     * Store a literal or match length in the token nibble at
+     * <code>shift</code>, followed by extension bytes if it doesn't fit.
+     */
+    private static int writeLength(int length, int token, int shift, byte[] dest, int dOff) {
+        if (length < RUN_MASK) {
+            dest[token] |= (byte) (length << shift);
+            return dOff;
+        }
+        dest[token] |= (byte) (RUN_MASK << shift);
+        length -= RUN_MASK;
+        while (length >= 0xFF) {
+            dest[dOff++] = (byte) 0xFF;
+            length -= 0xFF;
+        }
+        dest[dOff++] = (byte) length;
+        return dOff;
+    }
+
+    private static int readInt(byte[] b, int off) {
+        return (b[off] & 0xFF) | ((b[off + 1] & 0xFF) << 8) | ((b[off + 2] & 0xFF) << 16) | (b[off + 3] << 24);
+    }
+
+    private static int hash(int i) {
+        return (i * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
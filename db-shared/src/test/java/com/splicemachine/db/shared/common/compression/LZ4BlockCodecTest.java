@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.db.shared.common.compression;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class LZ4BlockCodecTest {
+
+    @Test
+    public void testEmptyInput() {
+        byte[] compressed = roundTrip(new byte[0]);
+        // a single token without literals
+        Assert.assertEquals(1, compressed.length);
+    }
+
+    @Test
+    public void testInputShorterThanMinimumMatchBlock() {
+        for (int length = 1; length <= 13; length++) {
+            byte[] data = new byte[length]; // all zeroes, yet too short to hold a match
+            roundTrip(data);
+        }
+    }
+
+    @Test
+    public void testIncompressibleInput() {
+        byte[] data = new byte[100000];
+        new Random(42).nextBytes(data);
+        byte[] compressed = roundTrip(data);
+        Assert.assertTrue(compressed.length <= LZ4BlockCodec.maxCompressedLength(data.length));
+    }
+
+    @Test
+    public void testLongLiteralRun() {
+        // more than 15 + 255 literals before the first match needs several length extension bytes
+        byte[] data = new byte[2000];
+        new Random(7).nextBytes(data);
+        Arrays.fill(data, 1000, 2000, (byte) 'x');
+        byte[] compressed = roundTrip(data);
+        Assert.assertTrue(compressed.length < data.length);
+    }
+
+    @Test
+    public void testLongMatchRun() {
+        byte[] data = new byte[70000];
+        for (int i = 0; i < data.length; i++)
+            data[i] = (byte) (i % 7);
+        byte[] compressed = roundTrip(data);
+        Assert.assertTrue(compressed.length < data.length / 100);
+    }
+
+    @Test
+    public void testMatchesFartherThanMaxDistance() {
+        // the same random block twice, 70000 bytes apart, is beyond the reach of a match
+        byte[] block = new byte[1000];
+        new Random(3).nextBytes(block);
+        byte[] data = new byte[72000];
+        new Random(5).nextBytes(data);
+        System.arraycopy(block, 0, data, 0, block.length);
+        System.arraycopy(block, 0, data, 71000, block.length);
+        roundTrip(data);
+    }
+
+    @Test
+    public void testMixedInput() {
+        Random random = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            byte[] data = new byte[random.nextInt(5000)];
+            for (int pos = 0; pos < data.length; ) {
+                int run = Math.min(data.length - pos, 1 + random.nextInt(300));
+                if (random.nextBoolean() && pos > 0) {
+                    // copy an earlier part of the input, possibly overlapping the destination
+                    int from = random.nextInt(pos);
+                    for (int j = 0; j < run; j++)
+                        data[pos + j] = data[from + j];
+                } else {
+                    for (int j = 0; j < run; j++)
+                        data[pos + j] = (byte) random.nextInt(4);
+                }
+                pos += run;
+            }
+            roundTrip(data);
+        }
+    }
+
+    @Test
+    public void testOverlappingMatch() {
+        // "abc" then a match at offset 3 of length 5: the match copies its own output
+        byte[] block = {
+                (byte) 0x31, 'a', 'b', 'c', 3, 0, // 3 literals, match length 4 + 1
+                (byte) 0x50, 'c', 'a', 'b', 'c', 'a'}; // 5 final literals
+        byte[] out = new byte[13];
+        LZ4BlockCodec.decompress(block, 0, block.length, out, 0, out.length);
+        Assert.assertEquals("abcabcabcabca", new String(out, StandardCharsets.US_ASCII));
+
+        byte[] expected = new byte[200];
+        Arrays.fill(expected, (byte) 'z');
+        byte[] compressed = roundTrip(expected);
+        // a run of one byte is a single literal followed by a match at offset 1
+        Assert.assertEquals('z', compressed[1]);
+        Assert.assertEquals(1, compressed[2]);
+        Assert.assertEquals(0, compressed[3]);
+    }
+
+    @Test
+    public void testCompressAtOffsets() {
+        byte[] data = new byte[3000];
+        for (int i = 0; i < data.length; i++)
+            data[i] = (byte) (i / 10);
+        byte[] src = new byte[data.length + 17];
+        System.arraycopy(data, 0, src, 17, data.length);
+        byte[] compressed = new byte[5 + LZ4BlockCodec.maxCompressedLength(data.length)];
+        int compressedLength = LZ4BlockCodec.compress(src, 17, data.length, compressed, 5);
+        byte[] out = new byte[data.length + 9];
+        LZ4BlockCodec.decompress(compressed, 5, compressedLength, out, 9, data.length);
+        Assert.assertArrayEquals(data, Arrays.copyOfRange(out, 9, out.length));
+    }
+
+    @Test
+    public void testTruncatedInput() {
+        byte[] data = new byte[5000];
+        for (int i = 0; i < data.length; i++)
+            data[i] = (byte) (i % 13 == 0 ? i : 'q');
+        byte[] compressed = compress(data);
+        for (int length = 0; length < compressed.length; length++) {
+            try {
+                LZ4BlockCodec.decompress(compressed, 0, length, new byte[data.length], 0, data.length);
+                Assert.fail("Decompressed a block truncated to " + length + " bytes");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedInput() {
+        // match before the start of the output
+        assertMalformed(new byte[]{(byte) 0x10, 'a', 5, 0, (byte) 0x00}, 10);
+        // zero match offset
+        assertMalformed(new byte[]{(byte) 0x10, 'a', 0, 0, (byte) 0x00}, 10);
+        // literals beyond the end of the input
+        assertMalformed(new byte[]{(byte) 0x50, 'a', 'b'}, 5);
+        // output longer than expected
+        assertMalformed(new byte[]{(byte) 0x30, 'a', 'b', 'c'}, 2);
+        // output shorter than expected
+        assertMalformed(new byte[]{(byte) 0x30, 'a', 'b', 'c'}, 4);
+        // match running past the end of the output
+        assertMalformed(new byte[]{(byte) 0x1F, 'a', 1, 0, 100, (byte) 0x00}, 20);
+        // length extension cut off
+        assertMalformed(new byte[]{(byte) 0xF0, (byte) 0xFF}, 300);
+    }
+
+    private static void assertMalformed(byte[] block, int destLength) {
+        try {
+            LZ4BlockCodec.decompress(block, 0, block.length, new byte[destLength], 0, destLength);
+            Assert.fail("Decompressed malformed block " + Arrays.toString(block));
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static byte[] compress(byte[] data) {
+        byte[] compressed = new byte[LZ4BlockCodec.maxCompressedLength(data.length)];
+        int length = LZ4BlockCodec.compress(data, 0, data.length, compressed, 0);
+        return Arrays.copyOf(compressed, length);
+    }
+
+    private static byte[] roundTrip(byte[] data) {
+        byte[] compressed = compress(data);
+        byte[] out = new byte[data.length];
+        LZ4BlockCodec.decompress(compressed, 0, compressed.length, out, 0, out.length);
+        Assert.assertArrayEquals(data, out);
+        return compressed;
+    }
+}
@@ -17,11 +17,13 @@ package com.splicemachine.derby.hbase;
 import java.io.IOException;
 import java.net.URISyntaxException;
 
+import com.splicemachine.access.HConfiguration;
 import com.splicemachine.access.api.*;
 import com.splicemachine.access.hbase.HBaseTableInfoFactory;
 import com.splicemachine.concurrent.Clock;
 import com.splicemachine.hbase.ZkUtils;
 import com.splicemachine.ipc.ChannelFactoryService;
+import com.splicemachine.pipeline.HWritePressureMonitor;
 import com.splicemachine.pipeline.MappedPipelineFactory;
 import com.splicemachine.pipeline.PartitionWritePipeline;
 import com.splicemachine.pipeline.PipelineDriver;
@@ -33,6 +35,7 @@ import com.splicemachine.pipeline.api.PipelineMeter;
 import com.splicemachine.pipeline.api.WritePipelineFactory;
 import com.splicemachine.ipc.RpcChannelFactory;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryDriver;
+import com.splicemachine.pipeline.traffic.WritePressureMonitor;
 import com.splicemachine.pipeline.utils.PipelineCompressor;
 import com.splicemachine.pipeline.utils.SimplePipelineCompressor;
 import com.splicemachine.si.api.data.ExceptionFactory;
@@ -71,6 +74,7 @@ public class HBasePipelineEnvironment implements PipelineEnvironment{
     private final BulkWriterFactory writerFactory;
     private final PipelineMeter meter = new CountingPipelineMeter();
     private final WritePipelineFactory pipelineFactory;
+    private final WritePressureMonitor writePressureMonitor;
 
     public static HBasePipelineEnvironment loadEnvironment(Clock systemClock,ContextFactoryDriver ctxFactoryLoader) throws IOException{
         HBasePipelineEnvironment env = INSTANCE;
@@ -97,6 +101,7 @@ public class HBasePipelineEnvironment implements PipelineEnvironment{
         this.contextFactoryLoader = ctxFactoryLoader;
         this.pipelineConfiguration = env.configuration();
         this.pipelineFactory = new AvailablePipelineFactory();
+        this.writePressureMonitor = new HWritePressureMonitor(HConfiguration.unwrapDelegate());
 
         KryoPool kryoPool=new KryoPool(pipelineConfiguration.getPipelineKryoPoolSize());
         kryoPool.setKryoRegistry(new PipelineKryoRegistry());
@@ -189,6 +194,11 @@ public class HBasePipelineEnvironment implements PipelineEnvironment{
         return pipelineFactory;
     }
 
+    @Override
+    public WritePressureMonitor writePressureMonitor(){
+        return writePressureMonitor;
+    }
+
     /**
      *
      * Retrieve the appropriate filesystem based on the scheme.  If not scheme provided,
@@ -39,6 +39,7 @@ import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.region.RegionServerControl;
 import com.splicemachine.storage.RegionPartition;
 import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hbase.CoprocessorEnvironment;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.coprocessor.ObserverContext;
@@ -50,6 +51,7 @@ import org.apache.hadoop.hbase.ipc.ServerRpcController;
 import org.apache.hadoop.hbase.regionserver.HBasePlatformUtils;
 import org.apache.hadoop.hbase.regionserver.HRegion;
 import org.apache.hadoop.hbase.regionserver.RegionServerServices;
+import org.apache.hadoop.hbase.util.Pair;
 import org.apache.log4j.Logger;
 import splice.com.google.common.base.Function;
 import splice.com.google.common.collect.Lists;
@@ -57,6 +59,7 @@ import splice.com.google.common.collect.Lists;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -142,6 +145,16 @@ public class SpliceIndexEndpoint extends SpliceMessage.SpliceIndexService implem
         }
     }
 
+    @Override
+    public void postBulkLoadHFile(ObserverContext<RegionCoprocessorEnvironment> ctx,
+                                  List<Pair<byte[], String>> stagingFamilyPaths,
+                                  Map<byte[], List<Path>> finalPaths) throws IOException{
+        // bulk loaded rows never pass through the pipeline, so the region's modification count is no longer known
+        PartitionWritePipeline pipeline=writePipeline;
+        if(pipeline!=null)
+            pipeline.getModifications().recordBulkLoad();
+    }
+
     @Override
     public Iterable<Service> getServices() {
         List<Service> services = Lists.newArrayList();
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.pipeline;
+
+import com.splicemachine.pipeline.traffic.WritePressureMonitor;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.io.util.MemorySizeUtil;
+import org.apache.log4j.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads write pressure from the metrics the region server publishes over JMX. When the metrics are
+ * not registered (e.g. outside of a region server) every signal reads as zero.
+ */
+public class HWritePressureMonitor implements WritePressureMonitor{
+    private static final Logger LOG=Logger.getLogger(HWritePressureMonitor.class);
+    private static final String SERVER_METRICS="Hadoop:service=HBase,name=RegionServer,sub=Server";
+    private static final String WAL_METRICS="Hadoop:service=HBase,name=RegionServer,sub=WAL";
+
+    private final MBeanServer mbs;
+    private final ObjectName serverMetrics;
+    private final ObjectName walMetrics;
+    private final long globalMemstoreLimit;
+
+    public HWritePressureMonitor(Configuration conf){
+        this.mbs=ManagementFactory.getPlatformMBeanServer();
+        try{
+            this.serverMetrics=new ObjectName(SERVER_METRICS);
+            this.walMetrics=new ObjectName(WAL_METRICS);
+        }catch(Exception e){
+            throw new IllegalStateException(e);
+        }
+        this.globalMemstoreLimit=(long)(Runtime.getRuntime().maxMemory()*MemorySizeUtil.getGlobalMemStoreHeapPercent(conf,false));
+    }
+
+    @Override
+    public double memstoreUsage(){
+        if(globalMemstoreLimit<=0) return 0d;
+        return read(serverMetrics,"memStoreSize")/globalMemstoreLimit;
+    }
+
+    @Override
+    public double flushLatencyMillis(){
+        return read(serverMetrics,"FlushTime_mean");
+    }
+
+    @Override
+    public double walSyncLatencyMillis(){
+        return read(walMetrics,"SyncTime_mean");
+    }
+
+    private double read(ObjectName name,String attribute){
+        try{
+            if(!mbs.isRegistered(name)) return 0d;
+            Object value=mbs.getAttribute(name,attribute);
+            return value instanceof Number?((Number)value).doubleValue():0d;
+        }catch(Exception e){
+            if(LOG.isTraceEnabled())
+                LOG.trace("Unable to read "+attribute+" from "+name,e);
+            return 0d;
+        }
+    }
+}
@@ -49,6 +49,7 @@ import com.splicemachine.db.impl.store.access.PC_XenaVersion;
 import com.splicemachine.derby.catalog.TriggerNewTransitionRows;
 import com.splicemachine.derby.catalog.TriggerOldTransitionRows;
 import com.splicemachine.derby.ddl.*;
+import com.splicemachine.derby.impl.kryo.RowBatchSerializer;
 import com.splicemachine.derby.impl.kryo.SparkValueRowSerializer;
 import com.splicemachine.derby.impl.sql.execute.TriggerRowHolderImpl;
 import com.splicemachine.derby.impl.sql.execute.actions.DeleteConstantOperation;
@@ -133,6 +134,10 @@ public class SpliceSparkKryoRegistrator implements KryoRegistrator, KryoPool.Kry
                         kp = spliceKryoPool = new KryoPool(kpSize);
                     }
                     kp.setKryoRegistry(new SpliceSparkKryoRegistrator());
+                    if(driver!=null){
+                        //register an instance per core up front, rather than on the first operations
+                        kp.prewarm(Runtime.getRuntime().availableProcessors());
+                    }
                 }
             }
         }
@@ -945,5 +950,6 @@ public class SpliceSparkKryoRegistrator implements KryoRegistrator, KryoPool.Kry
         instance.register(TriggerDescriptorV3.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(StringAggregator.class,EXTERNALIZABLE_SERIALIZER);
         instance.register(StringBuilder.class);
+        instance.register(StreamProtocol.RowBatch.class,new RowBatchSerializer());
     }
 }
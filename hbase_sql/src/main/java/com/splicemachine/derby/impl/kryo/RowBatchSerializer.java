@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.services.io.StoredFormatIds;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.DataValueFactoryImpl;
+import com.splicemachine.db.iapi.types.SQLChar;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.utils.marshall.dvd.DescriptorSerializer;
+import com.splicemachine.derby.utils.marshall.dvd.VersionedSerializers;
+import com.splicemachine.encoding.MultiFieldDecoder;
+import com.splicemachine.encoding.MultiFieldEncoder;
+import com.splicemachine.stream.StreamProtocol;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Wire format for {@link StreamProtocol.RowBatch}.
+ *
+ * When every row in the batch is a plain {@link ValueRow} with the same column types, the column count and format
+ * ids are written once and each column is encoded as its own run of N values, which keeps similar values next to
+ * each other and compresses much better than interleaved rows. Any other batch (mixed types, UDTs, other row
+ * classes) falls back to writing each row with Kryo. The payload is optionally LZ4 compressed, and sent
+ * uncompressed when compression doesn't make it smaller.
+ *
+ * A column carries a bitmap of its null rows, and only the values of the other rows are encoded. DECIMAL columns
+ * also carry the precision and scale of every row, and character columns their declared width, which the
+ * encoded values don't hold.
+ *
+ * <pre>
+ * flags(byte) numRows(varint) rawLength(varint) [compressedLength(varint)] payload
+ * columnar payload: numColumns(varint) formatId(varint)* column*
+ * column:           nullsLength(varint) nulls valuesLength(varint) values attribute(varint)*
+ * row payload:      (class and object)*
+ * </pre>
+ */
+public class RowBatchSerializer extends Serializer<StreamProtocol.RowBatch> {
+    private static final byte COLUMNAR = 0x01;
+    private static final byte COMPRESSED = 0x02;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    @Override
+    public void write(Kryo kryo, Output output, StreamProtocol.RowBatch batch) {
+        List<Object> rows = batch.rows;
+        int[] formatIds = columnarFormatIds(rows);
+        byte flags = 0;
+        Output payload = new Output(4096, -1);
+        if (formatIds != null) {
+            flags |= COLUMNAR;
+            writeColumns(payload, rows, formatIds);
+        } else {
+            for (Object row : rows) {
+                kryo.writeClassAndObject(payload, row);
+            }
+        }
+        byte[] raw = payload.getBuffer();
+        int rawLength = payload.position();
+        byte[] compressed = null;
+        int compressedLength = 0;
+        if (batch.compress && rawLength > 0) {
+            LZ4Compressor compressor = LZ4.fastCompressor();
+            compressed = new byte[compressor.maxCompressedLength(rawLength)];
+            compressedLength = compressor.compress(raw, 0, rawLength, compressed, 0, compressed.length);
+            if (compressedLength < rawLength)
+                flags |= COMPRESSED;
+        }
+
+        output.writeByte(flags);
+        output.writeInt(rows.size(), true);
+        output.writeInt(rawLength, true);
+        if ((flags & COMPRESSED) != 0) {
+            output.writeInt(compressedLength, true);
+            output.writeBytes(compressed, 0, compressedLength);
+        } else {
+            output.writeBytes(raw, 0, rawLength);
+        }
+    }
+
+    @Override
+    public StreamProtocol.RowBatch read(Kryo kryo, Input input, Class<StreamProtocol.RowBatch> type) {
+        byte flags = input.readByte();
+        int numRows = input.readInt(true);
+        int rawLength = input.readInt(true);
+        byte[] raw;
+        if ((flags & COMPRESSED) != 0) {
+            byte[] compressed = input.readBytes(input.readInt(true));
+            raw = new byte[rawLength];
+            LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+            decompressor.decompress(compressed, 0, raw, 0, rawLength);
+        } else {
+            raw = input.readBytes(rawLength);
+        }
+
+        Input payload = new Input(raw);
+        List<Object> rows;
+        if ((flags & COLUMNAR) != 0) {
+            rows = readColumns(payload, numRows);
+        } else {
+            rows = new ArrayList<>(numRows);
+            for (int i = 0; i < numRows; i++) {
+                rows.add(kryo.readClassAndObject(payload));
+            }
+        }
+        return new StreamProtocol.RowBatch(rows, (flags & COMPRESSED) != 0);
+    }
+
+    /**
+     * @return the shared column format ids if the batch can be written column-wise, null otherwise
+     */
+    private static int[] columnarFormatIds(List<Object> rows) {
+        if (rows.isEmpty())
+            return null;
+        int[] formatIds = null;
+        for (Object row : rows) {
+            if (row == null || row.getClass() != ValueRow.class)
+                return null;
+            DataValueDescriptor[] dvds = ((ValueRow) row).getRowArray();
+            if (formatIds == null) {
+                formatIds = new int[dvds.length];
+                for (int i = 0; i < dvds.length; i++) {
+                    if (dvds[i] == null)
+                        return null;
+                    formatIds[i] = dvds[i].getTypeFormatId();
+                    if (formatIds[i] == StoredFormatIds.SQL_USERTYPE_ID_V3 || getDVD(formatIds[i]) == null)
+                        return null; // UDTs have their own serialization, see SparkValueRowSerializer
+                }
+            } else {
+                if (dvds.length != formatIds.length)
+                    return null;
+                for (int i = 0; i < dvds.length; i++) {
+                    if (dvds[i] == null || dvds[i].getTypeFormatId() != formatIds[i])
+                        return null;
+                }
+            }
+        }
+        return formatIds;
+    }
+
+    private static void writeColumns(Output payload, List<Object> rows, int[] formatIds) {
+        payload.writeInt(formatIds.length, true);
+        for (int formatId : formatIds) {
+            payload.writeInt(formatId, true);
+        }
+        DescriptorSerializer[] serializers = getSerializers(formatIds);
+        MultiFieldEncoder encoder = MultiFieldEncoder.create(rows.size());
+        try {
+            for (int c = 0; c < formatIds.length; c++) {
+                BitSet nulls = new BitSet(rows.size());
+                encoder.reset();
+                for (int r = 0; r < rows.size(); r++) {
+                    DataValueDescriptor dvd = ((ValueRow) rows.get(r)).getRowArray()[c];
+                    if (dvd.isNull())
+                        nulls.set(r);
+                    else
+                        serializers[c].encode(encoder, dvd, false);
+                }
+                byte[] nullBytes = nulls.toByteArray();
+                payload.writeInt(nullBytes.length, true);
+                payload.writeBytes(nullBytes);
+                byte[] column = encoder.build();
+                payload.writeInt(column.length, true);
+                payload.writeBytes(column);
+                writeAttributes(payload, rows, c);
+            }
+        } catch (StandardException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<Object> readColumns(Input payload, int numRows) {
+        int numColumns = payload.readInt(true);
+        int[] formatIds = new int[numColumns];
+        DataValueDescriptor[] template = new DataValueDescriptor[numColumns];
+        for (int c = 0; c < numColumns; c++) {
+            formatIds[c] = payload.readInt(true);
+            template[c] = getDVD(formatIds[c]);
+        }
+        DescriptorSerializer[] serializers = getSerializers(formatIds);
+        DataValueDescriptor[][] rowArrays = new DataValueDescriptor[numRows][];
+        for (int r = 0; r < numRows; r++) {
+            DataValueDescriptor[] dvds = new DataValueDescriptor[numColumns];
+            for (int c = 0; c < numColumns; c++) {
+                dvds[c] = template[c].getNewNull();
+            }
+            rowArrays[r] = dvds;
+        }
+        MultiFieldDecoder decoder = MultiFieldDecoder.create();
+        try {
+            for (int c = 0; c < numColumns; c++) {
+                BitSet nulls = BitSet.valueOf(payload.readBytes(payload.readInt(true)));
+                decoder.set(payload.readBytes(payload.readInt(true)));
+                for (int r = 0; r < numRows; r++) {
+                    if (!nulls.get(r))
+                        serializers[c].decode(decoder, rowArrays[r][c], false);
+                }
+                readAttributes(payload, rowArrays, c);
+            }
+        } catch (StandardException e) {
+            throw new RuntimeException(e);
+        }
+        List<Object> rows = new ArrayList<>(numRows);
+        for (DataValueDescriptor[] dvds : rowArrays) {
+            ValueRow row = new ValueRow(numColumns);
+            row.setRowArray(dvds);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /*
+     * Write what the encoded values of a DECIMAL or character column lose: decoding a value sets the precision and
+     * scale of a DECIMAL from the value itself, and nothing sets the declared width of a CHAR
+     */
+    private static void writeAttributes(Output payload, List<Object> rows, int c) {
+        for (Object row : rows) {
+            DataValueDescriptor dvd = ((ValueRow) row).getRowArray()[c];
+            if (dvd instanceof SQLDecimal) {
+                payload.writeInt(((SQLDecimal) dvd).getPrecision(), false);
+                payload.writeInt(((SQLDecimal) dvd).getScale(), false);
+            } else if (dvd instanceof SQLChar) {
+                payload.writeInt(((SQLChar) dvd).getSqlCharSize(), false);
+            }
+        }
+    }
+
+    private static void readAttributes(Input payload, DataValueDescriptor[][] rowArrays, int c) {
+        for (DataValueDescriptor[] dvds : rowArrays) {
+            DataValueDescriptor dvd = dvds[c];
+            if (dvd instanceof SQLDecimal) {
+                ((SQLDecimal) dvd).setPrecision(payload.readInt(false));
+                ((SQLDecimal) dvd).setScale(payload.readInt(false));
+            } else if (dvd instanceof SQLChar) {
+                ((SQLChar) dvd).setSqlCharSize(payload.readInt(false));
+            }
+        }
+    }
+
+    private static DescriptorSerializer[] getSerializers(int[] formatIds) {
+        DataValueDescriptor[] dvds = new DataValueDescriptor[formatIds.length];
+        for (int i = 0; i < formatIds.length; i++) {
+            dvds[i] = getDVD(formatIds[i]);
+        }
+        return VersionedSerializers.latestVersion(false).getSerializers(dvds);
+    }
+
+    private static DataValueDescriptor getDVD(int formatId) {
+        if (formatId == StoredFormatIds.SQL_DECIMAL_ID) {
+            return new SQLDecimal();
+        } else {
+            return DataValueFactoryImpl.getNullDVDWithUCS_BASICcollation(formatId);
+        }
+    }
+}
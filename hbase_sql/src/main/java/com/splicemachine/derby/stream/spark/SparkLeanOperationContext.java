@@ -226,6 +226,26 @@ public class SparkLeanOperationContext<Op extends SpliceOperation> implements Op
         return 0;
     }
 
+    @Override
+    public void recordSpilledBytes(long bytes) {
+
+    }
+
+    @Override
+    public long getSpilledBytes() {
+        return 0;
+    }
+
+    @Override
+    public void recordBufferedBytes(long bytes) {
+
+    }
+
+    @Override
+    public long getMaxBufferedBytes() {
+        return 0;
+    }
+
     @Override
     public void pushScope(String displayName){
         SpliceSpark.pushScope(displayName);
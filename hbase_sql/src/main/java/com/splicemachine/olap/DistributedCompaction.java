@@ -90,6 +90,11 @@ public class DistributedCompaction extends DistributedJob{
         return jobGroup;
     }
 
+    @Override
+    public String getSchedulingQueue(){
+        return "compaction";
+    }
+
     @Override
     public int hashCode(){
         return jobGroup.hashCode();
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.olap;
+
+import com.google.common.base.Splitter;
+import com.splicemachine.derby.iapi.sql.olap.OlapStatus;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.log4j.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bounds the number of jobs the Olap Server runs concurrently, and decides which queued job runs next.
+ *
+ * Jobs are queued in two levels of pools: first by scheduling queue (the job category, e.g. query or compaction),
+ * then by user within the queue. When a slot frees up the scheduler picks, at each level, the pool with the highest
+ * priority, then the one furthest below its fair share (running jobs divided by its weight), and finally the one
+ * whose oldest job has been waiting the longest. A heavy user therefore can't take every slot while other users or
+ * queues have jobs waiting.
+ *
+ * A queue can also hold reserved slots, which only its own jobs use, so that e.g. compactions still start while
+ * queries take every other slot. The rest of the slots are shared by all queues.
+ *
+ * @see com.splicemachine.access.configuration.OlapConfigurations#OLAP_SERVER_FAIR_SHARE_WEIGHTS
+ * @see com.splicemachine.access.configuration.OlapConfigurations#OLAP_SERVER_FAIR_SHARE_PRIORITIES
+ * @see com.splicemachine.access.configuration.OlapConfigurations#OLAP_SERVER_FAIR_SHARE_RESERVED_JOBS
+ */
+class OlapJobScheduler implements OlapJobSchedulerStatistics{
+    private static final Logger LOG=Logger.getLogger(OlapJobScheduler.class);
+    static final String SYSTEM_USER="splice";
+
+    private final Executor executor;
+    private final int maxRunningJobs;
+    private final Map<String,Integer> weights;
+    private final Map<String,Integer> priorities;
+    private final Map<String,Integer> reservedJobs;
+    private final int sharedJobs;
+
+    // all guarded by this
+    private final Map<String,Pool> queues=new HashMap<>();
+    private int running;
+    private int queued;
+    private long sequence;
+    private long startedJobs;
+    private long totalQueueWaitTime;
+    private long maxQueueWaitTime;
+
+    OlapJobScheduler(Executor executor,int maxRunningJobs,String weights,String priorities,String reservedJobs){
+        this.executor=executor;
+        this.maxRunningJobs=Math.max(1,maxRunningJobs);
+        this.weights=parse(weights,1);
+        this.priorities=parse(priorities,Integer.MIN_VALUE);
+        Map<String,Integer> reserved=parse(reservedJobs,0);
+        int totalReserved=0;
+        for(int r:reserved.values())
+            totalReserved+=r;
+        if(totalReserved>=this.maxRunningJobs){
+            LOG.warn("Ignoring reserved jobs "+reservedJobs+", they would leave no slot for other queues out of "+this.maxRunningJobs);
+            reserved.clear();
+            totalReserved=0;
+        }
+        this.reservedJobs=reserved;
+        this.sharedJobs=this.maxRunningJobs-totalReserved;
+    }
+
+    void registerJMX(){
+        try{
+            MBeanServer mbs=ManagementFactory.getPlatformMBeanServer();
+            mbs.registerMBean(this,new ObjectName("com.splicemachine.olap:type=OlapJobSchedulerStatistics"));
+        }catch(Exception e){
+            SpliceLogUtils.warn(LOG,"Unable to register OlapJobScheduler with JMX, jobs will still be scheduled but metrics will not be available: %s",e.getMessage());
+        }
+    }
+
+    /**
+     * Queue a job, starting it right away if there's a free slot.
+     *
+     * @param user the user to account the job to, null for system jobs
+     */
+    synchronized void submit(String queue,String user,OlapJobStatus status,Runnable job){
+        Pool queuePool=queues.computeIfAbsent(queue,this::newQueue);
+        Pool userPool=queuePool.children.computeIfAbsent(user==null?SYSTEM_USER:user,this::newPool);
+        status.markQueued();
+        userPool.jobs.add(new ScheduledJob(queuePool,userPool,status,job,sequence++));
+        queuePool.queued++;
+        userPool.queued++;
+        queued++;
+        if(LOG.isTraceEnabled())
+            SpliceLogUtils.trace(LOG,"Queued job in %s/%s, running=%d queued=%d",queue,userPool.name,running,queued);
+        dispatch();
+    }
+
+    /* ****************************************************************************************************************/
+    /*JMX methods*/
+
+    @Override
+    public int getMaxRunningJobs(){
+        return maxRunningJobs;
+    }
+
+    @Override
+    public synchronized int getRunningJobs(){
+        return running;
+    }
+
+    @Override
+    public synchronized int getQueuedJobs(){
+        return queued;
+    }
+
+    @Override
+    public synchronized double getAvgQueueWaitTime(){
+        return startedJobs==0?0d:(double)totalQueueWaitTime/startedJobs;
+    }
+
+    @Override
+    public synchronized long getMaxQueueWaitTime(){
+        return maxQueueWaitTime;
+    }
+
+    @Override
+    public synchronized Map<String,Integer> getRunningJobsByQueue(){
+        Map<String,Integer> counts=new HashMap<>();
+        for(Pool queue:queues.values()){
+            counts.put(queue.name,queue.running);
+        }
+        return counts;
+    }
+
+    @Override
+    public synchronized Map<String,Integer> getQueuedJobsByQueue(){
+        Map<String,Integer> counts=new HashMap<>();
+        for(Pool queue:queues.values()){
+            counts.put(queue.name,queue.queued);
+        }
+        return counts;
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private void dispatch(){
+        assert Thread.holdsLock(this);
+        while(running<maxRunningJobs && queued>0){
+            Pool queuePool=select(queues.values(),sharedRunning()<sharedJobs);
+            if(queuePool==null)
+                break; // only queues whose reserved slots are all taken have jobs waiting
+            Pool userPool=select(queuePool.children.values(),true);
+            ScheduledJob next=userPool.jobs.poll();
+            queuePool.queued--;
+            userPool.queued--;
+            queued--;
+            if(next.status.currentState()!=OlapStatus.State.SUBMITTED){
+                // cancelled, or the client went away while we were queued
+                if(LOG.isTraceEnabled())
+                    SpliceLogUtils.trace(LOG,"Dropping queued job %s",next.status);
+                removeIfIdle(queuePool,userPool);
+                continue;
+            }
+            next.status.markDequeued();
+            long waitTime=next.status.getQueueWaitTime();
+            startedJobs++;
+            totalQueueWaitTime+=waitTime;
+            maxQueueWaitTime=Math.max(maxQueueWaitTime,waitTime);
+
+            queuePool.running++;
+            userPool.running++;
+            running++;
+            try{
+                executor.execute(()->run(next));
+            }catch(RejectedExecutionException ree){
+                LOG.error("Unable to start job "+next.status,ree);
+                next.status.markCompleted(new FailedOlapResult(ree));
+                finished(next);
+            }
+        }
+    }
+
+    private void run(ScheduledJob job){
+        try{
+            job.job.run();
+        }finally{
+            synchronized(this){
+                finished(job);
+                dispatch();
+            }
+        }
+    }
+
+    private void finished(ScheduledJob job){
+        job.queuePool.running--;
+        job.userPool.running--;
+        running--;
+        removeIfIdle(job.queuePool,job.userPool);
+    }
+
+    private void removeIfIdle(Pool queuePool,Pool userPool){
+        // user pools come and go with the users, queues are few and long lived
+        if(userPool.running==0 && userPool.queued==0)
+            queuePool.children.remove(userPool.name);
+    }
+
+    /*
+     * The number of running jobs which don't fit in the reserved slots of their queue
+     */
+    private int sharedRunning(){
+        int shared=0;
+        for(Pool queue:queues.values()){
+            shared+=Math.max(0,queue.running-queue.reserved);
+        }
+        return shared;
+    }
+
+    /*
+     * Pools with all their reserved slots taken can only start a job while a shared slot is free
+     */
+    private static Pool select(Collection<Pool> pools,boolean sharedFree){
+        Pool best=null;
+        for(Pool pool:pools){
+            if(pool.queued==0) continue;
+            if(!sharedFree && pool.running>=pool.reserved) continue;
+            if(best==null || compare(pool,best)<0)
+                best=pool;
+        }
+        assert best!=null || !sharedFree: "No pool with queued jobs";
+        return best;
+    }
+
+    private static int compare(Pool a,Pool b){
+        int c=Integer.compare(b.effectivePriority(),a.effectivePriority());
+        if(c!=0) return c;
+        c=Double.compare((double)a.running/a.weight,(double)b.running/b.weight);
+        if(c!=0) return c;
+        return Long.compare(a.oldestSequence(),b.oldestSequence());
+    }
+
+    private Pool newQueue(String name){
+        Integer priority=priorities.get(name);
+        return new Pool(name,weights.getOrDefault(name,1),priority==null?0:priority,reservedJobs.getOrDefault(name,0));
+    }
+
+    private Pool newPool(String name){
+        Integer priority=priorities.get(name);
+        return new Pool(name,weights.getOrDefault(name,1),priority==null?0:priority,0);
+    }
+
+    private static Map<String,Integer> parse(String spec,int minValue){
+        Map<String,Integer> values=new HashMap<>();
+        if(spec==null || spec.trim().isEmpty())
+            return values;
+        for(Map.Entry<String,String> entry:Splitter.on(",").omitEmptyStrings().trimResults().withKeyValueSeparator("=").split(spec).entrySet()){
+            try{
+                values.put(entry.getKey(),Math.max(minValue,Integer.parseInt(entry.getValue().trim())));
+            }catch(NumberFormatException nfe){
+                LOG.warn("Ignoring invalid scheduling setting "+entry.getKey()+"="+entry.getValue());
+            }
+        }
+        return values;
+    }
+
+    private static class Pool{
+        final String name;
+        final int weight;
+        final int priority;
+        final int reserved;
+        final Map<String,Pool> children=new HashMap<>();
+        final ArrayDeque<ScheduledJob> jobs=new ArrayDeque<>();
+        int running;
+        int queued;
+
+        Pool(String name,int weight,int priority,int reserved){
+            this.name=name;
+            this.weight=weight;
+            this.priority=priority;
+            this.reserved=reserved;
+        }
+
+        /*
+         * A queue is as urgent as the most urgent user waiting in it, so a high priority user isn't held back
+         * by the share of the queue it's in
+         */
+        int effectivePriority(){
+            int p=priority;
+            for(Pool child:children.values()){
+                if(child.queued>0)
+                    p=Math.max(p,child.priority);
+            }
+            return p;
+        }
+
+        long oldestSequence(){
+            long oldest=Long.MAX_VALUE;
+            ScheduledJob head=jobs.peek();
+            if(head!=null)
+                oldest=head.sequence;
+            for(Pool child:children.values()){
+                if(child.queued>0)
+                    oldest=Math.min(oldest,child.oldestSequence());
+            }
+            return oldest;
+        }
+    }
+
+    private static class ScheduledJob{
+        final Pool queuePool;
+        final Pool userPool;
+        final OlapJobStatus status;
+        final Runnable job;
+        final long sequence;
+
+        ScheduledJob(Pool queuePool,Pool userPool,OlapJobStatus status,Runnable job,long sequence){
+            this.queuePool=queuePool;
+            this.userPool=userPool;
+            this.status=status;
+            this.job=job;
+            this.sequence=sequence;
+        }
+    }
+}
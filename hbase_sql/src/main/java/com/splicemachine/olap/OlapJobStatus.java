@@ -40,6 +40,8 @@ public class OlapJobStatus implements OlapStatus{
     private volatile AtomicReference<OlapStatus.State> currentState = new AtomicReference<>(State.NOT_SUBMITTED);
     private ArrayBlockingQueue<OlapResult> results;
     private volatile OlapResult cachedResult;
+    private volatile long queuedTime = -1;
+    private volatile long dequeuedTime = -1;
 
     public OlapJobStatus(long tickTime,int numTicks){
         //TODO -sf- remove the constants
@@ -169,8 +171,27 @@ public class OlapJobStatus implements OlapStatus{
         return cachedResult != null;
     }
 
+    /**
+     * @return milliseconds this job waited (or has been waiting so far) in the scheduler's queues before it was
+     * allowed to run, 0 if it was never queued
+     */
+    public long getQueueWaitTime(){
+        long queued = queuedTime;
+        if(queued<0) return 0;
+        long dequeued = dequeuedTime;
+        return (dequeued<0 ? System.currentTimeMillis() : dequeued) - queued;
+    }
+
     /*package-private methods*/
     /* ****************************************************************************************************************/
+    void markQueued(){
+        queuedTime = System.currentTimeMillis();
+    }
+
+    void markDequeued(){
+        dequeuedTime = System.currentTimeMillis();
+    }
+
     State currentState(){
         /*
          * Get the current state of the job. If the job has timed out because the waiting client has died (or
@@ -206,6 +227,7 @@ public class OlapJobStatus implements OlapStatus{
     public String toString() {
         return "OlapJobStatus{" +
                 "currentState=" + currentState +
+                ", queueWaitTime=" + getQueueWaitTime() +
                 ", failureDetector.phi =" + ((PhiAccrualFailureDetector)failureDetector).phi() +
                 '}';
     }
@@ -33,7 +33,7 @@ import java.util.concurrent.ThreadFactory;
 class OlapRequestHandler extends AbstractOlapHandler{
     private static final Logger LOG =Logger.getLogger(OlapRequestHandler.class);
 
-    private final ExecutorService executionPool;
+    private final OlapJobScheduler scheduler;
     private final Clock clock;
     private final long clientCheckTimeMs;
 
@@ -42,7 +42,7 @@ class OlapRequestHandler extends AbstractOlapHandler{
                        Clock clock,
                        long clientCheckTimeMs){
         super(jobRegistry);
-        this.executionPool=configureThreadPool(config);
+        this.scheduler=configureScheduler(config);
         this.clock=clock;
         this.clientCheckTimeMs=clientCheckTimeMs;
     }
@@ -94,18 +94,17 @@ class OlapRequestHandler extends AbstractOlapHandler{
             LOG.trace("Job "+ jobRequest.getUniqueName()+" successfully submitted");
         writeResponse(ctx.channel(),jr.getUniqueName(),jobStatus);
 
-        executionPool.submit(new Callable<Void>() {
+        scheduler.submit(jr.getSchedulingQueue(), jr.getSchedulingUser(), jobStatus, new Runnable() {
             @Override
-            public Void call() throws Exception {
+            public void run() {
                 try {
-                    return job.call();
+                    job.call();
                 } catch (Throwable t) {
                     LOG.error("Uncaught exception", t);
                     if (jobStatus.isRunning()) {
                         jobStatus.markCompleted(new FailedOlapResult(t));
                     }
                 }
-                return null;
             }
         });
     }
@@ -116,10 +115,17 @@ class OlapRequestHandler extends AbstractOlapHandler{
     /*private helper methods*/
 
 
-    private ExecutorService configureThreadPool(SConfiguration config){
-        //TODO -sf- bound this by the number of possible Spark tasks which can run in YARN
+    private OlapJobScheduler configureScheduler(SConfiguration config){
+        // The scheduler bounds how many jobs run at once, so the pool only grows up to that
         ThreadFactory tf =new ThreadFactoryBuilder().setDaemon(true).setNameFormat("olap-worker-%d").build();
-        return Executors.newCachedThreadPool(tf);
+        ExecutorService executionPool = Executors.newCachedThreadPool(tf);
+        OlapJobScheduler scheduler = new OlapJobScheduler(executionPool,
+                config.getOlapServerMaxRunningJobs(),
+                config.getOlapServerFairShareWeights(),
+                config.getOlapServerFairSharePriorities(),
+                config.getOlapServerFairShareReservedJobs());
+        scheduler.registerJMX();
+        return scheduler;
     }
 
 
@@ -13,14 +13,20 @@
  */
 package com.splicemachine.orc;
 
+import com.splicemachine.orc.memory.OrcBufferPool;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.*;
 import io.airlift.slice.ChunkedSliceInput.BufferReference;
 import io.airlift.slice.ChunkedSliceInput.SliceLoader;
 import io.airlift.units.DataSize;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -38,10 +44,23 @@ public abstract class AbstractOrcDataSource
     private final DataSize maxMergeDistance;
     private final DataSize maxBufferSize;
     private final DataSize streamBufferSize;
+    @Nullable
+    private final OrcBufferPool bufferPool;
+    private final List<ByteBuffer> leasedBuffers = new ArrayList<>();
+    private byte[] transferBuffer;
     private long readTimeNanos;
     private long readBytes;
 
     public AbstractOrcDataSource(String name, long size, DataSize maxMergeDistance, DataSize maxBufferSize, DataSize streamBufferSize)
+    {
+        this(name, size, maxMergeDistance, maxBufferSize, streamBufferSize, null);
+    }
+
+    /**
+     * When {@code bufferPool} is set, ranges read through {@link #readFully(Map)} land in pooled direct
+     * buffers which are recycled through {@link #detachBuffers()} rather than in freshly allocated heap arrays.
+     */
+    public AbstractOrcDataSource(String name, long size, DataSize maxMergeDistance, DataSize maxBufferSize, DataSize streamBufferSize, @Nullable OrcBufferPool bufferPool)
     {
         this.name = requireNonNull(name, "name is null");
 
@@ -51,11 +70,36 @@ public abstract class AbstractOrcDataSource
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
         this.streamBufferSize = requireNonNull(streamBufferSize, "streamBufferSize is null");
+        this.bufferPool = bufferPool;
     }
 
     protected abstract void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
             throws IOException;
 
+    /**
+     * Fills {@code buffer} from its position to its limit. Sources that can read straight into a
+     * direct buffer should override this; the default stages the data through a reused heap array.
+     */
+    protected void readInternal(long position, ByteBuffer buffer)
+            throws IOException
+    {
+        if (transferBuffer == null) {
+            transferBuffer = new byte[toIntExact(Math.min(streamBufferSize.toBytes(), 64 * 1024))];
+        }
+        while (buffer.hasRemaining()) {
+            int length = Math.min(buffer.remaining(), transferBuffer.length);
+            readInternal(position, transferBuffer, 0, length);
+            buffer.put(transferBuffer, 0, length);
+            position += length;
+        }
+    }
+
+    @Nullable
+    public OrcBufferPool getBufferPool()
+    {
+        return bufferPool;
+    }
+
     @Override
     public final long getReadBytes()
     {
@@ -82,7 +126,7 @@ public abstract class AbstractOrcDataSource
     }
 
     @Override
-    public final void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+    public final synchronized void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
             throws IOException
     {
         long start = System.nanoTime();
@@ -93,8 +137,39 @@ public abstract class AbstractOrcDataSource
         readBytes += bufferLength;
     }
 
+    private synchronized void readFully(long position, ByteBuffer buffer)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        int length = buffer.remaining();
+
+        readInternal(position, buffer);
+
+        readTimeNanos += System.nanoTime() - start;
+        readBytes += length;
+    }
+
+    // lazy slice loaders lease outside readFully, concurrently with detachBuffers
+    private synchronized ByteBuffer leaseBuffer(int size)
+    {
+        ByteBuffer buffer = bufferPool.allocate(size);
+        leasedBuffers.add(buffer);
+        return buffer;
+    }
+
+    @Override
+    public synchronized BufferLease detachBuffers()
+    {
+        if (leasedBuffers.isEmpty()) {
+            return BufferLease.NONE;
+        }
+        BufferLease lease = new PooledBufferLease(bufferPool, leasedBuffers, BufferLease.NONE);
+        leasedBuffers.clear();
+        return lease;
+    }
+
     @Override
-    public final <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
+    public final synchronized <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
             throws IOException
     {
         requireNonNull(diskRanges, "diskRanges is null");
@@ -140,12 +215,20 @@ public abstract class AbstractOrcDataSource
         Iterable<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxBufferSize);
 
         // read ranges
-        Map<DiskRange, byte[]> buffers = new LinkedHashMap<>();
+        Map<DiskRange, Slice> buffers = new LinkedHashMap<>();
         for (DiskRange mergedRange : mergedRanges) {
             // read full range in one request
-            byte[] buffer = new byte[mergedRange.getLength()];
-            readFully(mergedRange.getOffset(), buffer);
-            buffers.put(mergedRange, buffer);
+            if (bufferPool != null) {
+                ByteBuffer buffer = leaseBuffer(mergedRange.getLength());
+                readFully(mergedRange.getOffset(), buffer);
+                buffer.flip();
+                buffers.put(mergedRange, Slices.wrappedBuffer(buffer));
+            }
+            else {
+                byte[] buffer = new byte[mergedRange.getLength()];
+                readFully(mergedRange.getOffset(), buffer);
+                buffers.put(mergedRange, Slices.wrappedBuffer(buffer));
+            }
         }
 
         ImmutableMap.Builder<K, FixedLengthSliceInput> slices = ImmutableMap.builder();
@@ -189,6 +272,9 @@ public abstract class AbstractOrcDataSource
         @Override
         public SliceBufferReference createBuffer(int bufferSize)
         {
+            if (bufferPool != null) {
+                return new SliceBufferReference(leaseBuffer(bufferSize));
+            }
             return new SliceBufferReference(bufferSize);
         }
 
@@ -202,7 +288,15 @@ public abstract class AbstractOrcDataSource
         public void load(long position, SliceBufferReference bufferReference, int length)
         {
             try {
-                readFully(diskRange.getOffset() + position, bufferReference.getBuffer(), 0, length);
+                ByteBuffer directBuffer = bufferReference.getDirectBuffer();
+                if (directBuffer != null) {
+                    directBuffer.clear();
+                    directBuffer.limit(length);
+                    readFully(diskRange.getOffset() + position, directBuffer);
+                }
+                else {
+                    readFully(diskRange.getOffset() + position, bufferReference.getBuffer(), 0, length);
+                }
             }
             catch (IOException e) {
                 throw new RuntimeIOException(e);
@@ -219,19 +313,33 @@ public abstract class AbstractOrcDataSource
             implements BufferReference
     {
         private final byte[] buffer;
+        private final ByteBuffer directBuffer;
         private final Slice slice;
 
         public SliceBufferReference(int bufferSize)
         {
             this.buffer = new byte[bufferSize];
+            this.directBuffer = null;
             this.slice = Slices.wrappedBuffer(buffer);
         }
 
+        public SliceBufferReference(ByteBuffer directBuffer)
+        {
+            this.buffer = null;
+            this.directBuffer = directBuffer;
+            this.slice = Slices.wrappedBuffer(directBuffer);
+        }
+
         public byte[] getBuffer()
         {
             return buffer;
         }
 
+        public ByteBuffer getDirectBuffer()
+        {
+            return directBuffer;
+        }
+
         @Override
         public Slice getSlice()
         {
@@ -13,12 +13,18 @@
  */
 package com.splicemachine.orc;
 
+import com.splicemachine.orc.memory.OrcBufferPool;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.FixedLengthSliceInput;
 import io.airlift.slice.Slices;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static java.lang.Math.toIntExact;
@@ -29,15 +35,24 @@ public class CachingOrcDataSource
 {
     private final OrcDataSource dataSource;
     private final RegionFinder regionFinder;
+    @Nullable
+    private final OrcBufferPool bufferPool;
+    private final List<ByteBuffer> leasedBuffers = new ArrayList<>();
 
     private long cachePosition;
     private int cacheLength;
     private byte[] cache;
 
     public CachingOrcDataSource(OrcDataSource dataSource, RegionFinder regionFinder)
+    {
+        this(dataSource, regionFinder, null);
+    }
+
+    public CachingOrcDataSource(OrcDataSource dataSource, RegionFinder regionFinder, @Nullable OrcBufferPool bufferPool)
     {
         this.dataSource = requireNonNull(dataSource, "dataSource is null");
         this.regionFinder = requireNonNull(regionFinder, "regionFinder is null");
+        this.bufferPool = bufferPool;
         this.cache = new byte[0];
     }
 
@@ -60,7 +75,7 @@ public class CachingOrcDataSource
     }
 
     @VisibleForTesting
-    void readCacheAt(long offset)
+    synchronized void readCacheAt(long offset)
             throws IOException
     {
         DiskRange newCacheRange = regionFinder.getRangeFor(offset);
@@ -80,7 +95,7 @@ public class CachingOrcDataSource
     }
 
     @Override
-    public void readFully(long position, byte[] buffer, int bufferOffset, int length)
+    public synchronized void readFully(long position, byte[] buffer, int bufferOffset, int length)
             throws IOException
     {
         if (position < cachePosition) {
@@ -96,7 +111,7 @@ public class CachingOrcDataSource
     }
 
     @Override
-    public <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
+    public synchronized <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
             throws IOException
     {
         ImmutableMap.Builder<K, FixedLengthSliceInput> builder = ImmutableMap.builder();
@@ -105,13 +120,50 @@ public class CachingOrcDataSource
         // will not result in eviction of cache that otherwise could have served any of the DiskRanges provided.
         for (Map.Entry<K, DiskRange> entry : diskRanges.entrySet()) {
             DiskRange diskRange = entry.getValue();
-            byte[] buffer = new byte[diskRange.getLength()];
-            readFully(diskRange.getOffset(), buffer);
-            builder.put(entry.getKey(), Slices.wrappedBuffer(buffer).getInput());
+            if (bufferPool != null) {
+                ByteBuffer buffer = bufferPool.allocate(diskRange.getLength());
+                leasedBuffers.add(buffer);
+                readFully(diskRange.getOffset(), buffer);
+                buffer.flip();
+                builder.put(entry.getKey(), Slices.wrappedBuffer(buffer).getInput());
+            }
+            else {
+                byte[] buffer = new byte[diskRange.getLength()];
+                readFully(diskRange.getOffset(), buffer);
+                builder.put(entry.getKey(), Slices.wrappedBuffer(buffer).getInput());
+            }
         }
         return builder.build();
     }
 
+    private void readFully(long position, ByteBuffer buffer)
+            throws IOException
+    {
+        int length = buffer.remaining();
+        if (position < cachePosition) {
+            throw new IllegalArgumentException(String.format("read request (offset %d length %d) is before cache (offset %d length %d)", position, length, cachePosition, cacheLength));
+        }
+        if (position >= cachePosition + cacheLength) {
+            readCacheAt(position);
+        }
+        if (position + length > cachePosition + cacheLength) {
+            throw new IllegalArgumentException(String.format("read request (offset %d length %d) partially overlaps cache (offset %d length %d)", position, length, cachePosition, cacheLength));
+        }
+        buffer.put(cache, toIntExact(position - cachePosition), length);
+    }
+
+    @Override
+    public synchronized BufferLease detachBuffers()
+    {
+        BufferLease dataSourceLease = dataSource.detachBuffers();
+        if (leasedBuffers.isEmpty()) {
+            return dataSourceLease;
+        }
+        BufferLease lease = new PooledBufferLease(bufferPool, leasedBuffers, dataSourceLease);
+        leasedBuffers.clear();
+        return lease;
+    }
+
     @Override
     public void close()
             throws IOException
@@ -13,12 +13,18 @@
  */
 package com.splicemachine.orc;
 
+import com.splicemachine.orc.memory.OrcBufferPool;
 import io.airlift.units.DataSize;
 
+import javax.annotation.Nullable;
+
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 public class FileOrcDataSource
         extends AbstractOrcDataSource
@@ -28,7 +34,13 @@ public class FileOrcDataSource
     public FileOrcDataSource(File path, DataSize maxMergeDistance, DataSize maxReadSize, DataSize streamBufferSize)
             throws FileNotFoundException
     {
-        super(path.getPath(), path.length(), maxMergeDistance, maxReadSize, streamBufferSize);
+        this(path, maxMergeDistance, maxReadSize, streamBufferSize, null);
+    }
+
+    public FileOrcDataSource(File path, DataSize maxMergeDistance, DataSize maxReadSize, DataSize streamBufferSize, @Nullable OrcBufferPool bufferPool)
+            throws FileNotFoundException
+    {
+        super(path.getPath(), path.length(), maxMergeDistance, maxReadSize, streamBufferSize, bufferPool);
         this.input = new RandomAccessFile(path, "r");
     }
 
@@ -46,4 +58,18 @@ public class FileOrcDataSource
         input.seek(position);
         input.readFully(buffer, bufferOffset, bufferLength);
     }
+
+    @Override
+    protected void readInternal(long position, ByteBuffer buffer)
+            throws IOException
+    {
+        FileChannel channel = input.getChannel();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of file " + this + " at position " + position);
+            }
+            position += read;
+        }
+    }
 }
@@ -13,8 +13,11 @@
  */
 package com.splicemachine.orc;
 
+import com.splicemachine.orc.memory.OrcBufferPool;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.fs.FSDataInputStream;
+
+import javax.annotation.Nullable;
 import java.io.IOException;
 
 import static java.lang.String.format;
@@ -26,7 +29,12 @@ public class HdfsOrcDataSource
 
     public HdfsOrcDataSource(String name, long size, DataSize maxMergeDistance, DataSize maxReadSize, DataSize streamBufferSize, FSDataInputStream inputStream)
     {
-        super(name, size, maxMergeDistance, maxReadSize, streamBufferSize);
+        this(name, size, maxMergeDistance, maxReadSize, streamBufferSize, inputStream, null);
+    }
+
+    public HdfsOrcDataSource(String name, long size, DataSize maxMergeDistance, DataSize maxReadSize, DataSize streamBufferSize, FSDataInputStream inputStream, @Nullable OrcBufferPool bufferPool)
+    {
+        super(name, size, maxMergeDistance, maxReadSize, streamBufferSize, bufferPool);
         this.inputStream = inputStream;
     }
 
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.orc;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Data source for ORC files on a local file system. The file is mapped read-only and
+ * {@link #readFully(Map)} hands out slices directly over the mapping, so stripe data is
+ * served from the OS page cache without being copied or allocated on the heap.
+ *
+ * Files larger than {@link #REGION_SIZE} are mapped in several regions; the rare disk range
+ * which straddles two regions is copied into a heap buffer.
+ */
+public class MappedFileOrcDataSource
+        implements OrcDataSource
+{
+    static final long REGION_SIZE = 1L << 30;
+
+    private final String name;
+    private final long size;
+    private final long regionSize;
+    private final MappedByteBuffer[] regions;
+    private long readTimeNanos;
+    private long readBytes;
+
+    public MappedFileOrcDataSource(File path)
+            throws IOException
+    {
+        this(path, REGION_SIZE);
+    }
+
+    MappedFileOrcDataSource(File path, long regionSize)
+            throws IOException
+    {
+        requireNonNull(path, "path is null");
+        checkArgument(regionSize > 0 && regionSize <= Integer.MAX_VALUE, "invalid regionSize %s", regionSize);
+        this.name = path.getPath();
+        this.regionSize = regionSize;
+        try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+            FileChannel channel = file.getChannel();
+            this.size = channel.size();
+            int regionCount = toIntExact((size + regionSize - 1) / regionSize);
+            this.regions = new MappedByteBuffer[regionCount];
+            for (int i = 0; i < regionCount; i++) {
+                long regionOffset = i * regionSize;
+                regions[i] = channel.map(MapMode.READ_ONLY, regionOffset, Math.min(regionSize, size - regionOffset));
+            }
+        }
+        // the mappings stay valid after the channel is closed and are unmapped once they become unreachable
+    }
+
+    @Override
+    public long getReadBytes()
+    {
+        return readBytes;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer)
+            throws IOException
+    {
+        readFully(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public synchronized void readFully(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        checkRange(position, bufferLength);
+
+        while (bufferLength > 0) {
+            ByteBuffer region = regions[toIntExact(position / regionSize)].duplicate();
+            int regionPosition = toIntExact(position % regionSize);
+            int length = Math.min(bufferLength, region.capacity() - regionPosition);
+            region.position(regionPosition);
+            region.get(buffer, bufferOffset, length);
+            position += length;
+            bufferOffset += length;
+            bufferLength -= length;
+            readBytes += length;
+        }
+
+        readTimeNanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public synchronized <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
+            throws IOException
+    {
+        requireNonNull(diskRanges, "diskRanges is null");
+
+        ImmutableMap.Builder<K, FixedLengthSliceInput> slices = ImmutableMap.builder();
+        for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            slices.put(entry.getKey(), readSlice(entry.getValue()).getInput());
+        }
+        return slices.build();
+    }
+
+    private Slice readSlice(DiskRange diskRange)
+            throws IOException
+    {
+        checkRange(diskRange.getOffset(), diskRange.getLength());
+        if (diskRange.getLength() == 0) {
+            return Slices.EMPTY_SLICE;
+        }
+
+        int regionIndex = toIntExact(diskRange.getOffset() / regionSize);
+        int regionPosition = toIntExact(diskRange.getOffset() % regionSize);
+        ByteBuffer region = regions[regionIndex];
+        if (regionPosition + diskRange.getLength() > region.capacity()) {
+            byte[] buffer = new byte[diskRange.getLength()];
+            readFully(diskRange.getOffset(), buffer);
+            return Slices.wrappedBuffer(buffer);
+        }
+
+        ByteBuffer view = region.duplicate();
+        view.position(regionPosition);
+        view.limit(regionPosition + diskRange.getLength());
+        readBytes += diskRange.getLength();
+        return Slices.wrappedBuffer(view.slice());
+    }
+
+    private void checkRange(long position, int length)
+            throws IOException
+    {
+        if (position < 0 || length < 0 || position + length > size) {
+            throw new IOException(String.format("Read of %s bytes at position %s is outside of %s (size %s)", length, position, name, size));
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
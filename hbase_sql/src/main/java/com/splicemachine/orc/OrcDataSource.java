@@ -37,9 +37,25 @@ public interface OrcDataSource
     <K> Map<K, FixedLengthSliceInput> readFully(Map<K, DiskRange> diskRanges)
             throws IOException;
 
+    /**
+     * Takes ownership of the pooled buffers behind the slices returned by {@link #readFully(Map)} since the
+     * last call. Releasing the lease hands them back to their pool, after which those slices must not be read.
+     */
+    default BufferLease detachBuffers()
+    {
+        return BufferLease.NONE;
+    }
+
     @Override
     default void close()
             throws IOException
     {
     }
+
+    interface BufferLease
+    {
+        BufferLease NONE = () -> {};
+
+        void release();
+    }
 }
@@ -182,6 +182,27 @@ public class OrcReader
             List<String> partitionValues
             )
             throws IOException
+    {
+        return createRecordReader(includedColumns, predicate, offset, length, hiveStorageTimeZone, systemMemoryUsage,
+                partitionIds, partitionValues, 0, 1);
+    }
+
+    /**
+     * @param stripeReadahead number of stripes read ahead of the consumer, zero to read stripes on the caller thread
+     * @param prefetchParallelism size of the shared prefetch pool, used when it is first created
+     */
+    public OrcRecordReader createRecordReader(
+            Map<Integer, DataType> includedColumns,
+            OrcPredicate predicate,
+            long offset,
+            long length,
+            DateTimeZone hiveStorageTimeZone,
+            AbstractAggregatedMemoryContext systemMemoryUsage,
+            List<Integer> partitionIds,
+            List<String> partitionValues,
+            int stripeReadahead,
+            int prefetchParallelism)
+            throws IOException
     {
         return new OrcRecordReader(
                 requireNonNull(includedColumns, "includedColumns is null"),
@@ -205,7 +226,9 @@ public class OrcReader
                 footer.getUserMetadata(),
                 systemMemoryUsage,
                 partitionIds,
-                partitionValues);
+                partitionValues,
+                stripeReadahead,
+                prefetchParallelism);
     }
 
     private static OrcDataSource wrapWithCacheIfTiny(OrcDataSource dataSource, DataSize maxCacheSize)
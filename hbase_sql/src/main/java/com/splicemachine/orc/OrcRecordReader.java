@@ -17,11 +17,15 @@ import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.orc.block.*;
 import com.splicemachine.orc.memory.AbstractAggregatedMemoryContext;
 import com.splicemachine.orc.memory.AggregatedMemoryContext;
+import com.splicemachine.orc.memory.OrcBufferPool;
+import com.splicemachine.orc.memory.SynchronizedAggregatedMemoryContext;
 import com.splicemachine.orc.metadata.*;
 import com.splicemachine.orc.metadata.OrcType.OrcTypeKind;
 import com.splicemachine.orc.metadata.PostScript.HiveWriterVersion;
 import com.splicemachine.orc.reader.StreamReader;
 import com.splicemachine.orc.reader.StreamReaders;
+import com.splicemachine.orc.OrcDataSource.BufferLease;
+import com.splicemachine.orc.StripePrefetcher.PrefetchedStripe;
 import com.splicemachine.orc.stream.StreamSources;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
@@ -66,6 +70,8 @@ public class OrcRecordReader
     private final StripeReader stripeReader;
     private int currentStripe = -1;
     private AggregatedMemoryContext currentStripeSystemMemoryContext;
+    private BufferLease currentStripeBuffers = BufferLease.NONE;
+    private final StripePrefetcher stripePrefetcher;
 
     private final long fileRowCount;
     private final List<Long> stripeFilePositions;
@@ -102,7 +108,9 @@ public class OrcRecordReader
             Map<String, Slice> userMetadata,
             AbstractAggregatedMemoryContext systemMemoryUsage,
             List<Integer> partitionIds,
-            List<String> partitionValues)
+            List<String> partitionValues,
+            int stripeReadahead,
+            int prefetchParallelism)
             throws IOException
     {
         requireNonNull(includedColumns, "includedColumns is null");
@@ -186,8 +194,10 @@ public class OrcRecordReader
 
         this.userMetadata = ImmutableMap.copyOf(Maps.transformValues(userMetadata, Slices::copyOf));
 
-        this.systemMemoryUsage = requireNonNull(systemMemoryUsage, "systemMemoryUsage is null").newAggregatedMemoryContext();
-        this.currentStripeSystemMemoryContext = systemMemoryUsage.newAggregatedMemoryContext();
+        AggregatedMemoryContext readerMemoryUsage = requireNonNull(systemMemoryUsage, "systemMemoryUsage is null").newAggregatedMemoryContext();
+        // prefetched stripes account for their memory from the pool threads
+        this.systemMemoryUsage = stripeReadahead > 0 ? new SynchronizedAggregatedMemoryContext(readerMemoryUsage) : readerMemoryUsage;
+        this.currentStripeSystemMemoryContext = this.systemMemoryUsage.newAggregatedMemoryContext();
 
         stripeReader = new StripeReader(
                 orcDataSource,
@@ -201,6 +211,14 @@ public class OrcRecordReader
                 metadataReader,
                 partitionIds);
 
+        if (stripeReadahead > 0 && this.stripes.size() > 1) {
+            stripePrefetcher = new StripePrefetcher(stripeReader, orcDataSource, this.stripes, this.systemMemoryUsage,
+                    StripePrefetcher.getSharedPool(prefetchParallelism), stripeReadahead);
+        }
+        else {
+            stripePrefetcher = null;
+        }
+
         streamReaders = createStreamReaders(orcDataSource, types, hiveStorageTimeZone, presentColumnsAndTypes, partitionIds);
     }
 
@@ -235,7 +253,8 @@ public class OrcRecordReader
                 return dataSource;
             }
         }
-        return new CachingOrcDataSource(dataSource, createTinyStripesRangeFinder(stripes, maxMergeDistance, maxReadSize));
+        OrcBufferPool bufferPool = dataSource instanceof AbstractOrcDataSource ? ((AbstractOrcDataSource) dataSource).getBufferPool() : null;
+        return new CachingOrcDataSource(dataSource, createTinyStripesRangeFinder(stripes, maxMergeDistance, maxReadSize), bufferPool);
     }
 
     /**
@@ -287,9 +306,30 @@ public class OrcRecordReader
         return splitLength;
     }
 
+    /**
+     * Time spent reading stripes ahead of the consumer, zero when stripe prefetching is disabled.
+     */
+    public long getStripeDecodeNanos()
+    {
+        return stripePrefetcher == null ? 0 : stripePrefetcher.getDecodeNanos();
+    }
+
+    /**
+     * Time spent waiting for prefetched stripes which were not ready yet.
+     */
+    public long getStripeWaitNanos()
+    {
+        return stripePrefetcher == null ? 0 : stripePrefetcher.getWaitNanos();
+    }
+
     public void close()
             throws IOException
     {
+        if (stripePrefetcher != null) {
+            stripePrefetcher.close();
+        }
+        currentStripeSystemMemoryContext.close();
+        currentStripeBuffers.release();
         orcDataSource.close();
     }
 
@@ -422,6 +462,9 @@ public class OrcRecordReader
     {
         currentStripeSystemMemoryContext.close();
         currentStripeSystemMemoryContext = systemMemoryUsage.newAggregatedMemoryContext();
+        // the previous stripe's streams are no longer read, so its buffers can go back to the pool
+        currentStripeBuffers.release();
+        currentStripeBuffers = BufferLease.NONE;
         rowGroups = ImmutableList.<RowGroup>of().iterator();
 
         currentStripe++;
@@ -435,7 +478,18 @@ public class OrcRecordReader
 
         StripeInformation stripeInformation = stripes.get(currentStripe);
 
-        Stripe stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext);
+        Stripe stripe;
+        if (stripePrefetcher != null) {
+            PrefetchedStripe prefetched = stripePrefetcher.next();
+            currentStripeSystemMemoryContext.close();
+            currentStripeSystemMemoryContext = prefetched.getSystemMemoryUsage();
+            currentStripeBuffers = prefetched.getBuffers();
+            stripe = prefetched.getStripe();
+        }
+        else {
+            stripe = stripeReader.readStripe(stripeInformation, currentStripeSystemMemoryContext);
+            currentStripeBuffers = orcDataSource.detachBuffers();
+        }
         if (stripe != null) {
             // Give readers access to dictionary streams
             StreamSources dictionaryStreamSources = stripe.getDictionaryStreamSources();
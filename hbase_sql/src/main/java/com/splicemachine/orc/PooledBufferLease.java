@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.orc;
+
+import com.splicemachine.orc.OrcDataSource.BufferLease;
+import com.splicemachine.orc.memory.OrcBufferPool;
+import com.google.common.collect.ImmutableList;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Buffers leased from an {@link OrcBufferPool} for one stripe, released at most once.
+ */
+final class PooledBufferLease
+        implements BufferLease
+{
+    private final OrcBufferPool bufferPool;
+    private final List<ByteBuffer> buffers;
+    private final BufferLease next;
+    private boolean released;
+
+    PooledBufferLease(OrcBufferPool bufferPool, List<ByteBuffer> buffers, BufferLease next)
+    {
+        this.bufferPool = requireNonNull(bufferPool, "bufferPool is null");
+        this.buffers = ImmutableList.copyOf(requireNonNull(buffers, "buffers is null"));
+        this.next = requireNonNull(next, "next is null");
+    }
+
+    @Override
+    public synchronized void release()
+    {
+        if (released) {
+            return;
+        }
+        released = true;
+        for (ByteBuffer buffer : buffers) {
+            bufferPool.release(buffer);
+        }
+        next.release();
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.orc;
+
+import com.splicemachine.orc.OrcDataSource.BufferLease;
+import com.splicemachine.orc.memory.AbstractAggregatedMemoryContext;
+import com.splicemachine.orc.memory.AggregatedMemoryContext;
+import com.splicemachine.orc.metadata.StripeInformation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads stripes ahead of the consumer on a shared, bounded fork-join pool. Up to {@code readahead}
+ * stripes are read, decompressed and indexed in the background while the caller decodes the current one.
+ *
+ * Stripes of one reader are read one after another, in file order, so the data source only ever
+ * hands out buffers for one stripe at a time; parallelism comes from the readers of other splits
+ * sharing the pool.
+ */
+class StripePrefetcher
+        implements Closeable
+{
+    private static ForkJoinPool sharedPool;
+
+    private final StripeReader stripeReader;
+    private final OrcDataSource orcDataSource;
+    private final List<StripeInformation> stripes;
+    private final AbstractAggregatedMemoryContext systemMemoryUsage;
+    private final ForkJoinPool pool;
+    private final int readahead;
+
+    private final ArrayDeque<CompletableFuture<PrefetchedStripe>> pending = new ArrayDeque<>();
+    private CompletableFuture<PrefetchedStripe> tail = CompletableFuture.completedFuture(null);
+    private int nextStripe;
+    private volatile boolean closed;
+
+    private final AtomicLong decodeNanos = new AtomicLong();
+    private long waitNanos;
+
+    StripePrefetcher(StripeReader stripeReader,
+            OrcDataSource orcDataSource,
+            List<StripeInformation> stripes,
+            AbstractAggregatedMemoryContext systemMemoryUsage,
+            ForkJoinPool pool,
+            int readahead)
+    {
+        checkArgument(readahead > 0, "readahead must be greater than zero");
+        this.stripeReader = requireNonNull(stripeReader, "stripeReader is null");
+        this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
+        this.stripes = requireNonNull(stripes, "stripes is null");
+        this.systemMemoryUsage = requireNonNull(systemMemoryUsage, "systemMemoryUsage is null");
+        this.pool = requireNonNull(pool, "pool is null");
+        this.readahead = readahead;
+    }
+
+    /**
+     * Returns the process-wide prefetch pool, creating it with {@code parallelism} threads on first use.
+     */
+    static synchronized ForkJoinPool getSharedPool(int parallelism)
+    {
+        if (sharedPool == null) {
+            sharedPool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        }
+        return sharedPool;
+    }
+
+    /**
+     * Returns the next stripe in file order, waiting for it if the background read has not finished yet.
+     */
+    PrefetchedStripe next()
+            throws IOException
+    {
+        checkState(!closed, "prefetcher is closed");
+        schedule();
+        CompletableFuture<PrefetchedStripe> future = pending.poll();
+        checkState(future != null, "no more stripes");
+
+        long start = System.nanoTime();
+        try {
+            return future.join();
+        }
+        catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+        finally {
+            waitNanos += System.nanoTime() - start;
+            schedule();
+        }
+    }
+
+    /**
+     * Time spent reading and indexing stripes in the background.
+     */
+    long getDecodeNanos()
+    {
+        return decodeNanos.get();
+    }
+
+    /**
+     * Time the consumer spent blocked on stripes which were not ready yet.
+     */
+    long getWaitNanos()
+    {
+        return waitNanos;
+    }
+
+    private void schedule()
+    {
+        while (!closed && nextStripe < stripes.size() && pending.size() < readahead) {
+            StripeInformation stripe = stripes.get(nextStripe++);
+            // chain on the previous read, whatever its outcome, to keep reads of this file sequential
+            tail = tail.handle((result, failure) -> null)
+                    .thenApplyAsync(ignored -> readStripe(stripe), pool);
+            pending.add(tail);
+        }
+    }
+
+    private PrefetchedStripe readStripe(StripeInformation stripe)
+    {
+        AggregatedMemoryContext stripeMemoryUsage = systemMemoryUsage.newAggregatedMemoryContext();
+        if (closed) {
+            return new PrefetchedStripe(null, stripeMemoryUsage, BufferLease.NONE);
+        }
+        long start = System.nanoTime();
+        try {
+            Stripe result = stripeReader.readStripe(stripe, stripeMemoryUsage);
+            return new PrefetchedStripe(result, stripeMemoryUsage, orcDataSource.detachBuffers());
+        }
+        catch (IOException e) {
+            stripeMemoryUsage.close();
+            orcDataSource.detachBuffers().release();
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            decodeNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Stops scheduling reads, waits for the one in flight and releases every stripe not yet consumed.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        for (CompletableFuture<PrefetchedStripe> future : pending) {
+            PrefetchedStripe stripe = future.handle((result, failure) -> result).join();
+            if (stripe != null) {
+                stripe.release();
+            }
+        }
+        pending.clear();
+    }
+
+    static final class PrefetchedStripe
+    {
+        private final Stripe stripe;
+        private final AggregatedMemoryContext systemMemoryUsage;
+        private final BufferLease buffers;
+
+        PrefetchedStripe(Stripe stripe, AggregatedMemoryContext systemMemoryUsage, BufferLease buffers)
+        {
+            this.stripe = stripe;
+            this.systemMemoryUsage = requireNonNull(systemMemoryUsage, "systemMemoryUsage is null");
+            this.buffers = requireNonNull(buffers, "buffers is null");
+        }
+
+        /**
+         * The stripe, or null when all of its row groups were filtered out.
+         */
+        Stripe getStripe()
+        {
+            return stripe;
+        }
+
+        AggregatedMemoryContext getSystemMemoryUsage()
+        {
+            return systemMemoryUsage;
+        }
+
+        BufferLease getBuffers()
+        {
+            return buffers;
+        }
+
+        void release()
+        {
+            systemMemoryUsage.close();
+            buffers.release();
+        }
+    }
+}
@@ -14,16 +14,20 @@
 package com.splicemachine.orc.input;
 
 import com.splicemachine.orc.HdfsOrcDataSource;
+import com.splicemachine.orc.MappedFileOrcDataSource;
 import com.splicemachine.orc.OrcDataSource;
 import com.splicemachine.orc.OrcReader;
 import com.splicemachine.orc.OrcRecordReader;
 import com.splicemachine.orc.memory.AggregatedMemoryContext;
+import com.splicemachine.orc.memory.OrcBufferPool;
 import com.splicemachine.orc.metadata.OrcMetadataReader;
 import com.splicemachine.orc.predicate.SpliceORCPredicate;
+import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.MetaException;
@@ -40,6 +44,7 @@ import org.apache.spark.sql.types.StructType;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static com.splicemachine.orc.input.SpliceOrcNewInputFormat.*;
 
@@ -48,6 +53,7 @@ import static com.splicemachine.orc.input.SpliceOrcNewInputFormat.*;
  *
  */
 public class OrcMapreduceRecordReader extends RecordReader<NullWritable,Row> {
+    private static final Logger log = Logger.get(OrcMapreduceRecordReader.class);
     OrcRecordReader orcRecordReader;
     private ColumnarBatch columnarBatch;
     private Iterator<InternalRow> currentIterator;
@@ -61,10 +67,12 @@ public class OrcMapreduceRecordReader extends RecordReader<NullWritable,Row> {
         double maxMergeDistance = configuration.getDouble(MAX_MERGE_DISTANCE,MAX_MERGE_DISTANCE_DEFAULT);
         double maxReadSize = configuration.getDouble(MAX_READ_SIZE,MAX_READ_SIZE_DEFAULT);
         double streamBufferSize = configuration.getDouble(STREAM_BUFFER_SIZE,STREAM_BUFFER_SIZE_DEFAULT);
+        double bufferPoolSize = configuration.getDouble(BUFFER_POOL_SIZE,BUFFER_POOL_SIZE_DEFAULT);
+        boolean mmapLocalFiles = configuration.getBoolean(MMAP_LOCAL_FILES,MMAP_LOCAL_FILES_DEFAULT);
+        int stripeReadahead = configuration.getInt(STRIPE_READAHEAD,STRIPE_READAHEAD_DEFAULT);
+        int prefetchParallelism = configuration.getInt(PREFETCH_PARALLELISM,Runtime.getRuntime().availableProcessors());
         Path path = orcNewSplit.getPath();
         FileSystem fileSystem = FileSystem.get(path.toUri(),configuration);
-        long size = fileSystem.getFileStatus(path).getLen();
-        FSDataInputStream inputStream = fileSystem.open(path);
         rowStruct = getRowStruct(configuration);
         predicate = getSplicePredicate(configuration);
         List<Integer> partitions = getPartitionIds(configuration);
@@ -78,17 +86,26 @@ public class OrcMapreduceRecordReader extends RecordReader<NullWritable,Row> {
         } catch (MetaException me) {
             throw new IOException(me);
         }
-        OrcDataSource orcDataSource = new HdfsOrcDataSource(path.toString(), size, new DataSize(maxMergeDistance, DataSize.Unit.MEGABYTE),
-                new DataSize(maxReadSize, DataSize.Unit.MEGABYTE),
-                new DataSize(streamBufferSize, DataSize.Unit.MEGABYTE), inputStream);
+        OrcDataSource orcDataSource;
+        if (mmapLocalFiles && fileSystem instanceof LocalFileSystem) {
+            // local files are mapped, so stripes are read straight out of the page cache
+            orcDataSource = new MappedFileOrcDataSource(((LocalFileSystem) fileSystem).pathToFile(path));
+        } else {
+            long size = fileSystem.getFileStatus(path).getLen();
+            FSDataInputStream inputStream = fileSystem.open(path);
+            OrcBufferPool bufferPool = bufferPoolSize > 0 ? OrcBufferPool.getSharedPool(new DataSize(bufferPoolSize, DataSize.Unit.MEGABYTE).toBytes()) : null;
+            orcDataSource = new HdfsOrcDataSource(path.toString(), size, new DataSize(maxMergeDistance, DataSize.Unit.MEGABYTE),
+                    new DataSize(maxReadSize, DataSize.Unit.MEGABYTE),
+                    new DataSize(streamBufferSize, DataSize.Unit.MEGABYTE), inputStream, bufferPool);
+        }
         OrcReader orcReader = new OrcReader(orcDataSource, new OrcMetadataReader(), new DataSize(maxMergeDistance, DataSize.Unit.MEGABYTE),
                 new DataSize(maxReadSize, DataSize.Unit.MEGABYTE));
         orcRecordReader =
             orcReader.createRecordReader(getColumnsAndTypes(columnIds, rowStruct),
                                          predicate, orcNewSplit.getStart(), orcNewSplit.getLength(),
                                          HIVE_STORAGE_TIME_ZONE, new AggregatedMemoryContext(),
-                                         partitions, values);
-    
+                                         partitions, values, stripeReadahead, prefetchParallelism);
+
     }
 
     @Override
@@ -130,6 +147,11 @@ public class OrcMapreduceRecordReader extends RecordReader<NullWritable,Row> {
 
     @Override
     public void close() throws IOException {
+        if (log.isDebugEnabled() && orcRecordReader.getStripeDecodeNanos() > 0) {
+            log.debug("stripe prefetch: decode %s ms, wait %s ms",
+                    TimeUnit.NANOSECONDS.toMillis(orcRecordReader.getStripeDecodeNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(orcRecordReader.getStripeWaitNanos()));
+        }
         orcRecordReader.close();
     }
 
@@ -51,6 +51,13 @@ public class SpliceOrcNewInputFormat extends InputFormat<NullWritable,Row>
     public static final double MAX_MERGE_DISTANCE_DEFAULT = 1;
     public static final double MAX_READ_SIZE_DEFAULT = 8;
     public static final double STREAM_BUFFER_SIZE_DEFAULT = 8;
+    public static final String MMAP_LOCAL_FILES ="com.splicemachine.orc.mmapLocalFiles";
+    public static final String BUFFER_POOL_SIZE ="com.splicemachine.orc.bufferPoolSize";
+    public static final boolean MMAP_LOCAL_FILES_DEFAULT = true;
+    public static final double BUFFER_POOL_SIZE_DEFAULT = 0;
+    public static final String STRIPE_READAHEAD ="com.splicemachine.orc.stripeReadahead";
+    public static final String PREFETCH_PARALLELISM ="com.splicemachine.orc.prefetchParallelism";
+    public static final int STRIPE_READAHEAD_DEFAULT = 1;
     public static final long DEFAULT_PARTITION_SIZE = 10000;
     public static final String SPLICE_COLLECTSTATS ="com.splicemachine.collectstats";
 
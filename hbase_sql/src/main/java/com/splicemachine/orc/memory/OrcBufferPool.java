@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.orc.memory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Pool of direct buffers for stripe and stream data. Buffers are handed out in power-of-two
+ * size classes and kept for reuse after release, up to {@code maxRetainedBytes}; anything
+ * released beyond that is dropped and left to the garbage collector.
+ *
+ * Both the bytes currently leased to readers and the bytes held idle by the pool are reported
+ * through the pool's memory contexts; see {@link #getLeasedBytes()} and {@link #getRetainedBytes()}.
+ */
+public class OrcBufferPool
+{
+    private static final int MIN_SIZE_CLASS = 12; // 4kB
+    private static final int MAX_SIZE_CLASS = 30; // 1GB
+
+    private static OrcBufferPool sharedPool;
+
+    private final long maxRetainedBytes;
+    private final ArrayDeque<ByteBuffer>[] freeBuffers;
+    private final AggregatedMemoryContext memoryUsage = new AggregatedMemoryContext();
+    private final LocalMemoryContext leasedMemory = memoryUsage.newLocalMemoryContext();
+    private final LocalMemoryContext retainedMemory = memoryUsage.newLocalMemoryContext();
+
+    @SuppressWarnings("unchecked")
+    public OrcBufferPool(long maxRetainedBytes)
+    {
+        checkArgument(maxRetainedBytes >= 0, "maxRetainedBytes is negative");
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.freeBuffers = new ArrayDeque[MAX_SIZE_CLASS + 1];
+        for (int i = MIN_SIZE_CLASS; i <= MAX_SIZE_CLASS; i++) {
+            freeBuffers[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Returns the process-wide pool, creating it with {@code maxRetainedBytes} on first use.
+     */
+    public static synchronized OrcBufferPool getSharedPool(long maxRetainedBytes)
+    {
+        if (sharedPool == null) {
+            sharedPool = new OrcBufferPool(maxRetainedBytes);
+        }
+        return sharedPool;
+    }
+
+    /**
+     * Returns a cleared direct buffer with at least {@code size} bytes of capacity and its limit set to {@code size}.
+     */
+    public synchronized ByteBuffer allocate(int size)
+    {
+        checkArgument(size >= 0, "size is negative");
+        int sizeClass = sizeClass(size);
+        ByteBuffer buffer = freeBuffers[sizeClass].pollFirst();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(1 << sizeClass);
+        }
+        else {
+            retainedMemory.setBytes(retainedMemory.getBytes() - buffer.capacity());
+        }
+        leasedMemory.setBytes(leasedMemory.getBytes() + buffer.capacity());
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #allocate(int)} to the pool. The caller must not touch
+     * the buffer, or any slice over it, afterwards.
+     */
+    public synchronized void release(ByteBuffer buffer)
+    {
+        int capacity = buffer.capacity();
+        checkArgument(Integer.bitCount(capacity) == 1 && capacity >= 1 << MIN_SIZE_CLASS, "buffer was not allocated by this pool");
+        leasedMemory.setBytes(leasedMemory.getBytes() - capacity);
+        if (retainedMemory.getBytes() + capacity <= maxRetainedBytes) {
+            freeBuffers[Integer.numberOfTrailingZeros(capacity)].addFirst(buffer);
+            retainedMemory.setBytes(retainedMemory.getBytes() + capacity);
+        }
+    }
+
+    /**
+     * Memory held by the pool, whether leased out or idle.
+     */
+    public synchronized long getBytes()
+    {
+        return memoryUsage.getBytes();
+    }
+
+    public synchronized long getLeasedBytes()
+    {
+        return leasedMemory.getBytes();
+    }
+
+    public synchronized long getRetainedBytes()
+    {
+        return retainedMemory.getBytes();
+    }
+
+    private static int sizeClass(int size)
+    {
+        int sizeClass = size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+        checkArgument(sizeClass <= MAX_SIZE_CLASS, "size %s is too large to pool", size);
+        return Math.max(sizeClass, MIN_SIZE_CLASS);
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return toStringHelper(this)
+                .add("leasedBytes", leasedMemory.getBytes())
+                .add("retainedBytes", retainedMemory.getBytes())
+                .add("maxRetainedBytes", maxRetainedBytes)
+                .toString();
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.orc.memory;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Serializes updates into a parent context so that child contexts may be updated from
+ * several threads, as long as each child is only used by one thread at a time.
+ */
+public class SynchronizedAggregatedMemoryContext
+        extends AbstractAggregatedMemoryContext
+{
+    private final AbstractAggregatedMemoryContext parentMemoryContext;
+
+    public SynchronizedAggregatedMemoryContext(AbstractAggregatedMemoryContext parentMemoryContext)
+    {
+        this.parentMemoryContext = requireNonNull(parentMemoryContext, "parentMemoryContext is null");
+    }
+
+    @Override
+    protected synchronized void updateBytes(long bytes)
+    {
+        parentMemoryContext.updateBytes(bytes);
+    }
+}
@@ -50,6 +50,7 @@ public final class OrcInputStream
     private FixedLengthSliceInput current;
 
     private byte[] buffer;
+    private byte[] compressedBuffer;
     private final LocalMemoryContext bufferMemoryUsage;
 
     // When uncompressed,
@@ -259,6 +260,7 @@ public final class OrcInputStream
     private int decompressZip(Slice in)
             throws IOException
     {
+        in = toHeapSlice(in);
         Inflater inflater = new Inflater(true);
         try {
             inflater.setInput((byte[]) in.getBase(), (int) (in.getAddress() - ARRAY_BYTE_BASE_OFFSET), in.length());
@@ -293,6 +295,7 @@ public final class OrcInputStream
     private int decompressSnappy(Slice in)
             throws IOException
     {
+        in = toHeapSlice(in);
         byte[] inArray = (byte[]) in.getBase();
         int inOffset = (int) (in.getAddress() - ARRAY_BYTE_BASE_OFFSET);
         int inLength = in.length();
@@ -304,6 +307,19 @@ public final class OrcInputStream
         return SpliceSnappy.uncompress(inArray, inOffset, inLength, buffer, 0);
     }
 
+    // Mapped and direct-buffer slices have no backing array, but both codecs only accept one
+    private Slice toHeapSlice(Slice in)
+    {
+        if (in.getBase() instanceof byte[]) {
+            return in;
+        }
+        if (compressedBuffer == null || compressedBuffer.length < in.length()) {
+            compressedBuffer = new byte[in.length()];
+        }
+        in.getBytes(0, compressedBuffer, 0, in.length());
+        return Slices.wrappedBuffer(compressedBuffer, 0, in.length());
+    }
+
     private void allocateOrGrowBuffer(int size, boolean copyExistingData)
     {
         if (buffer == null || buffer.length < size) {
@@ -26,8 +26,12 @@ import java.util.List;
 
 public class KryoDecoder extends ByteToMessageDecoder {
     private static final Logger LOG = Logger.getLogger(KryoDecoder.class);
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1 << 20;
     static private KryoPool kp = SpliceSparkKryoRegistrator.getInstance();
 
+    private final Input input = new Input();
+    private byte[] buffer = new byte[4096];
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
 //        LOG.warn("Decoding");
@@ -50,9 +54,16 @@ public class KryoDecoder extends ByteToMessageDecoder {
 
 //        LOG.warn("Decoding object ");
 
-        byte[] buf = new byte[len];
-        in.readBytes(buf);
-        Input input = new Input(buf);
+        // read straight out of heap buffers, otherwise copy into a buffer reused across messages
+        if (in.hasArray()) {
+            input.setBuffer(in.array(), in.arrayOffset() + in.readerIndex(), len);
+            in.skipBytes(len);
+        } else {
+            if (buffer.length < len || buffer.length > MAX_RETAINED_BUFFER_SIZE)
+                buffer = new byte[Math.max(len, 4096)];
+            in.readBytes(buffer, 0, len);
+            input.setBuffer(buffer, 0, len);
+        }
 
         Kryo decoder = kp.get();
         try {
@@ -61,7 +72,8 @@ public class KryoDecoder extends ByteToMessageDecoder {
         }
         finally {
             kp.returnInstance(decoder);
-
+            // don't keep a reference to the channel's buffer
+            input.setBuffer(buffer, 0, 0);
         }
 
 
@@ -22,26 +22,27 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
-import java.io.ByteArrayOutputStream;
-
 public class KryoEncoder extends MessageToByteEncoder<Object> {
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    /*
+     * The serialization buffer is reused across messages; one that grew past this for an
+     * unusually large message is dropped rather than retained for the life of the channel.
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1 << 20;
 
-
-    ByteArrayOutputStream outStream;
-    Output output;
+    private Output output;
 
 
     static private KryoPool kp = SpliceSparkKryoRegistrator.getInstance();
 
 
     public KryoEncoder() {
-        outStream = new ByteArrayOutputStream();
-        output = new Output(outStream, 4096);
+        output = new Output(INITIAL_BUFFER_SIZE, -1);
     }
 
     @Override
     protected void encode(ChannelHandlerContext ctx, Object in, ByteBuf out) throws Exception {
-        outStream.reset();
+        output.clear();
 
         Kryo encoder = kp.get();
         try {
@@ -50,10 +51,12 @@ public class KryoEncoder extends MessageToByteEncoder<Object> {
             kp.returnInstance(encoder);
         }
 
-        output.flush();
-        byte[] outArray = outStream.toByteArray();
-        out.writeInt(outArray.length);
-        out.writeBytes(outArray);
+        int length = output.position();
+        out.writeInt(length);
+        out.writeBytes(output.getBuffer(), 0, length);
+        if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+            output = new Output(INITIAL_BUFFER_SIZE, -1);
+        }
     }
 
 }
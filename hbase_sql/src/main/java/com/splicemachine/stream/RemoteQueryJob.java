@@ -36,13 +36,15 @@ public class RemoteQueryJob extends DistributedJob {
     String sql;
     int streamingBatches;
     int streamingBatchSize;
+    boolean streamingCompression;
     int parallelPartitions;
     Integer shufflePartitions;
 
 
     public RemoteQueryJob(ActivationHolder ah, int rootResultSetNumber, UUID uuid, String host, int port,
                           String session, String userId, String sql,
-                          int streamingBatches, int streamingBatchSize, int parallelPartitions, Integer shufflePartitionsProperty) {
+                          int streamingBatches, int streamingBatchSize, boolean streamingCompression,
+                          int parallelPartitions, Integer shufflePartitionsProperty) {
         this.ah = ah;
         this.rootResultSetNumber = rootResultSetNumber;
         this.uuid = uuid;
@@ -53,6 +55,7 @@ public class RemoteQueryJob extends DistributedJob {
         this.sql = sql;
         this.streamingBatches = streamingBatches;
         this.streamingBatchSize = streamingBatchSize;
+        this.streamingCompression = streamingCompression;
         this.parallelPartitions = parallelPartitions;
         this.shufflePartitions = shufflePartitionsProperty;
     }
@@ -66,4 +69,14 @@ public class RemoteQueryJob extends DistributedJob {
     public String getName() {
         return "query-"+uuid;
     }
+
+    @Override
+    public String getSchedulingQueue() {
+        return "query";
+    }
+
+    @Override
+    public String getSchedulingUser() {
+        return userId;
+    }
 }
@@ -34,8 +34,10 @@ import org.apache.spark.api.java.function.Function2;
 
 import java.io.*;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.*;
 
@@ -61,6 +63,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
     private transient NioEventLoopGroup workerGroup;
     private transient CountDownLatch active;
     private int batches;
+    private boolean compression;
     private volatile TaskContext taskContext;
 
     // Serialization
@@ -68,6 +71,11 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
     }
 
     public ResultStreamer(OperationContext<?> context, UUID uuid, String host, int port, int numPartitions, int batches, int batchSize) {
+        this(context, uuid, host, port, numPartitions, batches, batchSize, false);
+    }
+
+    public ResultStreamer(OperationContext<?> context, UUID uuid, String host, int port, int numPartitions, int batches, int batchSize,
+                          boolean compression) {
         this.context = context;
         this.uuid = uuid;
         this.host = host;
@@ -75,6 +83,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
         this.numPartitions = numPartitions;
         this.batches = batches;
         this.batchSize = batchSize;
+        this.compression = compression;
         this.permits = new Semaphore(batches - 1); // we start with one permit taken
     }
 
@@ -88,6 +97,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
             private long consumed;
             private long sent;
             private int currentBatch;
+            private List<Object> pending = new ArrayList<>();
 
             @Override
             public Long call() throws InterruptedException {
@@ -105,7 +115,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
                         consumed++;
 
 
-                        ctx.write(lr, ctx.voidPromise());
+                        pending.add(lr);
                         currentBatch++;
                         sent++;
 
@@ -118,6 +128,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
                         consumeOffset();
                     }
                     // Data has been written, request close
+                    writePending();
                     ctx.writeAndFlush(new StreamProtocol.RequestClose());
 
                     return consumed;
@@ -128,11 +139,24 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
             }
 
             /**
-             * If the current batch exceeds the batch size, flush the connection and take a new permit, blocking if the client
-             * hasn't had time yet to process previous messages
+             * Write the rows accumulated so far as a single batch message, without flushing. Rows are still accounted
+             * for individually by the client, so a short batch (before a Skipped message or at the end of the
+             * partition) doesn't change the permit accounting.
+             */
+            private void writePending() {
+                if (pending.isEmpty())
+                    return;
+                ctx.write(new StreamProtocol.RowBatch(pending, compression), ctx.voidPromise());
+                pending = new ArrayList<>(batchSize);
+            }
+
+            /**
+             * If the current batch exceeds the batch size, write it, flush the connection and take a new permit,
+             * blocking if the client hasn't had time yet to process previous messages
              */
             private void flushAndGetPermit() throws InterruptedException {
                 if (currentBatch >= batchSize) {
+                    writePending();
                     ctx.flush();
                     currentBatch = 0;
                     permits.acquire();
@@ -153,6 +177,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
                         count++;
                         consumed++;
                     }
+                    writePending();
                     ctx.writeAndFlush(new StreamProtocol.Skipped(count));
                 }
             }
@@ -163,6 +188,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
              */
             private boolean checkLimit() {
                 if (consumed > limit) {
+                    writePending();
                     ctx.flush();
                     if (LOG.isTraceEnabled())
                         LOG.trace("Reached limit, stopping. consumed " + consumed + " sent " + sent + " limit " + limit);
@@ -259,6 +285,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
                 ", limit=" + limit +
                 ", partition=" + partition +
                 ", batches=" + batches +
+                ", compression=" + compression +
                 '}';
     }
 
@@ -273,6 +300,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
         out.writeInt(numPartitions);
         out.writeInt(batches);
         out.writeInt(batchSize);
+        out.writeBoolean(compression);
         out.writeObject(permits); // WTF is this?
     }
 
@@ -285,6 +313,7 @@ public class ResultStreamer<T> extends ChannelInboundHandlerAdapter implements F
         numPartitions = in.readInt();
         batches = in.readInt();
         batchSize = in.readInt();
+        compression = in.readBoolean();
         permits = (Semaphore) in.readObject();
     }
 }
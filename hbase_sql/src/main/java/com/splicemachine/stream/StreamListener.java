@@ -71,7 +71,9 @@ public class StreamListener<T> extends ChannelInboundHandlerAdapter implements I
         this.offset = offset;
         this.limit = limit;
         this.batchSize = batchSize;
-        this.queueSize = batches*batchSize;
+        // Rows arrive in batches of up to batchSize, plus up to two short batches (before a Skipped message and at
+        // the end of the partition) that don't take a permit on the server
+        this.queueSize = batches + 2;
         // start with this to force a channel advancement
         PartitionState first = new PartitionState(0, 0);
         first.messages.add(SENTINEL);
@@ -151,7 +153,7 @@ public class StreamListener<T> extends ChannelInboundHandlerAdapter implements I
             while (next == null) {
                 PartitionState state = partitionStateMap.get(currentQueue);
                 // We take a message first to make sure we have a connection
-                Object msg = canBlock ? state.messages.take() : state.messages.remove();
+                Object msg = nextMessage(state);
                 if (msg == FAILURE) {
                     // The olap job failed, return right away
                     currentResult = null;
@@ -242,6 +244,30 @@ public class StreamListener<T> extends ChannelInboundHandlerAdapter implements I
         }
     }
 
+    /**
+     * Take the next message for this partition, unrolling row batches so rows are accounted for one at a time
+     */
+    private Object nextMessage(PartitionState state) throws InterruptedException {
+        while (true) {
+            if (state.batch != null) {
+                Object row = state.batch.get(state.batchPosition++);
+                if (state.batchPosition >= state.batch.size()) {
+                    state.batch = null;
+                    state.batchPosition = 0;
+                }
+                return row;
+            }
+            Object msg = canBlock ? state.messages.take() : state.messages.remove();
+            if (!(msg instanceof StreamProtocol.RowBatch))
+                return msg;
+            List<Object> rows = ((StreamProtocol.RowBatch) msg).rows;
+            if (!rows.isEmpty()) {
+                state.batch = rows;
+                state.batchPosition = 0;
+            }
+        }
+    }
+
     private void clearCurrentQueue() {
         PartitionState ps = partitionStateMap.remove(currentQueue);
         if (ps != null && ps.channel != null)
@@ -401,6 +427,8 @@ class PartitionState {
     int partition;
     Channel channel;
     ArrayBlockingQueue<Object> messages;
+    List<Object> batch; // row batch being handed out, only accessed by the reading thread
+    int batchPosition;
     long consumed;
     long readTotal;
     boolean initialized;
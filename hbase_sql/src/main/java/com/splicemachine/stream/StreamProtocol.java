@@ -15,6 +15,7 @@
 package com.splicemachine.stream;
 
 import java.io.*;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -146,6 +147,31 @@ public class StreamProtocol implements Serializable {
         }
     }
 
+    /**
+     * A batch of rows sent as a single message. Flow control counts rows as before, and the server flushes and
+     * takes a permit once per full batch. See {@link com.splicemachine.derby.impl.kryo.RowBatchSerializer} for
+     * the wire format.
+     */
+    public static class RowBatch {
+        public List<Object> rows;
+        public boolean compress;
+
+        public RowBatch() {}
+
+        public RowBatch(List<Object> rows, boolean compress) {
+            this.rows = rows;
+            this.compress = compress;
+        }
+
+        @Override
+        public String toString() {
+            return "RowBatch{" +
+                    "rows=" + rows.size() +
+                    ", compress=" + compress +
+                    '}';
+        }
+    }
+
     public static class Continue implements Serializable, Externalizable {
         public Continue() {}
         @Override
@@ -14,6 +14,7 @@
 
 package com.splicemachine.stream;
 
+import com.splicemachine.access.configuration.OlapConfigurations;
 import com.splicemachine.derby.iapi.sql.olap.OlapStatus;
 import com.splicemachine.derby.impl.SpliceSpark;
 import com.splicemachine.derby.stream.iapi.OperationContext;
@@ -57,6 +58,7 @@ public class StreamableRDD<T> {
     private final UUID uuid;
     private final OperationContext<?> context;
     private final int parallelPartitions;
+    private final boolean compression;
     private OlapStatus jobStatus;
 
 
@@ -70,6 +72,12 @@ public class StreamableRDD<T> {
 
     public StreamableRDD(JavaRDD<T> rdd, OperationContext<?> context, UUID uuid, String clientHost, int clientPort,
                          int batches, int batchSize, int parallelPartitions) {
+        this(rdd, context, uuid, clientHost, clientPort, batches, batchSize, parallelPartitions,
+                OlapConfigurations.DEFAULT_SPARK_RESULT_STREAMING_COMPRESSION);
+    }
+
+    public StreamableRDD(JavaRDD<T> rdd, OperationContext<?> context, UUID uuid, String clientHost, int clientPort,
+                         int batches, int batchSize, int parallelPartitions, boolean compression) {
         this.rdd = rdd;
         this.context = context;
         this.uuid = uuid;
@@ -80,12 +88,13 @@ public class StreamableRDD<T> {
         completionService = new ExecutorCompletionService<>(executor);
         this.clientBatchSize = batchSize;
         this.clientBatches = batches;
+        this.compression = compression;
     }
 
     public void submit() throws Exception {
         Exception error = null;
         try {
-            final JavaRDD<String> streamed = rdd.mapPartitionsWithIndex(new ResultStreamer(context, uuid, host, port, rdd.getNumPartitions(), clientBatches, clientBatchSize), true);
+            final JavaRDD<String> streamed = rdd.mapPartitionsWithIndex(new ResultStreamer(context, uuid, host, port, rdd.getNumPartitions(), clientBatches, clientBatchSize, compression), true);
             int numPartitions = streamed.getNumPartitions();
             int partitionsBatchSize = parallelPartitions / 2;
             int partitionBatches = numPartitions / partitionsBatchSize;
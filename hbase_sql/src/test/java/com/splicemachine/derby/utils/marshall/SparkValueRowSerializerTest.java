@@ -23,13 +23,17 @@ import com.splicemachine.db.iapi.types.*;
 import com.splicemachine.db.impl.sql.execute.*;
 import com.splicemachine.derby.impl.SpliceSparkKryoRegistrator;
 import com.splicemachine.derby.utils.test.TestingDataType;
+import com.splicemachine.stream.StreamProtocol;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class SparkValueRowSerializerTest {
 
@@ -62,6 +66,113 @@ public class SparkValueRowSerializerTest {
         input.close();
     }
 
+    @Test
+    public void testColumnarRowBatch() throws IOException, StandardException {
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ExecRow row = getExecRow(i % 10, 7);
+            if (i % 7 == 0)
+                row.getRowArray()[1].setToNull();
+            rows.add(row);
+        }
+
+        byte[] uncompressed = writeRowBatch(new StreamProtocol.RowBatch(rows, false));
+        byte[] compressed = writeRowBatch(new StreamProtocol.RowBatch(rows, true));
+        assertTrue("Compressed batch should be smaller", compressed.length < uncompressed.length);
+
+        for (byte[] bytes : new byte[][]{uncompressed, compressed}) {
+            StreamProtocol.RowBatch batch = readRowBatch(bytes);
+            assertEquals(rows.size(), batch.rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                ExecRow expected = (ExecRow) rows.get(i);
+                ExecRow actual = (ExecRow) batch.rows.get(i);
+                assertEquals(expected.nColumns(), actual.nColumns());
+                for (int c = 1; c <= expected.nColumns(); c++) {
+                    assertEquals(expected.getColumn(c), actual.getColumn(c));
+                    assertEquals(expected.getColumn(c).isNull(), actual.getColumn(c).isNull());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testColumnarRowBatchNulls() throws IOException, StandardException {
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            DataValueDescriptor[] dvds = new DataValueDescriptor[]{
+                    new SQLInteger(i),
+                    new SQLLongint(i * 1000L),
+                    new SQLDouble(i / 4.0),
+                    new SQLDate(new java.sql.Date(86400000L * i)),
+                    new SQLTimestamp(new java.sql.Timestamp(1000L * i)),
+                    new SQLDecimal(BigDecimal.valueOf(i, 2), 10, 2),
+                    new SQLChar("c" + i),
+                    new SQLVarchar("v" + i),
+                    new SQLInteger(i)
+            };
+            ((SQLDecimal) dvds[5]).setPrecision(10);
+            ((SQLChar) dvds[6]).setSqlCharSize(5);
+            ((SQLChar) dvds[7]).setSqlCharSize(20);
+            for (int c = 0; c < dvds.length; c++) {
+                // every row of the last column is null
+                if ((i + c) % 3 == 0 || c == dvds.length - 1)
+                    dvds[c].setToNull();
+            }
+            ValueRow row = new ValueRow(dvds.length);
+            row.setRowArray(dvds);
+            rows.add(row);
+        }
+
+        for (boolean compress : new boolean[]{false, true}) {
+            StreamProtocol.RowBatch batch = readRowBatch(writeRowBatch(new StreamProtocol.RowBatch(rows, compress)));
+            assertEquals(rows.size(), batch.rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                DataValueDescriptor[] expected = ((ExecRow) rows.get(i)).getRowArray();
+                DataValueDescriptor[] actual = ((ExecRow) batch.rows.get(i)).getRowArray();
+                assertEquals(expected.length, actual.length);
+                for (int c = 0; c < expected.length; c++) {
+                    assertEquals("row " + i + " column " + c, expected[c].isNull(), actual[c].isNull());
+                    if (!expected[c].isNull())
+                        assertEquals("row " + i + " column " + c, expected[c].getObject(), actual[c].getObject());
+                }
+                assertEquals(10, ((SQLDecimal) actual[5]).getPrecision());
+                assertEquals(2, ((SQLDecimal) actual[5]).getScale());
+                assertEquals(5, ((SQLChar) actual[6]).getSqlCharSize());
+                assertEquals(20, ((SQLChar) actual[7]).getSqlCharSize());
+            }
+        }
+    }
+
+    @Test
+    public void testMixedRowBatch() throws IOException, StandardException {
+        List<Object> rows = new ArrayList<>();
+        rows.add(getExecRow(1, 3));
+        rows.add(getExecRow(2, 5));
+        rows.add(new IndexValueRow(getExecRow(3, 3)));
+
+        StreamProtocol.RowBatch batch = readRowBatch(writeRowBatch(new StreamProtocol.RowBatch(rows, true)));
+        assertEquals(3, batch.rows.size());
+        assertEquals(3, ((ExecRow) batch.rows.get(0)).nColumns());
+        assertEquals(5, ((ExecRow) batch.rows.get(1)).nColumns());
+        assertTrue(batch.rows.get(2) instanceof IndexValueRow);
+        assertEquals(3, ((ExecRow) batch.rows.get(2)).getColumn(1).getInt());
+    }
+
+    private static byte[] writeRowBatch(StreamProtocol.RowBatch batch) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Output output = new Output(out);
+        kryo.writeClassAndObject(output, batch);
+        output.close();
+        return out.toByteArray();
+    }
+
+    private static StreamProtocol.RowBatch readRowBatch(byte[] bytes) {
+        Input input = new Input(new ByteArrayInputStream(bytes));
+        StreamProtocol.RowBatch batch = (StreamProtocol.RowBatch) kryo.readClassAndObject(input);
+        input.close();
+        return batch;
+    }
+
     @Test
     public void testLongBufferedSumAggregator() throws IOException, StandardException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
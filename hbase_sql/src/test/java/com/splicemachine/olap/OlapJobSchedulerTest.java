@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.olap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+
+public class OlapJobSchedulerTest {
+
+    private final List<Runnable> started = new ArrayList<>();
+    private final List<String> ran = new ArrayList<>();
+    private final Executor executor = started::add;
+
+    @Test
+    public void boundsRunningJobs() {
+        OlapJobScheduler scheduler = new OlapJobScheduler(executor, 2, "", "", "");
+        for (int i = 0; i < 5; i++) {
+            submit(scheduler, "query", "A", "a" + i);
+        }
+        assertEquals(2, scheduler.getRunningJobs());
+        assertEquals(3, scheduler.getQueuedJobs());
+        assertEquals(2, started.size());
+
+        runNext();
+        assertEquals(2, scheduler.getRunningJobs());
+        assertEquals(2, scheduler.getQueuedJobs());
+        assertEquals(Integer.valueOf(2), scheduler.getRunningJobsByQueue().get("query"));
+
+        while (!started.isEmpty()) {
+            runNext();
+        }
+        assertEquals(0, scheduler.getRunningJobs());
+        assertEquals(0, scheduler.getQueuedJobs());
+        assertEquals(Arrays.asList("a0", "a1", "a2", "a3", "a4"), ran);
+    }
+
+    @Test
+    public void heavyUserDoesNotStarveOthers() {
+        OlapJobScheduler scheduler = new OlapJobScheduler(executor, 3, "", "", "");
+        for (int i = 0; i < 10; i++) {
+            submit(scheduler, "query", "HEAVY", "heavy" + i);
+        }
+        submit(scheduler, "query", "LIGHT", "light");
+        submit(scheduler, "compaction", null, "compaction");
+
+        // All slots are taken by the heavy user, the next two freed go to the pools with nothing running
+        runNext();
+        runNext();
+        assertEquals(3, started.size());
+        for (int i = 0; i < 3; i++) {
+            runNext();
+        }
+        assertEquals(Arrays.asList("heavy0", "heavy1", "heavy2", "compaction", "light"), ran);
+    }
+
+    @Test
+    public void higherPriorityUserGoesFirst() {
+        OlapJobScheduler scheduler = new OlapJobScheduler(executor, 1, "", "REPORTS=10", "");
+        for (int i = 0; i < 3; i++) {
+            submit(scheduler, "query", "ADHOC", "adhoc" + i);
+        }
+        submit(scheduler, "query", "REPORTS", "report");
+        while (!started.isEmpty()) {
+            runNext();
+        }
+        assertEquals(Arrays.asList("adhoc0", "report", "adhoc1", "adhoc2"), ran);
+    }
+
+    @Test
+    public void weightsSplitSlotsBetweenQueues() {
+        OlapJobScheduler scheduler = new OlapJobScheduler(executor, 4, "query=3", "", "");
+        for (int i = 0; i < 4; i++) {
+            submit(scheduler, "admin", null, "filler" + i);
+        }
+        for (int i = 0; i < 4; i++) {
+            submit(scheduler, "query", "A", "query" + i);
+            submit(scheduler, "default", null, "default" + i);
+        }
+        for (int i = 0; i < 4; i++) {
+            runNext();
+        }
+        // once the fillers are done, query gets three of the four slots
+        assertEquals(Integer.valueOf(3), scheduler.getRunningJobsByQueue().get("query"));
+        assertEquals(Integer.valueOf(1), scheduler.getRunningJobsByQueue().get("default"));
+    }
+
+    @Test
+    public void reservedSlotsAreKeptForTheirQueue() {
+        OlapJobScheduler scheduler = new OlapJobScheduler(executor, 4, "", "", "compaction=1");
+        for (int i = 0; i < 5; i++) {
+            submit(scheduler, "query", "A", "query" + i);
+        }
+        // queries only get the three shared slots
+        assertEquals(3, scheduler.getRunningJobs());
+        assertEquals(2, scheduler.getQueuedJobs());
+
+        submit(scheduler, "compaction", null, "compaction0");
+        submit(scheduler, "compaction", null, "compaction1");
+        assertEquals(Integer.valueOf(1), scheduler.getRunningJobsByQueue().get("compaction"));
+
+        // the reserved slot is taken, so the next compaction competes for the shared slots
+        runNext();
+        runNext();
+        runNext();
+        assertEquals(Arrays.asList("query0", "query1", "query2"), ran);
+        assertEquals(Integer.valueOf(2), scheduler.getRunningJobsByQueue().get("compaction"));
+        assertEquals(Integer.valueOf(2), scheduler.getRunningJobsByQueue().get("query"));
+    }
+
+    @Test
+    public void reservationsLeavingNoSharedSlotAreIgnored() {
+        OlapJobScheduler scheduler = new OlapJobScheduler(executor, 2, "", "", "compaction=2");
+        submit(scheduler, "query", "A", "query0");
+        submit(scheduler, "query", "A", "query1");
+        assertEquals(2, scheduler.getRunningJobs());
+    }
+
+    @Test
+    public void cancelledQueuedJobsAreDropped() {
+        OlapJobScheduler scheduler = new OlapJobScheduler(executor, 1, "", "", "");
+        submit(scheduler, "query", "A", "first");
+        OlapJobStatus cancelled = submit(scheduler, "query", "A", "cancelled");
+        submit(scheduler, "query", "A", "last");
+        cancelled.cancel();
+        while (!started.isEmpty()) {
+            runNext();
+        }
+        assertEquals(Arrays.asList("first", "last"), ran);
+    }
+
+    private OlapJobStatus submit(OlapJobScheduler scheduler, String queue, String user, String name) {
+        OlapJobStatus status = new OlapJobStatus(1000, 10);
+        status.markSubmitted();
+        scheduler.submit(queue, user, status, () -> ran.add(name));
+        return status;
+    }
+
+    private void runNext() {
+        started.remove(0).run();
+    }
+}
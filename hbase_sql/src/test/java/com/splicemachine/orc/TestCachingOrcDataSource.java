@@ -17,6 +17,7 @@ import com.splicemachine.orc.OrcTester.Compression;
 import com.splicemachine.orc.OrcTester.Format;
 import com.splicemachine.orc.OrcTester.TempFile;
 import com.splicemachine.orc.memory.AggregatedMemoryContext;
+import com.splicemachine.orc.memory.OrcBufferPool;
 import com.splicemachine.orc.metadata.OrcMetadataReader;
 import com.splicemachine.orc.metadata.StripeInformation;
 import com.google.common.collect.ImmutableList;
@@ -211,6 +212,50 @@ public class TestCachingOrcDataSource
         assertEquals(positionCount, POSITION_COUNT);
     }
 
+    @Test
+    public void testStripePrefetch()
+            throws IOException
+    {
+        DataSize maxMergeDistance = new DataSize(1, Unit.MEGABYTE);
+        DataSize maxReadSize = new DataSize(1, Unit.MEGABYTE);
+        OrcBufferPool bufferPool = new OrcBufferPool(new DataSize(64, Unit.MEGABYTE).toBytes());
+
+        List<String> sequential = readStrings(new FileOrcDataSource(tempFile.getFile(), maxMergeDistance, maxReadSize, maxReadSize), 0);
+        List<String> prefetched = readStrings(new FileOrcDataSource(tempFile.getFile(), maxMergeDistance, maxReadSize, maxReadSize, bufferPool), 2);
+        assertEquals(POSITION_COUNT, sequential.size());
+        assertEquals(sequential, prefetched);
+        assertEquals(0, bufferPool.getLeasedBytes());
+    }
+
+    private static List<String> readStrings(OrcDataSource orcDataSource, int stripeReadahead)
+            throws IOException
+    {
+        OrcReader orcReader = new OrcReader(orcDataSource, new OrcMetadataReader(), new DataSize(1, Unit.MEGABYTE), new DataSize(1, Unit.MEGABYTE));
+        Assert.assertTrue(orcReader.getFooter().getStripes().size() > 1);
+        OrcRecordReader orcRecordReader = orcReader.createRecordReader(
+                ImmutableMap.of(0, DataTypes.StringType),
+                (numberOfRows, statisticsByColumnIndex) -> true,
+                0,
+                orcDataSource.getSize(),
+                HIVE_STORAGE_TIME_ZONE,
+                new AggregatedMemoryContext(), Collections.EMPTY_LIST, Collections.EMPTY_LIST,
+                stripeReadahead,
+                2);
+        List<String> values = new ArrayList<>();
+        try {
+            while (orcRecordReader.nextBatch() > 0) {
+                ColumnVector block = orcRecordReader.readBlock(DataTypes.StringType, 0);
+                for (int i = 0; i < block.getElementsAppended(); i++) {
+                    values.add(block.getUTF8String(i).toString());
+                }
+            }
+        }
+        finally {
+            orcRecordReader.close();
+        }
+        return values;
+    }
+
     public static <T, U extends T> void assertNotInstanceOf(T actual, Class<U> expectedType)
     {
         assertNotNull("actual is null",actual);
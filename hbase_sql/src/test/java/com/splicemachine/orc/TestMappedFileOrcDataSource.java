@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.orc;
+
+import com.splicemachine.orc.OrcTester.Compression;
+import com.splicemachine.orc.OrcTester.TempFile;
+import com.splicemachine.orc.memory.AggregatedMemoryContext;
+import com.splicemachine.orc.memory.OrcBufferPool;
+import com.splicemachine.orc.metadata.OrcMetadataReader;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.units.DataSize;
+import io.airlift.units.DataSize.Unit;
+import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
+import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
+import org.apache.hadoop.hive.serde2.Serializer;
+import org.apache.hadoop.hive.serde2.objectinspector.SettableStructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.spark.sql.execution.vectorized.ColumnVector;
+import org.apache.spark.sql.types.DataTypes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.splicemachine.orc.OrcTester.Format.ORC_12;
+import static com.splicemachine.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.splicemachine.orc.OrcTester.createOrcRecordWriter;
+import static com.splicemachine.orc.OrcTester.createSettableStructObjectInspector;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TestMappedFileOrcDataSource
+{
+    private File file;
+    private byte[] data;
+
+    @Before
+    public void setUp()
+            throws IOException
+    {
+        data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        file = File.createTempFile("orc", ".data");
+        Files.write(file.toPath(), data);
+    }
+
+    @After
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+    @Test
+    public void testReadRanges()
+            throws IOException
+    {
+        // small regions so that some ranges straddle a region boundary
+        OrcDataSource dataSource = new MappedFileOrcDataSource(file, 128);
+        assertEquals(data.length, dataSource.getSize());
+
+        Map<String, FixedLengthSliceInput> slices = dataSource.readFully(ImmutableMap.of(
+                "inside", new DiskRange(10, 100),
+                "straddling", new DiskRange(120, 300),
+                "tail", new DiskRange(900, 100),
+                "empty", new DiskRange(500, 0)));
+        assertRange(slices.get("inside"), 10, 100);
+        assertRange(slices.get("straddling"), 120, 300);
+        assertRange(slices.get("tail"), 900, 100);
+        assertRange(slices.get("empty"), 500, 0);
+
+        byte[] buffer = new byte[400];
+        dataSource.readFully(100, buffer);
+        assertArrayEquals(Arrays.copyOfRange(data, 100, 500), buffer);
+        assertEquals(900, dataSource.getReadBytes());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadPastEnd()
+            throws IOException
+    {
+        new MappedFileOrcDataSource(file).readFully(990, new byte[20]);
+    }
+
+    @Test
+    public void testPooledFileDataSource()
+            throws IOException
+    {
+        OrcBufferPool bufferPool = new OrcBufferPool(new DataSize(1, Unit.MEGABYTE).toBytes());
+        try (FileOrcDataSource dataSource = new FileOrcDataSource(file, new DataSize(16, Unit.BYTE), new DataSize(256, Unit.BYTE), new DataSize(4, Unit.KILOBYTE), bufferPool)) {
+            Map<String, FixedLengthSliceInput> slices = dataSource.readFully(ImmutableMap.of(
+                    "small", new DiskRange(0, 50),
+                    "merged", new DiskRange(60, 50),
+                    "large", new DiskRange(200, 700)));
+            assertRange(slices.get("small"), 0, 50);
+            assertRange(slices.get("merged"), 60, 50);
+            assertRange(slices.get("large"), 200, 700);
+            assertEquals(0, bufferPool.getRetainedBytes());
+            long leasedBytes = bufferPool.getLeasedBytes();
+            assertEquals(2 * 4096, leasedBytes);
+
+            dataSource.detachBuffers().release();
+            assertEquals(0, bufferPool.getLeasedBytes());
+            assertEquals(leasedBytes, bufferPool.getRetainedBytes());
+
+            // the next stripe reuses the released buffers
+            assertRange(dataSource.readFully(ImmutableMap.of("small", new DiskRange(500, 100))).get("small"), 500, 100);
+            assertEquals(4096, bufferPool.getLeasedBytes());
+            assertEquals(4096, bufferPool.getRetainedBytes());
+            dataSource.detachBuffers().release();
+        }
+    }
+
+    @Test
+    public void testReadZlibFile()
+            throws Exception
+    {
+        assertReadCompressedFile(Compression.ZLIB);
+    }
+
+    @Test
+    public void testReadSnappyFile()
+            throws Exception
+    {
+        assertReadCompressedFile(Compression.SNAPPY);
+    }
+
+    // mapped slices have no backing array, so the compressed chunks must be copied before decoding
+    private static void assertReadCompressedFile(Compression compression)
+            throws Exception
+    {
+        int rowCount = 30_000;
+        try (TempFile tempFile = new TempFile()) {
+            FileSinkOperator.RecordWriter writer = createOrcRecordWriter(tempFile.getFile(), ORC_12, compression, javaLongObjectInspector);
+            @SuppressWarnings("deprecation") Serializer serde = new OrcSerde();
+            SettableStructObjectInspector objectInspector = createSettableStructObjectInspector("test", javaLongObjectInspector);
+            Object row = objectInspector.create();
+            StructField field = objectInspector.getAllStructFieldRefs().get(0);
+            for (int i = 0; i < rowCount; i++) {
+                objectInspector.setStructFieldData(row, field, (long) i * 7);
+                writer.write(serde.serialize(row, objectInspector));
+            }
+            writer.close(false);
+
+            OrcDataSource dataSource = new MappedFileOrcDataSource(tempFile.getFile());
+            OrcReader orcReader = new OrcReader(dataSource, new OrcMetadataReader(), new DataSize(1, Unit.MEGABYTE), new DataSize(1, Unit.MEGABYTE));
+            OrcRecordReader reader = orcReader.createRecordReader(ImmutableMap.of(0, DataTypes.LongType), OrcPredicate.TRUE, HIVE_STORAGE_TIME_ZONE,
+                    new AggregatedMemoryContext(), Collections.EMPTY_LIST, Collections.EMPTY_LIST);
+            long position = 0;
+            while (true) {
+                int batchSize = reader.nextBatch();
+                if (batchSize == -1) {
+                    break;
+                }
+                ColumnVector block = reader.readBlock(DataTypes.LongType, 0);
+                for (int i = 0; i < batchSize; i++) {
+                    assertEquals((position + i) * 7, block.getLong(i));
+                }
+                position += batchSize;
+            }
+            assertEquals(rowCount, position);
+            reader.close();
+        }
+    }
+
+    private void assertRange(FixedLengthSliceInput input, int offset, int length)
+    {
+        assertEquals(length, input.length());
+        byte[] actual = new byte[length];
+        input.readBytes(actual);
+        assertArrayEquals(Arrays.copyOfRange(data, offset, offset + length), actual);
+    }
+}
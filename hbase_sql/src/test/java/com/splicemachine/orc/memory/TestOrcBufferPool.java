@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.splicemachine.orc.memory;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestOrcBufferPool
+{
+    @Test
+    public void testSizeClasses()
+    {
+        OrcBufferPool pool = new OrcBufferPool(1 << 20);
+        ByteBuffer small = pool.allocate(10);
+        assertTrue(small.isDirect());
+        assertEquals(4096, small.capacity());
+        assertEquals(10, small.remaining());
+
+        ByteBuffer large = pool.allocate(5000);
+        assertEquals(8192, large.capacity());
+        assertEquals(5000, large.limit());
+        assertEquals(4096 + 8192, pool.getLeasedBytes());
+        assertEquals(pool.getLeasedBytes(), pool.getBytes());
+    }
+
+    @Test
+    public void testReuse()
+    {
+        OrcBufferPool pool = new OrcBufferPool(1 << 20);
+        ByteBuffer buffer = pool.allocate(4000);
+        pool.release(buffer);
+        assertEquals(0, pool.getLeasedBytes());
+        assertEquals(4096, pool.getRetainedBytes());
+
+        assertSame(buffer, pool.allocate(100));
+        assertEquals(4096, pool.getLeasedBytes());
+        assertEquals(0, pool.getRetainedBytes());
+    }
+
+    @Test
+    public void testRetentionLimit()
+    {
+        OrcBufferPool pool = new OrcBufferPool(4096);
+        ByteBuffer first = pool.allocate(4096);
+        ByteBuffer second = pool.allocate(4096);
+        pool.release(first);
+        pool.release(second);
+        assertEquals(0, pool.getLeasedBytes());
+        assertEquals(4096, pool.getRetainedBytes());
+
+        assertSame(first, pool.allocate(4096));
+        assertNotSame(second, pool.allocate(4096));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReleaseForeignBuffer()
+    {
+        new OrcBufferPool(4096).release(ByteBuffer.allocateDirect(100));
+    }
+}
@@ -117,9 +117,7 @@ public class AdapterSIEnvironment implements SIEnvironment{
         TxnNetworkLayerFactory txnNetworkLayerFactory= TableFactoryService.loadTxnNetworkLayer(this.config);
         this.oldestActiveTransactionTaskFactory = new HOldestActiveTransactionTaskFactory();
         this.txnStore = new CoprocessorTxnStore(txnNetworkLayerFactory,timestampSource,null);
-        int completedTxnCacheSize = config.getCompletedTxnCacheSize();
-        int completedTxnConcurrency = config.getCompletedTxnConcurrency();
-        this.txnSupplier = new CompletedTxnCacheSupplier(txnStore,completedTxnCacheSize,completedTxnConcurrency);
+        this.txnSupplier = CompletedTxnCacheSupplier.create(txnStore,config);
         this.txnStore.setCache(txnSupplier);
         this.opFactory =HOperationFactory.INSTANCE;
         this.txnOpFactory = new SimpleTxnOperationFactory(exceptionFactory(),opFactory);
@@ -149,9 +147,7 @@ public class AdapterSIEnvironment implements SIEnvironment{
         TxnNetworkLayerFactory txnNetworkLayerFactory= TableFactoryService.loadTxnNetworkLayer(this.config);
         this.oldestActiveTransactionTaskFactory = new HOldestActiveTransactionTaskFactory();
         this.txnStore = new CoprocessorTxnStore(txnNetworkLayerFactory,timestampSource,null);
-        int completedTxnCacheSize = config.getCompletedTxnCacheSize();
-        int completedTxnConcurrency = config.getCompletedTxnConcurrency();
-        this.txnSupplier = new CompletedTxnCacheSupplier(txnStore,completedTxnCacheSize,completedTxnConcurrency);
+        this.txnSupplier = CompletedTxnCacheSupplier.create(txnStore,config);
         this.txnStore.setCache(txnSupplier);
         this.opFactory =HOperationFactory.INSTANCE;
         this.txnOpFactory = new SimpleTxnOperationFactory(exceptionFactory(),opFactory);
@@ -114,9 +114,7 @@ public class HBaseSIEnvironment implements SIEnvironment{
         this.oldestActiveTransactionTaskFactory = new HOldestActiveTransactionTaskFactory();
         TxnNetworkLayerFactory txnNetworkLayerFactory= TableFactoryService.loadTxnNetworkLayer(this.config);
         this.txnStore = new CoprocessorTxnStore(txnNetworkLayerFactory,timestampSource,null);
-        int completedTxnCacheSize = config.getCompletedTxnCacheSize();
-        int completedTxnConcurrency = config.getCompletedTxnConcurrency();
-        this.txnSupplier = new CompletedTxnCacheSupplier(txnStore,completedTxnCacheSize,completedTxnConcurrency);
+        this.txnSupplier = CompletedTxnCacheSupplier.create(txnStore,config);
         this.txnStore.setCache(txnSupplier);
         this.opFactory = HOperationFactory.INSTANCE;
         this.txnOpFactory = new SimpleTxnOperationFactory(exceptionFactory(),opFactory);
@@ -147,9 +145,7 @@ public class HBaseSIEnvironment implements SIEnvironment{
         this.oldestActiveTransactionTaskFactory = new HOldestActiveTransactionTaskFactory();
         TxnNetworkLayerFactory txnNetworkLayerFactory= TableFactoryService.loadTxnNetworkLayer(this.config);
         this.txnStore = new CoprocessorTxnStore(txnNetworkLayerFactory,timestampSource,null);
-        int completedTxnCacheSize = config.getCompletedTxnCacheSize();
-        int completedTxnConcurrency = config.getCompletedTxnConcurrency();
-        this.txnSupplier = new CompletedTxnCacheSupplier(txnStore,completedTxnCacheSize,completedTxnConcurrency);
+        this.txnSupplier = CompletedTxnCacheSupplier.create(txnStore,config);
         this.txnStore.setCache(txnSupplier);
         this.opFactory = HOperationFactory.INSTANCE;
         this.txnOpFactory = new SimpleTxnOperationFactory(exceptionFactory(),opFactory);
@@ -25,6 +25,7 @@ import com.splicemachine.hbase.ZkUtils;
 import com.splicemachine.si.api.txn.lifecycle.TxnLifecycleStore;
 import com.splicemachine.si.api.txn.lifecycle.TxnPartition;
 import com.splicemachine.si.coprocessor.TxnMessage;
+import com.splicemachine.si.impl.TxnUtils;
 import com.splicemachine.si.impl.data.StripedTxnLifecycleStore;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.region.RegionServerControl;
@@ -58,6 +59,7 @@ import java.util.List;
 public class TxnLifecycleEndpoint extends TxnMessage.TxnLifecycleService implements RegionCoprocessor {
     private static final Logger LOG=Logger.getLogger(TxnLifecycleEndpoint.class);
     private TxnLifecycleStore lifecycleStore;
+    private HRegion region;
     private volatile boolean isTxnTable=false;
 
     public static final CountedReference<TransactionResolver> resolverRef=new CountedReference<>(new Supplier<TransactionResolver>(){
@@ -94,6 +96,7 @@ public class TxnLifecycleEndpoint extends TxnMessage.TxnLifecycleService impleme
                 int txnLockStrips = configuration.getTransactionLockStripes();
                 lifecycleStore = new StripedTxnLifecycleStore(txnLockStrips,regionStore,
                         new RegionServerControl(region, (RegionServerServices)rce.getOnlineRegions()),timestampSource);
+                this.region=region;
                 isTxnTable=true;
             }
         } catch (Throwable t) {
@@ -197,6 +200,29 @@ public class TxnLifecycleEndpoint extends TxnMessage.TxnLifecycleService impleme
         }
     }
 
+    @Override
+    public void getTransactions(RpcController controller,TxnMessage.TxnsRequest request,RpcCallback<TxnMessage.TxnsResponse> done){
+        try (RpcUtils.RootEnv env = RpcUtils.getRootEnv()) {
+            boolean isOld = request.hasIsOld() && request.getIsOld();
+            TxnMessage.TxnsResponse.Builder response=TxnMessage.TxnsResponse.newBuilder();
+            int count=request.getTxnIdsCount();
+            for(int i=0;i<count;i++){
+                long txnId=request.getTxnIds(i);
+                byte[] rowKey=isOld?TxnUtils.getOldRowKey(txnId):TxnUtils.getRowKey(txnId);
+                if(!HRegion.rowIsInRange(region.getRegionInfo(),rowKey))
+                    continue; //held by another region, the caller will fetch it from there
+                TxnMessage.Txn txn=isOld?lifecycleStore.getOldTransaction(txnId):lifecycleStore.getTransaction(txnId);
+                if(txn==null)
+                    continue; //unknown here, the caller will look it up on its own like any other missing one
+                response.addTxnIds(txnId);
+                response.addTxns(txn);
+            }
+            done.run(response.build());
+        }catch(IOException ioe){
+            setControllerException(controller,ioe);
+        }
+    }
+
     @Override
     public void getTaskId(RpcController controller,TxnMessage.TxnRequest request,RpcCallback<TxnMessage.TaskId> done){
         try (RpcUtils.RootEnv env = RpcUtils.getRootEnv()) {
@@ -15,6 +15,7 @@
 package com.splicemachine.si.impl;
 
 import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongObjectHashMap;
 import com.splicemachine.access.HConfiguration;
 import com.splicemachine.si.api.txn.ActiveTxnTracker;
 import com.splicemachine.si.api.txn.TaskId;
@@ -305,6 +306,58 @@ public class CoprocessorTxnStore implements TxnStore {
         }
     }
 
+    /**
+     * Fetch a batch of transactions with one request per transaction table bucket, rather than one per
+     * transaction. Transactions which the answering region doesn't hold (e.g. after a bucket split) or
+     * doesn't know, and old-format transactions, fall back to {@link #getTransaction(long)}.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public TxnView[] getTransactions(long[] txnIds) throws IOException{
+        TxnView[] result=new TxnView[txnIds.length];
+        List<Integer>[] buckets=new List[SIConstants.TRANSACTION_TABLE_BUCKET_COUNT];
+        for(int i=0;i<txnIds.length;i++){
+            if(txnIds[i]<oldTransactions) continue;
+            int bucket=TxnUtils.getRowKey(txnIds[i])[0];
+            if(buckets[bucket]==null)
+                buckets[bucket]=new ArrayList<>();
+            buckets[bucket].add(i);
+        }
+
+        try (TxnNetworkLayer table = tableFactory.accessTxnNetwork()) {
+            for(List<Integer> positions : buckets){
+                if(positions==null) continue;
+                if(positions.size()==1) continue; //not worth a batch, fetched below
+                lookups.incrementAndGet();
+                TxnMessage.TxnsRequest.Builder request=TxnMessage.TxnsRequest.newBuilder();
+                for(int position : positions){
+                    request.addTxnIds(txnIds[position]);
+                }
+                byte[] rowKey=getTransactionRowKey(txnIds[positions.get(0)]);
+                TxnMessage.TxnsResponse response=table.getTxns(rowKey,request.build());
+                LongObjectHashMap<TxnMessage.Txn> served=new LongObjectHashMap<>(response.getTxnsCount());
+                for(int i=0;i<response.getTxnsCount();i++){
+                    served.put(response.getTxnIds(i),response.getTxns(i));
+                }
+                for(int position : positions){
+                    TxnMessage.Txn messageTxn=served.get(txnIds[position]);
+                    if(messageTxn!=null)
+                        result[position]=decode(txnIds[position],messageTxn);
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch(Throwable throwable){
+            throw new IOException(throwable);
+        }
+
+        for(int i=0;i<txnIds.length;i++){
+            if(result[i]==null)
+                result[i]=getTransaction(txnIds[i]);
+        }
+        return result;
+    }
+
     public TxnView getOldTransaction(long txnId, boolean getDestinationTables) throws IOException {
         byte[] rowKey = getOldTransactionRowKey(txnId);
         TxnMessage.TxnRequest request = TxnMessage.TxnRequest.newBuilder().setTxnId(txnId).setIsOld(true).build();
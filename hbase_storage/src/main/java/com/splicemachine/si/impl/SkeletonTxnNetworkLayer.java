@@ -120,6 +120,17 @@ public abstract class SkeletonTxnNetworkLayer implements TxnNetworkLayer{
         return done.get();
     }
 
+    @Override
+    public TxnMessage.TxnsResponse getTxns(byte[] rowKey,TxnMessage.TxnsRequest request) throws IOException{
+        TxnMessage.TxnLifecycleService service=getLifecycleService(rowKey);
+        SpliceRpcController controller = new SpliceRpcController();
+        controller.setPriority(HConstants.HIGH_QOS);
+        BlockingRpcCallback<TxnMessage.TxnsResponse> done=new BlockingRpcCallback<>();
+        service.getTransactions(controller,request,done);
+        dealWithError(controller);
+        return done.get();
+    }
+
     @Override
     public TxnMessage.TaskId getTaskId(byte[] rowKey,TxnMessage.TxnRequest request) throws IOException{
         TxnMessage.TxnLifecycleService service=getLifecycleService(rowKey);
@@ -37,6 +37,8 @@ public interface TxnNetworkLayer extends AutoCloseable{
 
     TxnMessage.Txn getTxn(byte[] rowKey,TxnMessage.TxnRequest request) throws IOException;
 
+    TxnMessage.TxnsResponse getTxns(byte[] rowKey,TxnMessage.TxnsRequest request) throws IOException;
+
     TxnMessage.TaskId getTaskId(byte[] rowKey,TxnMessage.TxnRequest request) throws IOException;
 
     TxnMessage.TxnAtResponse getTxnAt(final TxnMessage.TxnAtRequest request) throws IOException;
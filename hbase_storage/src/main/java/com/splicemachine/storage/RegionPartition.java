@@ -30,6 +30,7 @@ import com.splicemachine.storage.util.MeasuredListScanner;
 import com.splicemachine.utils.Pair;
 import org.apache.hadoop.hbase.NotServingRegionException;
 import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.filter.Filter;
 import org.apache.hadoop.hbase.regionserver.*;
 import org.apache.hadoop.hbase.util.Bytes;
 
@@ -81,9 +82,19 @@ public class RegionPartition implements Partition{
     @Override
     public Iterator<DataResult> batchGet(Attributable attributes,List<byte[]> rowKeys) throws IOException{
         List<Result> results=new ArrayList<>(rowKeys.size());
+        Get template=attributes instanceof HGet?((HGet)attributes).unwrapDelegate():null;
         try{
             for(byte[] rk : rowKeys){
                 Get g=new Get(rk);
+                if(template!=null){
+                    Filter filter=template.getFilter();
+                    if(filter!=null){
+                        filter.reset(); //the filter is shared by every row
+                        g.setFilter(filter);
+                    }
+                    g.setTimeRange(template.getTimeRange().getMin(),template.getTimeRange().getMax());
+                    g.setMaxVersions(template.getMaxVersions());
+                }
                 if(attributes!=null){
                     for(Map.Entry<String, byte[]> attrEntry : attributes.allAttributes().entrySet()){
                         g.setAttribute(attrEntry.getKey(),attrEntry.getValue());
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.data.hbase.coprocessor;
+
+import com.google.protobuf.RpcCallback;
+import com.splicemachine.impl.MockRegionUtils;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.lifecycle.TxnLifecycleStore;
+import com.splicemachine.si.coprocessor.TxnMessage;
+import org.apache.hadoop.hbase.regionserver.HRegion;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.FieldSetter;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TxnLifecycleEndpointTest{
+
+    @Test
+    public void getTransactionsSkipsUnknownTransactions() throws Exception{
+        TxnLifecycleStore store=mock(TxnLifecycleStore.class);
+        when(store.getTransaction(1)).thenReturn(txn(1));
+        when(store.getTransaction(2)).thenReturn(null);
+        when(store.getTransaction(3)).thenReturn(txn(3));
+        TxnLifecycleEndpoint endpoint=getEndpoint(store,MockRegionUtils.getMockRegion());
+
+        TxnMessage.TxnsRequest request=TxnMessage.TxnsRequest.newBuilder()
+                .addTxnIds(1).addTxnIds(2).addTxnIds(3).build();
+        final TxnMessage.TxnsResponse[] response=new TxnMessage.TxnsResponse[1];
+        endpoint.getTransactions(null,request,new RpcCallback<TxnMessage.TxnsResponse>(){
+            @Override
+            public void run(TxnMessage.TxnsResponse parameter){
+                response[0]=parameter;
+            }
+        });
+
+        Assert.assertNotNull("No response for a batch with an unknown transaction",response[0]);
+        Assert.assertEquals(2,response[0].getTxnIdsCount());
+        Assert.assertEquals(2,response[0].getTxnsCount());
+        Assert.assertEquals(1,response[0].getTxnIds(0));
+        Assert.assertEquals(1,response[0].getTxns(0).getInfo().getTxnId());
+        Assert.assertEquals(3,response[0].getTxnIds(1));
+        Assert.assertEquals(3,response[0].getTxns(1).getInfo().getTxnId());
+    }
+
+    private static TxnLifecycleEndpoint getEndpoint(TxnLifecycleStore store,HRegion region) throws Exception{
+        TxnLifecycleEndpoint endpoint=new TxnLifecycleEndpoint();
+        new FieldSetter(endpoint,TxnLifecycleEndpoint.class.getDeclaredField("lifecycleStore")).set(store);
+        new FieldSetter(endpoint,TxnLifecycleEndpoint.class.getDeclaredField("region")).set(region);
+        return endpoint;
+    }
+
+    private static TxnMessage.Txn txn(long txnId){
+        TxnMessage.TxnInfo info=TxnMessage.TxnInfo.newBuilder()
+                .setTxnId(txnId)
+                .setBeginTs(txnId)
+                .setIsolationLevel(Txn.IsolationLevel.SNAPSHOT_ISOLATION.getLevel())
+                .build();
+        return TxnMessage.Txn.newBuilder().setInfo(info).setCommitTs(-1).setState(Txn.State.ACTIVE.getId()).build();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ *
+ * Accepts the usual JMH command line, but always writes machine-readable results, so that runs
+ * from different releases can be diffed. Results go to {@code jmh-result.json} in the working
+ * directory unless {@code -rff} says otherwise.
+ */
+public class BenchmarkRunner{
+
+    public static void main(String... args) throws Exception{
+        CommandLineOptions cmdOptions=new CommandLineOptions(args);
+        Options options=new OptionsBuilder()
+                .parent(cmdOptions)
+                .resultFormat(cmdOptions.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(cmdOptions.getResult().orElse("jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
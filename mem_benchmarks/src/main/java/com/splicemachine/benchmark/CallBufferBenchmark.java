@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.benchmark;
+
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.pipeline.api.WriteStats;
+import com.splicemachine.pipeline.api.Writer;
+import com.splicemachine.pipeline.callbuffer.PipingCallBuffer;
+import com.splicemachine.pipeline.client.BulkWrites;
+import com.splicemachine.pipeline.client.Monitor;
+import com.splicemachine.pipeline.config.DefaultWriteConfiguration;
+import com.splicemachine.pipeline.config.WriteConfiguration;
+import com.splicemachine.pipeline.mem.DirectPipelineExceptionFactory;
+import com.splicemachine.pipeline.utils.PipelineUtils;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.storage.MPartition;
+import org.openjdk.jmh.annotations.*;
+
+import javax.management.MBeanServer;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffering and flushing of writes through {@link PipingCallBuffer}, down to the point where the bulk writes
+ * are handed to the network. The writer at the end of the buffer completes immediately, so only the client
+ * side of the pipeline is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class CallBufferBenchmark{
+
+    @Param({"1000","10000"})
+    public int rowsPerFlush;
+
+    @Param({"64","1024"})
+    public int valueSize;
+
+    private KVPair[] writes;
+    private MPartition table;
+    private Monitor monitor;
+    private WriteConfiguration writeConfiguration;
+    private final Writer writer=new CompletedWriter();
+
+    @Setup
+    public void setup(){
+        Random random=new Random(0);
+        writes=new KVPair[rowsPerFlush];
+        for(int i=0;i<rowsPerFlush;i++){
+            byte[] value=new byte[valueSize];
+            random.nextBytes(value);
+            writes[i]=new KVPair(Bytes.toBytes(random.nextLong()),value,KVPair.Type.INSERT);
+        }
+        table=new MPartition("1184","1184");
+        monitor=new Monitor(Long.MAX_VALUE,Integer.MAX_VALUE,10,1000L,5);
+        writeConfiguration=new DefaultWriteConfiguration(monitor,DirectPipelineExceptionFactory.INSTANCE);
+    }
+
+    @Benchmark
+    public PipingCallBuffer bufferAndFlush() throws Exception{
+        PipingCallBuffer buffer=new PipingCallBuffer(table,Txn.ROOT_TRANSACTION,null,writer,
+                PipelineUtils.noOpFlushHook,writeConfiguration,monitor,false);
+        buffer.addAll(writes);
+        buffer.flushBufferAndWait();
+        return buffer;
+    }
+
+    private static class CompletedWriter implements Writer{
+        @Override
+        public Future<WriteStats> write(byte[] tableName,BulkWrites action,WriteConfiguration writeConfiguration){
+            return CompletableFuture.completedFuture(WriteStats.NOOP_WRITE_STATS);
+        }
+
+        @Override public void stopWrites(){ }
+        @Override public void registerJMX(MBeanServer mbs){ }
+    }
+}
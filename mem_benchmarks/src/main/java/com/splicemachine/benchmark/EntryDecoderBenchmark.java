@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.benchmark;
+
+import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.encoding.MultiFieldDecoder;
+import com.splicemachine.encoding.MultiFieldEncoder;
+import com.splicemachine.storage.EntryDecoder;
+import com.splicemachine.storage.EntryEncoder;
+import com.splicemachine.storage.index.BitIndex;
+import com.splicemachine.storage.index.BitIndexing;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of packed row values through {@link EntryDecoder}, for each {@link BitIndex} layout
+ * and for dense and sparse rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class EntryDecoderBenchmark{
+    private static final int NUM_ROWS=1024;
+    private static final int NUM_COLUMNS=32;
+
+    @Param({"uncompressed","compressed","sparse"})
+    public String index;
+
+    /** every n-th column is populated */
+    @Param({"1","4"})
+    public int stride;
+
+    private byte[][] encoded;
+    private EntryDecoder decoder;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException{
+        BitSet setCols=new BitSet(NUM_COLUMNS);
+        BitSet scalarFields=new BitSet(NUM_COLUMNS);
+        for(int i=0;i<NUM_COLUMNS;i+=stride){
+            setCols.set(i);
+            if(i%2==0)
+                scalarFields.set(i);
+        }
+        BitSet none=new BitSet(NUM_COLUMNS);
+        BitIndex bitIndex;
+        switch(index){
+            case "compressed":
+                bitIndex=BitIndexing.compressedBitMap(setCols,scalarFields,none,none);
+                break;
+            case "sparse":
+                bitIndex=BitIndexing.sparseBitMap(setCols,scalarFields,none,none);
+                break;
+            default:
+                bitIndex=BitIndexing.uncompressedBitMap(setCols,scalarFields,none,none);
+        }
+
+        Random random=new Random(0);
+        EntryEncoder entryEncoder=EntryEncoder.create(null,bitIndex);
+        encoded=new byte[NUM_ROWS][];
+        for(int row=0;row<NUM_ROWS;row++){
+            MultiFieldEncoder fields=entryEncoder.getEntryEncoder();
+            fields.reset();
+            for(int i=setCols.nextSetBit(0);i>=0;i=setCols.nextSetBit(i+1)){
+                if(scalarFields.get(i))
+                    fields.encodeNext(random.nextLong());
+                else
+                    fields.encodeNext("value-"+random.nextInt());
+            }
+            encoded[row]=entryEncoder.encode();
+        }
+        decoder=new EntryDecoder();
+    }
+
+    @Benchmark
+    public void decodeAllColumns(Blackhole bh) throws IOException{
+        decoder.set(encoded[next=(next+1)&(NUM_ROWS-1)]);
+        MultiFieldDecoder fields=decoder.getEntryDecoder();
+        BitIndex bitIndex=decoder.getCurrentIndex();
+        for(int i=bitIndex.nextSetBit(0);i>=0;i=bitIndex.nextSetBit(i+1)){
+            if(bitIndex.isScalarType(i))
+                bh.consume(fields.decodeNextLong());
+            else
+                bh.consume(fields.decodeNextString());
+        }
+    }
+
+    @Benchmark
+    public void seekLastColumn(Blackhole bh) throws IOException{
+        decoder.set(encoded[next=(next+1)&(NUM_ROWS-1)]);
+        MultiFieldDecoder fields=decoder.getEntryDecoder();
+        BitIndex bitIndex=decoder.getCurrentIndex();
+        int last=-1;
+        for(int i=bitIndex.nextSetBit(0);i>=0;i=bitIndex.nextSetBit(i+1)){
+            if(last>=0)
+                decoder.seekForward(fields,last);
+            last=i;
+        }
+        bh.consume(decoder.nextAsBuffer(fields,last));
+    }
+}
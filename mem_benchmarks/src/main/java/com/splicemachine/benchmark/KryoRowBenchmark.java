@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.benchmark;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.splicemachine.SpliceKryoRegistry;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.utils.kryo.KryoPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kryo serialization of {@link ValueRow}s through the {@link SpliceKryoRegistry} pool, the way
+ * rows and operation trees are shipped to and from the OLAP server. Run with {@code -prof gc}
+ * to see the bytes allocated per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class KryoRowBenchmark{
+    private static final int NUM_ROWS=1024;
+
+    private KryoPool pool;
+    private ValueRow[] rows;
+    private Output output;
+    private Input input;
+    private byte[] serialized;
+    private int next;
+
+    @Setup
+    public void setup() throws StandardException{
+        pool=new KryoPool(1);
+        pool.setKryoRegistry(new SpliceKryoRegistry());
+        pool.prewarm(1);
+
+        Random random=new Random(0);
+        rows=new ValueRow[NUM_ROWS];
+        for(int i=0;i<NUM_ROWS;i++){
+            ValueRow row=new ValueRow(4);
+            row.setRowArray(new DataValueDescriptor[]{
+                    new SQLInteger(random.nextInt(100)),
+                    new SQLLongint(random.nextLong()),
+                    new SQLVarchar("name-"+random.nextInt(100)),
+                    new SQLDecimal(BigDecimal.valueOf(random.nextInt(1000000),2))
+            });
+            rows[i]=row;
+        }
+        output=new Output(4096,-1);
+        input=new Input();
+
+        Kryo kryo=pool.get();
+        try{
+            kryo.writeClassAndObject(output,rows[0]);
+        }finally{
+            pool.returnInstance(kryo);
+        }
+        serialized=output.toBytes();
+    }
+
+    @Benchmark
+    public int serializeRow(){
+        output.clear();
+        Kryo kryo=pool.get();
+        try{
+            kryo.writeClassAndObject(output,rows[nextRow()]);
+        }finally{
+            pool.returnInstance(kryo);
+        }
+        return output.position();
+    }
+
+    @Benchmark
+    public Object deserializeRow(){
+        input.setBuffer(serialized);
+        Kryo kryo=pool.get();
+        try{
+            return kryo.readClassAndObject(input);
+        }finally{
+            pool.returnInstance(kryo);
+        }
+    }
+
+    private int nextRow(){
+        return next=(next+1)&(NUM_ROWS-1);
+    }
+}
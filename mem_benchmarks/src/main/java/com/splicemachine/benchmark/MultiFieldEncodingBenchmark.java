@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.benchmark;
+
+import com.splicemachine.encoding.MultiFieldDecoder;
+import com.splicemachine.encoding.MultiFieldEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of a typical mixed-type row through {@link MultiFieldEncoder} and
+ * {@link MultiFieldDecoder}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class MultiFieldEncodingBenchmark{
+    private static final int NUM_ROWS=1024;
+
+    private long[] longs;
+    private String[] strings;
+    private BigDecimal[] decimals;
+    private byte[][] encoded;
+    private MultiFieldEncoder encoder;
+    private MultiFieldDecoder decoder;
+    private int next;
+
+    @Setup
+    public void setup(){
+        Random random=new Random(0);
+        longs=new long[NUM_ROWS];
+        strings=new String[NUM_ROWS];
+        decimals=new BigDecimal[NUM_ROWS];
+        encoded=new byte[NUM_ROWS][];
+        encoder=MultiFieldEncoder.create(4);
+        for(int i=0;i<NUM_ROWS;i++){
+            longs[i]=random.nextLong();
+            strings[i]="customer-"+random.nextInt(1000000);
+            decimals[i]=BigDecimal.valueOf(random.nextInt(10000000),2);
+            encoded[i]=encode(i);
+        }
+        decoder=MultiFieldDecoder.create();
+    }
+
+    @Benchmark
+    public byte[] encodeRow(){
+        return encode(nextRow());
+    }
+
+    @Benchmark
+    public void decodeRow(Blackhole bh){
+        decoder.set(encoded[nextRow()]);
+        bh.consume(decoder.decodeNextLong());
+        bh.consume(decoder.decodeNextInt());
+        bh.consume(decoder.decodeNextString());
+        bh.consume(decoder.decodeNextBigDecimal());
+    }
+
+    private byte[] encode(int row){
+        encoder.reset();
+        return encoder.encodeNext(longs[row])
+                .encodeNext((int)longs[row])
+                .encodeNext(strings[row])
+                .encodeNext(decimals[row])
+                .build();
+    }
+
+    private int nextRow(){
+        return next=(next+1)&(NUM_ROWS-1);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.benchmark;
+
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.TaskId;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.si.impl.SimpleTxnFilter;
+import com.splicemachine.si.impl.readresolve.NoOpReadResolver;
+import com.splicemachine.si.impl.store.CompletedTxnCacheSupplier;
+import com.splicemachine.si.impl.txn.CommittedTxn;
+import com.splicemachine.si.impl.txn.InheritingTxnView;
+import com.splicemachine.storage.CellType;
+import com.splicemachine.storage.DataCell;
+import com.splicemachine.storage.MCell;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Visibility checks of {@link SimpleTxnFilter} over synthetic rows, either rolled forward (carrying a commit
+ * timestamp cell) or not, and written by a varying number of distinct transactions.
+ *
+ * Transactions are served from a warm completed-transaction cache, so this measures the filter's own cost
+ * rather than the transaction table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class TxnFilterBenchmark{
+    private static final int NUM_ROWS=4096;
+    private static final int BLOCK_SIZE=256;
+
+    @Param({"true","false"})
+    public boolean rolledForward;
+
+    @Param({"1","16","1024"})
+    public int distinctTxns;
+
+    private List<DataCell>[] rows;
+    private List<DataCell>[] blocks;
+    private SimpleTxnFilter filter;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException{
+        rows=new List[NUM_ROWS];
+        blocks=new List[NUM_ROWS/BLOCK_SIZE];
+        for(int r=0;r<NUM_ROWS;r++){
+            byte[] key=Bytes.toBytes(r);
+            long txnId=0x100L*(1+r%distinctTxns);
+            List<DataCell> row=new ArrayList<>(2);
+            if(rolledForward)
+                row.add(new MCell(key,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.COMMIT_TIMESTAMP_COLUMN_BYTES,txnId,Bytes.toBytes(txnId+1),CellType.COMMIT_TIMESTAMP));
+            row.add(new MCell(key,SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.PACKED_COLUMN_BYTES,txnId,Bytes.toBytes("value-"+r),CellType.USER_DATA));
+            rows[r]=row;
+            if(r%BLOCK_SIZE==0)
+                blocks[r/BLOCK_SIZE]=new ArrayList<>(2*BLOCK_SIZE);
+            blocks[r/BLOCK_SIZE].addAll(row);
+        }
+
+        TxnSupplier store=new CompletedTxnCacheSupplier(new CommittedTxnSupplier(),1<<16,16);
+        for(int i=1;i<=distinctTxns;i++){
+            store.getTransaction(0x100L*i); //warm the shared cache
+        }
+        long readTs=0x100L*(distinctTxns+2);
+        TxnView myTxn=new InheritingTxnView(Txn.ROOT_TRANSACTION,readTs,readTs,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE);
+        filter=new SimpleTxnFilter(null,myTxn,NoOpReadResolver.INSTANCE,store);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public void filterRows(Blackhole bh) throws IOException{
+        for(List<DataCell> row : rows){
+            filterRow(row,bh);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public void filterRowsWithPrefetch(Blackhole bh) throws IOException{
+        for(int b=0;b<blocks.length;b++){
+            bh.consume(filter.prefetch(blocks[b]));
+            for(int r=b*BLOCK_SIZE;r<(b+1)*BLOCK_SIZE;r++){
+                filterRow(rows[r],bh);
+            }
+        }
+    }
+
+    private void filterRow(List<DataCell> row,Blackhole bh) throws IOException{
+        filter.nextRow();
+        for(DataCell cell : row){
+            bh.consume(filter.filterCell(cell));
+        }
+    }
+
+    /**
+     * Every transaction it is asked about has committed right after it began.
+     */
+    private static class CommittedTxnSupplier implements TxnSupplier{
+        @Override
+        public TxnView getTransaction(long txnId){
+            return new CommittedTxn(txnId,txnId+1);
+        }
+
+        @Override
+        public TxnView getTransaction(long txnId,boolean getDestinationTables){
+            return getTransaction(txnId);
+        }
+
+        @Override public boolean transactionCached(long txnId){ return false; }
+        @Override public void cache(TxnView toCache){ }
+        @Override public TxnView getTransactionFromCache(long txnId){ return null; }
+        @Override public TaskId getTaskId(long txnId){ return null; }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.benchmark;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLLongint;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing and comparison of {@link ValueRow}s, as done by joins, aggregations and sorts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=5,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class ValueRowBenchmark{
+    private static final int NUM_ROWS=1024;
+    private static final int[] KEYS={1,3};
+
+    private ValueRow[] rows;
+    private int next;
+
+    @Setup
+    public void setup() throws StandardException{
+        Random random=new Random(0);
+        rows=new ValueRow[NUM_ROWS];
+        for(int i=0;i<NUM_ROWS;i++){
+            ValueRow row=new ValueRow(4);
+            row.setRowArray(new DataValueDescriptor[]{
+                    new SQLInteger(random.nextInt(100)),
+                    new SQLLongint(random.nextLong()),
+                    new SQLVarchar("name-"+random.nextInt(100)),
+                    new SQLDecimal(BigDecimal.valueOf(random.nextInt(1000000),2))
+            });
+            rows[i]=row;
+        }
+    }
+
+    @Benchmark
+    public int hashRow(){
+        return rows[nextRow()].hashCode();
+    }
+
+    @Benchmark
+    public int hashKeys(){
+        return rows[nextRow()].hashCode(KEYS);
+    }
+
+    @Benchmark
+    public int compareRows(){
+        int row=nextRow();
+        return rows[row].compareTo(rows[(row+1)&(NUM_ROWS-1)]);
+    }
+
+    @Benchmark
+    public int compareKeys(){
+        int row=nextRow();
+        return rows[row].compareTo(KEYS,rows[(row+1)&(NUM_ROWS-1)]);
+    }
+
+    private int nextRow(){
+        return next=(next+1)&(NUM_ROWS-1);
+    }
+}
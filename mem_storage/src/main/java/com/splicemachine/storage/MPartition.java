@@ -118,7 +118,21 @@ public class MPartition implements Partition{
 
     @Override
     public Iterator<DataResult> batchGet(Attributable attributes,List<byte[]> rowKeys) throws IOException{
-        throw new UnsupportedOperationException("IMPLEMENT");
+        MGet get=new MGet();
+        if(attributes instanceof DataGet){
+            DataGet template=(DataGet)attributes;
+            get.setTimeRange(template.lowTimestamp(),template.highTimestamp());
+            get.setFilter(template.filter());
+        }else
+            get.returnAllVersions();
+        if(attributes!=null)
+            get.setAllAttributes(attributes.allAttributes());
+        List<DataResult> results=new ArrayList<>(rowKeys.size());
+        for(byte[] key : rowKeys){
+            get.setKey(key);
+            results.add(get(get,null));
+        }
+        return results.iterator();
     }
 
     @Override
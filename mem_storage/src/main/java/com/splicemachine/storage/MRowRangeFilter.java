@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.utils.Pair;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * In-memory counterpart of a multi row range filter. The in-memory store cannot seek, so rows outside
+ * the ranges are skipped one by one.
+ */
+class MRowRangeFilter implements DataFilter{
+    private final byte[][] startKeys;
+    private final byte[][] stopKeys;
+
+    MRowRangeFilter(List<Pair<byte[],byte[]>> ranges){
+        this.startKeys = new byte[ranges.size()][];
+        this.stopKeys = new byte[ranges.size()][];
+        for(int i=0;i<ranges.size();i++){
+            startKeys[i] = ranges.get(i).getFirst();
+            stopKeys[i] = ranges.get(i).getSecond();
+        }
+    }
+
+    @Override
+    public ReturnCode filterCell(DataCell keyValue) throws IOException{
+        byte[] key = keyValue.keyArray();
+        int offset = keyValue.keyOffset();
+        int length = keyValue.keyLength();
+        //find the last range starting at or before the key
+        int lo = 0, hi = startKeys.length-1, candidate = -1;
+        while(lo<=hi){
+            int mid = (lo+hi)>>>1;
+            if(Bytes.BASE_COMPARATOR.compare(startKeys[mid],0,startKeys[mid].length,key,offset,length)<=0){
+                candidate = mid;
+                lo = mid+1;
+            }else
+                hi = mid-1;
+        }
+        //ranges may nest when one key prefixes another, so check every candidate which starts before the key
+        for(int i=candidate;i>=0;i--){
+            byte[] stop = stopKeys[i];
+            if(stop.length==0 || Bytes.BASE_COMPARATOR.compare(key,offset,length,stop,0,stop.length)<0)
+                return ReturnCode.INCLUDE;
+        }
+        return ReturnCode.NEXT_ROW;
+    }
+
+    @Override
+    public boolean filterRow() throws IOException{
+        return false;
+    }
+
+    @Override
+    public void reset() throws IOException{
+
+    }
+}
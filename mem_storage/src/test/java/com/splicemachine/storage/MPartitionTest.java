@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.constants.SIConstants;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+public class MPartitionTest{
+
+    @Test
+    public void batchGetHonoursTheTemplateFilter() throws Exception{
+        MPartition partition=new MPartition("table","partition");
+        put(partition,"a",1L,"a1");
+        put(partition,"b",1L,"b1");
+        put(partition,"b",2L,"b2");
+        put(partition,"c",2L,"c2");
+
+        // like a transaction filter for a transaction which can see txn 1's writes but not txn 2's
+        MGet template=new MGet();
+        template.setTimeRange(0L,Long.MAX_VALUE);
+        template.setFilter(new VisibleBefore(2L));
+
+        Iterator<DataResult> results=partition.batchGet(template,
+                Arrays.asList(Bytes.toBytes("a"),Bytes.toBytes("b"),Bytes.toBytes("c"),Bytes.toBytes("d")));
+        assertValue("a1",results.next());
+        assertValue("b1",results.next());
+        Assert.assertNull("Invisible row was returned",results.next());
+        Assert.assertNull("Missing row was returned",results.next());
+        Assert.assertFalse("Too many results",results.hasNext());
+    }
+
+    private static void put(MPartition partition,String key,long txnId,String value) throws IOException{
+        MPut put=new MPut(Bytes.toBytes(key));
+        put.addCell(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.PACKED_COLUMN_BYTES,txnId,Bytes.toBytes(value));
+        partition.put(put);
+    }
+
+    private static void assertValue(String expected,DataResult result){
+        Assert.assertNotNull("Visible row was not returned",result);
+        Assert.assertEquals("Incorrect number of versions",1,result.size());
+        DataCell cell=result.userData();
+        Assert.assertEquals("Incorrect version",expected,
+                Bytes.toString(cell.valueArray(),cell.valueOffset(),cell.valueLength()));
+    }
+
+    private static class VisibleBefore implements DataFilter{
+        private final long txnId;
+
+        VisibleBefore(long txnId){
+            this.txnId=txnId;
+        }
+
+        @Override
+        public ReturnCode filterCell(DataCell keyValue){
+            return keyValue.version()<txnId?ReturnCode.INCLUDE:ReturnCode.SKIP;
+        }
+
+        @Override
+        public boolean filterRow(){
+            return false;
+        }
+
+        @Override
+        public void reset(){
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.storage;
+
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.constants.SIConstants;
+import com.splicemachine.utils.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MRowRangeFilterTest{
+
+    @Test
+    public void includesOnlyRowsInARange() throws Exception{
+        MRowRangeFilter filter=new MRowRangeFilter(ranges("b","d","f","h"));
+        assertExcluded(filter,"a");
+        assertIncluded(filter,"b");
+        assertIncluded(filter,"c");
+        assertExcluded(filter,"d");
+        assertExcluded(filter,"e");
+        assertIncluded(filter,"f");
+        assertIncluded(filter,"g");
+        assertExcluded(filter,"h");
+        assertExcluded(filter,"z");
+    }
+
+    @Test
+    public void overlappingRanges() throws Exception{
+        MRowRangeFilter filter=new MRowRangeFilter(ranges("b","e","c","g"));
+        assertExcluded(filter,"a");
+        assertIncluded(filter,"b");
+        assertIncluded(filter,"d");
+        // only the second range covers these
+        assertIncluded(filter,"e");
+        assertIncluded(filter,"f");
+        assertExcluded(filter,"g");
+    }
+
+    @Test
+    public void rangesNestedByPrefix() throws Exception{
+        // the range of key "ab" contains the range of key "abc", and starts before it
+        MRowRangeFilter filter=new MRowRangeFilter(ranges("ab","ac","abc","abd"));
+        assertExcluded(filter,"aa");
+        assertIncluded(filter,"ab");
+        assertIncluded(filter,"abb");
+        assertIncluded(filter,"abc");
+        assertIncluded(filter,"abc1");
+        // past the inner range, but still in the outer one
+        assertIncluded(filter,"abd");
+        assertIncluded(filter,"abz");
+        assertExcluded(filter,"ac");
+    }
+
+    @Test
+    public void openEndedRange() throws Exception{
+        MRowRangeFilter filter=new MRowRangeFilter(ranges("b","c","x",""));
+        assertExcluded(filter,"w");
+        assertIncluded(filter,"x");
+        assertIncluded(filter,"zzz");
+    }
+
+    @Test
+    public void scanSkipsRowsBetweenRanges() throws Exception{
+        MPartition partition=new MPartition("table","partition");
+        for(String key : Arrays.asList("a","b","c","d","e","f","g","h","i")){
+            MPut put=new MPut(Bytes.toBytes(key));
+            put.addCell(SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.PACKED_COLUMN_BYTES,1L,Bytes.toBytes(key));
+            partition.put(put);
+        }
+        MScan scan=new MScan();
+        scan.filter(new MRowRangeFilter(ranges("b","d","f","g","h","")));
+
+        List<String> rows=new ArrayList<>();
+        try(DataScanner scanner=partition.openScanner(scan)){
+            List<DataCell> row;
+            while(!(row=scanner.next(-1)).isEmpty()){
+                DataCell cell=row.get(0);
+                rows.add(Bytes.toString(cell.keyArray(),cell.keyOffset(),cell.keyLength()));
+            }
+        }
+        Assert.assertEquals("Incorrect rows returned",Arrays.asList("b","c","f","h","i"),rows);
+    }
+
+    private static List<Pair<byte[],byte[]>> ranges(String... keys){
+        List<Pair<byte[],byte[]>> ranges=new ArrayList<>(keys.length/2);
+        for(int i=0;i<keys.length;i+=2){
+            ranges.add(Pair.newPair(Bytes.toBytes(keys[i]),Bytes.toBytes(keys[i+1])));
+        }
+        return ranges;
+    }
+
+    private static void assertIncluded(MRowRangeFilter filter,String key) throws IOException{
+        Assert.assertEquals("Row "+key+" should be included",DataFilter.ReturnCode.INCLUDE,filter.filterCell(cell(key)));
+    }
+
+    private static void assertExcluded(MRowRangeFilter filter,String key) throws IOException{
+        Assert.assertEquals("Row "+key+" should be skipped",DataFilter.ReturnCode.NEXT_ROW,filter.filterCell(cell(key)));
+    }
+
+    private static DataCell cell(String key){
+        return new MCell(Bytes.toBytes(key),SIConstants.DEFAULT_FAMILY_BYTES,SIConstants.PACKED_COLUMN_BYTES,1L,new byte[0],CellType.USER_DATA);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the rows written to a single partition through the write pipeline, in hourly buckets
+ * covering the last week, so that the number of rows modified since a given time (typically
+ * the time statistics were last collected for the partition) can be estimated cheaply.
+ *
+ * Counts only cover the time the partition has been open on this server, so nothing is known
+ * about writes before then. Rows bulk loaded from HFiles bypass the pipeline and are not counted
+ * either; a bulk load only makes the count unknown for any time before it.
+ */
+public class PartitionModificationCounter{
+    static final long BUCKET_MILLIS=TimeUnit.HOURS.toMillis(1);
+    static final int BUCKETS=24*7;
+
+    private final long[] counts=new long[BUCKETS];
+    private final long[] bucketIds=new long[BUCKETS];
+    private final long trackingSince;
+    private long total;
+    private long lastBulkLoad=Long.MIN_VALUE;
+
+    public PartitionModificationCounter(){
+        this(System.currentTimeMillis());
+    }
+
+    public PartitionModificationCounter(long trackingSince){
+        this.trackingSince=trackingSince;
+    }
+
+    public void record(long rows){
+        record(rows,System.currentTimeMillis());
+    }
+
+    public synchronized void record(long rows,long timestamp){
+        if(rows<=0)
+            return;
+        long bucketId=timestamp/BUCKET_MILLIS;
+        int slot=(int)(bucketId%BUCKETS);
+        if(bucketIds[slot]!=bucketId){
+            bucketIds[slot]=bucketId;
+            counts[slot]=0;
+        }
+        counts[slot]+=rows;
+        total+=rows;
+    }
+
+    public void recordBulkLoad(){
+        recordBulkLoad(System.currentTimeMillis());
+    }
+
+    public synchronized void recordBulkLoad(long timestamp){
+        if(timestamp>lastBulkLoad)
+            lastBulkLoad=timestamp;
+    }
+
+    public long modifiedSince(long timestamp){
+        return modifiedSince(timestamp,System.currentTimeMillis());
+    }
+
+    /**
+     * @return the number of rows written since {@code timestamp}, or -1 if the partition was opened
+     * on this server or had HFiles bulk loaded into it after {@code timestamp}. The bucket containing {@code timestamp} is counted in
+     * full, so the result may over-estimate slightly; if {@code timestamp} precedes the buckets still
+     * held, every row written since the partition was opened is counted.
+     */
+    public synchronized long modifiedSince(long timestamp,long now){
+        if(timestamp<trackingSince || timestamp<=lastBulkLoad)
+            return -1L;
+        long firstBucket=timestamp/BUCKET_MILLIS;
+        long lastBucket=now/BUCKET_MILLIS;
+        if(lastBucket-firstBucket>=BUCKETS)
+            return total;
+        long sum=0;
+        for(int i=0;i<BUCKETS;i++){
+            if(bucketIds[i]>=firstBucket && bucketIds[i]<=lastBucket)
+                sum+=counts[i];
+        }
+        return sum;
+    }
+
+    public long getTrackingSince(){
+        return trackingSince;
+    }
+}
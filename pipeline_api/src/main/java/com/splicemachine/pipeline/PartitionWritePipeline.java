@@ -55,6 +55,7 @@ public class PartitionWritePipeline{
     private final PipelineMeter pipelineMeters;
     private final ServerControl rce;
     private final PipelineExceptionFactory exceptionFactory;
+    private final PartitionModificationCounter modifications=new PartitionModificationCounter();
 
     public PartitionWritePipeline(ServerControl rce,
                                   Partition region,
@@ -107,6 +108,7 @@ public class PartitionWritePipeline{
             return INDEX_NOT_SETUP;
         }
         Collection<KVPair> kvPairs=toWrite.getMutations();
+        context.baseRowCache().setBatch(kvPairs);
         for(KVPair kvPair : kvPairs){
             context.sendUpstream(kvPair);
         }
@@ -160,6 +162,7 @@ public class PartitionWritePipeline{
                 response.setGlobalStatus(WriteResult.success());
 
             pipelineMeters.mark(size-failed,failed);
+            modifications.record(size-failed);
             return response;
         }catch(IOException nsre){
             Throwable throwable=exceptionFactory.processPipelineException(nsre);
@@ -185,4 +188,12 @@ public class PartitionWritePipeline{
     public WriteContextFactory<TransactionalRegion> getContextFactory(){
         return ctxFactory;
     }
+
+    /**
+     * @return the rows successfully written to this partition over time, used to decide
+     * whether the partition's statistics are stale
+     */
+    public PartitionModificationCounter getModifications(){
+        return modifications;
+    }
 }
@@ -22,6 +22,8 @@ import javax.management.MalformedObjectNameException;
 import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.splicemachine.access.api.PartitionFactory;
@@ -35,9 +37,12 @@ import com.splicemachine.pipeline.client.WriteCoordinator;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryDriver;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryLoader;
 import com.splicemachine.pipeline.security.AclChecker;
+import com.splicemachine.pipeline.traffic.AdaptiveSpliceWriteControl;
 import com.splicemachine.pipeline.traffic.AtomicSpliceWriteControl;
 import com.splicemachine.pipeline.traffic.SpliceWriteControl;
+import com.splicemachine.pipeline.traffic.SpliceWriteControl.WriteClass;
 import com.splicemachine.pipeline.traffic.SynchronousWriteControl;
+import com.splicemachine.pipeline.traffic.WritePressureMonitor;
 import com.splicemachine.pipeline.utils.PipelineCompressor;
 
 /**
@@ -54,6 +59,7 @@ public class PipelineDriver{
     private final PipelineWriter pipelineWriter;
     private final PipelineCompressor compressor;
     private final ActiveWriteHandlers handlerMeter = new ActiveWriteHandlers();
+    private final PartitionModifications partitionModifications = new PartitionModifications();
     private final WriteCoordinator writeCoordinator;
     private final PipelineExceptionFactory pef;
     private final ContextFactoryDriver ctxFactoryDriver;
@@ -69,7 +75,7 @@ public class PipelineDriver{
         PipelineMeter meter = env.pipelineMeter();
         WritePipelineFactory pipelineFactory = env.pipelineFactory();
 
-        INSTANCE = new PipelineDriver(config,ctxFactoryDriver,pef,partitionFactory,compressor,writerFactory,pipelineFactory,meter,env.systemClock());
+        INSTANCE = new PipelineDriver(config,ctxFactoryDriver,pef,partitionFactory,compressor,writerFactory,pipelineFactory,meter,env.systemClock(),env.writePressureMonitor());
         writerFactory.setWriter(INSTANCE.pipelineWriter);
     }
 
@@ -83,17 +89,31 @@ public class PipelineDriver{
                            BulkWriterFactory channelFactory,
                            WritePipelineFactory writePipelineFactory,
                            PipelineMeter meter,
-                           Clock clock){
+                           Clock clock,
+                           WritePressureMonitor pressureMonitor){
         this.ctxFactoryDriver = ctxFactoryDriver;
         this.pef = pef;
         this.compressor = compressor;
         this.pipelineMeter= meter;
         this.writePipelineFactory = writePipelineFactory;
-        this.writeControl= new AtomicSpliceWriteControl(
-                config.getMaxDependentWriteThreads(),
-                config.getMaxIndependentWriteThreads(),
-                config.getMaxIndependentWrites(),
-                config.getMaxDependentWrites());
+        if(config.getAdaptiveWriteControl()){
+            this.writeControl= new AdaptiveSpliceWriteControl(
+                    config.getMaxDependentWriteThreads(),
+                    config.getMaxIndependentWriteThreads(),
+                    config.getMaxIndependentWrites(),
+                    config.getMaxDependentWrites(),
+                    pressureMonitor,
+                    config.getBulkWriteShare(),
+                    config.getMemstorePressureThreshold(),
+                    config.getFlushLatencyTarget(),
+                    config.getWalSyncLatencyTarget());
+        }else{
+            this.writeControl= new AtomicSpliceWriteControl(
+                    config.getMaxDependentWriteThreads(),
+                    config.getMaxIndependentWriteThreads(),
+                    config.getMaxIndependentWrites(),
+                    config.getMaxDependentWrites());
+        }
         this.pipelineWriter = new PipelineWriter(pef, writePipelineFactory,writeControl,pipelineMeter);
         channelFactory.setWriter(pipelineWriter);
         channelFactory.setPipeline(writePipelineFactory);
@@ -133,6 +153,8 @@ public class PipelineDriver{
         if(jmxRegistered.compareAndSet(false,true)){
             ObjectName coordinatorName=new ObjectName("com.splicemachine.derby.hbase:type=ActiveWriteHandlers");
             mbs.registerMBean(handlerMeter,coordinatorName);
+            ObjectName modificationsName=new ObjectName("com.splicemachine.derby.hbase:type=PartitionModifications");
+            mbs.registerMBean(partitionModifications,modificationsName);
         }
     }
 
@@ -144,6 +166,33 @@ public class PipelineDriver{
         writePipelineFactory.deregisterPipeline(partitionName);
     }
 
+    @MXBean
+    @SuppressWarnings("UnusedDeclaration")
+    public interface PartitionModificationsIface{
+        /**
+         * @return for each of the named partitions hosted on this server, the number of rows written
+         * through the pipeline since {@code timestamp}, or -1 if the partition was opened here or bulk
+         * loaded after {@code timestamp}. Partitions not hosted here are omitted.
+         */
+        Map<String,Long> getModifiedRowsSince(String[] partitionNames,long timestamp);
+    }
+
+    public class PartitionModifications implements PartitionModificationsIface{
+
+        private PartitionModifications(){ }
+
+        @Override
+        public Map<String,Long> getModifiedRowsSince(String[] partitionNames,long timestamp){
+            Map<String,Long> modified=new HashMap<>(partitionNames.length);
+            for(String partitionName:partitionNames){
+                PartitionWritePipeline pipeline=writePipelineFactory.getPipeline(partitionName);
+                if(pipeline!=null)
+                    modified.put(partitionName,pipeline.getModifications().modifiedSince(timestamp));
+            }
+            return modified;
+        }
+    }
+
     @MXBean
     @SuppressWarnings("UnusedDeclaration")
     public interface ActiveWriteHandlersIface{
@@ -165,6 +214,17 @@ public class PipelineDriver{
         double get5MThroughput();
         double get15MThroughput();
         long getTotalRejected();
+        int getOltpWriteThreads();
+        int getOltpWriteCount();
+        long getOltpRejected();
+        double getOltpRejectionRate();
+        int getBulkWriteThreads();
+        int getBulkWriteCount();
+        long getBulkRejected();
+        double getBulkRejectionRate();
+        double getWritePressure();
+        double getOltpPermitScale();
+        double getBulkPermitScale();
     }
 
 
@@ -182,6 +242,29 @@ public class PipelineDriver{
         @Override public double get5MThroughput(){ return pipelineMeter.fiveMThroughput(); }
         @Override public double get15MThroughput(){ return pipelineMeter.fifteenMThroughput(); }
         @Override public long getTotalRejected(){ return pipelineMeter.rejectedCount(); }
+        @Override public int getOltpWriteThreads(){ return writeControl.getWriteClassStatus(WriteClass.OLTP).getWriteThreads(); }
+        @Override public int getOltpWriteCount(){ return writeControl.getWriteClassStatus(WriteClass.OLTP).getWriteCount(); }
+        @Override public long getOltpRejected(){ return writeControl.getWriteClassStatus(WriteClass.OLTP).getRejected(); }
+        @Override public double getOltpRejectionRate(){ return writeControl.getWriteClassStatus(WriteClass.OLTP).getRejectionRate(); }
+        @Override public int getBulkWriteThreads(){ return writeControl.getWriteClassStatus(WriteClass.BULK).getWriteThreads(); }
+        @Override public int getBulkWriteCount(){ return writeControl.getWriteClassStatus(WriteClass.BULK).getWriteCount(); }
+        @Override public long getBulkRejected(){ return writeControl.getWriteClassStatus(WriteClass.BULK).getRejected(); }
+        @Override public double getBulkRejectionRate(){ return writeControl.getWriteClassStatus(WriteClass.BULK).getRejectionRate(); }
+
+        @Override
+        public double getWritePressure(){
+            return writeControl instanceof AdaptiveSpliceWriteControl ? ((AdaptiveSpliceWriteControl)writeControl).getWritePressure() : 0d;
+        }
+
+        @Override
+        public double getOltpPermitScale(){
+            return writeControl instanceof AdaptiveSpliceWriteControl ? ((AdaptiveSpliceWriteControl)writeControl).getOltpPermitScale() : 1d;
+        }
+
+        @Override
+        public double getBulkPermitScale(){
+            return writeControl instanceof AdaptiveSpliceWriteControl ? ((AdaptiveSpliceWriteControl)writeControl).getBulkPermitScale() : 1d;
+        }
 
         @Override
         public void setMaxIndependentWriteThreads(int newMaxIndependentWriteThreads){
@@ -20,6 +20,7 @@ import com.splicemachine.pipeline.api.PipelineMeter;
 import com.splicemachine.pipeline.api.WritePipelineFactory;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryDriver;
 import com.splicemachine.pipeline.security.AclChecker;
+import com.splicemachine.pipeline.traffic.WritePressureMonitor;
 import com.splicemachine.pipeline.utils.PipelineCompressor;
 import com.splicemachine.si.impl.driver.SIEnvironment;
 
@@ -41,4 +42,11 @@ public interface PipelineEnvironment extends SIEnvironment{
     PipelineMeter pipelineMeter();
 
     WritePipelineFactory pipelineFactory();
+
+    /**
+     * @return the source of memstore and WAL pressure used to size write permits
+     */
+    default WritePressureMonitor writePressureMonitor(){
+        return WritePressureMonitor.NONE;
+    }
 }
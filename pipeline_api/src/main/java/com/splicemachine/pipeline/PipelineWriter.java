@@ -105,9 +105,10 @@ public class PipelineWriter{
 
         SpliceWriteControl.Status status;
         int numKVPairs = bulkWrites.numEntries();  // KVPairs are just Splice mutations.  You can think of this count as rows modified (written to).
+        SpliceWriteControl.WriteClass writeClass = writeClass(bws);
         // Get the "permit" to write.  WriteControl does not perform the writes.  It just controls whether or not the write is allowed to proceed.
 
-        status = (dependent) ? writeControl.performDependentWrite(numKVPairs) : writeControl.performIndependentWrite(numKVPairs);
+        status = (dependent) ? writeControl.performDependentWrite(numKVPairs,writeClass) : writeControl.performIndependentWrite(numKVPairs,writeClass);
         if (status.equals(SpliceWriteControl.Status.REJECTED)) {
             if(LOG.isTraceEnabled())
                 LOG.trace("Rejecting "+numBulkWrites+" rows in "+ bws.size()+"writes because the pipeline is too busy");
@@ -129,15 +130,27 @@ public class PipelineWriter{
                 case REJECTED:
                     break;
                 case DEPENDENT:
-                    writeControl.finishDependentWrite(numKVPairs);
+                    writeControl.finishDependentWrite(numKVPairs,writeClass);
                     break;
                 case INDEPENDENT:
-                    writeControl.finishIndependentWrite(numKVPairs);
+                    writeControl.finishIndependentWrite(numKVPairs,writeClass);
                     break;
             }
         }
     }
 
+    /**
+     * Writes which skip the WAL or conflict detection come from imports and other loads, and are
+     * throttled ahead of regular transactional writes.
+     */
+    private static SpliceWriteControl.WriteClass writeClass(Collection<BulkWrite> bws){
+        for(BulkWrite bw : bws){
+            if(bw.skipWAL() || bw.skipConflictDetection())
+                return SpliceWriteControl.WriteClass.BULK;
+        }
+        return SpliceWriteControl.WriteClass.OLTP;
+    }
+
     protected BulkWritesResult performWrite(@Nonnull BulkWrites bulkWrites,Collection<BulkWrite> bws,List<BulkWriteResult> result,SharedCallBufferFactory indexWriteBufferFactory) throws IOException{
         // Add the writes to the writePairMap, which helps link the BulkWrites to their result and write pipeline objects.
         Map<BulkWrite, Pair<BulkWriteResult, PartitionWritePipeline>> writePairMap = getBulkWritePairMap(bws);
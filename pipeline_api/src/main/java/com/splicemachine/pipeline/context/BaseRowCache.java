@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.context;
+
+import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.si.api.server.TransactionalRegion;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.storage.DataCell;
+import com.splicemachine.storage.DataGet;
+import com.splicemachine.storage.DataResult;
+import com.splicemachine.storage.EntryPredicateFilter;
+import com.splicemachine.storage.Partition;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The current versions of the base rows touched by a write batch, as seen by the batch's transaction.
+ *
+ * Index maintenance on UPDATE/UPSERT/DELETE needs the old version of each row to find the index entry
+ * to remove. Instead of one Get per mutation and index, every reader registers the columns it needs and
+ * which mutations it will ask for; the first lookup then fetches the rows of all such mutations in the
+ * batch with a single {@link Partition#batchGet}, projecting the union of the registered columns, and
+ * every reader shares the result.
+ */
+@NotThreadSafe
+public class BaseRowCache{
+    private final TransactionalRegion region;
+    private final TxnView txn;
+    private final BitSet columns = new BitSet();
+    private final List<Predicate<KVPair>> readers = new ArrayList<>(2);
+    private boolean allColumns;
+    private Collection<KVPair> batch;
+    private Map<KVPair,DataCell> rows;
+    private int batchGets;
+
+    public BaseRowCache(TransactionalRegion region,TxnView txn){
+        this.region=region;
+        this.txn=txn;
+    }
+
+    /**
+     * Registers a reader of base rows. Must be called before the first lookup.
+     *
+     * @param columns the columns the reader needs, or {@code null} (or empty) for all of them
+     * @param needsBaseRow which mutations of the batch the reader will look up
+     */
+    public void register(BitSet columns,Predicate<KVPair> needsBaseRow){
+        assert rows==null: "Programmer error: reader registered after rows were fetched";
+        if(columns==null || columns.isEmpty())
+            allColumns=true;
+        else
+            this.columns.or(columns);
+        readers.add(needsBaseRow);
+    }
+
+    /**
+     * @param batch all the mutations this write batch will route, so that their rows can be fetched up front
+     */
+    public void setBatch(Collection<KVPair> batch){
+        this.batch=batch;
+    }
+
+    /**
+     * @return the packed user data of the base row which {@code mutation} modifies, or {@code null} if there
+     * is no visible row.
+     */
+    public DataCell get(KVPair mutation) throws IOException{
+        if(rows==null){
+            rows=new IdentityHashMap<>(batch==null?16:batch.size()*2);
+            List<KVPair> toFetch=new ArrayList<>(batch==null?1:batch.size());
+            if(batch!=null){
+                for(KVPair kvPair : batch){
+                    if(needsBaseRow(kvPair))
+                        toFetch.add(kvPair);
+                }
+            }
+            fetch(toFetch);
+        }
+        if(!rows.containsKey(mutation)){
+            //not anticipated when the batch was fetched, so read it on its own
+            List<KVPair> single=new ArrayList<>(1);
+            single.add(mutation);
+            fetch(single);
+        }
+        return rows.get(mutation);
+    }
+
+    /**
+     * @return the number of batch gets issued against the base region so far
+     */
+    public int getBatchGets(){
+        return batchGets;
+    }
+
+    private boolean needsBaseRow(KVPair kvPair){
+        for(Predicate<KVPair> reader : readers){
+            if(reader.test(kvPair))
+                return true;
+        }
+        return false;
+    }
+
+    private void fetch(List<KVPair> mutations) throws IOException{
+        if(mutations.isEmpty())
+            return;
+        List<byte[]> rowKeys=new ArrayList<>(mutations.size());
+        for(KVPair kvPair : mutations){
+            rowKeys.add(kvPair.getRowKey());
+        }
+        EntryPredicateFilter epf=allColumns || columns.isEmpty()
+                ?EntryPredicateFilter.emptyPredicate()
+                :new EntryPredicateFilter(columns);
+        DataGet template=SIDriver.driver().getOperationFactory().newDataGet(txn,rowKeys.get(0),null);
+        template.setFilter(region.packedFilter(txn,epf,false));
+        batchGets++;
+        Iterator<DataResult> results=region.unwrap().batchGet(template,rowKeys);
+        for(KVPair kvPair : mutations){
+            DataResult result=results.next();
+            DataCell userData=result==null || result.isEmpty()?null:result.userData();
+            rows.put(kvPair,userData==null?null:userData.getClone());
+        }
+    }
+}
@@ -60,6 +60,7 @@ public class PipelineWriteContext implements WriteContext, Comparable<PipelineWr
     private final boolean skipConflictDetection;
     private final boolean skipWAL;
     private final boolean rollforward;
+    private final BaseRowCache baseRowCache;
 
     private WriteNode tail;
 
@@ -88,6 +89,7 @@ public class PipelineWriteContext implements WriteContext, Comparable<PipelineWr
         this.skipConflictDetection = skipConflictDetection;
         this.skipWAL = skipWAL;
         this.rollforward = rollforward;
+        this.baseRowCache = new BaseRowCache(rce, txn);
     }
 
     public void addLast(WriteHandler handler) {
@@ -271,4 +273,9 @@ public class PipelineWriteContext implements WriteContext, Comparable<PipelineWr
     public PipelineExceptionFactory exceptionFactory(){
         return pef;
     }
+
+    @Override
+    public BaseRowCache baseRowCache(){
+        return baseRowCache;
+    }
 }
@@ -121,4 +121,9 @@ public interface WriteContext {
 
     PipelineExceptionFactory exceptionFactory();
 
+    /**
+     * @return the base rows touched by this write, shared by all the handlers of the pipeline
+     */
+    BaseRowCache baseRowCache();
+
 }
@@ -178,4 +178,9 @@ public class WriteNode implements WriteContext {
     public PipelineExceptionFactory exceptionFactory(){
         return pipelineWriteContext.exceptionFactory();
     }
+
+    @Override
+    public BaseRowCache baseRowCache(){
+        return pipelineWriteContext.baseRowCache();
+    }
 }
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.traffic;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A write control whose limits follow the load on the region server instead of staying fixed.
+ *
+ * Once per adjustment interval the memstore usage, flush latency and WAL sync latency are sampled
+ * from a {@link WritePressureMonitor} and combined into a single pressure figure, where 1.0 means one
+ * of the signals reached its target. Permits are then sized in AIMD fashion: under pressure the
+ * bulk share is halved (down to a small floor), and only under severe pressure are OLTP permits cut
+ * as well; once pressure subsides OLTP permits recover first, then bulk ones.
+ *
+ * Bulk writes are additionally capped at a share of the configured maxima, so that a load running
+ * alongside OLTP traffic cannot take every permit even when the server is idle.
+ */
+public class AdaptiveSpliceWriteControl extends AtomicSpliceWriteControl{
+    private static final long ADJUST_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double SEVERE_PRESSURE = 1.5d;
+    private static final double RELAXED_PRESSURE = 0.8d;
+    private static final double MIN_OLTP_SCALE = 0.5d;
+    private static final double MIN_BULK_SCALE = 0.05d;
+    private static final double RECOVERY_STEP = 0.1d;
+
+    private final WritePressureMonitor pressureMonitor;
+    private final double bulkWriteShare;
+    private final double memstorePressureThreshold;
+    private final long flushLatencyTarget;
+    private final long walSyncLatencyTarget;
+
+    private final AtomicLong lastAdjustment = new AtomicLong(System.nanoTime());
+    private volatile double oltpScale = 1d;
+    private volatile double bulkScale = 1d;
+    private volatile double pressure;
+
+    private final ClassCounters[] classCounters;
+
+    public AdaptiveSpliceWriteControl(int maxDependentWriteThreads,
+                                      int maxIndependentWriteThreads,
+                                      int maxDependentWriteCount,
+                                      int maxIndependentWriteCount,
+                                      WritePressureMonitor pressureMonitor,
+                                      double bulkWriteShare,
+                                      double memstorePressureThreshold,
+                                      long flushLatencyTarget,
+                                      long walSyncLatencyTarget){
+        super(maxDependentWriteThreads,maxIndependentWriteThreads,maxDependentWriteCount,maxIndependentWriteCount);
+        assert pressureMonitor!=null && bulkWriteShare>0 && bulkWriteShare<=1;
+        this.pressureMonitor = pressureMonitor;
+        this.bulkWriteShare = bulkWriteShare;
+        this.memstorePressureThreshold = memstorePressureThreshold;
+        this.flushLatencyTarget = flushLatencyTarget;
+        this.walSyncLatencyTarget = walSyncLatencyTarget;
+        this.classCounters = new ClassCounters[WriteClass.values().length];
+        for(int i=0;i<classCounters.length;i++){
+            classCounters[i] = new ClassCounters();
+        }
+    }
+
+    @Override
+    public Status performDependentWrite(int writes){
+        return performDependentWrite(writes,WriteClass.OLTP);
+    }
+
+    @Override
+    public Status performIndependentWrite(int writes){
+        return performIndependentWrite(writes,WriteClass.OLTP);
+    }
+
+    @Override
+    public boolean finishDependentWrite(int writes){
+        return finishDependentWrite(writes,WriteClass.OLTP);
+    }
+
+    @Override
+    public boolean finishIndependentWrite(int writes){
+        return finishIndependentWrite(writes,WriteClass.OLTP);
+    }
+
+    @Override
+    public Status performDependentWrite(int writes,WriteClass writeClass){
+        maybeAdjust();
+        ClassCounters counters = classCounters[writeClass.ordinal()];
+        if(!counters.acquire(writes,writeClass==WriteClass.BULK)){
+            counters.rejected.incrementAndGet();
+            return Status.REJECTED;
+        }
+        return admitted(counters,writes,super.performDependentWrite(writes));
+    }
+
+    @Override
+    public Status performIndependentWrite(int writes,WriteClass writeClass){
+        maybeAdjust();
+        ClassCounters counters = classCounters[writeClass.ordinal()];
+        if(!counters.acquire(writes,writeClass==WriteClass.BULK)){
+            counters.rejected.incrementAndGet();
+            return Status.REJECTED;
+        }
+        return admitted(counters,writes,super.performIndependentWrite(writes));
+    }
+
+    @Override
+    public boolean finishDependentWrite(int writes,WriteClass writeClass){
+        classCounters[writeClass.ordinal()].release(writes);
+        return super.finishDependentWrite(writes);
+    }
+
+    @Override
+    public boolean finishIndependentWrite(int writes,WriteClass writeClass){
+        classCounters[writeClass.ordinal()].release(writes);
+        return super.finishIndependentWrite(writes);
+    }
+
+    @Override
+    public WriteClassStatus getWriteClassStatus(WriteClass writeClass){
+        ClassCounters counters = classCounters[writeClass.ordinal()];
+        long inFlight = counters.inFlight.get();
+        return new WriteClassStatus(toThreads(inFlight),toWrites(inFlight),
+                counters.admitted.get(),counters.rejected.get(),counters.rejectionRate);
+    }
+
+    public double getOltpPermitScale(){
+        return oltpScale;
+    }
+
+    public double getBulkPermitScale(){
+        return bulkScale;
+    }
+
+    public double getWritePressure(){
+        return pressure;
+    }
+
+    @Override
+    protected int dependentWriteThreadLimit(){
+        return scale(maxDependentWriteThreads,oltpScale);
+    }
+
+    @Override
+    protected int dependentWriteCountLimit(){
+        return scale(maxDependentWriteCount,oltpScale);
+    }
+
+    @Override
+    protected int independentWriteThreadLimit(){
+        return scale(maxIndependentWriteThreads,oltpScale);
+    }
+
+    @Override
+    protected int independentWriteCountLimit(){
+        return scale(maxIndependentWriteCount,oltpScale);
+    }
+
+    /**
+     * Re-samples the pressure signals and resizes the permits. Called from the write path at most
+     * once per adjustment interval.
+     */
+    void adjustPermits(){
+        double p = currentPressure();
+        pressure = p;
+        if(p>=1d){
+            bulkScale = Math.max(MIN_BULK_SCALE,bulkScale/2);
+            if(p>=SEVERE_PRESSURE)
+                oltpScale = Math.max(MIN_OLTP_SCALE,oltpScale*0.8d);
+        }else if(p<RELAXED_PRESSURE){
+            if(oltpScale<1d)
+                oltpScale = Math.min(1d,oltpScale+RECOVERY_STEP);
+            else
+                bulkScale = Math.min(1d,bulkScale+RECOVERY_STEP);
+        }
+        for(ClassCounters counters : classCounters){
+            counters.updateRejectionRate();
+        }
+    }
+
+    private void maybeAdjust(){
+        long now = System.nanoTime();
+        long last = lastAdjustment.get();
+        if(now-last>=ADJUST_INTERVAL_NANOS && lastAdjustment.compareAndSet(last,now)){
+            adjustPermits();
+        }
+    }
+
+    private double currentPressure(){
+        double p = 0d;
+        if(memstorePressureThreshold>0)
+            p = Math.max(p,pressureMonitor.memstoreUsage()/memstorePressureThreshold);
+        if(flushLatencyTarget>0)
+            p = Math.max(p,pressureMonitor.flushLatencyMillis()/flushLatencyTarget);
+        if(walSyncLatencyTarget>0)
+            p = Math.max(p,pressureMonitor.walSyncLatencyMillis()/walSyncLatencyTarget);
+        return p;
+    }
+
+    private Status admitted(ClassCounters counters,int writes,Status status){
+        if(status==Status.REJECTED){
+            counters.release(writes);
+            counters.rejected.incrementAndGet();
+        }else{
+            counters.admitted.incrementAndGet();
+        }
+        return status;
+    }
+
+    private int bulkThreadLimit(){
+        return scale(maxDependentWriteThreads+maxIndependentWriteThreads,bulkWriteShare*bulkScale*oltpScale);
+    }
+
+    private int bulkCountLimit(){
+        return scale(maxDependentWriteCount+maxIndependentWriteCount,bulkWriteShare*bulkScale*oltpScale);
+    }
+
+    private static int scale(int max,double scale){
+        if(max<=0) return max;
+        return Math.max(1,(int)(max*scale));
+    }
+
+    private class ClassCounters{
+        private final AtomicLong inFlight = new AtomicLong();
+        private final AtomicLong admitted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private long lastAdmitted;
+        private long lastRejected;
+        private volatile double rejectionRate;
+
+        boolean acquire(int writes,boolean bulk){
+            for(;;){
+                long val = inFlight.get();
+                int threads = toThreads(val)+1;
+                int count = toWrites(val)+writes;
+                if(bulk && (threads>bulkThreadLimit() || count>bulkCountLimit()))
+                    return false;
+                if(inFlight.compareAndSet(val,toValue(threads,count)))
+                    return true;
+            }
+        }
+
+        void release(int writes){
+            inFlight.addAndGet(-toValue(1,writes));
+        }
+
+        void updateRejectionRate(){
+            long a = admitted.get();
+            long r = rejected.get();
+            long requests = (a-lastAdmitted)+(r-lastRejected);
+            rejectionRate = requests==0?0d:(double)(r-lastRejected)/requests;
+            lastAdmitted = a;
+            lastRejected = r;
+        }
+    }
+}
@@ -47,25 +47,29 @@ public class AtomicSpliceWriteControl implements SpliceWriteControl{
         this.maxIndependentWriteCount = maxIndependentWriteCount;
     }
 
-    static private int toThreads(long val) {
+    static int toThreads(long val) {
         return (int)(val >>> 32);
     }
 
-    static private int toWrites(long val) {
+    static int toWrites(long val) {
         return (int)(val & 0xffffffffL);
     }
 
-    static private long toValue(int threads, int writes) {
+    static long toValue(int threads, int writes) {
         return ((long)threads << 32) + writes;
     }
 
     @Override
     public Status performDependentWrite(int writes) {
+        return acquireDependentWrite(writes);
+    }
+
+    private Status acquireDependentWrite(int writes) {
         for (;;) {
             long val = dependentWrites.get();
             int threads = toThreads(val) + 1;
             int count = toWrites(val) + writes;
-            if (threads > maxDependentWriteThreads || count > maxDependentWriteCount) {
+            if (threads > dependentWriteThreadLimit() || count > dependentWriteCountLimit()) {
                 return Status.REJECTED;
             }
             if (dependentWrites.compareAndSet(val, toValue(threads, count))) {
@@ -86,8 +90,8 @@ public class AtomicSpliceWriteControl implements SpliceWriteControl{
             long val = independentWrites.get();
             int threads = toThreads(val) + 1;
             int count = toWrites(val) + writes;
-            if (threads > maxIndependentWriteThreads || count > maxIndependentWriteCount) {
-                return performDependentWrite(writes);
+            if (threads > independentWriteThreadLimit() || count > independentWriteCountLimit()) {
+                return acquireDependentWrite(writes);
             }
             if (independentWrites.compareAndSet(val, toValue(threads, count))) {
                 return Status.INDEPENDENT;
@@ -101,6 +105,25 @@ public class AtomicSpliceWriteControl implements SpliceWriteControl{
         return true;
     }
 
+    /*
+     * Limits enforced when admitting a write; subclasses may tighten the configured maxima.
+     */
+    protected int dependentWriteThreadLimit() {
+        return maxDependentWriteThreads;
+    }
+
+    protected int dependentWriteCountLimit() {
+        return maxDependentWriteCount;
+    }
+
+    protected int independentWriteThreadLimit() {
+        return maxIndependentWriteThreads;
+    }
+
+    protected int independentWriteCountLimit() {
+        return maxIndependentWriteCount;
+    }
+
     @Override
     public WriteStatus getWriteStatus() {
         long depVal = dependentWrites.get();
@@ -23,6 +23,14 @@ public interface SpliceWriteControl{
         DEPENDENT, INDEPENDENT,REJECTED
     }
 
+    /**
+     * Priority class of a write. Bulk writes (imports and other loads which skip the WAL or
+     * conflict detection) are the first to be throttled when the region server is under pressure.
+     */
+    enum WriteClass {
+        OLTP, BULK
+    }
+
     Status performDependentWrite(int writes);
 
     boolean finishDependentWrite(int writes);
@@ -31,6 +39,26 @@ public interface SpliceWriteControl{
 
     boolean finishIndependentWrite(int writes);
 
+    default Status performDependentWrite(int writes,WriteClass writeClass){
+        return performDependentWrite(writes);
+    }
+
+    default boolean finishDependentWrite(int writes,WriteClass writeClass){
+        return finishDependentWrite(writes);
+    }
+
+    default Status performIndependentWrite(int writes,WriteClass writeClass){
+        return performIndependentWrite(writes);
+    }
+
+    default boolean finishIndependentWrite(int writes,WriteClass writeClass){
+        return finishIndependentWrite(writes);
+    }
+
+    default WriteClassStatus getWriteClassStatus(WriteClass writeClass){
+        return WriteClassStatus.EMPTY;
+    }
+
     WriteStatus getWriteStatus();
 
     int maxDependendentWriteThreads();
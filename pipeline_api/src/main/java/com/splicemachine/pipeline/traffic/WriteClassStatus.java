@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.traffic;
+
+/**
+ * Snapshot of the writes of one {@link SpliceWriteControl.WriteClass}: the permits currently held
+ * (the class' queue depth at the region server) and how many writes have been admitted or rejected.
+ */
+public class WriteClassStatus {
+    public static final WriteClassStatus EMPTY = new WriteClassStatus(0,0,0L,0L,0d);
+
+    private final int writeThreads;
+    private final int writeCount;
+    private final long admitted;
+    private final long rejected;
+    private final double rejectionRate;
+
+    public WriteClassStatus(int writeThreads,int writeCount,long admitted,long rejected,double rejectionRate) {
+        this.writeThreads = writeThreads;
+        this.writeCount = writeCount;
+        this.admitted = admitted;
+        this.rejected = rejected;
+        this.rejectionRate = rejectionRate;
+    }
+
+    public int getWriteThreads() {
+        return writeThreads;
+    }
+
+    public int getWriteCount() {
+        return writeCount;
+    }
+
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return the fraction of write requests rejected during the last adjustment interval
+     */
+    public double getRejectionRate() {
+        return rejectionRate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{ writeThreads=%d, writeCount=%d, admitted=%d, rejected=%d, rejectionRate=%.3f }",
+                writeThreads, writeCount, admitted, rejected, rejectionRate);
+    }
+}
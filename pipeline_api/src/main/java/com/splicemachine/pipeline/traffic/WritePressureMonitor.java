@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.traffic;
+
+/**
+ * Source of the region server signals which drive {@link AdaptiveSpliceWriteControl}. Implementations
+ * should be cheap to call, as they are sampled on the write path once per adjustment interval.
+ */
+public interface WritePressureMonitor {
+
+    WritePressureMonitor NONE = new WritePressureMonitor(){
+        @Override public double memstoreUsage(){ return 0d; }
+        @Override public double flushLatencyMillis(){ return 0d; }
+        @Override public double walSyncLatencyMillis(){ return 0d; }
+    };
+
+    /**
+     * @return the size of all memstores as a fraction of the global memstore limit
+     */
+    double memstoreUsage();
+
+    /**
+     * @return recent mean time to flush a memstore, in milliseconds
+     */
+    double flushLatencyMillis();
+
+    /**
+     * @return recent mean time to sync the write-ahead log, in milliseconds
+     */
+    double walSyncLatencyMillis();
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline;
+
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(ArchitectureIndependent.class)
+public class PartitionModificationCounterTest {
+    private static final long HOUR = PartitionModificationCounter.BUCKET_MILLIS;
+    private static final long START = 1000*HOUR;
+
+    private final PartitionModificationCounter counter = new PartitionModificationCounter(START);
+
+    @Test
+    public void countsRowsWrittenSinceTimestamp() {
+        counter.record(10, START + HOUR / 2);
+        counter.record(20, START + 2 * HOUR);
+        counter.record(5, START + 3 * HOUR);
+
+        assertEquals(35, counter.modifiedSince(START, START + 3 * HOUR));
+        assertEquals(25, counter.modifiedSince(START + 2 * HOUR, START + 3 * HOUR));
+        assertEquals(5, counter.modifiedSince(START + 3 * HOUR + 1, START + 3 * HOUR + 2));
+        assertEquals(0, counter.modifiedSince(START + 4 * HOUR, START + 4 * HOUR));
+    }
+
+    @Test
+    public void unknownBeforePartitionWasOpened() {
+        counter.record(10, START + 1);
+        assertEquals(-1, counter.modifiedSince(START - 1, START + 2));
+    }
+
+    @Test
+    public void unknownBeforeBulkLoad() {
+        counter.record(10, START + 1);
+        counter.recordBulkLoad(START + HOUR);
+        counter.record(5, START + 2 * HOUR);
+
+        assertEquals(-1, counter.modifiedSince(START, START + 2 * HOUR));
+        assertEquals(-1, counter.modifiedSince(START + HOUR, START + 2 * HOUR));
+        assertEquals(5, counter.modifiedSince(START + HOUR + 1, START + 2 * HOUR));
+    }
+
+    @Test
+    public void reusedBucketsForgetOldCounts() {
+        counter.record(10, START);
+        counter.record(20, START + PartitionModificationCounter.BUCKETS * HOUR);
+
+        assertEquals(20, counter.modifiedSince(START + HOUR, START + PartitionModificationCounter.BUCKETS * HOUR));
+    }
+
+    @Test
+    public void timestampOutsideWindowCountsEverything() {
+        counter.record(10, START);
+        counter.record(20, START + (PartitionModificationCounter.BUCKETS + 5) * HOUR);
+
+        assertEquals(30, counter.modifiedSince(START, START + (PartitionModificationCounter.BUCKETS + 5) * HOUR));
+    }
+}
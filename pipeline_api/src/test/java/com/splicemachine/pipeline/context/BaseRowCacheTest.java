@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.context;
+
+import com.carrotsearch.hppc.BitSet;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.server.TransactionalRegion;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.driver.SIEnvironment;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.storage.Attributable;
+import com.splicemachine.storage.DataCell;
+import com.splicemachine.storage.DataResult;
+import com.splicemachine.storage.EntryPredicateFilter;
+import com.splicemachine.storage.Partition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyListOf;
+
+@Category(ArchitectureIndependent.class)
+public class BaseRowCacheTest{
+    private static final TxnView TXN=Mockito.mock(TxnView.class);
+
+    private TransactionalRegion region;
+    private Partition partition;
+    /*the rows of the base table, by row key*/
+    private Map<String,DataCell> table;
+
+    @BeforeClass
+    public static void setupDriver(){
+        SIEnvironment env=Mockito.mock(SIEnvironment.class,Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(env.configuration().getThreadPoolMaxSize()).thenReturn(30);
+        SIDriver.loadDriver(env);
+    }
+
+    @Before
+    public void setUp() throws Exception{
+        table=new HashMap<>();
+        partition=Mockito.mock(Partition.class);
+        Mockito.when(partition.batchGet(any(Attributable.class),anyListOf(byte[].class))).then(invocation -> {
+            @SuppressWarnings("unchecked") List<byte[]> rowKeys=(List<byte[]>)invocation.getArguments()[1];
+            List<DataResult> results=new ArrayList<>(rowKeys.size());
+            for(byte[] rowKey : rowKeys){
+                DataCell cell=table.get(Bytes.toString(rowKey));
+                if(cell==null){
+                    results.add(null);
+                }else{
+                    DataResult result=Mockito.mock(DataResult.class);
+                    Mockito.when(result.userData()).thenReturn(cell);
+                    results.add(result);
+                }
+            }
+            return results.iterator();
+        });
+        region=Mockito.mock(TransactionalRegion.class);
+        Mockito.when(region.unwrap()).thenReturn(partition);
+    }
+
+    @Test
+    public void fetchesTheBatchWithOneBatchGet() throws Exception{
+        List<KVPair> batch=Arrays.asList(update("a"),update("b"),update("c"));
+        BaseRowCache cache=new BaseRowCache(region,TXN);
+        cache.register(null,kvPair -> true);
+        cache.setBatch(batch);
+
+        for(KVPair mutation : batch){
+            Assert.assertSame("Incorrect base row",table.get(Bytes.toString(mutation.getRowKey())),cache.get(mutation));
+        }
+        Assert.assertEquals("Incorrect number of batch gets",1,cache.getBatchGets());
+        Assert.assertEquals("Incorrect rows fetched",Arrays.asList("a","b","c"),fetchedRows().get(0));
+    }
+
+    @Test
+    public void readersShareOneBatchGet() throws Exception{
+        KVPair a=update("a");
+        KVPair b=update("b");
+        KVPair c=update("c");
+        BaseRowCache cache=new BaseRowCache(region,TXN);
+        cache.register(columns(1),kvPair -> kvPair==a || kvPair==b);
+        cache.register(columns(3),kvPair -> kvPair==b || kvPair==c);
+        cache.setBatch(Arrays.asList(a,b,c));
+
+        // the first index reads a and b, the second b and c
+        Assert.assertNotNull(cache.get(a));
+        Assert.assertNotNull(cache.get(b));
+        Assert.assertNotNull(cache.get(b));
+        Assert.assertNotNull(cache.get(c));
+        Assert.assertEquals("Incorrect number of batch gets",1,cache.getBatchGets());
+        Assert.assertEquals("Incorrect rows fetched",Arrays.asList("a","b","c"),fetchedRows().get(0));
+
+        ArgumentCaptor<EntryPredicateFilter> epf=ArgumentCaptor.forClass(EntryPredicateFilter.class);
+        Mockito.verify(region).packedFilter(any(TxnView.class),epf.capture(),anyBoolean());
+        Assert.assertArrayEquals("Readers' columns were not combined",
+                new EntryPredicateFilter(columns(1,3)).toBytes(),epf.getValue().toBytes());
+    }
+
+    @Test
+    public void readsAnUnanticipatedMutationOnItsOwn() throws Exception{
+        KVPair a=update("a");
+        KVPair b=update("b");
+        BaseRowCache cache=new BaseRowCache(region,TXN);
+        cache.register(null,kvPair -> kvPair==a);
+        cache.setBatch(Arrays.asList(a,b));
+
+        Assert.assertNotNull(cache.get(a));
+        Assert.assertEquals(1,cache.getBatchGets());
+        Assert.assertSame("Incorrect base row",table.get("b"),cache.get(b));
+        Assert.assertEquals("Unanticipated mutation was not fetched",2,cache.getBatchGets());
+        Assert.assertSame(table.get("b"),cache.get(b));
+        Assert.assertEquals("Unanticipated mutation was fetched twice",2,cache.getBatchGets());
+
+        List<List<String>> fetched=fetchedRows();
+        Assert.assertEquals(Collections.singletonList("a"),fetched.get(0));
+        Assert.assertEquals(Collections.singletonList("b"),fetched.get(1));
+    }
+
+    @Test
+    public void missingRowIsNull() throws Exception{
+        KVPair a=update("a");
+        KVPair missing=new KVPair(Bytes.toBytes("missing"),new byte[0],KVPair.Type.DELETE);
+        BaseRowCache cache=new BaseRowCache(region,TXN);
+        cache.register(null,kvPair -> true);
+        cache.setBatch(Arrays.asList(a,missing));
+
+        Assert.assertNull("Missing row should be null",cache.get(missing));
+        Assert.assertNotNull(cache.get(a));
+        Assert.assertEquals("Incorrect number of batch gets",1,cache.getBatchGets());
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+    private KVPair update(String rowKey){
+        DataCell cell=Mockito.mock(DataCell.class);
+        Mockito.when(cell.getClone()).thenReturn(cell);
+        table.put(rowKey,cell);
+        return new KVPair(Bytes.toBytes(rowKey),new byte[0],KVPair.Type.UPDATE);
+    }
+
+    private static BitSet columns(int... columns){
+        BitSet bitSet=new BitSet();
+        for(int column : columns){
+            bitSet.set(column);
+        }
+        return bitSet;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<String>> fetchedRows() throws Exception{
+        ArgumentCaptor<List> rowKeys=ArgumentCaptor.forClass(List.class);
+        Mockito.verify(partition,Mockito.atLeastOnce()).batchGet(any(Attributable.class),rowKeys.capture());
+        List<List<String>> fetched=new ArrayList<>();
+        for(List<byte[]> keys : (List<List<byte[]>>)(List)rowKeys.getAllValues()){
+            List<String> rows=new ArrayList<>(keys.size());
+            for(byte[] key : keys){
+                rows.add(Bytes.toString(key));
+            }
+            fetched.add(rows);
+        }
+        return fetched;
+    }
+}
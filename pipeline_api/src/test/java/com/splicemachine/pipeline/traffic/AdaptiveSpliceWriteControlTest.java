@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.traffic;
+
+import com.splicemachine.pipeline.traffic.SpliceWriteControl.Status;
+import com.splicemachine.pipeline.traffic.SpliceWriteControl.WriteClass;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(ArchitectureIndependent.class)
+public class AdaptiveSpliceWriteControlTest {
+
+    private static class FixedPressure implements WritePressureMonitor {
+        double memstoreUsage;
+        double flushLatency;
+        double walSyncLatency;
+
+        @Override public double memstoreUsage(){ return memstoreUsage; }
+        @Override public double flushLatencyMillis(){ return flushLatency; }
+        @Override public double walSyncLatencyMillis(){ return walSyncLatency; }
+    }
+
+    private final FixedPressure pressure = new FixedPressure();
+    private final AdaptiveSpliceWriteControl writeControl =
+            new AdaptiveSpliceWriteControl(10, 10, 1000, 1000, pressure, 0.5d, 0.9d, 1000L, 100L);
+
+    @Test
+    public void bulkWritesAreCappedAtTheirShare() {
+        assertEquals(Status.INDEPENDENT, writeControl.performIndependentWrite(600, WriteClass.BULK));
+        assertEquals(Status.DEPENDENT, writeControl.performDependentWrite(400, WriteClass.BULK));
+        // the bulk share is 1000 of the 2000 writes
+        assertEquals(Status.REJECTED, writeControl.performIndependentWrite(1, WriteClass.BULK));
+        assertEquals(Status.INDEPENDENT, writeControl.performIndependentWrite(300, WriteClass.OLTP));
+
+        WriteClassStatus bulk = writeControl.getWriteClassStatus(WriteClass.BULK);
+        assertEquals(2, bulk.getWriteThreads());
+        assertEquals(1000, bulk.getWriteCount());
+        assertEquals(2, bulk.getAdmitted());
+        assertEquals(1, bulk.getRejected());
+
+        writeControl.finishIndependentWrite(600, WriteClass.BULK);
+        writeControl.finishDependentWrite(400, WriteClass.BULK);
+        assertEquals(0, writeControl.getWriteClassStatus(WriteClass.BULK).getWriteCount());
+        assertEquals(300, writeControl.getWriteClassStatus(WriteClass.OLTP).getWriteCount());
+        assertEquals("{ dependentWriteThreads=0, independentWriteThreads=1, dependentWriteCount=0, independentWriteCount=300 }", writeControl.getWriteStatus().toString());
+    }
+
+    @Test
+    public void pressureThrottlesBulkBeforeOltp() {
+        pressure.memstoreUsage = 0.95d;
+        writeControl.adjustPermits();
+        assertEquals(0.5d, writeControl.getBulkPermitScale(), 0d);
+        assertEquals(1d, writeControl.getOltpPermitScale(), 0d);
+        assertEquals(Status.REJECTED, writeControl.performIndependentWrite(600, WriteClass.BULK));
+        assertEquals(Status.INDEPENDENT, writeControl.performIndependentWrite(1000, WriteClass.OLTP));
+        writeControl.finishIndependentWrite(1000, WriteClass.OLTP);
+
+        // severe pressure cuts OLTP permits as well
+        pressure.walSyncLatency = 200d;
+        writeControl.adjustPermits();
+        assertEquals(2d, writeControl.getWritePressure(), 0d);
+        assertEquals(0.8d, writeControl.getOltpPermitScale(), 1e-9);
+        assertEquals(Status.INDEPENDENT, writeControl.performIndependentWrite(800, WriteClass.OLTP));
+        assertEquals(Status.DEPENDENT, writeControl.performIndependentWrite(800, WriteClass.OLTP));
+        assertEquals(Status.REJECTED, writeControl.performIndependentWrite(1, WriteClass.OLTP));
+        writeControl.finishIndependentWrite(800, WriteClass.OLTP);
+        writeControl.finishDependentWrite(800, WriteClass.OLTP);
+
+        // OLTP recovers first, then bulk
+        pressure.memstoreUsage = 0d;
+        pressure.walSyncLatency = 0d;
+        writeControl.adjustPermits();
+        assertEquals(0.9d, writeControl.getOltpPermitScale(), 1e-9);
+        assertEquals(0.25d, writeControl.getBulkPermitScale(), 1e-9);
+        writeControl.adjustPermits();
+        writeControl.adjustPermits();
+        assertEquals(1d, writeControl.getOltpPermitScale(), 1e-9);
+        assertEquals(0.35d, writeControl.getBulkPermitScale(), 1e-9);
+    }
+
+    @Test
+    public void rejectionRateCoversLastInterval() {
+        pressure.memstoreUsage = 10d;
+        for (int i = 0; i < 6; i++) {
+            writeControl.adjustPermits();
+        }
+        assertEquals(Status.INDEPENDENT, writeControl.performIndependentWrite(20, WriteClass.BULK));
+        assertEquals(Status.REJECTED, writeControl.performIndependentWrite(20, WriteClass.BULK));
+        assertEquals(Status.REJECTED, writeControl.performIndependentWrite(20, WriteClass.BULK));
+        assertEquals(Status.REJECTED, writeControl.performIndependentWrite(20, WriteClass.BULK));
+        writeControl.adjustPermits();
+        assertEquals(0.75d, writeControl.getWriteClassStatus(WriteClass.BULK).getRejectionRate(), 1e-9);
+        assertEquals(0d, writeControl.getWriteClassStatus(WriteClass.OLTP).getRejectionRate(), 0d);
+    }
+}
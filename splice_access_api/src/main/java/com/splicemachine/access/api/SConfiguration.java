@@ -279,6 +279,8 @@ public interface SConfiguration {
 
     long getImportCsvScanThreshold();
 
+    long getImportCsvSplitSize();
+
     int getIndexBatchSize();
 
     int getIndexLookupBlocks();
@@ -305,6 +307,8 @@ public interface SConfiguration {
 
     long getOptimizerPlanMinimumTimeout();
 
+    long getOptimizerPlanningTimeBudget();
+
     long getDetermineSparkRowThreshold();
 
     String getNetworkBindAddress();
@@ -382,6 +386,14 @@ public interface SConfiguration {
 
     long getControlExecutionRowLimit();
 
+    long getControlExecutionSortBufferSize();
+
+    long getControlExecutionAggregateBufferSize();
+
+    long getControlExecutionWindowBufferSize();
+
+    String getControlExecutionSpillDirectory();
+
     String getOlapLog4jConfig();
 
     Map<String, String> getOlapServerIsolatedRoles();
@@ -407,4 +419,38 @@ public interface SConfiguration {
     String getOlapServerMode();
 
     boolean getSparkAccumulatorsEnabled();
+
+    boolean getBroadcastJoinOffHeap();
+
+    long getBroadcastJoinCacheSize();
+
+    long getCompletedTxnCacheBytes();
+
+    boolean getLazyColumnDecoding();
+
+    boolean getAdaptiveWriteControl();
+
+    double getBulkWriteShare();
+
+    double getMemstorePressureThreshold();
+
+    long getFlushLatencyTarget();
+
+    long getWalSyncLatencyTarget();
+
+    boolean isSparkResultStreamingCompression();
+
+    int getOlapServerMaxRunningJobs();
+
+    String getOlapServerFairShareWeights();
+
+    String getOlapServerFairSharePriorities();
+
+    String getOlapServerFairShareReservedJobs();
+
+    int getControlExecutionParallelScanRegions();
+
+    int getControlExecutionParallelScanThreads();
+
+    double getStalePartitionThreshold();
 }
@@ -140,6 +140,7 @@ public class ConfigurationBuilder {
     public boolean upgradeForced;
     public int importMaxQuotedColumnLines;
     public long importCsvScanLimit;
+    public long importCsvSplitSize;
     public int indexBatchSize;
     public int indexLookupBlocks;
     public int kryoPoolSize;
@@ -167,6 +168,7 @@ public class ConfigurationBuilder {
     public int recursiveQueryIterationLimit;
     public long optimizerPlanMaximumTimeout;
     public long optimizerPlanMinimumTimeout;
+    public long optimizerPlanningTimeBudget;
     public long determineSparkRowThreshold;
     public String networkBindAddress;
     public String upgradeForcedFrom;
@@ -214,6 +216,10 @@ public class ConfigurationBuilder {
     public int bulkImportTasksPerRegion;
     public int regionToLoadPerTask;
     public long controlExecutionRowLimit;
+    public long controlExecutionSortBufferSize;
+    public long controlExecutionAggregateBufferSize;
+    public long controlExecutionWindowBufferSize;
+    public String controlExecutionSpillDirectory;
     public int olapShufflePartitions;
     public boolean sparkAccumulatorsEnabled;
     public String olapLog4jConfig;
@@ -224,6 +230,23 @@ public class ConfigurationBuilder {
     public boolean olapCompactionAutomaticallyPurgeDeletedRows;
     public boolean olapCompactionAutomaticallyPurgeOldUpdates;
     public String olapServerMode;
+    public boolean broadcastJoinOffHeap;
+    public long broadcastJoinCacheSize;
+    public long completedTxnCacheBytes;
+    public boolean lazyColumnDecoding;
+    public boolean adaptiveWriteControl;
+    public double bulkWriteShare;
+    public double memstorePressureThreshold;
+    public long flushLatencyTarget;
+    public long walSyncLatencyTarget;
+    public boolean sparkResultStreamingCompression;
+    public int olapServerMaxRunningJobs;
+    public String olapServerFairShareWeights;
+    public String olapServerFairSharePriorities;
+    public String olapServerFairShareReservedJobs;
+    public int controlExecutionParallelScanRegions;
+    public int controlExecutionParallelScanThreads;
+    public double stalePartitionThreshold;
 
 
     /**
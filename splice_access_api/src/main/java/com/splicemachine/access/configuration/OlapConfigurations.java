@@ -166,6 +166,37 @@ public class OlapConfigurations implements ConfigurationDefault {
     public static final String OLAP_SERVER_MODE = "splice.olap_server.deployment.mode";
     public static final String DEFAULT_OLAP_SERVER_MODE = "YARN";
 
+    // Maximum number of jobs the Olap Server runs concurrently, further jobs wait in fair-share queues
+    public static final String OLAP_SERVER_MAX_RUNNING_JOBS = "splice.olap_server.maxRunningJobs";
+    public static final int DEFAULT_OLAP_SERVER_MAX_RUNNING_JOBS = 64;
+
+    /* Fair-share weights of Olap Server scheduling queues and users, pools not listed have weight 1. Queues are the
+    job categories (query, compaction, default), users are the SQL users running queries
+
+    Examples:
+        query=4,compaction=1,REPORTS=8
+     */
+    public static final String OLAP_SERVER_FAIR_SHARE_WEIGHTS = "splice.olap_server.fairShare.weights";
+    public static final String DEFAULT_OLAP_SERVER_FAIR_SHARE_WEIGHTS = "";
+
+    /* Scheduling priorities of Olap Server queues and users, pools not listed have priority 0. Queued jobs from
+    higher priority pools always start before those of lower priority ones
+
+    Examples:
+        REPORTS=10
+     */
+    public static final String OLAP_SERVER_FAIR_SHARE_PRIORITIES = "splice.olap_server.fairShare.priorities";
+    public static final String DEFAULT_OLAP_SERVER_FAIR_SHARE_PRIORITIES = "";
+
+    /* Olap Server slots reserved for scheduling queues, out of splice.olap_server.maxRunningJobs. Only jobs of the
+    queue run in its reserved slots, so compactions still start while queries take every other slot
+
+    Examples:
+        compaction=8,default=2
+     */
+    public static final String OLAP_SERVER_FAIR_SHARE_RESERVED_JOBS = "splice.olap_server.fairShare.reservedJobs";
+    public static final String DEFAULT_OLAP_SERVER_FAIR_SHARE_RESERVED_JOBS = "compaction=8";
+
     /* Map of Splice queues to YARN queues
 
     Examples:
@@ -190,6 +221,13 @@ public class OlapConfigurations implements ConfigurationDefault {
     public static final String SPARK_SLOW_RESULT_STREAMING_BATCH_SIZE = "spark.slow.result.streaming.batch.size";
     public static final int DEFAULT_SPARK_SLOW_RESULT_STREAMING_BATCH_SIZE = 20;
 
+    /**
+     * Whether row batches streamed from Spark tasks back to the query client are LZ4 compressed.
+     * Batches that don't shrink are always sent uncompressed.
+     */
+    public static final String SPARK_RESULT_STREAMING_COMPRESSION = "spark.result.streaming.compression";
+    public static final boolean DEFAULT_SPARK_RESULT_STREAMING_COMPRESSION = true;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         builder.olapServerBindPort  = configurationSource.getInt(OLAP_SERVER_BIND_PORT, DEFAULT_OLAP_SERVER_BIND_PORT);
@@ -242,5 +280,10 @@ public class OlapConfigurations implements ConfigurationDefault {
         builder.olapServerKeepAliveTimeout = configurationSource.getLong(OLAP_SERVER_KEEPALIVE_TIMEOUT, DEFAULT_OLAP_SERVER_KEEPALIVE_TIMEOUT);
         builder.olapServerMode = configurationSource.getString(OLAP_SERVER_MODE, DEFAULT_OLAP_SERVER_MODE);
         builder.sparkAccumulatorsEnabled = configurationSource.getBoolean(SPARK_ACCUMULATORS_ENABLED, DEFAULT_SPARK_ACCUMULATORS_ENABLED);
+        builder.sparkResultStreamingCompression = configurationSource.getBoolean(SPARK_RESULT_STREAMING_COMPRESSION, DEFAULT_SPARK_RESULT_STREAMING_COMPRESSION);
+        builder.olapServerMaxRunningJobs = configurationSource.getInt(OLAP_SERVER_MAX_RUNNING_JOBS, DEFAULT_OLAP_SERVER_MAX_RUNNING_JOBS);
+        builder.olapServerFairShareWeights = configurationSource.getString(OLAP_SERVER_FAIR_SHARE_WEIGHTS, DEFAULT_OLAP_SERVER_FAIR_SHARE_WEIGHTS);
+        builder.olapServerFairSharePriorities = configurationSource.getString(OLAP_SERVER_FAIR_SHARE_PRIORITIES, DEFAULT_OLAP_SERVER_FAIR_SHARE_PRIORITIES);
+        builder.olapServerFairShareReservedJobs = configurationSource.getString(OLAP_SERVER_FAIR_SHARE_RESERVED_JOBS, DEFAULT_OLAP_SERVER_FAIR_SHARE_RESERVED_JOBS);
     }
 }
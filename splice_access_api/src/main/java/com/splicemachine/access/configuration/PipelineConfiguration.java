@@ -136,6 +136,51 @@ public class PipelineConfiguration implements ConfigurationDefault {
     public static final String MAX_DEPENDENT_WRITE_THREADS="splice.dependent.write.threads";
     public static final int DEFAULT_MAX_DEPENDENT_WRITE_THREADS = 50;
 
+    /**
+     * When enabled, region servers size write permits from observed memstore pressure, flush latency
+     * and WAL sync time, throttling bulk writers before OLTP ones. When disabled the static
+     * thread and write-count limits above apply unchanged.
+     *
+     * Defaults to false.
+     */
+    public static final String ADAPTIVE_WRITE_CONTROL = "splice.write.control.adaptive";
+    private static final boolean DEFAULT_ADAPTIVE_WRITE_CONTROL = false;
+
+    /**
+     * The largest fraction of the write permits that bulk writers (imports and other loads which
+     * skip the WAL or conflict detection) may hold, leaving the rest for OLTP writes.
+     *
+     * Defaults to 0.8.
+     */
+    public static final String BULK_WRITE_SHARE = "splice.write.control.bulkShare";
+    private static final double DEFAULT_BULK_WRITE_SHARE = 0.8d;
+
+    /**
+     * The fraction of the global memstore limit above which write permits are cut back.
+     *
+     * Defaults to 0.9.
+     */
+    public static final String MEMSTORE_PRESSURE_THRESHOLD = "splice.write.control.memstorePressureThreshold";
+    private static final double DEFAULT_MEMSTORE_PRESSURE_THRESHOLD = 0.9d;
+
+    /**
+     * The mean memstore flush time (in milliseconds) above which write permits are cut back.
+     * Zero ignores flush latency.
+     *
+     * Defaults to 5000.
+     */
+    public static final String FLUSH_LATENCY_TARGET = "splice.write.control.flushLatencyTarget";
+    private static final long DEFAULT_FLUSH_LATENCY_TARGET = 5000L;
+
+    /**
+     * The mean WAL sync time (in milliseconds) above which write permits are cut back.
+     * Zero ignores WAL sync latency.
+     *
+     * Defaults to 100.
+     */
+    public static final String WAL_SYNC_LATENCY_TARGET = "splice.write.control.walSyncLatencyTarget";
+    private static final long DEFAULT_WAL_SYNC_LATENCY_TARGET = 100L;
+
     public static final String PIPELINE_KRYO_POOL_SIZE= "splice.writer.kryoPoolSize";
     private static final int DEFAULT_PIPELINE_KRYO_POOL_SIZE=1024;
 
@@ -171,5 +216,10 @@ public class PipelineConfiguration implements ConfigurationDefault {
         builder.bulkImportSampleFraction = configurationSource.getDouble(BULK_IMPORT_SAMPLE_FRACTION, DEFAULT_BULK_IMPORT_SAMPLE_FRACTION);
         builder.bulkImportTasksPerRegion = configurationSource.getInt(BULK_IMPORT_TASKS_PER_REGION, DEFAULT_BULK_IMPORT_TASKS_PER_REGION);
         builder.regionToLoadPerTask = configurationSource.getInt(REGION_TOLOAD_PER_TASK, DEFAULT_REGION_TOLOAD_PER_TASK);
+        builder.adaptiveWriteControl = configurationSource.getBoolean(ADAPTIVE_WRITE_CONTROL, DEFAULT_ADAPTIVE_WRITE_CONTROL);
+        builder.bulkWriteShare = configurationSource.getDouble(BULK_WRITE_SHARE, DEFAULT_BULK_WRITE_SHARE);
+        builder.memstorePressureThreshold = configurationSource.getDouble(MEMSTORE_PRESSURE_THRESHOLD, DEFAULT_MEMSTORE_PRESSURE_THRESHOLD);
+        builder.flushLatencyTarget = configurationSource.getLong(FLUSH_LATENCY_TARGET, DEFAULT_FLUSH_LATENCY_TARGET);
+        builder.walSyncLatencyTarget = configurationSource.getLong(WAL_SYNC_LATENCY_TARGET, DEFAULT_WAL_SYNC_LATENCY_TARGET);
     }
 }
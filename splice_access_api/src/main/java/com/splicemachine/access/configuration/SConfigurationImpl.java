@@ -199,6 +199,7 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  boolean upgradeForced;
     private final  int importMaxQuotedColumnLines;
     private final  long importCsvScanLimit;
+    private final  long importCsvSplitSize;
     private final  int indexBatchSize;
     private final  int indexLookupBlocks;
     private final  int kryoPoolSize;
@@ -212,12 +213,17 @@ public final class SConfigurationImpl implements SConfiguration {
     private final  long broadcastDatasetCostThreshold;
     private final  long optimizerPlanMaximumTimeout;
     private final  long optimizerPlanMinimumTimeout;
+    private final  long optimizerPlanningTimeBudget;
     private final  long determineSparkRowThreshold;
     private final  String networkBindAddress;
     private final  String upgradeForcedFrom;
     private final String storageFactoryHome;
     private final int nestedLoopJoinBatchSize;
     private final long controlExecutionRowLimit;
+    private final long controlExecutionSortBufferSize;
+    private final long controlExecutionAggregateBufferSize;
+    private final long controlExecutionWindowBufferSize;
+    private final String controlExecutionSpillDirectory;
     private final int maxCheckTableErrors;
     private final int recursiveQueryIterationLimit;
     private String metadataRestrictionEnabled;
@@ -246,6 +252,23 @@ public final class SConfigurationImpl implements SConfiguration {
 
     // Gateway to hadoop config
     private final ConfigurationSource configSource;
+    private final boolean broadcastJoinOffHeap;
+    private final long broadcastJoinCacheSize;
+    private final long completedTxnCacheBytes;
+    private final boolean lazyColumnDecoding;
+    private final boolean adaptiveWriteControl;
+    private final double bulkWriteShare;
+    private final double memstorePressureThreshold;
+    private final long flushLatencyTarget;
+    private final long walSyncLatencyTarget;
+    private final boolean sparkResultStreamingCompression;
+    private final int olapServerMaxRunningJobs;
+    private final String olapServerFairShareWeights;
+    private final String olapServerFairSharePriorities;
+    private final String olapServerFairShareReservedJobs;
+    private final int controlExecutionParallelScanRegions;
+    private final int controlExecutionParallelScanThreads;
+    private final double stalePartitionThreshold;
 
     public ConfigurationSource getConfigSource() {
         return configSource;
@@ -787,6 +810,10 @@ public final class SConfigurationImpl implements SConfiguration {
         return importCsvScanLimit;
     }
     @Override
+    public long getImportCsvSplitSize() {
+        return importCsvSplitSize;
+    }
+    @Override
     public int getIndexBatchSize() {
         return indexBatchSize;
     }
@@ -838,6 +865,10 @@ public final class SConfigurationImpl implements SConfiguration {
         return optimizerPlanMinimumTimeout;
     }
     @Override
+    public long getOptimizerPlanningTimeBudget() {
+        return optimizerPlanningTimeBudget;
+    }
+    @Override
     public long getDetermineSparkRowThreshold() {  return determineSparkRowThreshold; }
     @Override
     public String getNetworkBindAddress() {
@@ -1036,6 +1067,7 @@ public final class SConfigurationImpl implements SConfiguration {
         upgradeForced = builder.upgradeForced;
         importMaxQuotedColumnLines = builder.importMaxQuotedColumnLines;
         importCsvScanLimit = builder.importCsvScanLimit;
+        importCsvSplitSize = builder.importCsvSplitSize;
         indexBatchSize = builder.indexBatchSize;
         indexLookupBlocks = builder.indexLookupBlocks;
         kryoPoolSize = builder.kryoPoolSize;
@@ -1050,6 +1082,7 @@ public final class SConfigurationImpl implements SConfiguration {
         recursiveQueryIterationLimit = builder.recursiveQueryIterationLimit;
         optimizerPlanMaximumTimeout = builder.optimizerPlanMaximumTimeout;
         optimizerPlanMinimumTimeout = builder.optimizerPlanMinimumTimeout;
+        optimizerPlanningTimeBudget = builder.optimizerPlanningTimeBudget;
         determineSparkRowThreshold = builder.determineSparkRowThreshold;
         networkBindAddress = builder.networkBindAddress;
         upgradeForcedFrom = builder.upgradeForcedFrom;
@@ -1109,6 +1142,10 @@ public final class SConfigurationImpl implements SConfiguration {
         storageFactoryHome = builder.storageFactoryHome;
         nestedLoopJoinBatchSize = builder.nestedLoopJoinBatchSize;
         controlExecutionRowLimit = builder.controlExecutionRowLimit;
+        controlExecutionSortBufferSize = builder.controlExecutionSortBufferSize;
+        controlExecutionAggregateBufferSize = builder.controlExecutionAggregateBufferSize;
+        controlExecutionWindowBufferSize = builder.controlExecutionWindowBufferSize;
+        controlExecutionSpillDirectory = builder.controlExecutionSpillDirectory;
         bulkImportSampleFraction = builder.bulkImportSampleFraction;
         bulkImportTasksPerRegion = builder.bulkImportTasksPerRegion;
         regionToLoadPerTask = builder.regionToLoadPerTask;
@@ -1121,6 +1158,23 @@ public final class SConfigurationImpl implements SConfiguration {
         rollForwardSecondThreads = builder.rollForwardSecondThreads;
         metadataRestrictionEnabled = builder.metadataRestrictionEnabled;
         nativeSparkAggregationMode = builder.nativeSparkAggregationMode;
+        broadcastJoinOffHeap = builder.broadcastJoinOffHeap;
+        broadcastJoinCacheSize = builder.broadcastJoinCacheSize;
+        completedTxnCacheBytes = builder.completedTxnCacheBytes;
+        lazyColumnDecoding = builder.lazyColumnDecoding;
+        adaptiveWriteControl = builder.adaptiveWriteControl;
+        bulkWriteShare = builder.bulkWriteShare;
+        memstorePressureThreshold = builder.memstorePressureThreshold;
+        flushLatencyTarget = builder.flushLatencyTarget;
+        walSyncLatencyTarget = builder.walSyncLatencyTarget;
+        sparkResultStreamingCompression = builder.sparkResultStreamingCompression;
+        olapServerMaxRunningJobs = builder.olapServerMaxRunningJobs;
+        olapServerFairShareWeights = builder.olapServerFairShareWeights;
+        olapServerFairSharePriorities = builder.olapServerFairSharePriorities;
+        olapServerFairShareReservedJobs = builder.olapServerFairShareReservedJobs;
+        controlExecutionParallelScanRegions = builder.controlExecutionParallelScanRegions;
+        controlExecutionParallelScanThreads = builder.controlExecutionParallelScanThreads;
+        stalePartitionThreshold = builder.stalePartitionThreshold;
     }
 
     private static final Logger LOG = Logger.getLogger("splice.config");
@@ -1229,6 +1283,26 @@ public final class SConfigurationImpl implements SConfiguration {
         return controlExecutionRowLimit;
     }
 
+    @Override
+    public long getControlExecutionSortBufferSize() {
+        return controlExecutionSortBufferSize;
+    }
+
+    @Override
+    public long getControlExecutionAggregateBufferSize() {
+        return controlExecutionAggregateBufferSize;
+    }
+
+    @Override
+    public long getControlExecutionWindowBufferSize() {
+        return controlExecutionWindowBufferSize;
+    }
+
+    @Override
+    public String getControlExecutionSpillDirectory() {
+        return controlExecutionSpillDirectory;
+    }
+
     @Override
     public int getMaxCheckTableErrors() {
         return maxCheckTableErrors;
@@ -1243,4 +1317,89 @@ public final class SConfigurationImpl implements SConfiguration {
     public CompilerContext.NativeSparkModeType getNativeSparkAggregationMode() {
         return nativeSparkAggregationMode;
     }
+
+    @Override
+    public boolean getBroadcastJoinOffHeap() {
+        return broadcastJoinOffHeap;
+    }
+
+    @Override
+    public long getBroadcastJoinCacheSize() {
+        return broadcastJoinCacheSize;
+    }
+
+    @Override
+    public long getCompletedTxnCacheBytes() {
+        return completedTxnCacheBytes;
+    }
+
+    @Override
+    public boolean getLazyColumnDecoding() {
+        return lazyColumnDecoding;
+    }
+
+    @Override
+    public boolean getAdaptiveWriteControl() {
+        return adaptiveWriteControl;
+    }
+
+    @Override
+    public double getBulkWriteShare() {
+        return bulkWriteShare;
+    }
+
+    @Override
+    public double getMemstorePressureThreshold() {
+        return memstorePressureThreshold;
+    }
+
+    @Override
+    public long getFlushLatencyTarget() {
+        return flushLatencyTarget;
+    }
+
+    @Override
+    public long getWalSyncLatencyTarget() {
+        return walSyncLatencyTarget;
+    }
+
+    @Override
+    public boolean isSparkResultStreamingCompression() {
+        return sparkResultStreamingCompression;
+    }
+
+    @Override
+    public int getOlapServerMaxRunningJobs() {
+        return olapServerMaxRunningJobs;
+    }
+
+    @Override
+    public String getOlapServerFairShareWeights() {
+        return olapServerFairShareWeights;
+    }
+
+    @Override
+    public String getOlapServerFairSharePriorities() {
+        return olapServerFairSharePriorities;
+    }
+
+    @Override
+    public String getOlapServerFairShareReservedJobs() {
+        return olapServerFairShareReservedJobs;
+    }
+
+    @Override
+    public int getControlExecutionParallelScanRegions() {
+        return controlExecutionParallelScanRegions;
+    }
+
+    @Override
+    public int getControlExecutionParallelScanThreads() {
+        return controlExecutionParallelScanThreads;
+    }
+
+    @Override
+    public double getStalePartitionThreshold() {
+        return stalePartitionThreshold;
+    }
 }
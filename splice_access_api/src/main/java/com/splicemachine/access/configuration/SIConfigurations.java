@@ -35,6 +35,15 @@ public class SIConfigurations implements ConfigurationDefault {
     public static final String completedTxnConcurrency="splice.txn.completedTxns.concurrency";
     private static final int DEFAULT_COMPLETED_TRANSACTION_CONCURRENCY=64;
 
+    /**
+     * The heap budget (in bytes) of the region-server-wide completed transaction cache. When set,
+     * it takes precedence over splice.txn.completedTxns.cacheSize.
+     *
+     * Defaults to 0 (size by number of entries)
+     */
+    public static final String COMPLETED_TXN_CACHE_BYTES = "splice.txn.completedTxns.cacheBytes";
+    private static final long DEFAULT_COMPLETED_TXN_CACHE_BYTES = 0L;
+
     public static final String TRANSACTION_KEEP_ALIVE_INTERVAL="splice.txn.keepAliveIntervalMs";
     public static final long DEFAULT_TRANSACTION_KEEP_ALIVE_INTERVAL=15000L;
 
@@ -182,5 +191,6 @@ public class SIConfigurations implements ConfigurationDefault {
         builder.rollForwardSecondWait  = configurationSource.getInt(ROLLFORWARD_SECOND_WAIT, DEFAULT_ROLLFORWARD_SECOND_WAIT);
         builder.rollForwardFirstThreads  = configurationSource.getInt(ROLLFORWARD_FIRST_THREADS, DEFAULT_ROLLFORWARD_FIRST_THREADS);
         builder.rollForwardSecondThreads = configurationSource.getInt(ROLLFORWARD_SECOND_THREADS, DEFAULT_ROLLFORWARD_SECOND_THREADS);
+        builder.completedTxnCacheBytes = configurationSource.getLong(COMPLETED_TXN_CACHE_BYTES, DEFAULT_COMPLETED_TXN_CACHE_BYTES);
     }
 }
@@ -67,6 +67,14 @@ public class SQLConfiguration implements ConfigurationDefault {
     public static final String IMPORT_CSV_SCAN_THRESHOLD="splice.import.csvScanThreshold";
     private static final long DEFAULT_IMPORT_CSV_SCAN_THRESHOLD = 100000;
 
+    /**
+     * Uncompressed CSV files larger than this many bytes are split at record boundaries, so that
+     * several tasks can import a single file. Zero or less disables splitting.
+     * Defaults to 128MB
+     */
+    public static final String IMPORT_CSV_SPLIT_SIZE="splice.import.csvSplitSize";
+    private static final long DEFAULT_IMPORT_CSV_SPLIT_SIZE = 128L*1024*1024;
+
     public static final String CONTROL_SIDE_COST_THRESHOLD = "splice.dataset.control.costThreshold";
     private static final double DEFAULT_CONTROL_SIDE_COST_THRESHOLD = 1000000D;
 
@@ -147,6 +155,16 @@ public class SQLConfiguration implements ConfigurationDefault {
     public static final String OPTIMIZER_PLAN_MAXIMUM_TIMEOUT = "splice.optimizer.maxPlanTimeout";
     private static final long DEFAULT_OPTIMIZER_PLAN_MAXIMUM_TIMEOUT = Long.MAX_VALUE;
 
+    /**
+     * Time (in milliseconds) that planning of a whole statement may take, across
+     * all of its query blocks. Once it is spent, each optimizer keeps the best
+     * plan it has found so far, and an optimizer that has no complete plan yet
+     * finishes with a single greedy join order. By default, this is
+     * Long.MaxValue, which means there is no budget.
+     */
+    public static final String OPTIMIZER_PLANNING_TIME_BUDGET = "splice.optimizer.planningTimeBudget";
+    private static final long DEFAULT_OPTIMIZER_PLANNING_TIME_BUDGET = Long.MAX_VALUE;
+
     /**
      * Threshold in rows for using spark.  Default is 20000
      */
@@ -225,6 +243,60 @@ public class SQLConfiguration implements ConfigurationDefault {
     public static final String CONTROL_EXECUTION_ROWS_LIMIT = "splice.controlExecution.rowsLimit";
     private static final int DEFAULT_CONTROL_EXECUTION_ROWS_LIMIT = 1000000;
 
+    /**
+     * The amount of memory (in bytes) a single control-side sort may buffer before it sorts
+     * the buffered rows into a run and spills that run to local disk.
+     *
+     * Defaults to 64 MB
+     */
+    public static final String CONTROL_EXECUTION_SORT_BUFFER_SIZE = "splice.controlExecution.sortBufferSize";
+    private static final long DEFAULT_CONTROL_EXECUTION_SORT_BUFFER_SIZE = 64L*1024*1024;
+
+    /**
+     * The amount of memory (in bytes) a single control-side hash aggregation (GROUP BY, DISTINCT)
+     * may use for its hash table before it starts spilling hash partitions to local disk.
+     *
+     * Defaults to 64 MB
+     */
+    public static final String CONTROL_EXECUTION_AGGREGATE_BUFFER_SIZE = "splice.controlExecution.aggregateBufferSize";
+    private static final long DEFAULT_CONTROL_EXECUTION_AGGREGATE_BUFFER_SIZE = 64L*1024*1024;
+
+    /**
+     * The amount of memory (in bytes) a window function evaluation may use to buffer the rows of
+     * a partition, its current frame and its results, before it starts spilling rows to local disk.
+     *
+     * Defaults to 64 MB
+     */
+    public static final String CONTROL_EXECUTION_WINDOW_BUFFER_SIZE = "splice.controlExecution.windowBufferSize";
+    private static final long DEFAULT_CONTROL_EXECUTION_WINDOW_BUFFER_SIZE = 64L*1024*1024;
+
+    /**
+     * The local directory in which control-side operators write their spill files. When unset,
+     * the JVM temporary directory (java.io.tmpdir) is used.
+     */
+    public static final String CONTROL_EXECUTION_SPILL_DIRECTORY = "splice.controlExecution.spillDirectory";
+    private static final String DEFAULT_CONTROL_EXECUTION_SPILL_DIRECTORY = null;
+
+    /**
+     * The maximum number of regions a control-side table scan reads concurrently. Each
+     * region is scanned on the shared executor into a small buffer, ahead of the caller.
+     * A value of 1 scans the regions one after another.
+     *
+     * Defaults to 4
+     */
+    public static final String CONTROL_EXECUTION_PARALLEL_SCAN_REGIONS = "splice.controlExecution.parallelScanRegions";
+    private static final int DEFAULT_CONTROL_EXECUTION_PARALLEL_SCAN_REGIONS = 4;
+
+    /**
+     * The number of threads shared by the parallel control-side table scans of a server. When
+     * they are all busy, further region scans are read one after another by the query's own
+     * thread.
+     *
+     * Defaults to 32
+     */
+    public static final String CONTROL_EXECUTION_PARALLEL_SCAN_THREADS = "splice.controlExecution.parallelScanThreads";
+    private static final int DEFAULT_CONTROL_EXECUTION_PARALLEL_SCAN_THREADS = 32;
+
     public static final String MAX_CHECK_TABLE_ERRORS="splice.max.checktable.error";
     private static final int DEFAULT_MAX_CHECK_TABLE_ERRORS = 1000;
 
@@ -263,6 +335,32 @@ public class SQLConfiguration implements ConfigurationDefault {
     public static final CompilerContext.NativeSparkModeType DEFAULT_NATIVE_SPARK_AGGREGATION_MODE_VALUE=CompilerContext.NativeSparkModeType.FORCED;
 
 
+    /**
+     * If true, the inner side of a broadcast join is stored as encoded rows in an off-heap
+     * hash table rather than as a map of ValueRow objects on heap.
+     *
+     * Defaults to true
+     */
+    public static final String BROADCAST_JOIN_OFF_HEAP = "splice.execution.broadcastJoin.offHeap";
+    private static final boolean DEFAULT_BROADCAST_JOIN_OFF_HEAP = true;
+
+    /**
+     * The maximum number of bytes of broadcast join tables kept in the per-server cache.
+     *
+     * Defaults to 512 MB
+     */
+    public static final String BROADCAST_JOIN_CACHE_SIZE = "splice.execution.broadcastJoin.cacheSize";
+    private static final long DEFAULT_BROADCAST_JOIN_CACHE_SIZE = 512L*1024*1024;
+
+    /**
+     * If true, CHAR/VARCHAR, DECIMAL and TIMESTAMP columns read by table scans are bound to
+     * the encoded bytes of the cell and only decoded when the value is actually read.
+     *
+     * Defaults to false
+     */
+    public static final String LAZY_COLUMN_DECODING = "splice.execution.lazyColumnDecoding";
+    private static final boolean DEFAULT_LAZY_COLUMN_DECODING = false;
+
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
         // FIXME: JC - some of these are not referenced anywhere outside. Do we need them?
@@ -273,12 +371,17 @@ public class SQLConfiguration implements ConfigurationDefault {
         builder.indexLookupBlocks = configurationSource.getInt(INDEX_LOOKUP_BLOCKS, DEFAULT_INDEX_LOOKUP_BLOCKS);
         builder.importMaxQuotedColumnLines = configurationSource.getInt(IMPORT_MAX_QUOTED_COLUMN_LINES, DEFAULT_IMPORT_MAX_QUOTED_COLUMN_LINES);
         builder.importCsvScanLimit = configurationSource.getLong(IMPORT_CSV_SCAN_THRESHOLD, DEFAULT_IMPORT_CSV_SCAN_THRESHOLD);
+        builder.importCsvSplitSize = configurationSource.getLong(IMPORT_CSV_SPLIT_SIZE, DEFAULT_IMPORT_CSV_SPLIT_SIZE);
         builder.partitionserverJmxPort = configurationSource.getInt(PARTITIONSERVER_JMX_PORT, DEFAULT_PARTITIONSERVER_JMX_PORT);
         builder.partitionserverJmxUser = configurationSource.getString(PARTITIONSERVER_JMX_USER, DEFAULT_PARTITIONSERVER_JMX_USER);
         builder.partitionserverJmxPassword = configurationSource.getString(PARTITIONSERVER_JMX_PASSWORD, DEFAULT_PARTITIONSERVER_JMX_PASSWORD);
         builder.partitionserverPort = configurationSource.getInt(PARTITIONSERVER_PORT, DEFAULT_PARTITIONSERVER_PORT);
         builder.nestedLoopJoinBatchSize = configurationSource.getInt(NESTEDLOOPJOIN_BATCH_SIZE, DEFAULT_NESTEDLOOPJOIN_BATCH_SIZE);
         builder.controlExecutionRowLimit = configurationSource.getLong(CONTROL_EXECUTION_ROWS_LIMIT, DEFAULT_CONTROL_EXECUTION_ROWS_LIMIT);
+        builder.controlExecutionSortBufferSize = configurationSource.getLong(CONTROL_EXECUTION_SORT_BUFFER_SIZE, DEFAULT_CONTROL_EXECUTION_SORT_BUFFER_SIZE);
+        builder.controlExecutionAggregateBufferSize = configurationSource.getLong(CONTROL_EXECUTION_AGGREGATE_BUFFER_SIZE, DEFAULT_CONTROL_EXECUTION_AGGREGATE_BUFFER_SIZE);
+        builder.controlExecutionWindowBufferSize = configurationSource.getLong(CONTROL_EXECUTION_WINDOW_BUFFER_SIZE, DEFAULT_CONTROL_EXECUTION_WINDOW_BUFFER_SIZE);
+        builder.controlExecutionSpillDirectory = configurationSource.getString(CONTROL_EXECUTION_SPILL_DIRECTORY, DEFAULT_CONTROL_EXECUTION_SPILL_DIRECTORY);
 
         // Where to place jar files...
         String defaultStorageFactoryHome;
@@ -289,6 +392,7 @@ public class SQLConfiguration implements ConfigurationDefault {
         builder.storageFactoryHome = configurationSource.getString(STORAGE_FACTORY_HOME,defaultStorageFactoryHome);
         builder.optimizerPlanMaximumTimeout = configurationSource.getLong(OPTIMIZER_PLAN_MAXIMUM_TIMEOUT, DEFAULT_OPTIMIZER_PLAN_MAXIMUM_TIMEOUT);
         builder.optimizerPlanMinimumTimeout = configurationSource.getLong(OPTIMIZER_PLAN_MINIMUM_TIMEOUT, DEFAULT_OPTIMIZER_PLAN_MINIMUM_TIMEOUT);
+        builder.optimizerPlanningTimeBudget = configurationSource.getLong(OPTIMIZER_PLANNING_TIME_BUDGET, DEFAULT_OPTIMIZER_PLANNING_TIME_BUDGET);
         builder.determineSparkRowThreshold = configurationSource.getLong(DETERMINE_SPARK_ROW_THRESHOLD, DEFAULT_DETERMINE_SPARK_ROW_THRESHOLD);
         builder.broadcastRegionMbThreshold = configurationSource.getLong(BROADCAST_REGION_MB_THRESHOLD, DEFAULT_BROADCAST_REGION_MB_THRESHOLD);
         builder.broadcastRegionRowThreshold = configurationSource.getLong(BROADCAST_REGION_ROW_THRESHOLD, DEFAULT_BROADCAST_REGION_ROW_THRESHOLD);
@@ -324,5 +428,10 @@ public class SQLConfiguration implements ConfigurationDefault {
             builder.nativeSparkAggregationMode = CompilerContext.NativeSparkModeType.FORCED;
         else
             builder.nativeSparkAggregationMode = SQLConfiguration.DEFAULT_NATIVE_SPARK_AGGREGATION_MODE_VALUE;
+        builder.broadcastJoinOffHeap = configurationSource.getBoolean(BROADCAST_JOIN_OFF_HEAP, DEFAULT_BROADCAST_JOIN_OFF_HEAP);
+        builder.broadcastJoinCacheSize = configurationSource.getLong(BROADCAST_JOIN_CACHE_SIZE, DEFAULT_BROADCAST_JOIN_CACHE_SIZE);
+        builder.lazyColumnDecoding = configurationSource.getBoolean(LAZY_COLUMN_DECODING, DEFAULT_LAZY_COLUMN_DECODING);
+        builder.controlExecutionParallelScanRegions = configurationSource.getInt(CONTROL_EXECUTION_PARALLEL_SCAN_REGIONS, DEFAULT_CONTROL_EXECUTION_PARALLEL_SCAN_REGIONS);
+        builder.controlExecutionParallelScanThreads = configurationSource.getInt(CONTROL_EXECUTION_PARALLEL_SCAN_THREADS, DEFAULT_CONTROL_EXECUTION_PARALLEL_SCAN_THREADS);
     }
 }
@@ -128,6 +128,14 @@ public class StatsConfiguration implements ConfigurationDefault {
     public static final String COLLECT_SCHEMA_STATISTICS_MAXIMUM_CONCURRENT = "splice.statistics.collectSchemaStatisticsMaximumConcurrent";
     public static final int DEFAULT_COLLECT_SCHEMA_STATISTICS_MAXIMUM_CONCURRENT = 100;
 
+    /**
+     * The fraction of a partition's rows that must have been written since its statistics were
+     * collected before a stale-only collection re-collects that partition. Write counts are
+     * tracked by the write pipeline of each region server.
+     */
+    public static final String STALE_PARTITION_THRESHOLD = "splice.statistics.stalePartitionThreshold";
+    public static final double DEFAULT_STALE_PARTITION_THRESHOLD = 0.1d;
+
 
     @Override
     public void setDefaults(ConfigurationBuilder builder, ConfigurationSource configurationSource) {
@@ -152,5 +160,6 @@ public class StatsConfiguration implements ConfigurationDefault {
 //        builder.fallbackIndexSelectivityFraction = configurationSource.getDouble(FALLBACK_INDEX_SELECTIVITY_FRACTION, DEFAULT_FALLBACK_INDEX_SELECTIVITY_FRACTION);
         builder.optimizerExtraQualifierMultiplier = configurationSource.getDouble(OPTIMIZER_EXTRA_QUALIFIER_MULTIPLIER, DEFAULT_OPTIMIZER_EXTRA_QUALIFIER_MULTIPLIER);
         builder.collectSchemaStatisticsMaximumConcurrent = configurationSource.getInt(COLLECT_SCHEMA_STATISTICS_MAXIMUM_CONCURRENT, DEFAULT_COLLECT_SCHEMA_STATISTICS_MAXIMUM_CONCURRENT);
+        builder.stalePartitionThreshold = configurationSource.getDouble(STALE_PARTITION_THRESHOLD, DEFAULT_STALE_PARTITION_THRESHOLD);
     }
 }
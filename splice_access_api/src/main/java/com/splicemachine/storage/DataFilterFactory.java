@@ -14,6 +14,11 @@
 
 package com.splicemachine.storage;
 
+import com.splicemachine.utils.Pair;
+
+import java.io.IOException;
+import java.util.List;
+
 /**
  * Factory for creating different DataFilters. Each architecture is expected to provide an architecture
  * specific version of this.
@@ -34,4 +39,16 @@ public interface DataFilterFactory{
     DataFilter singleColumnEqualsValueFilter(byte[] family,byte[] qualifier,byte[] value);
 
     DataFilter allocatedFilter(byte[] localAddress);
+
+    /**
+     * Filter rows based on whether or not their key falls into one of the specified ranges. Where the
+     * architecture supports it, the scanner seeks from the end of one range directly to the start of the
+     * next, so that a single scan can probe many disjoint key ranges.
+     *
+     * @param ranges the ranges to include, as (inclusive start key, exclusive stop key) pairs, sorted
+     *               by start key
+     * @return a DataFilter which includes only rows inside the ranges.
+     * @throws IOException if the ranges are invalid
+     */
+    DataFilter multiRowRangeFilter(List<Pair<byte[],byte[]>> ranges) throws IOException;
 }
@@ -51,6 +51,15 @@ public interface Partition extends AutoCloseable{
      */
     DataResult get(DataGet get,DataResult previous) throws IOException;
 
+    /**
+     * Get several rows at once.
+     *
+     * @param attributes the attributes to apply to every get. When this is a {@link DataGet}, partitions
+     *                   serving a local region also apply its filter and time range to every row.
+     * @param rowKeys the keys of the rows to fetch
+     * @return the row results, one per key and in the same order as the keys
+     * @throws IOException
+     */
     Iterator<DataResult> batchGet(Attributable attributes,List<byte[]>rowKeys) throws IOException;
 
     DataScanner openScanner(DataScan scan) throws IOException;
@@ -19,6 +19,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Simple Pool of Kryo objects that allows a core of Kryo objects to remain
@@ -32,6 +33,19 @@ import java.util.concurrent.ConcurrentLinkedQueue;
  */
 public abstract class AbstractKryoPool {
     protected final Queue<Kryo> instances;
+    /*
+     * Each thread keeps the last instance it returned, so the common get/return cycle on a
+     * single thread neither touches the shared queue nor moves instances (and the class
+     * resolution state they have cached) between cores. The slot is emptied while the
+     * instance is in use, so nested gets on the same thread still receive distinct instances.
+     */
+    private final ThreadLocal<Kryo> threadInstance = new ThreadLocal<>();
+    /*
+     * The number of idle instances held by the pool, whether in the shared queue or in a thread's
+     * slot, so the slots count against poolSize too. An instance parked by a thread which then exits
+     * is collected along with the thread but stays counted, so it only costs pooling capacity.
+     */
+    private final AtomicInteger idle = new AtomicInteger();
     protected volatile KryoRegistry kryoRegistry;
     protected int poolSize;
 
@@ -40,15 +54,36 @@ public abstract class AbstractKryoPool {
         this.instances =new ConcurrentLinkedQueue<>();
     }
 
+    /**
+     * Creates and registers up to {@code count} instances ahead of time, so that the first
+     * callers don't pay for class registration.
+     *
+     * @param count the number of instances to create, capped at the pool size
+     */
+    public void prewarm(int count){
+        int toCreate = Math.min(count,poolSize)-idle.get();
+        for(int i=0;i<toCreate && reserve();i++){
+            instances.offer(newInstance());
+        }
+    }
+
     public void setKryoRegistry(KryoRegistry kryoRegistry){
         this.kryoRegistry = kryoRegistry;
     }
 
     public Kryo get(){
+        Kryo next = threadInstance.get();
+        if(next!=null){
+            threadInstance.set(null);
+            idle.decrementAndGet();
+            return next;
+        }
         //try getting an instance that already exists
-        Kryo next = instances.poll();
+        next = instances.poll();
         if(next==null){
             next = newInstance();
+        }else{
+            idle.decrementAndGet();
         }
         return next;
     }
@@ -62,11 +97,26 @@ public abstract class AbstractKryoPool {
          * which will allow the GC to collect it. Thus, we can suppress
          * the findbugs warning
          */
-        if(instances.size()< this.poolSize){
+        if(!reserve())
+            return;
+        if(threadInstance.get()==null){
+            threadInstance.set(kryo);
+        }else{
             instances.offer(kryo);
         }
+    }
 
+    /*
+     * Claims room for one more idle instance, failing if the pool already holds poolSize of them.
+     */
+    private boolean reserve(){
+        if(idle.incrementAndGet()>poolSize){
+            idle.decrementAndGet();
+            return false;
+        }
+        return true;
     }
+
     public interface KryoRegistry{
         void register(Kryo instance);
     }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.utils.kryo;
+
+import com.esotericsoftware.kryo.Kryo;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KryoPoolTest{
+
+    @Test
+    public void returnedInstanceIsReusedOnSameThread() throws Exception{
+        KryoPool pool=new KryoPool(4);
+        Kryo first=pool.get();
+        pool.returnInstance(first);
+        Assert.assertSame("Same thread should get its instance back",first,pool.get());
+    }
+
+    @Test
+    public void nestedGetsReceiveDistinctInstances() throws Exception{
+        KryoPool pool=new KryoPool(4);
+        Kryo outer=pool.get();
+        Kryo inner=pool.get();
+        Assert.assertNotSame(outer,inner);
+        pool.returnInstance(inner);
+        pool.returnInstance(outer);
+
+        Kryo next=pool.get();
+        Assert.assertTrue(next==outer || next==inner);
+        Assert.assertNotSame(next,pool.get());
+    }
+
+    @Test
+    public void instancesAreSharedAcrossThreads() throws Exception{
+        final KryoPool pool=new KryoPool(4);
+        final Kryo[] fromOtherThread=new Kryo[1];
+        Thread t=new Thread(new Runnable(){
+            @Override
+            public void run(){
+                Kryo k=pool.get();
+                pool.returnInstance(pool.get());
+                pool.returnInstance(k);
+                fromOtherThread[0]=k;
+            }
+        });
+        t.start();
+        t.join();
+
+        // the inner instance stayed with the other thread, the outer one went to the shared queue
+        Assert.assertSame(fromOtherThread[0],pool.get());
+    }
+
+    @Test
+    public void threadSlotsCountAgainstThePoolSize() throws Exception{
+        final KryoPool pool=new KryoPool(1);
+        Thread t=new Thread(new Runnable(){
+            @Override
+            public void run(){
+                pool.returnInstance(pool.get());
+            }
+        });
+        t.start();
+        t.join();
+
+        // the other thread's slot holds the only instance the pool may keep, so this one is dropped
+        Kryo k=pool.get();
+        pool.returnInstance(k);
+        Assert.assertNotSame(k,pool.get());
+    }
+
+    @Test
+    public void prewarmRegistersInstancesUpFront() throws Exception{
+        final AtomicInteger registered=new AtomicInteger();
+        KryoPool pool=new KryoPool(2);
+        pool.setKryoRegistry(new AbstractKryoPool.KryoRegistry(){
+            @Override
+            public void register(Kryo instance){
+                registered.incrementAndGet();
+            }
+        });
+        pool.prewarm(8);
+        Assert.assertEquals("Should not create more than the pool size",2,registered.get());
+
+        pool.get();
+        pool.get();
+        Assert.assertEquals("Prewarmed instances should be used first",2,registered.get());
+    }
+}
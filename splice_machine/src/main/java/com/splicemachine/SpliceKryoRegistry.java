@@ -140,6 +140,10 @@ public class SpliceKryoRegistry implements KryoPool.KryoRegistry{
                         kp = spliceKryoPool = new KryoPool(kpSize);
                     }
                     kp.setKryoRegistry(new SpliceKryoRegistry());
+                    if(driver!=null){
+                        //register an instance per core up front, rather than on the first operations
+                        kp.prewarm(Runtime.getRuntime().availableProcessors());
+                    }
                 }
             }
         }
@@ -41,6 +41,20 @@ public abstract class DistributedJob implements Serializable{
 
     public abstract String getName();
 
+    /**
+     * @return the fair-share queue the OLAP server schedules this job in
+     */
+    public String getSchedulingQueue() {
+        return "default";
+    }
+
+    /**
+     * @return the user this job is accounted to within its scheduling queue, or null for system jobs
+     */
+    public String getSchedulingUser() {
+        return null;
+    }
+
     public final String getUniqueName() {
         return getName() + "-" + uuid.toString();
     }
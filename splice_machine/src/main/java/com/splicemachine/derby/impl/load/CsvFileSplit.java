@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.load;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * A range of bytes of an uncompressed CSV file, from start (inclusive) to end (exclusive).
+ *
+ * @see CsvFileSplitter
+ */
+public class CsvFileSplit implements Externalizable {
+    private long start;
+    private long end;
+
+    public CsvFileSplit() {
+    }
+
+    public CsvFileSplit(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long length() {
+        return end - start;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeLong(start);
+        out.writeLong(end);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        start = in.readLong();
+        end = in.readLong();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CsvFileSplit)) return false;
+        CsvFileSplit that = (CsvFileSplit) o;
+        return start == that.start && end == that.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(start) * 31 + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + "," + end + ")";
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.load;
+
+import com.splicemachine.access.api.FileInfo;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.derby.stream.function.CsvByteTokenizer;
+import com.splicemachine.derby.stream.function.CsvChunkScanFunction;
+import com.splicemachine.derby.stream.iapi.DataSetProcessor;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import org.apache.log4j.Logger;
+import org.supercsv.prefs.CsvPreference;
+
+import java.io.EOFException;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits an uncompressed CSV file at record boundaries, so that several tasks can import it.
+ *
+ * A line feed ends a record unless it is within a quoted section, and whether it is depends on
+ * the number of quotes before it in the file: every quote opens or closes a quoted section,
+ * except for doubled quotes within one, which come in pairs. So the file is cut into chunks
+ * which are scanned in parallel; the scan of a chunk counts its quotes and notes the first line
+ * feed after an even and after an odd number of them. Adding up the counts of the chunks
+ * before each one then tells which of its two line feeds ends a record, without any chunk
+ * having to be read twice.
+ *
+ * Files with malformed quoting may be cut differently from the way a single reader would
+ * recover from the errors, but well formed files are always cut between records.
+ */
+public class CsvFileSplitter {
+    private static final Logger LOG = Logger.getLogger(CsvFileSplitter.class);
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final byte LF = '\n';
+    private static final String[] COMPRESSED_SUFFIXES = {".gz", ".bz2", ".deflate", ".lz4", ".snappy", ".zip", ".zst"};
+
+    private CsvFileSplitter() {
+    }
+
+    /**
+     * @return true if the file is a single uncompressed file larger than the split size, which
+     *         can be read a split at a time with {@link CsvByteTokenizer}
+     */
+    public static boolean isSplittable(FileInfo fileInfo, String charset, CsvPreference preference, long splitSize) {
+        if (splitSize <= 0 || fileInfo == null || fileInfo.isDirectory() || fileInfo.size() <= splitSize)
+            return false;
+        String name = fileInfo.fileName().toLowerCase(Locale.ROOT);
+        for (String suffix : COMPRESSED_SUFFIXES) {
+            if (name.endsWith(suffix))
+                return false;
+        }
+        return CsvByteTokenizer.supports(charset, preference);
+    }
+
+    /**
+     * Scan the file in parallel and cut it into splits of about the given size.
+     */
+    public static List<CsvFileSplit> split(DataSetProcessor dsp, String fileName, long size, long splitSize,
+                                           char quoteChar, OperationContext operationContext) throws StandardException {
+        List<CsvFileSplit> chunks = chunks(size, splitSize);
+        List<ChunkScan> scans = dsp.createDataSet(chunks.iterator())
+                .map(new CsvChunkScanFunction(fileName, quoteChar, operationContext)).collect();
+        List<CsvFileSplit> splits = splits(scans, size);
+        if (LOG.isDebugEnabled())
+            LOG.debug(String.format("split %s of %d bytes into %s", fileName, size, splits));
+        return splits;
+    }
+
+    static List<CsvFileSplit> chunks(long size, long chunkSize) {
+        List<CsvFileSplit> chunks = new ArrayList<>((int) (size / chunkSize) + 1);
+        for (long start = 0; start < size; start += chunkSize) {
+            chunks.add(new CsvFileSplit(start, Math.min(size, start + chunkSize)));
+        }
+        return chunks;
+    }
+
+    /**
+     * @return the splits of a file, given the scans of all its chunks
+     */
+    static List<CsvFileSplit> splits(List<ChunkScan> scans, long size) {
+        List<ChunkScan> sorted = new ArrayList<>(scans);
+        sorted.sort(Comparator.comparingLong(ChunkScan::getStart));
+        List<CsvFileSplit> splits = new ArrayList<>(sorted.size());
+        long start = 0;
+        int parity = 0;
+        for (ChunkScan scan : sorted) {
+            if (scan.getStart() > 0) {
+                // a chunk without a line feed at the right parity is read with the one before it
+                long boundary = scan.getBoundary(parity);
+                if (boundary > start && boundary < size) {
+                    splits.add(new CsvFileSplit(start, boundary));
+                    start = boundary;
+                }
+            }
+            parity ^= scan.getQuoteParity();
+        }
+        splits.add(new CsvFileSplit(start, size));
+        return splits;
+    }
+
+    /**
+     * Scan a chunk of the file.
+     *
+     * @param in the file, positioned at the start of the chunk
+     */
+    public static ChunkScan scan(InputStream in, CsvFileSplit chunk, char quoteChar) throws IOException {
+        byte quote = (byte) quoteChar;
+        long quoteWord = CsvByteTokenizer.broadcast(quote);
+        long lfWord = CsvByteTokenizer.broadcast(LF);
+        // the first line feed after an even and after an odd number of quotes
+        long[] boundaries = {-1L, -1L};
+        int parity = 0;
+        byte[] block = new byte[(int) Math.min(BLOCK_SIZE, Math.max(chunk.length(), 1L))];
+        long offset = chunk.getStart();
+        long remaining = chunk.length();
+        while (remaining > 0) {
+            int n = in.read(block, 0, (int) Math.min(block.length, remaining));
+            if (n < 0)
+                throw new EOFException("Unexpected end of file at offset " + offset);
+            int i = 0;
+            for (; i + 8 <= n; i += 8) {
+                long word = CsvByteTokenizer.getWord(block, i);
+                long quotes = CsvByteTokenizer.matchingBytes(word, quoteWord);
+                long lineFeeds = CsvByteTokenizer.matchingBytes(word, lfWord);
+                if (lineFeeds != 0 && (boundaries[0] < 0 || boundaries[1] < 0)) {
+                    if (quotes != 0) {
+                        // both in one word, look at them in order
+                        for (int j = i; j < i + 8; j++)
+                            parity = scanByte(block[j], quote, offset + j, parity, boundaries);
+                        continue;
+                    }
+                    if (boundaries[parity] < 0)
+                        boundaries[parity] = offset + i + CsvByteTokenizer.firstMatch(lineFeeds) + 1;
+                }
+                parity ^= Long.bitCount(quotes) & 1;
+            }
+            for (; i < n; i++)
+                parity = scanByte(block[i], quote, offset + i, parity, boundaries);
+            offset += n;
+            remaining -= n;
+        }
+        return new ChunkScan(chunk.getStart(), parity, boundaries[0], boundaries[1]);
+    }
+
+    private static int scanByte(byte b, byte quote, long offset, int parity, long[] boundaries) {
+        if (b == quote)
+            return parity ^ 1;
+        if (b == LF && boundaries[parity] < 0)
+            boundaries[parity] = offset + 1;
+        return parity;
+    }
+
+    /**
+     * @return the file, positioned at the given offset
+     */
+    public static InputStream open(String fileName, long offset) throws StandardException, IOException {
+        InputStream in = ImportUtils.getFileSystem(fileName).newInputStream(fileName, StandardOpenOption.READ);
+        try {
+            long toSkip = offset;
+            while (toSkip > 0) {
+                long skipped = in.skip(toSkip);
+                if (skipped <= 0) {
+                    if (in.read() < 0)
+                        throw new EOFException("Unexpected end of file " + fileName + " at offset " + (offset - toSkip));
+                    skipped = 1;
+                }
+                toSkip -= skipped;
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return in;
+    }
+
+    /**
+     * What the splitter needs to know about a chunk of the file.
+     */
+    public static class ChunkScan implements Externalizable {
+        private long start;
+        private int quoteParity;
+        private long evenBoundary;
+        private long oddBoundary;
+
+        public ChunkScan() {
+        }
+
+        public ChunkScan(long start, int quoteParity, long evenBoundary, long oddBoundary) {
+            this.start = start;
+            this.quoteParity = quoteParity;
+            this.evenBoundary = evenBoundary;
+            this.oddBoundary = oddBoundary;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * @return 1 if the chunk has an odd number of quotes, 0 otherwise
+         */
+        public int getQuoteParity() {
+            return quoteParity;
+        }
+
+        /**
+         * @return the offset just past the first line feed of the chunk which follows a number of
+         *         quotes of the given parity, counting from the start of the chunk, or -1 if there
+         *         is none
+         */
+        public long getBoundary(int parity) {
+            return parity == 0 ? evenBoundary : oddBoundary;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeLong(start);
+            out.writeInt(quoteParity);
+            out.writeLong(evenBoundary);
+            out.writeLong(oddBoundary);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            start = in.readLong();
+            quoteParity = in.readInt();
+            evenBoundary = in.readLong();
+            oddBoundary = in.readLong();
+        }
+    }
+}
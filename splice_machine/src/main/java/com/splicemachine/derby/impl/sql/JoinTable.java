@@ -28,6 +28,13 @@ public interface JoinTable extends AutoCloseable{
 
     interface Factory{
         JoinTable newTable();
+
+        /**
+         * @return the approximate number of bytes (on or off heap) held by the tables this factory produces
+         */
+        default long sizeInBytes(){
+            return 0L;
+        }
     }
 
     Iterator<ExecRow> fetchInner(ExecRow outer) throws IOException, StandardException;
@@ -155,6 +155,7 @@ public class SpliceLevel2OptimizerImpl extends Level2OptimizerImpl{
 
     private final long minTimeout;
     private final long maxTimeout;
+    private final long planningTimeBudget;
     public SpliceLevel2OptimizerImpl(OptimizableList optimizableList,
                                      OptimizablePredicateList predicateList,
                                      DataDictionary dDictionary,
@@ -182,6 +183,7 @@ public class SpliceLevel2OptimizerImpl extends Level2OptimizerImpl{
         SConfiguration configuration=EngineDriver.driver().getConfiguration();
         this.minTimeout=configuration.getOptimizerPlanMinimumTimeout();
         this.maxTimeout=configuration.getOptimizerPlanMaximumTimeout();
+        this.planningTimeBudget=configuration.getOptimizerPlanningTimeBudget();
         tracer().trace(OptimizerFlag.STARTED,0,0,0.0,null);
     }
 
@@ -238,4 +240,11 @@ public class SpliceLevel2OptimizerImpl extends Level2OptimizerImpl{
     protected long getMaxTimeout() {
         return maxTimeout;
     }
+
+    /**
+     * Overridden to check splice configuration.
+     */
+    protected long getPlanningTimeBudget() {
+        return planningTimeBudget;
+    }
 }
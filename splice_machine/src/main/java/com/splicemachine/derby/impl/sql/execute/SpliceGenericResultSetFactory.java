@@ -1934,23 +1934,27 @@ public class SpliceGenericResultSetFactory implements ResultSetFactory {
     @Override
     public NoPutResultSet getExplainResultSet(ResultSet source, Activation activation,
                                               int resultSetNumber, String sparkExplainKind,
-                                              int noStatsTablesRef, int noStatsColumnsRef) throws StandardException {
+                                              int noStatsTablesRef, int noStatsColumnsRef,
+                                              long planningTime, boolean planningBudgetExceeded) throws StandardException {
         ConvertedResultSet opSet = (ConvertedResultSet)source;
         return new ExplainOperation(
                 opSet.getOperation(), activation,
                 resultSetNumber, sparkExplainKind,
-                noStatsTablesRef, noStatsColumnsRef);
+                noStatsTablesRef, noStatsColumnsRef,
+                planningTime, planningBudgetExceeded);
     }
 
     @Override
     public NoPutResultSet getExplainResultSet(NoPutResultSet source, Activation activation,
                                               int resultSetNumber, String sparkExplainKind,
-                                              int noStatsTablesRef, int noStatsColumnsRef) throws StandardException {
+                                              int noStatsTablesRef, int noStatsColumnsRef,
+                                              long planningTime, boolean planningBudgetExceeded) throws StandardException {
         ConvertedResultSet opSet = (ConvertedResultSet)source;
         return new ExplainOperation(
                 opSet.getOperation(), activation,
                 resultSetNumber, sparkExplainKind,
-                noStatsTablesRef, noStatsColumnsRef);
+                noStatsTablesRef, noStatsColumnsRef,
+                planningTime, planningBudgetExceeded);
     }
 
 
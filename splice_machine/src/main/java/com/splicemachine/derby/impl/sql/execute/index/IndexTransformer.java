@@ -42,11 +42,8 @@ import com.splicemachine.encoding.MultiFieldDecoder;
 import com.splicemachine.encoding.MultiFieldEncoder;
 import com.splicemachine.kvpair.KVPair;
 import com.splicemachine.pipeline.context.WriteContext;
-import com.splicemachine.si.api.filter.TxnFilter;
-import com.splicemachine.si.api.server.TransactionalRegion;
 import com.splicemachine.si.api.txn.TxnView;
 import com.splicemachine.si.constants.SIConstants;
-import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.storage.*;
 import com.splicemachine.storage.index.BitIndex;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -103,8 +100,6 @@ public class IndexTransformer {
     private DataValueDescriptor defaultValue;
     private ValueRow defaultValuesExecRow;
     private ExecRowAccumulator execRowAccumulator;
-    private transient DataGet baseGet = null;
-    private transient DataResult baseResult = null;
     private boolean ignore;
     protected EntryDataHash entryEncoder;
     private final int numIndexExprs;
@@ -165,23 +160,16 @@ public class IndexTransformer {
      *                 that will be updated. Once we have that, we can create a new KVPair of type
      *                 {@link KVPair.Type#DELETE DELETE} and call {@link #translate(KVPair)}
      *                 to translate it to the index's rowKey.
-     * @param ctx the write context of the modification. Used to get transaction and region info.
-     * @param indexedColumns the columns which are part of this index. Used to filter the Get.
+     * @param ctx the write context of the modification. Its base row cache supplies the current row, read
+     *            once for every index of the table.
      * @return An index row KVPair that can be used to delete the associated index row, or null if the mutated
      * row is not found (may have already been deleted).
      * @throws IOException for encoding/decoding problems.
      */
-    public KVPair createIndexDelete(KVPair mutation, WriteContext ctx, BitSet indexedColumns)
+    public KVPair createIndexDelete(KVPair mutation, WriteContext ctx)
             throws IOException, StandardException
     {
-        // do a Get() on all the indexed columns of the base table
-        DataResult result =fetchBaseRow(mutation,ctx,indexedColumns);
-        if(result==null || result.isEmpty()){
-            // we can't find the old row, may have been deleted already
-            return null;
-        }
-
-        DataCell resultValue = result.userData();
+        DataCell resultValue = ctx.baseRowCache().get(mutation);
         if(resultValue==null){
             // we can't find the old row, may have been deleted already
             return null;
@@ -661,21 +649,6 @@ public class IndexTransformer {
     }
 
 
-    private DataResult fetchBaseRow(KVPair mutation,WriteContext ctx,BitSet indexedColumns) throws IOException{
-        baseGet =SIDriver.driver().getOperationFactory().newDataGet(ctx.getTxn(),mutation.getRowKey(),baseGet);
-
-        EntryPredicateFilter epf;
-        if(indexedColumns!=null && !indexedColumns.isEmpty()){
-            epf = new EntryPredicateFilter(indexedColumns);
-        }else epf = EntryPredicateFilter.emptyPredicate();
-
-        TransactionalRegion region=ctx.txnRegion();
-        TxnFilter txnFilter=region.packedFilter(ctx.getTxn(),epf,false);
-        baseGet.setFilter(txnFilter);
-        baseResult =ctx.getRegion().get(baseGet,baseResult);
-        return baseResult;
-    }
-
     public int getNumIndexExprs() { return numIndexExprs; }
 
     public BaseExecutableIndexExpression getExecutableIndexExpression(int indexColumnPosition)
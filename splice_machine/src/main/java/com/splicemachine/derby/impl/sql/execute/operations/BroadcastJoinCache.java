@@ -14,9 +14,11 @@
 
 package com.splicemachine.derby.impl.sql.execute.operations;
 
+import com.splicemachine.EngineDriver;
 import com.splicemachine.db.iapi.sql.conn.ResubmitDistributedException;
 import splice.com.google.common.cache.Cache;
 import splice.com.google.common.cache.CacheBuilder;
+import splice.com.google.common.cache.Weigher;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.derby.impl.sql.JoinTable;
@@ -36,6 +38,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  *         Date: 10/27/15
  */
 public class BroadcastJoinCache{
+    private static final long DEFAULT_CACHE_SIZE = 512L*1024*1024;
     private final Cache<Long,ReferenceCountingFactory> cache;
     private final JoinTableLoader tableLoader;
 
@@ -47,18 +50,40 @@ public class BroadcastJoinCache{
     }
 
     public BroadcastJoinCache(){
-       this(ValueRowMapTableLoader.INSTANCE);
+       this(defaultLoader(),defaultCacheSize());
     }
 
     public BroadcastJoinCache(JoinTableLoader tableLoader){
+        this(tableLoader,defaultCacheSize());
+    }
+
+    public BroadcastJoinCache(JoinTableLoader tableLoader,long maxBytes){
         this.tableLoader = tableLoader;
+        /*
+         * Tables are weighed by the memory they hold rather than counted, since a single
+         * large inner table can cost more than hundreds of small ones.
+         */
         this.cache =CacheBuilder.newBuilder()
-                .maximumSize(1000)
+                .maximumWeight(maxBytes)
+                .weigher((Weigher<Long, ReferenceCountingFactory>)(id,factory) ->
+                        (int)Math.min(Integer.MAX_VALUE,factory.sizeInBytes()))
                 .expireAfterAccess(2,TimeUnit.SECONDS)
                 .softValues()
                 .build();
     }
 
+    static JoinTableLoader defaultLoader(){
+        EngineDriver driver = EngineDriver.driver();
+        if(driver==null || driver.getConfiguration().getBroadcastJoinOffHeap())
+            return OffHeapJoinTableLoader.INSTANCE;
+        return ValueRowMapTableLoader.INSTANCE;
+    }
+
+    private static long defaultCacheSize(){
+        EngineDriver driver = EngineDriver.driver();
+        return driver==null?DEFAULT_CACHE_SIZE:driver.getConfiguration().getBroadcastJoinCacheSize();
+    }
+
     public JoinTable.Factory get(Long operationId,
                          Callable<Stream<ExecRow>> loader,
                          int[] rightHashKeys,
@@ -152,6 +177,11 @@ public class BroadcastJoinCache{
             return new ReferenceCountedJoinTable(delegate.newTable(),this);
         }
 
+        @Override
+        public long sizeInBytes(){
+            return delegate.sizeInBytes();
+        }
+
         public void markClosed(){
             int refC=refCount.decrementAndGet();
             if(refC<=0)
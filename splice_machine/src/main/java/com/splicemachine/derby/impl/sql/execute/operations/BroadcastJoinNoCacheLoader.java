@@ -24,7 +24,7 @@ import java.util.concurrent.Callable;
  * Created by yxia on 7/22/20.
  */
 public class BroadcastJoinNoCacheLoader implements Callable<JoinTable.Factory> {
-    private final BroadcastJoinCache.JoinTableLoader tableLoader = ValueRowMapTableLoader.INSTANCE;
+    private final BroadcastJoinCache.JoinTableLoader tableLoader = BroadcastJoinCache.defaultLoader();
     private final int[] innerHashKeys;
     private final int[] outerHashKeys;
     private final ExecRow outerTemplateRow;
@@ -62,6 +62,9 @@ public class ExplainOperation extends SpliceBaseOperation {
     private int noStatsColumnsRef;
     private SQLVarchar[] noStatsTables;
     private SQLVarchar[] noStatsColumns;
+    // -1 unless the planning time was requested with the showPlanningTime session property
+    private long planningTime;
+    private boolean planningBudgetExceeded;
 
     /**
      *
@@ -92,7 +95,8 @@ public class ExplainOperation extends SpliceBaseOperation {
      */
     public ExplainOperation(SpliceOperation source, Activation activation,
                             int resultSetNumber, String sparkExplainKind,
-                            int noStatsTablesRef, int noStatsColumnsRef) throws StandardException {
+                            int noStatsTablesRef, int noStatsColumnsRef,
+                            long planningTime, boolean planningBudgetExceeded) throws StandardException {
         super(activation, resultSetNumber, 0, 0);
         this.activation = activation;
         this.source = source;
@@ -110,6 +114,8 @@ public class ExplainOperation extends SpliceBaseOperation {
 
         this.noStatsTablesRef = noStatsTablesRef;
         this.noStatsColumnsRef = noStatsColumnsRef;
+        this.planningTime = planningTime;
+        this.planningBudgetExceeded = planningBudgetExceeded;
 
         init();
     }
@@ -139,6 +145,7 @@ public class ExplainOperation extends SpliceBaseOperation {
     public void openCore() throws StandardException {
         getPlanInformation();
         addNoStatsTablesAndColumns();
+        addPlanningTime();
         if (sparkExplainKind == ExplainNode.SparkExplainKind.NONE) {
             // We always run explain on control
             openCore(EngineDriver.driver().processorFactory().localProcessor(activation, this));
@@ -219,6 +226,13 @@ public class ExplainOperation extends SpliceBaseOperation {
         }
     }
 
+    private void addPlanningTime() {
+        if (planningTime < 0)
+            return; // not requested
+        explainString.add("Planning time: " + planningTime + " ms" +
+                (planningBudgetExceeded ? " (planning time budget exceeded)" : ""));
+    }
+
     public DataSet<ExecRow> getDataSet(DataSetProcessor dsp) throws StandardException {
         if (!isOpen)
             throw new IllegalStateException("Operation is not open");
@@ -274,6 +288,8 @@ public class ExplainOperation extends SpliceBaseOperation {
 
         out.writeInt(noStatsTablesRef);
         out.writeInt(noStatsColumnsRef);
+        out.writeLong(planningTime);
+        out.writeBoolean(planningBudgetExceeded);
     }
 
     @Override
@@ -300,5 +316,7 @@ public class ExplainOperation extends SpliceBaseOperation {
 
         noStatsTablesRef = in.readInt();
         noStatsColumnsRef = in.readInt();
+        planningTime = in.readLong();
+        planningBudgetExceeded = in.readBoolean();
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+/**
+ * Sizing and accounting of the base row lookups an {@link IndexRowReader} keeps in flight.
+ *
+ * Batches start small and double up to the configured batch size, so that the first rows of
+ * a short (OLTP) lookup don't wait on a full batch of index rows. The number of outstanding
+ * batches follows the observed lookup latency against the time the caller takes to consume a
+ * batch: enough batches are kept in flight to cover one lookup, and no more.
+ *
+ * Lookups report their latency from background threads, everything else is called from the
+ * reading thread.
+ */
+class IndexLookupWindow{
+    static final int INITIAL_BATCH_SIZE=128;
+    private static final int INITIAL_OUTSTANDING=2;
+    // weight of the latest sample in the moving averages
+    private static final double ALPHA=0.25d;
+
+    private final int maxBatchSize;
+    private final int maxOutstanding;
+    private int nextBatchSize;
+
+    private double lookupNanosPerRow=-1d;
+    private double consumeNanosPerRow=-1d;
+
+    private long hits;
+    private long misses;
+    private long stallNanos;
+
+    IndexLookupWindow(int maxBatchSize,int maxOutstanding){
+        this.maxBatchSize=Math.max(maxBatchSize,1);
+        this.maxOutstanding=Math.max(maxOutstanding,1);
+        this.nextBatchSize=Math.min(INITIAL_BATCH_SIZE,this.maxBatchSize);
+    }
+
+    /**
+     * @return the number of index rows to put in the next batch
+     */
+    int nextBatchSize(){
+        int size=nextBatchSize;
+        nextBatchSize=(int)Math.min((long)size<<1,maxBatchSize);
+        return size;
+    }
+
+    /**
+     * @return the number of batches which should be in flight, including the one about to be consumed
+     */
+    synchronized int targetOutstanding(){
+        if(lookupNanosPerRow<0 || consumeNanosPerRow<0)
+            return Math.min(INITIAL_OUTSTANDING,maxOutstanding);
+        int target=(int)Math.ceil(lookupNanosPerRow/Math.max(consumeNanosPerRow,1d))+1;
+        return Math.max(1,Math.min(target,maxOutstanding));
+    }
+
+    synchronized void lookupCompleted(int rows,long nanos){
+        lookupNanosPerRow=average(lookupNanosPerRow,(double)nanos/Math.max(rows,1));
+    }
+
+    synchronized void batchConsumed(int rows,long nanos){
+        consumeNanosPerRow=average(consumeNanosPerRow,(double)nanos/Math.max(rows,1));
+    }
+
+    /**
+     * Records a wait for the head batch.
+     *
+     * @param ready whether the batch had already been fetched when it was needed
+     * @param nanos the time spent blocked on it
+     */
+    void batchAwaited(boolean ready,long nanos){
+        if(ready) hits++;
+        else misses++;
+        stallNanos+=nanos;
+    }
+
+    long getPrefetchHits(){ return hits; }
+
+    long getPrefetchMisses(){ return misses; }
+
+    double getPrefetchHitRate(){
+        long total=hits+misses;
+        return total==0?0d:(double)hits/total;
+    }
+
+    long getStallTimeNanos(){ return stallNanos; }
+
+    private static double average(double current,double sample){
+        return current<0?sample:current+ALPHA*(sample-current);
+    }
+}
@@ -67,9 +67,14 @@ public class IndexRowReader implements Iterator<ExecRow>, Iterable<ExecRow>{
     private final TxnOperationFactory operationFactory;
     private final PartitionFactory tableFactory;
 
+    private final IndexLookupWindow window;
+
     private List<Pair<ExecRow, DataResult>> currentResults;
+    private int currentPosition;
+    private long currentBatchStart;
     private List<Future<List<Pair<ExecRow, DataResult>>>> resultFutures;
     protected Iterator<ExecRow> sourceIterator;
+    private boolean sourceExhausted;
 
     private ExecRow heapRowToReturn;
     private ExecRow indexRowToReturn;
@@ -99,13 +104,28 @@ public class IndexRowReader implements Iterator<ExecRow>, Iterable<ExecRow>{
         this.indexCols=indexCols;
         this.resultFutures=Lists.newArrayListWithCapacity(this.numBlocks);
         this.operationFactory = operationFactory;
+        this.window=new IndexLookupWindow(batchSize,this.numBlocks);
     }
 
     // Return the maximum number of threads that could be simultaneously
     // doing base conglomerate row lookups.
     public int getMaxConcurrency() {return this.numBlocks;}
 
+    /**
+     * @return the fraction of batches whose base rows had already been fetched when they were needed
+     */
+    public double getPrefetchHitRate() {return window.getPrefetchHitRate();}
+
+    /**
+     * @return the total time, in nanoseconds, spent waiting on base row lookups
+     */
+    public long getStallTimeNanos() {return window.getStallTimeNanos();}
+
     public void close() throws IOException{
+        if(LOG.isDebugEnabled())
+            LOG.debug(String.format("Base row lookups on %d: %d prefetched, %d waited on, stalled %d ms",
+                    mainTableConglomId,window.getPrefetchHits(),window.getPrefetchMisses(),
+                    window.getStallTimeNanos()/1000000L));
         rowDecoder.close();
         keyDecoder.close();
     }
@@ -128,14 +148,15 @@ public class IndexRowReader implements Iterator<ExecRow>, Iterable<ExecRow>{
     @Override
     public boolean hasNext(){
         try{
-            if(currentResults==null || currentResults.size()<=0)
+            if(currentResults==null || currentPosition>=currentResults.size())
                 getMoreData();
 
-            if(currentResults==null || currentResults.size()<=0){
+            if(currentResults==null || currentPosition>=currentResults.size()){
                 return false; // No More Data
             }
 
-            Pair<ExecRow, DataResult> next=currentResults.remove(0);
+            Pair<ExecRow, DataResult> next=currentResults.get(currentPosition);
+            currentResults.set(currentPosition++,null);
             //merge the results
             ExecRow nextScannedRow=next.getFirst();
             DataResult nextFetchedData=next.getSecond();
@@ -158,11 +179,28 @@ public class IndexRowReader implements Iterator<ExecRow>, Iterable<ExecRow>{
     /**********************************************************************************************************************************/
         /*private helper methods*/
     private void getMoreData() throws StandardException, IOException{
-        //read up to batchSize rows from the source, then submit them to the background thread for processing
-        List<Pair<byte[],ExecRow>> sourceRows=Lists.newArrayListWithCapacity(batchSize);
-        for(int i=0;i<batchSize;i++){
-            if(!sourceIterator.hasNext())
+        if(currentResults!=null && !currentResults.isEmpty()){
+            window.batchConsumed(currentResults.size(),System.nanoTime()-currentBatchStart);
+            currentResults=null;
+        }
+        //keep enough lookups in the background to cover their latency, then wait on the oldest one
+        int outstanding=window.targetOutstanding();
+        while(!sourceExhausted && resultFutures.size()<outstanding){
+            submitBatch(window.nextBatchSize());
+        }
+        if(!resultFutures.isEmpty()){
+            waitForBlockCompletion();
+        }
+    }
+
+    private void submitBatch(int size) throws StandardException{
+        //read up to size rows from the source, then submit them to the background thread for processing
+        List<Pair<byte[],ExecRow>> sourceRows=Lists.newArrayListWithCapacity(size);
+        for(int i=0;i<size;i++){
+            if(!sourceIterator.hasNext()){
+                sourceExhausted=true;
                 break;
+            }
             ExecRow next=sourceIterator.next();
             for(int index=0;index<indexCols.length;index++){
                 if(indexCols[index]!=-1){
@@ -173,24 +211,21 @@ public class IndexRowReader implements Iterator<ExecRow>, Iterable<ExecRow>{
             sourceRows.add(new Pair(rl.getBytes(), outputTemplate.getClone()));
         }
         if(!sourceRows.isEmpty()){
-            //submit to the background thread
             Lookup task=new Lookup(sourceRows);
             resultFutures.add(SIDriver.driver().getExecutorService().submit(task));
         }
-
-        //if there is only one submitted future, call this again to set off an additional background process
-        if(resultFutures.size()<numBlocks && sourceRows.size()==batchSize)
-            getMoreData();
-        else if(!resultFutures.isEmpty()){
-            waitForBlockCompletion();
-        }
     }
 
     private void waitForBlockCompletion() throws StandardException, IOException{
         //wait for the first future to return correctly or error-out
         try{
             Future<List<Pair<ExecRow, DataResult>>> future=resultFutures.remove(0);
+            boolean ready=future.isDone();
+            long start=System.nanoTime();
             currentResults=future.get();
+            currentBatchStart=System.nanoTime();
+            currentPosition=0;
+            window.batchAwaited(ready,currentBatchStart-start);
         }catch(InterruptedException e){
             throw new InterruptedIOException(e.getMessage());
         }catch(ExecutionException e){
@@ -209,6 +244,7 @@ public class IndexRowReader implements Iterator<ExecRow>, Iterable<ExecRow>{
 
         @Override
         public List<Pair<ExecRow, DataResult>> call() throws Exception{
+            long start=System.nanoTime();
             List<byte[]> rowKeys = new ArrayList<>(sourceRows.size());
             for(Pair<byte[],ExecRow> sourceRow : sourceRows){
                 rowKeys.add(sourceRow.getFirst());
@@ -225,6 +261,7 @@ public class IndexRowReader implements Iterator<ExecRow>, Iterable<ExecRow>{
                         throw new IllegalStateException("Programmer error: incompatible iterator sizes!");
                     locations.add(Pair.newPair(sourceRow.getSecond(),results.next().getClone()));
                 }
+                window.lookupCompleted(sourceRows.size(),System.nanoTime()-start);
                 return locations;
             }
         }
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.splicemachine.SpliceKryoRegistry;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.JoinTable;
+import com.splicemachine.utils.kryo.KryoPool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * JoinTable over inner rows which are held off-heap as Kryo-encoded byte slices.
+ *
+ * The table itself is an open-addressing hash table (also off-heap) keyed by the hash of the inner
+ * join key. Each slot points at the first and last row of a chain of rows which share that key hash;
+ * rows are decoded only when an outer row probes their chain, and are checked against the outer
+ * key before they are returned, so hash collisions between distinct keys are harmless.
+ *
+ * @see OffHeapJoinTableLoader
+ */
+class OffHeapJoinTable implements JoinTable{
+    private final Factory factory;
+    private final ByteBuffer[] chunks;
+    private final ByteBuffer slots;
+    private final int[] outerHashKeys;
+    private final DataValueDescriptor[] keys;
+    private final ValueRow keyRow;
+    private final KryoPool kryoPool;
+    private Kryo kryo;
+    private final Input input = new Input();
+    private byte[] rowBuffer = new byte[256];
+
+    OffHeapJoinTable(Factory factory){
+        this.factory=factory;
+        /*
+         * Reads through a duplicate never touch the shared buffer's position, so tables handed
+         * out to different threads don't interfere with each other
+         */
+        this.chunks = new ByteBuffer[factory.chunks.size()];
+        for(int i=0;i<chunks.length;i++){
+            chunks[i] = factory.chunks.get(i).duplicate();
+        }
+        this.slots = factory.slots.duplicate();
+        this.outerHashKeys = factory.outerHashKeys;
+        this.keys = new DataValueDescriptor[outerHashKeys.length];
+        this.keyRow = new ValueRow(keys);
+        this.kryoPool = SpliceKryoRegistry.getInstance();
+    }
+
+    @Override
+    public Iterator<ExecRow> fetchInner(ExecRow outer) throws IOException, StandardException{
+        for (int i = 0; i < keys.length; i++) {
+            keyRow.setColumn(i+1, outer.getColumn(outerHashKeys[i] + 1));
+        }
+        long head = factory.lookup(slots,keyRow.hashCode());
+        if(head==Factory.NIL)
+            return Collections.emptyIterator();
+        if(kryo==null)
+            kryo = kryoPool.get();
+        return new ChainIterator(head);
+    }
+
+    @Override
+    public void close(){
+        if(kryo!=null){
+            kryoPool.returnInstance(kryo);
+            kryo = null;
+        }
+    }
+
+    private ExecRow decode(long address){
+        ByteBuffer chunk = chunks[Factory.chunk(address)];
+        int offset = Factory.offset(address);
+        int length = chunk.getInt(offset+Factory.NEXT_WIDTH);
+        if(rowBuffer.length<length)
+            rowBuffer = new byte[Math.max(length,2*rowBuffer.length)];
+        chunk.position(offset+Factory.HEADER_WIDTH);
+        chunk.get(rowBuffer,0,length);
+        input.setBuffer(rowBuffer,0,length);
+        return (ExecRow)kryo.readClassAndObject(input);
+    }
+
+    private boolean keyMatches(ExecRow inner) throws StandardException{
+        int[] innerHashKeys = factory.innerHashKeys;
+        for(int i=0;i<innerHashKeys.length;i++){
+            DataValueDescriptor innerKey = inner.getColumn(innerHashKeys[i]+1);
+            if(keys[i]==null ? innerKey!=null : !keys[i].equals(innerKey))
+                return false;
+        }
+        return true;
+    }
+
+    private class ChainIterator implements Iterator<ExecRow>{
+        private long address;
+        private ExecRow next;
+
+        ChainIterator(long head){
+            this.address = head;
+        }
+
+        @Override
+        public boolean hasNext(){
+            try{
+                while(next==null && address!=Factory.NIL){
+                    ExecRow candidate = decode(address);
+                    address = chunks[Factory.chunk(address)].getLong(Factory.offset(address));
+                    if(keyMatches(candidate))
+                        next = candidate;
+                }
+            }catch(StandardException se){
+                throw new RuntimeException(se);
+            }
+            return next!=null;
+        }
+
+        @Override
+        public ExecRow next(){
+            if(!hasNext()) throw new NoSuchElementException();
+            ExecRow n = next;
+            next = null;
+            return n;
+        }
+    }
+
+    /**
+     * Immutable, shareable off-heap storage for one broadcast inner table.
+     *
+     * Rows are appended into fixed-size direct chunks as {@code [long next][int length][bytes]}
+     * records, and addressed by {@code chunk << 32 | offset}. A slot in the hash table is
+     * {@code [int hash][long head+1][long tail+1]}, with a zero head marking an empty slot.
+     */
+    static class Factory implements JoinTable.Factory{
+        static final long NIL = -1L;
+        static final int NEXT_WIDTH = 8;
+        static final int HEADER_WIDTH = NEXT_WIDTH+4;
+        private static final int CHUNK_SIZE = 4*1024*1024;
+        private static final int SLOT_WIDTH = 20;
+        private static final int INITIAL_SLOTS = 1024;
+
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private final int[] innerHashKeys;
+        private final int[] outerHashKeys;
+        private ByteBuffer slots;
+        private int mask;
+        private int occupied;
+        private long rows;
+
+        Factory(int[] innerHashKeys,int[] outerHashKeys){
+            this.innerHashKeys=innerHashKeys;
+            this.outerHashKeys=outerHashKeys;
+            this.slots = ByteBuffer.allocateDirect(INITIAL_SLOTS*SLOT_WIDTH);
+            this.mask = INITIAL_SLOTS-1;
+        }
+
+        @Override
+        public JoinTable newTable(){
+            return new OffHeapJoinTable(this);
+        }
+
+        @Override
+        public long sizeInBytes(){
+            long size = slots.capacity();
+            for(ByteBuffer chunk : chunks){
+                size+=chunk.capacity();
+            }
+            return size;
+        }
+
+        long rowCount(){
+            return rows;
+        }
+
+        /**
+         * Append an encoded row to the chain for {@code hash}. Only called while loading, before the
+         * factory is published.
+         */
+        void add(int hash,byte[] encoded,int length){
+            long address = write(encoded,length);
+            int slot = findSlot(slots,mask,hash);
+            int pos = slot*SLOT_WIDTH;
+            long head = slots.getLong(pos+4)-1;
+            if(head==NIL){
+                slots.putInt(pos,hash);
+                slots.putLong(pos+4,address+1);
+                slots.putLong(pos+12,address+1);
+                occupied++;
+                if(occupied*2>mask+1)
+                    resize();
+            }else{
+                long tail = slots.getLong(pos+12)-1;
+                chunks.get(chunk(tail)).putLong(offset(tail),address);
+                slots.putLong(pos+12,address+1);
+            }
+            rows++;
+        }
+
+        long lookup(ByteBuffer slots,int hash){
+            int slot = findSlot(slots,mask,hash);
+            return slots.getLong(slot*SLOT_WIDTH+4)-1;
+        }
+
+        private long write(byte[] encoded,int length){
+            int needed = HEADER_WIDTH+length;
+            ByteBuffer chunk = chunks.isEmpty()?null:chunks.get(chunks.size()-1);
+            if(chunk==null || chunk.remaining()<needed){
+                chunk = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE,needed));
+                chunks.add(chunk);
+            }
+            int offset = chunk.position();
+            chunk.putLong(NIL);
+            chunk.putInt(length);
+            chunk.put(encoded,0,length);
+            return ((long)(chunks.size()-1)<<32) | offset;
+        }
+
+        private void resize(){
+            int newCapacity = (mask+1)*2;
+            ByteBuffer newSlots = ByteBuffer.allocateDirect(newCapacity*SLOT_WIDTH);
+            int newMask = newCapacity-1;
+            for(int i=0;i<=mask;i++){
+                int pos = i*SLOT_WIDTH;
+                if(slots.getLong(pos+4)==0L) continue;
+                int hash = slots.getInt(pos);
+                int newPos = findSlot(newSlots,newMask,hash)*SLOT_WIDTH;
+                newSlots.putInt(newPos,hash);
+                newSlots.putLong(newPos+4,slots.getLong(pos+4));
+                newSlots.putLong(newPos+12,slots.getLong(pos+12));
+            }
+            slots = newSlots;
+            mask = newMask;
+        }
+
+        private static int findSlot(ByteBuffer slots,int mask,int hash){
+            int slot = mix(hash) & mask;
+            while(true){
+                int pos = slot*SLOT_WIDTH;
+                if(slots.getLong(pos+4)==0L || slots.getInt(pos)==hash)
+                    return slot;
+                slot = (slot+1) & mask;
+            }
+        }
+
+        private static int mix(int h){
+            h ^= h>>>16;
+            h *= 0x85EBCA6B;
+            h ^= h>>>13;
+            return h;
+        }
+
+        static int chunk(long address){
+            return (int)(address>>>32);
+        }
+
+        static int offset(long address){
+            return (int)address;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.splicemachine.SpliceKryoRegistry;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.JoinTable;
+import com.splicemachine.stream.Stream;
+import com.splicemachine.utils.kryo.KryoPool;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Loads the inner side of a broadcast join into an {@link OffHeapJoinTable}.
+ */
+@ThreadSafe
+class OffHeapJoinTableLoader implements BroadcastJoinCache.JoinTableLoader{
+    public static BroadcastJoinCache.JoinTableLoader INSTANCE = new OffHeapJoinTableLoader();
+
+    private OffHeapJoinTableLoader(){} //singleton class
+
+    @Override
+    public JoinTable.Factory load(Callable<Stream<ExecRow>> streamLoader,int[] innerHashKeys,int[] outerHashKeys, ExecRow outerTemplateRow) throws Exception {
+        OffHeapJoinTable.Factory table = new OffHeapJoinTable.Factory(innerHashKeys,outerHashKeys);
+
+        int numKeys = innerHashKeys.length;
+        DataValueDescriptor[] keys = new DataValueDescriptor[numKeys];
+        ValueRow keyRow = new ValueRow(keys);
+        KryoPool kryoPool = SpliceKryoRegistry.getInstance();
+        Kryo kryo = kryoPool.get();
+        Output output = new Output(4096,-1);
+        try(Stream<ExecRow> innerRows=streamLoader.call()){
+            ExecRow right;
+            while((right=innerRows.next())!=null){
+                for (int i = 0; i < numKeys; i++) {
+                    keyRow.setColumn(i+1, right.getColumn(innerHashKeys[i] + 1));
+                }
+                output.clear();
+                kryo.writeClassAndObject(output,right);
+                table.add(keyRow.hashCode(),output.getBuffer(),output.position());
+            }
+        }catch(Exception e){
+            throw getException(e);
+        }finally{
+            kryoPool.returnInstance(kryo);
+        }
+
+        return table;
+    }
+
+    private Exception getException(Throwable parent) {
+        if (parent.getCause() instanceof Exception)
+            return (Exception)parent.getCause();
+        if (parent instanceof Exception)
+            return (Exception)parent;
+        return new ExecutionException(parent);
+    }
+}
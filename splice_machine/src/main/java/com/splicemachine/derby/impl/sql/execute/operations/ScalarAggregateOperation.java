@@ -124,6 +124,7 @@ public class ScalarAggregateOperation extends GenericAggregateOperation {
             throw new IllegalStateException("Operation is not open");
 
         OperationContext<ScalarAggregateOperation> operationContext = dsp.createOperationContext(this);
+        allowUnorderedScan(source);
         dsp.incrementOpDepth();
         DataSet<ExecRow> dsSource = source.getDataSet(dsp);
         dsp.decrementOpDepth();
@@ -149,4 +150,15 @@ public class ScalarAggregateOperation extends GenericAggregateOperation {
         handleSparkExplain(ds2, dsSource, dsp);
         return ds2.mapPartitions(new ScalarAggregateFlatMapFunction(operationContext, true), /*isLast=*/true, /*pushScope=*/true, "Final Aggregation");
     }
+
+    /*
+     * The aggregate doesn't depend on the order of its input, so a table scan feeding it directly
+     * (through projections and restrictions only) may return the rows of its regions in any order.
+     */
+    private static void allowUnorderedScan(SpliceOperation op) {
+        while (op instanceof ProjectRestrictOperation)
+            op = ((ProjectRestrictOperation) op).getSource();
+        if (op != null && op.getClass() == TableScanOperation.class)
+            ((TableScanOperation) op).setPreserveOrder(false);
+    }
 }
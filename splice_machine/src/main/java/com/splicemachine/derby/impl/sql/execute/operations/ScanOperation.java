@@ -69,6 +69,12 @@ public abstract class ScanOperation extends SpliceBaseOperation{
     int partitionRefItem;
     protected int[] partitionColumnMap;
     protected ExecRow defaultRow;
+    /*
+     * Whether rows must be returned in key order when a control-side scan reads its regions in
+     * parallel. Cleared by consumers which don't care about the order of their input; never
+     * serialized, as Spark scans don't depend on it.
+     */
+    protected boolean preserveOrder=true;
     public static final int SCAN_CACHE_SIZE = 1000;
 
     public ScanOperation(){
@@ -423,6 +429,18 @@ public abstract class ScanOperation extends SpliceBaseOperation{
         return scanInformation;
     }
 
+    public boolean isPreserveOrder() {
+        return preserveOrder;
+    }
+
+    public void setPreserveOrder(boolean preserveOrder) {
+        this.preserveOrder = preserveOrder;
+    }
+
+    public boolean isOneRowScan() {
+        return oneRowScan;
+    }
+
     /**
      *
      * Hack until we figure out rowid qualifiers.
@@ -45,6 +45,7 @@ class ValueRowMapTableLoader implements BroadcastJoinCache.JoinTableLoader{
         int numKeys = innerHashKeys.length;
         DataValueDescriptor[] keys = new DataValueDescriptor[numKeys];
         ValueRow keyRow = new ValueRow(keys);
+        long size = 0L;
         try(Stream<ExecRow> innerRows=streamLoader.call()){
             ExecRow right;
             while((right=innerRows.next())!=null){
@@ -56,14 +57,16 @@ class ValueRowMapTableLoader implements BroadcastJoinCache.JoinTableLoader{
                 if(rows==null){
                     rows=new ArrayList<>(1);
                     table.put((ValueRow)keyRow.getClone(), rows);
+                    size += keyRow.getRowSize();
                 }
                 rows.add(right.getClone());
+                size += right.getRowSize();
             }
         }catch(Exception e){
             throw getException(e);
         }
 
-        return new ValueRowMappedJoinTable.Factory(table,outerHashKeys);
+        return new ValueRowMappedJoinTable.Factory(table,outerHashKeys,size);
     }
 
     private Exception getException(Throwable parent) {
@@ -59,6 +59,8 @@ public class WindowOperation extends SpliceBaseOperation {
     protected SpliceOperation source;
     protected ExecRow sortTemplateRow;
     private ExecRow templateRow;
+    // context of the last evaluation, for its memory footprint
+    private transient OperationContext<WindowOperation> operationContext;
 
     protected static final String NAME = WindowOperation.class.getSimpleName().replaceAll("Operation","");
 
@@ -124,7 +126,7 @@ public class WindowOperation extends SpliceBaseOperation {
         if (!isOpen)
             throw new IllegalStateException("Operation is not open");
 
-        OperationContext<WindowOperation> operationContext = dsp.createOperationContext(this);
+        operationContext = dsp.createOperationContext(this);
         operationContext.pushScopeForOp(OperationContext.Scope.WINDOW);
         dsp.incrementOpDepth();
         DataSet<ExecRow> sourceDataSet = source.getDataSet(dsp);
@@ -147,6 +149,30 @@ public class WindowOperation extends SpliceBaseOperation {
         return templateRow;
     }
 
+    @Override
+    public void close() throws StandardException {
+        if (operationContext != null && LOG.isDebugEnabled()) {
+            LOG.debug(String.format("%s buffered at most %d bytes in memory, spilled %d bytes",
+                    this, getMaxBufferedBytes(), getSpilledBytes()));
+        }
+        super.close();
+    }
+
+    /**
+     * @return the largest estimated size of the rows a window frame buffer of this operation held
+     *         in memory, if evaluated on the control path
+     */
+    public long getMaxBufferedBytes() {
+        return operationContext == null ? 0 : operationContext.getMaxBufferedBytes();
+    }
+
+    /**
+     * @return the number of bytes this operation wrote to local disk, if evaluated on the control path
+     */
+    public long getSpilledBytes() {
+        return operationContext == null ? 0 : operationContext.getSpilledBytes();
+    }
+
     @Override
     public String toString() {
         return "WindowOperation{"+windowContext+"}";
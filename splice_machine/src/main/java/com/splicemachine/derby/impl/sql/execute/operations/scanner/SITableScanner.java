@@ -18,6 +18,7 @@ import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import splice.com.google.common.base.Supplier;
 import splice.com.google.common.base.Suppliers;
 import splice.com.google.common.base.Throwables;
+import splice.com.google.common.collect.Iterables;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.io.FormatableBitSet;
 import com.splicemachine.db.iapi.services.io.StoredFormatIds;
@@ -44,7 +45,10 @@ import com.splicemachine.utils.SpliceLogUtils;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.log4j.Logger;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -90,6 +94,14 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
     private DataValueDescriptor optionalProbeValue;
     private ExecRow defaultRow;
     private FormatableBitSet defaultValueMap;
+    /*
+     * Rows read ahead of the caller so that the transactions which wrote them can be resolved in one
+     * batch. We only read ahead after a row turned up which needed a transaction lookup, so data that
+     * has been rolled forward streams straight through without copying.
+     */
+    private static final int PREFETCH_BLOCK_SIZE = 256;
+    private final ArrayDeque<List<DataCell>> readAhead = new ArrayDeque<>();
+    private boolean batchTxnLookups = false;
 
     protected SITableScanner(DataScanner scanner,
                              final TransactionalRegion region,
@@ -200,7 +212,7 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
         SIFilter filter = getSIFilter();
         do{
             template.resetRowArray(); //necessary to deal with null entries--maybe make the underlying call faster?
-            List<DataCell> keyValues=regionScanner.next(-1);
+            List<DataCell> keyValues=readRow(filter);
             if(keyValues.size()<=0){
                 currentRowLocation = null;
                 return null;
@@ -240,6 +252,32 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
         return outputBytesCounter.getTotal();
     }
 
+    private List<DataCell> readRow(SIFilter filter) throws IOException{
+        if(!readAhead.isEmpty())
+            return readAhead.poll();
+        if(!batchTxnLookups){
+            List<DataCell> keyValues=regionScanner.next(-1);
+            if(!keyValues.isEmpty())
+                batchTxnLookups=filter.prefetch(keyValues)>0;
+            return keyValues;
+        }
+
+        //the scanner reuses its cells, so the block has to be copied out
+        for(int i=0;i<PREFETCH_BLOCK_SIZE;i++){
+            List<DataCell> keyValues=regionScanner.next(-1);
+            if(keyValues.isEmpty()) break;
+            List<DataCell> copy=new ArrayList<>(keyValues.size());
+            for(DataCell cell:keyValues){
+                copy.add(cell.getClone());
+            }
+            readAhead.add(copy);
+        }
+        if(readAhead.isEmpty())
+            return Collections.emptyList();
+        batchTxnLookups=filter.prefetch(Iterables.concat(readAhead))>0;
+        return readAhead.poll();
+    }
+
     private void measureOutputSize(List<DataCell> keyValues){
         if(outputBytesCounter.isActive()){
             for(DataCell cell:keyValues){
@@ -283,6 +321,7 @@ public class SITableScanner<Data> implements StandardIterator<ExecRow>,AutoClose
 
     public void setRegionScanner(DataScanner scanner){
         this.regionScanner = scanner;
+        this.readAhead.clear();
     }
 
     public long getBytesVisited() {
@@ -394,6 +394,14 @@ public abstract class TableScannerBuilder<V> implements Externalizable, ScanSetB
     }
 
     public SITableScanner build(){
+        return build(scanner,region,template,scan);
+    }
+
+    /**
+     * Builds a scanner reading through the given scanner rather than this builder's own, e.g. over
+     * one region of this builder's scan.
+     */
+    public SITableScanner build(DataScanner scanner,TransactionalRegion region,ExecRow template,DataScan scan){
             return new SITableScanner(
                     scanner,
                     region,
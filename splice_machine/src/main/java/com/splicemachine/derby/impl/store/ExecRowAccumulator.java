@@ -14,6 +14,7 @@
 
 package com.splicemachine.derby.impl.store;
 
+import com.splicemachine.EngineDriver;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.io.FormatableBitSet;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
@@ -35,6 +36,11 @@ public class ExecRowAccumulator extends ByteEntryAccumulator {
     protected final DescriptorSerializer[] serializers;
     protected final int[] columnMap;
     protected final int[] columnLengths;
+    /*
+     * When true, columns are bound to the bytes of the cell and only decoded when read. The scanned
+     * cells are not mutated once returned, so the row stays valid until the next row is accumulated.
+     */
+    protected final boolean lazy;
 
     private ExecRowAccumulator(){
         super(null,false,null);
@@ -42,6 +48,7 @@ public class ExecRowAccumulator extends ByteEntryAccumulator {
         this.serializers = null;
         this.columnMap = null;
         this.columnLengths = null;
+        this.lazy = false;
     }
 
     private ExecRowAccumulator(EntryPredicateFilter predicateFilter,
@@ -55,6 +62,8 @@ public class ExecRowAccumulator extends ByteEntryAccumulator {
         this.columnMap = columnMap;
         this.serializers = serializers;
         this.columnLengths = new int[dvds.length];
+        EngineDriver driver = EngineDriver.driver();
+        this.lazy = driver!=null && driver.getConfiguration().getLazyColumnDecoding();
     }
 
     public static ExecRowAccumulator newAccumulator(EntryPredicateFilter predicateFilter,
@@ -154,7 +163,10 @@ public class ExecRowAccumulator extends ByteEntryAccumulator {
         DataValueDescriptor dvd = dvds[colPos];
         DescriptorSerializer serializer = serializers[colPos];
         try {
-            serializer.decodeDirect(dvd, data, offset, length, false);
+            if(lazy)
+                serializer.decodeDirectLazy(dvd, data, offset, length, false);
+            else
+                serializer.decodeDirect(dvd, data, offset, length, false);
             columnLengths[colPos] = length; //stored for future length measuring
         } catch (StandardException e) {
             throw new RuntimeException(e);
@@ -188,7 +200,10 @@ public class ExecRowAccumulator extends ByteEntryAccumulator {
             DataValueDescriptor dvd = dvds[colPos];
             DescriptorSerializer serializer = serializers[columnMap[position]];
             try {
-                serializer.decodeDirect(dvd, data, offset, length, !columnSortOrder[position]);
+                if(lazy)
+                    serializer.decodeDirectLazy(dvd, data, offset, length, !columnSortOrder[position]);
+                else
+                    serializer.decodeDirect(dvd, data, offset, length, !columnSortOrder[position]);
                 columnLengths[colPos] = length;
             } catch (StandardException e) {
                 throw new RuntimeException(e);
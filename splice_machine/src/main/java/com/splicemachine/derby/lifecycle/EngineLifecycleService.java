@@ -41,6 +41,8 @@ import com.splicemachine.pipeline.PipelineDriver;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryDriver;
 import com.splicemachine.pipeline.contextfactory.ContextFactoryLoader;
 import com.splicemachine.pipeline.contextfactory.ReferenceCountingFactoryDriver;
+import com.splicemachine.si.api.txn.TransactionCacheManagement;
+import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.tools.EmbedConnectionMaker;
 import com.splicemachine.tools.version.ManifestReader;
@@ -143,6 +145,12 @@ public class EngineLifecycleService implements DatabaseLifecycleService{
 
             ObjectName rollforward = new ObjectName("com.splicemachine.si.api.rollforward:type=RollForward");
             mbs.registerMBean(SIDriver.driver().getRollForward(),rollforward);
+
+            TxnSupplier txnSupplier = SIDriver.driver().getTxnSupplier();
+            if(txnSupplier instanceof TransactionCacheManagement){
+                ObjectName txnCache = new ObjectName("com.splicemachine.si.api.txn:type=TransactionCacheManagement");
+                mbs.registerMBean(txnSupplier,txnCache);
+            }
             db.getDataDictionary().getDataDictionaryCache().registerJMX(mbs);
 
 
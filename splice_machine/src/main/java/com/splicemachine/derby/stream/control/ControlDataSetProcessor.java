@@ -24,6 +24,7 @@ import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.db.impl.sql.compile.ExplainNode;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
 import com.splicemachine.derby.impl.sql.execute.operations.ScanOperation;
+import com.splicemachine.derby.impl.sql.execute.operations.scanner.SITableScanner;
 import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerBuilder;
 import com.splicemachine.derby.stream.function.Partitioner;
 import com.splicemachine.derby.stream.iapi.*;
@@ -38,6 +39,9 @@ import com.splicemachine.si.impl.TxnRegion;
 import com.splicemachine.si.impl.driver.SIDriver;
 import com.splicemachine.si.impl.readresolve.NoOpReadResolver;
 import com.splicemachine.si.impl.rollforward.NoopRollForward;
+import com.splicemachine.metrics.MetricFactory;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.storage.DataScan;
 import com.splicemachine.storage.Partition;
 import com.splicemachine.system.CsvOptions;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -46,19 +50,32 @@ import org.apache.log4j.Logger;
 import org.apache.spark.sql.types.StructField;
 import org.apache.spark.sql.types.StructType;
 import splice.com.google.common.base.Charsets;
+import splice.com.google.common.base.Function;
+import splice.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import scala.Tuple2;
 
 import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.SequenceInputStream;
 import java.net.URISyntaxException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 
 import static com.splicemachine.db.impl.sql.compile.ExplainNode.SparkExplainKind.NONE;
@@ -77,6 +94,12 @@ public class ControlDataSetProcessor implements DataSetProcessor{
 
     private static final Logger LOG=Logger.getLogger(ControlDataSetProcessor.class);
 
+    /*
+     * Threads of the parallel region scans. Scans only block on their own buffers, so they are kept
+     * off the shared SI pool, and rejected rather than queued when all threads are busy.
+     */
+    private static volatile ExecutorService parallelScanExecutor;
+
     protected final TxnSupplier txnSupplier;
     protected final Transactor transactory;
     protected final TxnOperationFactory txnOperationFactory;
@@ -94,6 +117,24 @@ public class ControlDataSetProcessor implements DataSetProcessor{
         return Type.CONTROL;
     }
 
+    private static ExecutorService parallelScanExecutor(){
+        ExecutorService executor=parallelScanExecutor;
+        if(executor==null){
+            synchronized(ControlDataSetProcessor.class){
+                executor=parallelScanExecutor;
+                if(executor==null){
+                    int threads=EngineDriver.driver().getConfiguration().getControlExecutionParallelScanThreads();
+                    executor=new ThreadPoolExecutor(0,Math.max(threads,1),60L,TimeUnit.SECONDS,
+                            new SynchronousQueue<Runnable>(),
+                            new ThreadFactoryBuilder().setNameFormat("ControlParallelScan-%d").setDaemon(true).build(),
+                            new ThreadPoolExecutor.AbortPolicy());
+                    parallelScanExecutor=executor;
+                }
+            }
+        }
+        return executor;
+    }
+
     public static final Partitioner NOOP_PARTITIONER = new Partitioner() {
         @Override
         public void initialize() {
@@ -120,6 +161,11 @@ public class ControlDataSetProcessor implements DataSetProcessor{
                 Partition p;
                 try{
                     p =SIDriver.driver().getTableFactory().getTable(tableName);
+                    if(spliceOperation instanceof ScanOperation){
+                        DataSet<V> parallelScan=buildParallelDataSet((ScanOperation)spliceOperation,p);
+                        if(parallelScan!=null)
+                            return parallelScan;
+                    }
                     TxnRegion localRegion=new TxnRegion(p,NoopRollForward.INSTANCE,NoOpReadResolver.INSTANCE,
                             txnSupplier,transactory,txnOperationFactory);
 
@@ -135,6 +181,101 @@ public class ControlDataSetProcessor implements DataSetProcessor{
                     throw Exceptions.parseException(e);
                 }
             }
+
+            /*
+             * Scans the regions of a multi-region table concurrently, or returns null when the scan
+             * should go through a single scanner.
+             */
+            private DataSet<V> buildParallelDataSet(final ScanOperation scanOperation,final Partition table) throws StandardException,IOException{
+                int parallelRegions=EngineDriver.driver().getConfiguration().getControlExecutionParallelScanRegions();
+                final DataScan scan=getScan();
+                if(parallelRegions<=1 || scanOperation.isOneRowScan() || scan.isDescendingScan() || filterFactory!=null
+                        || !prepareQualifiers(scanOperation.getScanInformation().getScanQualifiers()))
+                    return null;
+                List<Partition> regions=new ArrayList<>(table.subPartitions(scan.getStartKey(),scan.getStopKey()));
+                if(regions.size()<=1)
+                    return null;
+                Collections.sort(regions,new Comparator<Partition>(){
+                    @Override
+                    public int compare(Partition o1,Partition o2){
+                        return Bytes.startComparator.compare(o1.getStartKey(),o2.getStartKey());
+                    }
+                });
+
+                /*
+                 * The region scans run on the scan threads while the caller keeps using the operation, so
+                 * everything they write is their own: each gets a copy of the scan, a clone of the row
+                 * template and its own TxnRegion, all made here on the calling thread. What they share is
+                 * only read: the builder's fields (a filter factory would hold per-scan state, which is why
+                 * one keeps the scan serial above), the cached qualifiers and the scan information of the
+                 * operation. They don't register anything with the operation or touch its context; rows
+                 * are counted by the caller as it consumes them.
+                 */
+                final TableScannerBuilder<V> builder=this;
+                final MetricFactory scanMetrics=metricFactory;
+
+                List<Callable<Iterator<ExecRow>>> regionScans=new ArrayList<>(regions.size());
+                for(final Partition region : regions){
+                    final DataScan regionScan=copyScan(scan)
+                            .startKey(Bytes.max(Bytes.startComparator,scan.getStartKey(),region.getStartKey()))
+                            .stopKey(Bytes.min(Bytes.endComparator,scan.getStopKey(),region.getEndKey()));
+                    final ExecRow regionTemplate=template.getClone();
+                    final TxnRegion txnRegion=new TxnRegion(table,NoopRollForward.INSTANCE,NoOpReadResolver.INSTANCE,
+                            txnSupplier,transactory,txnOperationFactory);
+                    regionScans.add(new Callable<Iterator<ExecRow>>(){
+                        @Override
+                        public Iterator<ExecRow> call() throws Exception{
+                            return new TableScannerIterator(builder,scanOperation,
+                                    table.openScanner(regionScan,scanMetrics),regionScan,txnRegion,regionTemplate);
+                        }
+                    });
+                }
+                ParallelScanIterator<ExecRow> rows=new ParallelScanIterator<>(parallelScanExecutor(),
+                        regionScans,parallelRegions,ScanOperation.SCAN_CACHE_SIZE,scanOperation.isPreserveOrder(),
+                        new Function<ExecRow, ExecRow>(){
+                            @Override
+                            public ExecRow apply(ExecRow row){
+                                return row.getClone();
+                            }
+                        });
+                if(!rows.start()){
+                    // every scan thread is busy, read the whole range with a single scanner instead
+                    rows.close();
+                    return null;
+                }
+                scanOperation.registerCloseable(rows);
+                scanOperation.registerCloseable(table);
+                // the scanners set the region id on the scan threads, readers such as statistics look for it on this one
+                SITableScanner.regionId.set(table.getName());
+                return new ControlDataSet(rows);
+            }
+
+            /*
+             * Qualifiers are evaluated on the region threads, which is only safe once their values
+             * are cached: fill the caches here, and keep a single scanner for variant qualifiers.
+             */
+            private boolean prepareQualifiers(Qualifier[][] qualifiers) throws StandardException{
+                if(qualifiers==null)
+                    return true;
+                for(Qualifier[] clause : qualifiers){
+                    for(Qualifier qualifier : clause){
+                        if(qualifier.getVariantType()==Qualifier.VARIANT)
+                            return false;
+                        qualifier.getOrderable();
+                    }
+                }
+                return true;
+            }
+
+            private DataScan copyScan(DataScan scan) throws IOException{
+                ByteArrayOutputStream bytes=new ByteArrayOutputStream();
+                try(ObjectOutputStream out=new ObjectOutputStream(bytes)){
+                    txnOperationFactory.writeScan(scan,out);
+                }
+                try(ObjectInputStream in=new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+                    return txnOperationFactory.readScan(in);
+                }
+            }
         };
     }
 
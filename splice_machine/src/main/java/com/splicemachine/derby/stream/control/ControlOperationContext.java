@@ -49,6 +49,8 @@ public class ControlOperationContext<Op extends SpliceOperation> implements Oper
         long rowsJoinedLeft;
         long rowsJoinedRight;
         long rowsProduced;
+        long bytesSpilled;
+        long maxBytesBuffered;
         List<String> badRecords;
         public ActivationHolder activationHolder;
         public SpliceTransactionResourceImpl impl;
@@ -269,6 +271,26 @@ public class ControlOperationContext<Op extends SpliceOperation> implements Oper
         return tooBusy;
     }
 
+    @Override
+    public void recordSpilledBytes(long bytes) {
+        bytesSpilled+=bytes;
+    }
+
+    @Override
+    public long getSpilledBytes() {
+        return bytesSpilled;
+    }
+
+    @Override
+    public void recordBufferedBytes(long bytes) {
+        maxBytesBuffered=Math.max(maxBytesBuffered,bytes);
+    }
+
+    @Override
+    public long getMaxBufferedBytes() {
+        return maxBytesBuffered;
+    }
+
     @Override
     public void pushScope(String displayName) {
         // no op
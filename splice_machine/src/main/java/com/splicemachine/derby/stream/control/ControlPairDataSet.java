@@ -35,7 +35,6 @@ import splice.com.google.common.collect.*;
 import scala.Tuple2;
 import javax.annotation.Nullable;
 import java.util.*;
-import java.util.function.Consumer;
 
 import static com.splicemachine.derby.stream.control.ControlUtils.limit;
 import static com.splicemachine.derby.stream.control.ControlUtils.checkCancellation;
@@ -90,46 +89,10 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
 
     @Override
     public <Op extends SpliceOperation> PairDataSet<K, V> reduceByKey(final SpliceFunction2<Op,V, V, V> function2) {
+        // hash partitions are spilled once splice.controlExecution.aggregateBufferSize is exceeded, and
+        // removed when the operation is closed in case the aggregation isn't read to the end
         final Iterator<Tuple2<K,V>> limitIterator = limit(checkCancellation(source,function2), function2.operationContext);
-        return new ControlPairDataSet(new Iterator<Tuple2<K,V>>(){
-            private Iterator<Map.Entry<K,V>> set;
-            @Override
-            public boolean hasNext() {
-                if (set == null) {
-                    try {
-                        HashMap<K, V> map = Maps.newHashMap();
-                        while (limitIterator.hasNext()) {
-                            Tuple2<K, V> t = limitIterator.next();
-                            if (map.containsKey(t._1())) {
-                                function2.call( map.get(t._1()),t._2());
-                            } else {
-                                map.put((K)((ExecRow)t._1).getClone(), function2.call(null,t._2()));
-                            }
-                        }
-                        set = map.entrySet().iterator();
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-                return set.hasNext();
-            }
-
-            @Override
-            public Tuple2<K,V> next() {
-                Map.Entry<K,V> entry = set.next();
-                return Tuple2.apply(entry.getKey(),entry.getValue());
-            }
-
-            @Override
-            public void remove() {
-                throw new UnsupportedOperationException("Not Implemented");
-            }
-
-            @Override
-            public void forEachRemaining(Consumer action) {
-                throw new UnsupportedOperationException("Not Implemented");
-            }
-        });
+        return new ControlPairDataSet<>(SpillingHashAggregator.reducer(limitIterator,function2,function2.operationContext));
     }
 
     @Override
@@ -145,17 +108,14 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
     @Override
     public PairDataSet<K, V> sortByKey(final Comparator<K> comparator, OperationContext operationContext) {
         /*
-         * -sf- this is done a bit goofily, so that we can support multiple versions of guava.
-         *
-         * This is essentially copying out FluentIterable.from(source).toSortedList(comparator) logic
-         * directly into the method, so that we can support the same code line from 12.0.1 on.
+         * Sort runs within the configured buffer budget (splice.controlExecution.sortBufferSize),
+         * spilling them to local disk and merging lazily, so that a large sort doesn't have to
+         * be materialized on heap. The sort removes its runs when the operation is closed, in case
+         * it isn't read to the end.
          */
-        return new ControlPairDataSet<>(Ordering.from(new Comparator<Tuple2<K, V>>() {
-            @Override
-            public int compare(Tuple2<K, V> o1, Tuple2<K, V> o2) {
-                return comparator.compare(o1._1(), o2._1());
-            }
-        }).immutableSortedCopy(() -> limit(ControlUtils.checkCancellation(source,operationContext), operationContext)).iterator());
+        return new ControlPairDataSet<>(new ExternalSortIterator<>(
+                limit(ControlUtils.checkCancellation(source,operationContext), operationContext),
+                comparator,operationContext));
     }
 
     @Override
@@ -172,15 +132,7 @@ public class ControlPairDataSet<K,V> implements PairDataSet<K,V> {
 
     @Override
     public PairDataSet<K, Iterable<V>> groupByKey(OperationContext context) {
-        Multimap<K,V> newMap = multimapFromIterator(limit(ControlUtils.checkCancellation(source,context), context));
-        return new ControlPairDataSet<>(FluentIterable.from(newMap.asMap().entrySet()).transform(new Function<Map.Entry<K, Collection<V>>, Tuple2<K, Iterable<V>>>() {
-            @Nullable
-            @Override
-            public Tuple2<K, Iterable<V>> apply(@Nullable Map.Entry<K, Collection<V>> e) {
-                assert e!=null: "E cannot be null";
-                return new Tuple2<K, Iterable<V>>(e.getKey(), e.getValue());
-            }
-        }).iterator());
+        return new ControlPairDataSet<>(SpillingHashAggregator.grouper(limit(ControlUtils.checkCancellation(source,context), context),context));
     }
 
     @Override
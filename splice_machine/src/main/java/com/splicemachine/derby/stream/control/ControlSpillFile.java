@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.splicemachine.EngineDriver;
+import com.splicemachine.SpliceKryoRegistry;
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.utils.kryo.KryoPool;
+import scala.Tuple2;
+
+import java.io.*;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A local temp file holding a sequence of key/value pairs spilled by a control-side operator.
+ *
+ * Entries are Kryo-encoded with the Splice registry, so they round-trip the same way rows do
+ * when they are shipped between the control and Spark paths. A file is written once through
+ * {@link #append(Object, Object)}, sealed with {@link #finish()}, and then read back with
+ * {@link #iterator()}; the underlying file is removed once it has been read to the end or
+ * when {@link #close()} is called. Owners which may be abandoned before reading everything
+ * back close themselves with the operation, see {@link ControlUtils#closeWithOperation}.
+ */
+class ControlSpillFile<K,V> implements Closeable {
+    private static final String SPILL_PREFIX = "splice-spill-";
+    /*
+     * Rough per-entry overhead (tuple, object headers, references) used when we can't
+     * ask the entry for its size.
+     */
+    private static final long ENTRY_OVERHEAD = 64L;
+
+    private final File file;
+    private final KryoPool kryoPool;
+    private Kryo kryo;
+    private Output output;
+    private Input input;
+    private long entries;
+    private long bytesWritten;
+
+    ControlSpillFile() throws IOException {
+        String dir = spillDirectory();
+        this.file = File.createTempFile(SPILL_PREFIX,".tmp",dir==null?null:new File(dir));
+        this.kryoPool = SpliceKryoRegistry.getInstance();
+        this.kryo = kryoPool.get();
+        this.output = new Output(new BufferedOutputStream(new FileOutputStream(file)));
+    }
+
+    void append(K key,V value){
+        output.writeBoolean(true);
+        kryo.writeClassAndObject(output,key);
+        kryo.writeClassAndObject(output,value);
+        entries++;
+    }
+
+    /**
+     * Flush and close the write side of the file.
+     *
+     * @return the number of bytes written to disk
+     */
+    long finish(){
+        output.writeBoolean(false);
+        output.close();
+        bytesWritten = output.total();
+        output = null;
+        kryoPool.returnInstance(kryo);
+        kryo = null;
+        return bytesWritten;
+    }
+
+    long size(){
+        return entries;
+    }
+
+    long bytesWritten(){
+        return bytesWritten;
+    }
+
+    Iterator<Tuple2<K,V>> iterator() throws IOException{
+        assert output==null: "Cannot read a spill file which is still being written";
+        input = new Input(new BufferedInputStream(new FileInputStream(file)));
+        kryo = kryoPool.get();
+        return new Iterator<Tuple2<K, V>>(){
+            private Tuple2<K,V> next;
+            private boolean done;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean hasNext(){
+                if(next!=null) return true;
+                if(done) return false;
+                if(!input.readBoolean()){
+                    done = true;
+                    close();
+                    return false;
+                }
+                K k = (K)kryo.readClassAndObject(input);
+                V v = (V)kryo.readClassAndObject(input);
+                next = new Tuple2<>(k,v);
+                return true;
+            }
+
+            @Override
+            public Tuple2<K, V> next(){
+                if(!hasNext()) throw new NoSuchElementException();
+                Tuple2<K,V> n = next;
+                next = null;
+                return n;
+            }
+        };
+    }
+
+    @Override
+    public void close(){
+        if(output!=null){
+            output.close();
+            output = null;
+        }
+        if(input!=null){
+            input.close();
+            input = null;
+        }
+        if(kryo!=null){
+            kryoPool.returnInstance(kryo);
+            kryo = null;
+        }
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    /**
+     * @return an estimate of the heap held by a buffered entry, used to decide when to spill.
+     */
+    static long estimateSize(Object key,Object value){
+        return ENTRY_OVERHEAD+estimateSize(key)+estimateSize(value);
+    }
+
+    static long estimateSize(Object o){
+        if(o instanceof ExecRow){
+            try{
+                return ((ExecRow)o).getRowSize();
+            }catch(StandardException se){
+                return ENTRY_OVERHEAD;
+            }
+        }else if(o instanceof Iterable){
+            long size = 0L;
+            for(Object e:(Iterable)o){
+                size+=estimateSize(e);
+            }
+            return size;
+        }
+        return o==null?0L:ENTRY_OVERHEAD;
+    }
+
+    private static String spillDirectory(){
+        EngineDriver driver = EngineDriver.driver();
+        return driver==null?null:driver.getConfiguration().getControlExecutionSpillDirectory();
+    }
+
+    static long sortBufferSize(){
+        EngineDriver driver = EngineDriver.driver();
+        return driver==null?Long.MAX_VALUE:driver.getConfiguration().getControlExecutionSortBufferSize();
+    }
+
+    static long aggregateBufferSize(){
+        EngineDriver driver = EngineDriver.driver();
+        return driver==null?Long.MAX_VALUE:driver.getConfiguration().getControlExecutionAggregateBufferSize();
+    }
+
+    static long windowBufferSize(){
+        EngineDriver driver = EngineDriver.driver();
+        return driver==null?Long.MAX_VALUE:driver.getConfiguration().getControlExecutionWindowBufferSize();
+    }
+}
@@ -14,6 +14,7 @@
 
 package com.splicemachine.derby.stream.control;
 
+import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.conn.ControlExecutionLimiter;
 import com.splicemachine.db.iapi.sql.conn.StatementContext;
 import com.splicemachine.derby.stream.function.AbstractSpliceFunction;
@@ -53,6 +54,25 @@ public class ControlUtils {
         return newMap;
     }
 
+    /**
+     * Close {@code closeable} when the operation of {@code context} is closed, so that an operator which isn't
+     * read to the end (e.g. under a limit, or when the query fails) still releases its spill files.
+     *
+     * @return {@code closeable}
+     */
+    public static <C extends AutoCloseable> C closeWithOperation(C closeable, OperationContext<?> context) {
+        if (context == null || context.getOperation() == null) {
+            // no operation to close with, e.g. in tests
+            return closeable;
+        }
+        try {
+            context.getOperation().registerCloseable(closeable);
+        } catch (StandardException se) {
+            throw new RuntimeException(se);
+        }
+        return closeable;
+    }
+
     public static <E> Iterator<E> limit(Iterator<E> delegate, OperationContext context) {
         if (context == null) {
             // no context, iterator is unlimited
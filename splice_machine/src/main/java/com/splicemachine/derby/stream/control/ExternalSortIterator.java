@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import org.apache.log4j.Logger;
+import scala.Tuple2;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Bounded-memory external merge sort of key/value pairs for the control execution path.
+ *
+ * Entries are buffered on heap until the estimated size of the buffer exceeds the configured
+ * budget, at which point the buffer is sorted and written out as a run. Once the source is
+ * exhausted, the runs (plus whatever is still in memory) are k-way merged lazily. When the
+ * input fits in the budget no file is ever created and this behaves like an in-memory sort.
+ *
+ * The sort is stable: entries with equal keys are returned in the order they were read.
+ *
+ * The iterator closes itself once it has been read to the end, and with the operation of its
+ * context otherwise, so that the runs of a sort which is not read to the end are removed too.
+ */
+public class ExternalSortIterator<K,V> implements Iterator<Tuple2<K,V>>, AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(ExternalSortIterator.class);
+
+    private Iterator<Tuple2<K,V>> source;
+    private final Comparator<Tuple2<K,V>> comparator;
+    private final long bufferSize;
+    private final OperationContext operationContext;
+
+    private List<ControlSpillFile<K,V>> runs;
+    private Iterator<Tuple2<K,V>> sorted;
+
+    public ExternalSortIterator(Iterator<Tuple2<K,V>> source,
+                                Comparator<K> keyComparator,
+                                OperationContext operationContext){
+        this(source,keyComparator,ControlSpillFile.sortBufferSize(),operationContext);
+    }
+
+    public ExternalSortIterator(Iterator<Tuple2<K,V>> source,
+                                Comparator<K> keyComparator,
+                                long bufferSize,
+                                OperationContext operationContext){
+        this.source = source;
+        this.comparator = (o1,o2) -> keyComparator.compare(o1._1(),o2._1());
+        this.bufferSize = bufferSize;
+        this.operationContext = operationContext;
+        ControlUtils.closeWithOperation(this,operationContext);
+    }
+
+    @Override
+    public boolean hasNext(){
+        if(sorted==null)
+            sorted = sort();
+        if(sorted.hasNext())
+            return true;
+        close();
+        return false;
+    }
+
+    @Override
+    public Tuple2<K,V> next(){
+        if(!hasNext()) throw new NoSuchElementException();
+        return sorted.next();
+    }
+
+    /**
+     * Release any spill files which have not been fully consumed yet, and the rows still buffered in memory.
+     */
+    @Override
+    public void close(){
+        source = null;
+        sorted = Collections.emptyIterator();
+        if(runs!=null){
+            for(ControlSpillFile<K,V> run : runs){
+                run.close();
+            }
+            runs = null;
+        }
+    }
+
+    private Iterator<Tuple2<K,V>> sort(){
+        List<Tuple2<K,V>> buffer = new ArrayList<>();
+        long bufferedBytes = 0L;
+        try{
+            while(source.hasNext()){
+                Tuple2<K,V> t = source.next();
+                buffer.add(t);
+                bufferedBytes+=ControlSpillFile.estimateSize(t._1(),t._2());
+                if(bufferedBytes>bufferSize){
+                    spill(buffer);
+                    buffer = new ArrayList<>();
+                    bufferedBytes = 0L;
+                }
+            }
+            buffer.sort(comparator);
+            if(runs==null)
+                return buffer.iterator();
+
+            List<Iterator<Tuple2<K,V>>> sources = new ArrayList<>(runs.size()+1);
+            for(ControlSpillFile<K,V> run : runs){
+                sources.add(run.iterator());
+            }
+            // the in-memory remainder was read last, so it goes last to keep the merge stable
+            sources.add(buffer.iterator());
+            return new MergeIterator<>(sources,comparator);
+        }catch(IOException ioe){
+            close();
+            throw new RuntimeException(ioe);
+        }catch(RuntimeException re){
+            close();
+            throw re;
+        }
+    }
+
+    private void spill(List<Tuple2<K,V>> buffer) throws IOException{
+        buffer.sort(comparator);
+        ControlSpillFile<K,V> run = new ControlSpillFile<>();
+        if(runs==null)
+            runs = new ArrayList<>();
+        runs.add(run);
+        for(Tuple2<K,V> t : buffer){
+            run.append(t._1(),t._2());
+        }
+        long bytes = run.finish();
+        if(operationContext!=null)
+            operationContext.recordSpilledBytes(bytes);
+        if(LOG.isDebugEnabled())
+            LOG.debug(String.format("spilled sort run %d: %d rows, %d bytes",runs.size(),buffer.size(),bytes));
+    }
+
+    /**
+     * Lazy k-way merge of individually sorted iterators. Ties are broken by source position,
+     * so the merge preserves the relative order of its inputs.
+     */
+    static class MergeIterator<K,V> implements Iterator<Tuple2<K,V>> {
+        private final PriorityQueue<Head<K,V>> heads;
+
+        MergeIterator(List<Iterator<Tuple2<K,V>>> sources,Comparator<Tuple2<K,V>> comparator){
+            this.heads = new PriorityQueue<>(Math.max(1,sources.size()),(h1,h2) -> {
+                int c = comparator.compare(h1.current,h2.current);
+                return c!=0?c:Integer.compare(h1.position,h2.position);
+            });
+            for(int i=0;i<sources.size();i++){
+                Iterator<Tuple2<K,V>> it = sources.get(i);
+                if(it.hasNext())
+                    heads.add(new Head<>(i,it));
+            }
+        }
+
+        @Override
+        public boolean hasNext(){
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Tuple2<K,V> next(){
+            Head<K,V> head = heads.poll();
+            if(head==null) throw new NoSuchElementException();
+            Tuple2<K,V> n = head.current;
+            if(head.advance())
+                heads.add(head);
+            return n;
+        }
+    }
+
+    private static class Head<K,V> {
+        private final int position;
+        private final Iterator<Tuple2<K,V>> source;
+        private Tuple2<K,V> current;
+
+        Head(int position,Iterator<Tuple2<K,V>> source){
+            this.position = position;
+            this.source = source;
+            this.current = source.next();
+        }
+
+        boolean advance(){
+            if(!source.hasNext())
+                return false;
+            current = source.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import splice.com.google.common.base.Function;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterator over a number of scans, e.g. the regions of a table, which are read concurrently on a
+ * bounded executor.
+ *
+ * At most {@code maxConcurrent} scans run at once, each one reading ahead into a buffer of at most
+ * {@code bufferSize} elements before it blocks. Elements are copied before they are handed over, as
+ * scanners usually return the same row instance over and over.
+ *
+ * The executor must reject scans it has no thread for, rather than run them on the caller: a scan
+ * run by the caller would fill its buffer and then wait forever for itself to read it. A rejected
+ * scan is retried whenever another one finishes, and once nothing else is running the caller reads
+ * it directly, without a buffer, as a single scanner would.
+ *
+ * When order is preserved, the scans are returned one after another in the order given, with the
+ * later ones reading ahead in the background; otherwise elements are returned as soon as any scan
+ * produces them, as {@link NonOrderPreservingFutureIterator} does for whole iterators.
+ */
+public class ParallelScanIterator<T> implements Iterator<T>, Closeable {
+    private static final Object END = new Object();
+    private static final long OFFER_WAIT_MS = 100;
+
+    private final ExecutorService executor;
+    private final Function<T, T> copier;
+    private final boolean preserveOrder;
+    private final int maxConcurrent;
+    private final List<Producer> producers;
+    // shared by all producers when order isn't preserved
+    private final BlockingQueue<Object> unorderedBuffer;
+
+    private volatile boolean closed;
+    private int started;
+    private int finished;
+    private int current;
+    private Object next;
+    // the scan read by the caller itself, when the executor had no thread for it
+    private Iterator<T> serial;
+
+    public ParallelScanIterator(ExecutorService executor,
+                                List<? extends Callable<? extends Iterator<T>>> scans,
+                                int maxConcurrent,
+                                int bufferSize,
+                                boolean preserveOrder,
+                                Function<T, T> copier) {
+        this.executor = executor;
+        this.copier = copier;
+        this.preserveOrder = preserveOrder;
+        this.maxConcurrent = Math.max(maxConcurrent, 1);
+        this.unorderedBuffer = preserveOrder ? null : new ArrayBlockingQueue<>(bufferSize * this.maxConcurrent);
+        this.producers = new ArrayList<>(scans.size());
+        for (Callable<? extends Iterator<T>> scan : scans) {
+            producers.add(new Producer(scan, preserveOrder ? new ArrayBlockingQueue<>(bufferSize) : unorderedBuffer));
+        }
+    }
+
+    /**
+     * Starts the first scans.
+     *
+     * @return false if the executor has no thread for any of them. Nothing is started then, and
+     *         the caller may prefer to read the scans in some other way.
+     */
+    public boolean start() {
+        startProducers();
+        return started > 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null)
+            return true;
+        if (closed)
+            return false;
+        try {
+            startProducers();
+            while (finished < producers.size()) {
+                Object element;
+                if (serial == null && started == finished) {
+                    // nothing is running, and the executor has no thread for the next scan
+                    serial = producers.get(started++).scan.call();
+                }
+                if (serial != null) {
+                    element = serial.hasNext() ? serial.next() : END;
+                    if (element == END)
+                        closeSerial();
+                } else {
+                    BlockingQueue<Object> buffer = preserveOrder ? producers.get(current).buffer : unorderedBuffer;
+                    element = buffer.take();
+                }
+                if (element == END) {
+                    finished++;
+                    current++;
+                    startProducers();
+                } else if (element instanceof Failure) {
+                    close();
+                    Throwable t = ((Failure) element).cause;
+                    if (t instanceof RuntimeException)
+                        throw (RuntimeException) t;
+                    throw new RuntimeException(t);
+                } else {
+                    next = element;
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        } catch (Exception e) {
+            close();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        T element = (T) next;
+        next = null;
+        return element;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops all scans, and waits for the running ones to release their scanners, so that the
+     * caller may release what the scanners read from. Elements already buffered are discarded.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        next = null;
+        for (Producer producer : producers) {
+            producer.buffer.clear();
+        }
+        try {
+            for (int i = 0; i < started; i++) {
+                producers.get(i).stop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Producer producer : producers) {
+                producer.buffer.clear();
+            }
+            closeSerial();
+        }
+    }
+
+    private void startProducers() {
+        if (serial != null)
+            return;
+        // only the scans which can be consumed next are allowed to read ahead
+        int limit = Math.min(producers.size(), finished + maxConcurrent);
+        while (started < limit) {
+            Producer producer = producers.get(started);
+            try {
+                producer.future = executor.submit(producer);
+            } catch (RejectedExecutionException e) {
+                // try again once one of ours is done
+                return;
+            }
+            started++;
+        }
+    }
+
+    private void closeSerial() {
+        if (serial instanceof Closeable) {
+            try {
+                ((Closeable) serial).close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        serial = null;
+    }
+
+    private static final class Failure {
+        private final Throwable cause;
+
+        private Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    private final class Producer implements Runnable {
+        private final Callable<? extends Iterator<T>> scan;
+        private final BlockingQueue<Object> buffer;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Future<?> future;
+
+        private Producer(Callable<? extends Iterator<T>> scan, BlockingQueue<Object> buffer) {
+            this.scan = scan;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true))
+                return;
+            try {
+                scan();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        /*
+         * Keeps the scan from starting, or waits for it to stop if it already has. Scans read by
+         * the caller were never submitted.
+         */
+        private void stop() throws InterruptedException {
+            if (future == null)
+                return;
+            if (claimed.compareAndSet(false, true))
+                future.cancel(false);
+            else
+                done.await();
+        }
+
+        private void scan() {
+            Iterator<T> rows = null;
+            Throwable failure = null;
+            try {
+                rows = scan.call();
+                while (!closed && rows.hasNext()) {
+                    put(copier.apply(rows.next()));
+                }
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                // release the scanner before reporting the end, the caller may be done with us after that
+                if (rows instanceof Closeable) {
+                    try {
+                        ((Closeable) rows).close();
+                    } catch (IOException e) {
+                        if (failure == null)
+                            failure = e;
+                    }
+                }
+            }
+            put(failure == null ? END : new Failure(failure));
+        }
+
+        private void put(Object element) {
+            try {
+                while (!closed && !buffer.offer(element, OFFER_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    // wait for the caller to catch up, or to give up on the scan
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.stream.function.SpliceFunction2;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import org.apache.log4j.Logger;
+import scala.Tuple2;
+import splice.com.google.common.collect.Iterators;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Partitioned hash aggregation with grace-hash spilling for the control execution path.
+ *
+ * Incoming entries are hashed into one of {@link #FANOUT} in-memory partitions. When the estimated
+ * size of the hash tables exceeds the budget, the largest resident partition is written to a local
+ * spill file and every later entry hashing to that partition is appended to the file rather than
+ * aggregated. Resident partitions are emitted first; each spilled partition is then re-aggregated
+ * with a differently seeded hash, recursively, until it fits (or {@link #MAX_DEPTH} is reached, at
+ * which point the partition is aggregated in memory regardless of the budget).
+ *
+ * Because a partition is either entirely resident or entirely spilled, a key is never aggregated
+ * in two places at the same level, so no final merge is required.
+ *
+ * The aggregator closes itself once it has been read to the end, and with the operation of its
+ * context otherwise, so that the spilled partitions of an aggregation which is not read to the end
+ * are removed too.
+ *
+ * @param <K> the grouping key
+ * @param <V> the input value
+ * @param <A> the aggregated value
+ */
+public abstract class SpillingHashAggregator<K,V,A> implements Iterator<Tuple2<K,A>>, AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(SpillingHashAggregator.class);
+    static final int FANOUT = 16;
+    static final int MAX_DEPTH = 4;
+
+    private final long bufferSize;
+    private final OperationContext operationContext;
+    private final Deque<SpilledPartition<K,V>> pending = new ArrayDeque<>();
+    private Iterator<Tuple2<K,V>> source;
+    private Iterator<Tuple2<K,A>> current;
+
+    protected SpillingHashAggregator(Iterator<Tuple2<K,V>> source,long bufferSize,OperationContext operationContext){
+        this.source = source;
+        this.bufferSize = bufferSize;
+        this.operationContext = operationContext;
+        ControlUtils.closeWithOperation(this,operationContext);
+    }
+
+    /**
+     * @return a new aggregate holding only {@code value}
+     */
+    protected abstract A create(V value) throws Exception;
+
+    /**
+     * @return {@code aggregate} with {@code value} folded into it
+     */
+    protected abstract A accumulate(A aggregate,V value) throws Exception;
+
+    /**
+     * Write {@code aggregate} out as one or more entries which, when re-aggregated, produce the same result.
+     */
+    protected abstract void spill(K key,A aggregate,ControlSpillFile<K,V> file);
+
+    /**
+     * @return the number of bytes {@code value} adds to an existing aggregate
+     */
+    protected long accumulatedSize(V value){
+        return 0L;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected K copyKey(K key){
+        return key instanceof ExecRow?(K)((ExecRow)key).getClone():key;
+    }
+
+    @Override
+    public boolean hasNext(){
+        while(current==null || !current.hasNext()){
+            try{
+                if(source!=null){
+                    Iterator<Tuple2<K,V>> s = source;
+                    source = null;
+                    current = aggregate(s,0);
+                }else if(!pending.isEmpty()){
+                    SpilledPartition<K,V> partition = pending.poll();
+                    current = aggregate(partition.file.iterator(),partition.depth);
+                }else{
+                    close();
+                    return false;
+                }
+            }catch(RuntimeException re){
+                close();
+                throw re;
+            }catch(Exception e){
+                close();
+                throw new RuntimeException(e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Tuple2<K,A> next(){
+        if(!hasNext()) throw new NoSuchElementException();
+        return current.next();
+    }
+
+    /**
+     * Release any spilled partitions which have not been re-aggregated yet, and the aggregates still held in memory.
+     */
+    @Override
+    public void close(){
+        source = null;
+        current = Collections.emptyIterator();
+        for(SpilledPartition<K,V> partition : pending){
+            partition.file.close();
+        }
+        pending.clear();
+    }
+
+    private Iterator<Tuple2<K,A>> aggregate(Iterator<Tuple2<K,V>> input,int depth) throws Exception{
+        List<Map<K,A>> partitions = new ArrayList<>(FANOUT);
+        for(int i=0;i<FANOUT;i++){
+            partitions.add(new HashMap<>());
+        }
+        @SuppressWarnings("unchecked")
+        ControlSpillFile<K,V>[] spilled = new ControlSpillFile[FANOUT];
+        long[] partitionBytes = new long[FANOUT];
+        long residentBytes = 0L;
+        boolean canSpill = depth<MAX_DEPTH;
+        try{
+            while(input.hasNext()){
+                Tuple2<K,V> t = input.next();
+                K key = t._1();
+                int p = partition(key,depth);
+                if(spilled[p]!=null){
+                    spilled[p].append(key,t._2());
+                    continue;
+                }
+                Map<K,A> table = partitions.get(p);
+                A aggregate = table.get(key);
+                long size;
+                if(aggregate==null){
+                    table.put(copyKey(key),create(t._2()));
+                    size = ControlSpillFile.estimateSize(key,t._2());
+                }else{
+                    A updated = accumulate(aggregate,t._2());
+                    if(updated!=aggregate)
+                        table.put(key,updated);
+                    size = accumulatedSize(t._2());
+                }
+                partitionBytes[p]+=size;
+                residentBytes+=size;
+                if(canSpill && residentBytes>bufferSize){
+                    int victim = largestResident(partitionBytes,spilled);
+                    if(victim>=0){
+                        spilled[victim] = spillPartition(partitions.get(victim));
+                        residentBytes-=partitionBytes[victim];
+                        partitionBytes[victim] = 0L;
+                    }
+                }
+            }
+        }catch(Exception e){
+            for(ControlSpillFile<K,V> file : spilled){
+                if(file!=null) file.close();
+            }
+            throw e;
+        }
+
+        for(int i=0;i<FANOUT;i++){
+            if(spilled[i]==null) continue;
+            long bytes = spilled[i].finish();
+            if(operationContext!=null)
+                operationContext.recordSpilledBytes(bytes);
+            if(LOG.isDebugEnabled())
+                LOG.debug(String.format("spilled hash partition %d at depth %d: %d entries, %d bytes",i,depth,spilled[i].size(),bytes));
+            pending.add(new SpilledPartition<>(spilled[i],depth+1));
+        }
+        List<Iterator<Tuple2<K,A>>> resident = new ArrayList<>(FANOUT);
+        for(Map<K,A> table : partitions){
+            if(!table.isEmpty())
+                resident.add(ControlUtils.entryToTuple(table.entrySet()));
+        }
+        return Iterators.concat(resident.iterator());
+    }
+
+    private ControlSpillFile<K,V> spillPartition(Map<K,A> table) throws IOException{
+        ControlSpillFile<K,V> file = new ControlSpillFile<>();
+        for(Map.Entry<K,A> entry : table.entrySet()){
+            spill(entry.getKey(),entry.getValue(),file);
+        }
+        table.clear();
+        return file;
+    }
+
+    private static int largestResident(long[] partitionBytes,ControlSpillFile[] spilled){
+        int victim = -1;
+        long max = 0L;
+        for(int i=0;i<partitionBytes.length;i++){
+            if(spilled[i]==null && partitionBytes[i]>max){
+                max = partitionBytes[i];
+                victim = i;
+            }
+        }
+        return victim;
+    }
+
+    /*
+     * Each recursion level must split a partition differently than the level above it, or
+     * every entry of a spilled partition would land in the same child partition again.
+     */
+    static int partition(Object key,int depth){
+        int h = (key==null?0:key.hashCode())^(depth*0x9E3779B9);
+        h ^= h>>>16;
+        h *= 0x85EBCA6B;
+        h ^= h>>>13;
+        h *= 0xC2B2AE35;
+        h ^= h>>>16;
+        return (h & Integer.MAX_VALUE)%FANOUT;
+    }
+
+    /**
+     * Aggregator for {@code reduceByKey}: values are folded together with the reduce function, and a
+     * partially reduced value is spilled as is, since the function also merges partial results.
+     */
+    public static <K,V> SpillingHashAggregator<K,V,V> reducer(Iterator<Tuple2<K,V>> source,
+                                                            final SpliceFunction2<?,V,V,V> function,
+                                                            OperationContext operationContext){
+        return new SpillingHashAggregator<K,V,V>(source,ControlSpillFile.aggregateBufferSize(),operationContext){
+            @Override
+            protected V create(V value) throws Exception{
+                return function.call(null,value);
+            }
+
+            @Override
+            protected V accumulate(V aggregate,V value) throws Exception{
+                return function.call(aggregate,value);
+            }
+
+            @Override
+            protected void spill(K key,V aggregate,ControlSpillFile<K,V> file){
+                file.append(key,aggregate);
+            }
+        };
+    }
+
+    /**
+     * Aggregator for {@code groupByKey}: values are collected per key, and a spilled group is written
+     * back out one value at a time, preserving the order in which values were read.
+     */
+    public static <K,V> SpillingHashAggregator<K,V,Iterable<V>> grouper(Iterator<Tuple2<K,V>> source,
+                                                                      OperationContext operationContext){
+        return new SpillingHashAggregator<K,V,Iterable<V>>(source,ControlSpillFile.aggregateBufferSize(),operationContext){
+            @Override
+            protected Iterable<V> create(V value){
+                List<V> values = new ArrayList<>();
+                values.add(value);
+                return values;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            protected Iterable<V> accumulate(Iterable<V> aggregate,V value){
+                ((List<V>)aggregate).add(value);
+                return aggregate;
+            }
+
+            @Override
+            protected long accumulatedSize(V value){
+                return ControlSpillFile.estimateSize(value);
+            }
+
+            @Override
+            protected K copyKey(K key){
+                return key;
+            }
+
+            @Override
+            protected void spill(K key,Iterable<V> aggregate,ControlSpillFile<K,V> file){
+                for(V value : aggregate){
+                    file.append(key,value);
+                }
+            }
+        };
+    }
+
+    private static class SpilledPartition<K,V> {
+        private final ControlSpillFile<K,V> file;
+        private final int depth;
+
+        SpilledPartition(ControlSpillFile<K,V> file,int depth){
+            this.file = file;
+            this.depth = depth;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import org.apache.log4j.Logger;
+import scala.Tuple2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Bounded-memory FIFO queue of rows, for operators which consume their input in order but have
+ * to hold on to a stretch of it, such as window frame buffers.
+ *
+ * Rows are kept on heap until their estimated size exceeds the configured budget. From then on,
+ * rows are appended to local spill files (see {@link ControlSpillFile}), at most a budget's worth
+ * per file, and paged back in order one file at a time once the caller asks for a row past the
+ * ones in memory. Rows at the front of the queue are therefore always on heap; when the queue fits
+ * in the budget no file is ever created and this behaves like an in-memory list.
+ */
+public class SpillingRowQueue implements Closeable {
+    private static final Logger LOG = Logger.getLogger(SpillingRowQueue.class);
+    // don't shift the in-memory rows down for every removal
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final long bufferSize;
+    private final OperationContext operationContext;
+
+    // the rows in memory, from index first; they come before any spilled row
+    private final ArrayList<ExecRow> memory = new ArrayList<>();
+    private int first;
+    private long memoryBytes;
+    private long maxMemoryBytes;
+
+    // the spilled rows, oldest file first; the file being written to is not in the list yet
+    private final ArrayDeque<ControlSpillFile<ExecRow,Object>> spilled = new ArrayDeque<>();
+    private ControlSpillFile<ExecRow,Object> writing;
+    private long writingBytes;
+    private Iterator<Tuple2<ExecRow,Object>> reading;
+    private int spilledRows;
+
+    public SpillingRowQueue(OperationContext operationContext){
+        this(ControlSpillFile.windowBufferSize(),operationContext);
+    }
+
+    public SpillingRowQueue(long bufferSize,OperationContext operationContext){
+        this.bufferSize = bufferSize;
+        this.operationContext = operationContext;
+    }
+
+    public void add(ExecRow row) throws IOException{
+        long rowSize = ControlSpillFile.estimateSize(row);
+        if(spilledRows==0 && (memoryBytes<bufferSize || first==memory.size())){
+            memory.add(row);
+            memoryBytes+=rowSize;
+            maxMemoryBytes = Math.max(maxMemoryBytes,memoryBytes);
+            return;
+        }
+        if(writing==null){
+            writing = new ControlSpillFile<>();
+            writingBytes = 0L;
+        }
+        // only the key of a spilled entry is used
+        writing.append(row,null);
+        writingBytes+=rowSize;
+        spilledRows++;
+        if(writingBytes>=bufferSize)
+            finishWriting();
+    }
+
+    /**
+     * @return the row at the given position from the front of the queue, paging in spilled rows
+     *         if needed
+     */
+    public ExecRow get(int index) throws IOException{
+        while(index>=memory.size()-first && spilledRows>0)
+            pageIn();
+        if(index<0 || index>=memory.size()-first)
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size());
+        return memory.get(first+index);
+    }
+
+    public ExecRow removeFirst() throws IOException{
+        if(first==memory.size()){
+            if(spilledRows==0)
+                throw new NoSuchElementException();
+            pageIn();
+        }
+        ExecRow row = memory.set(first++,null);
+        memoryBytes-=ControlSpillFile.estimateSize(row);
+        if(first==memory.size()){
+            memory.clear();
+            first = 0;
+        }else if(first>=COMPACT_THRESHOLD && first*2>=memory.size()){
+            memory.subList(0,first).clear();
+            first = 0;
+        }
+        return row;
+    }
+
+    public int size(){
+        return memory.size()-first+spilledRows;
+    }
+
+    public boolean isEmpty(){
+        return size()==0;
+    }
+
+    /**
+     * @return the largest estimated size of the rows held in memory at any one time
+     */
+    public long getMaxBufferedBytes(){
+        return maxMemoryBytes;
+    }
+
+    /**
+     * Drop all rows and release any spill files.
+     */
+    @Override
+    public void close(){
+        memory.clear();
+        first = 0;
+        memoryBytes = 0L;
+        if(writing!=null){
+            writing.close();
+            writing = null;
+        }
+        for(ControlSpillFile<ExecRow,Object> file : spilled){
+            file.close();
+        }
+        spilled.clear();
+        reading = null;
+        spilledRows = 0;
+    }
+
+    private void finishWriting(){
+        long bytes = writing.finish();
+        if(operationContext!=null)
+            operationContext.recordSpilledBytes(bytes);
+        if(LOG.isDebugEnabled())
+            LOG.debug(String.format("spilled %d rows, %d bytes",writing.size(),bytes));
+        spilled.add(writing);
+        writing = null;
+    }
+
+    /**
+     * Move rows from the oldest spill file to memory, until the budget is used or the file is
+     * exhausted. Always moves at least one row.
+     */
+    private void pageIn() throws IOException{
+        int loaded = 0;
+        do{
+            if(reading==null){
+                if(spilled.isEmpty())
+                    finishWriting();
+                reading = spilled.peekFirst().iterator();
+            }
+            if(!reading.hasNext()){
+                // the file removes itself once it has been read to the end
+                spilled.pollFirst();
+                reading = null;
+                continue;
+            }
+            ExecRow row = reading.next()._1();
+            memory.add(row);
+            memoryBytes+=ControlSpillFile.estimateSize(row);
+            maxMemoryBytes = Math.max(maxMemoryBytes,memoryBytes);
+            spilledRows--;
+            loaded++;
+        }while(spilledRows>0 && (loaded==0 || (reading!=null && memoryBytes<bufferSize)));
+    }
+}
@@ -33,13 +33,17 @@ import com.splicemachine.derby.utils.SpliceDateFunctions;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.supercsv.prefs.CsvPreference;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import static com.splicemachine.derby.utils.SpliceDateFunctions.TO_DATE;
 import static com.splicemachine.derby.utils.SpliceDateTimeFormatter.*;
@@ -53,6 +57,7 @@ public abstract class AbstractFileFunction<I> extends SpliceFlatMapFunction<Spli
     CsvPreference preference = null;
     private static final char DEFAULT_COLUMN_DELIMITTER = ",".charAt(0);
     private static final char DEFAULT_STRIP_STRING = "\"".charAt(0);
+    private static final int MAX_LONG_DIGITS = 18;
     private String characterDelimiter;
     private String columnDelimiter;
     protected ExecRow execRow;
@@ -173,7 +178,6 @@ public abstract class AbstractFileFunction<I> extends SpliceFlatMapFunction<Spli
         int numofColumnsinTable = 0;
         int numofColumnsinFile = 0;
         boolean columnnumbermistmatch = false;
-        boolean convertTimestamps = false;
 
         if (operationContext != null)
             operationContext.recordRead();
@@ -189,69 +193,22 @@ public abstract class AbstractFileFunction<I> extends SpliceFlatMapFunction<Spli
                 throw StandardException.newException(SQLState.COLUMN_NUMBER_MISMATCH, returnRow.nColumns(), values.size());
             }
 
-            DataTypeDescriptor[] dataTypeDescriptors = null;
-            if (operationContext != null && operationContext.getOperation() instanceof VTIOperation) {
-                VTIOperation op = (VTIOperation) operationContext.getOperation();
-                dataTypeDescriptors = op.getResultColumnTypes();
-
-                if (op.isConvertTimestampsEnabled() &&
-                    op.getActivation().getResultSet() != null &&
-                    op.getActivation().getResultSet() instanceof InsertOperation) {
-
-                    InsertOperation insOp = (InsertOperation)op.getActivation().getResultSet();
-                    String tableVersion = insOp.getTableVersion();
-                    if (tableVersion.equals("2.0"))
-                        convertTimestamps = true;
-                }
-            }
+            DataTypeDescriptor[] dataTypeDescriptors = getResultColumnTypes(operationContext);
+            boolean convertTimestamps = isConvertTimestamps(operationContext);
 
             numofColumnsinTable = returnRow.nColumns();
             numofColumnsinFile = values.size();
             for (int i = 1; i <= returnRow.nColumns(); i++) {
                 DataValueDescriptor dvd = returnRow.getColumn(i);
                 columnID = i;
-                int type = dvd.getTypeFormatId();
 
                 String value = values.get(i - 1);
                 if (shouldBeNull(value,quotedColumns.valueAt(i-1)))
                     value = null;
                 columnValue = value;
-                switch(type){
-                    case StoredFormatIds.SQL_TIME_ID:
-                        if (timeFormat == null || value==null){
-                            ((DateTimeDataValue)dvd).setValue(value,calendar);
-                        }else
-                            dvd.setValue(SpliceDateFunctions.TO_TIME(value, timeFormat, timeFormatter), calendar);
-                        break;
-                    case StoredFormatIds.SQL_DATE_ID:
-                        if (dateTimeFormat == null || value == null)
-                            ((DateTimeDataValue)dvd).setValue(value,calendar);
-                        else
-                            dvd.setValue(TO_DATE(value, dateTimeFormat, dateFormatter),calendar);
-                        break;
-                    case StoredFormatIds.SQL_TIMESTAMP_ID:
-                        if (timestampFormat == null || value==null)
-                            ((DateTimeDataValue)dvd).setValue(value,calendar);
-                        else {
-                            Timestamp ts = SpliceDateFunctions.TO_TIMESTAMP(value, timestampFormat, timestampFormatter);
-                            if (convertTimestamps)
-                                ts = SQLTimestamp.convertTimeStamp(ts);
-                            dvd.setValue(ts, calendar);
-                        }
-                        break;
-                    case StoredFormatIds.SQL_CHAR_ID:
-                    case StoredFormatIds.SQL_VARCHAR_ID:
-                    case StoredFormatIds.SQL_CLOB_ID:
-                    case StoredFormatIds.SQL_DECIMAL_ID:
-                        dvd.setValue(value);
-                        //normalize the char type
-                        if(dataTypeDescriptors != null && !dvd.isNull()){
-                            dvd.normalize(dataTypeDescriptors[i-1], dvd);
-                        }
-                        break;
-                    default:
-                        dvd.setValue(value);
-                }
+                setValue(dvd, value, dataTypeDescriptors == null ? null : dataTypeDescriptors[i-1],
+                        convertTimestamps, calendar, timeFormat, dateTimeFormat, timestampFormat,
+                        dateFormatter, timestampFormatter, timeFormatter);
             }
             return returnRow;
         } catch (Exception e) {
@@ -268,19 +225,324 @@ public abstract class AbstractFileFunction<I> extends SpliceFlatMapFunction<Spli
         }
     }
 
+    /**
+     * Builds a row from the current record of the tokenizer, like {@link #call(List, BooleanList)}.
+     * Integer, decimal and ISO date values are parsed straight from the bytes of the record; other
+     * values, and numbers or dates in any other form, are converted from their Strings.
+     */
+    @SuppressFBWarnings(value = "REC_CATCH_EXCEPTION",justification = "Intentional")
+    public ExecRow call(CsvByteTokenizer tokenizer) throws Exception {
+        int columnID = 0;
+        int numofColumnsinTable = 0;
+        int numofColumnsinFile = tokenizer.getColumnCount();
+        boolean columnnumbermistmatch = false;
+
+        if (operationContext != null)
+            operationContext.recordRead();
+
+        try {
+            ExecRow returnRow = execRow.getClone();
+            numofColumnsinTable = returnRow.nColumns();
+            if (numofColumnsinFile < numofColumnsinTable) {
+                columnnumbermistmatch = true;
+                throw StandardException.newException(SQLState.COLUMN_NUMBER_MISMATCH, numofColumnsinTable, numofColumnsinFile);
+            }
+
+            DataTypeDescriptor[] dataTypeDescriptors = getResultColumnTypes(operationContext);
+            boolean convertTimestamps = isConvertTimestamps(operationContext);
+            byte[] bytes = tokenizer.getBuffer();
+            for (int i = 1; i <= numofColumnsinTable; i++) {
+                DataValueDescriptor dvd = returnRow.getColumn(i);
+                DataTypeDescriptor dataTypeDescriptor = dataTypeDescriptors == null ? null : dataTypeDescriptors[i-1];
+                columnID = i;
+                if (setFromBytes(dvd, bytes, tokenizer.getStart(i-1), tokenizer.getEnd(i-1), dataTypeDescriptor))
+                    continue;
+
+                String value = tokenizer.getString(i - 1);
+                if (shouldBeNull(value,tokenizer.isQuoted(i-1)))
+                    value = null;
+                setValue(dvd, value, dataTypeDescriptor, convertTimestamps, calendar, timeFormat, dateFormat,
+                        timestampFormat, dateFormatter, timestampFormatter, timeFormatter);
+            }
+            return returnRow;
+        } catch (Exception e) {
+            if (operationContext != null && operationContext.isPermissive()) {
+                List<String> values = tokenizer.getColumns();
+                String extendedMessage;
+                if (columnnumbermistmatch)
+                    extendedMessage = " row Data: " + values;
+                else
+                    extendedMessage = " [Columns in Table: " + numofColumnsinTable + "] [Columns in File: " + numofColumnsinFile + "] [Bad Column ID: " + columnID + "] "+ "[Bad Column Value: " + (columnID > 0 ? values.get(columnID - 1) : null) + "]" + " row Data: " + values;
+                operationContext.recordBadRecord(e.getLocalizedMessage() + extendedMessage, e);
+                return null;
+            }
+            throw e; // Not Permissive of errors
+        }
+    }
+
+    /**
+     * @return the rows of the records left in the tokenizer. Malformed records are recorded as
+     *         bad records when the operation is permissive. The source is closed once the
+     *         tokenizer runs out of records.
+     */
+    Iterator<ExecRow> rows(final CsvByteTokenizer tokenizer, final Closeable source) {
+        return new Iterator<ExecRow>() {
+            private ExecRow nextRow;
+            private boolean hasNext = true;
+            private boolean stale = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!hasNext || stale)
+                    return hasNext;
+                try {
+                    while (true) {
+                        try {
+                            if (!tokenizer.next()) {
+                                source.close();
+                                hasNext = false;
+                                return false;
+                            }
+                            nextRow = call(tokenizer);
+                            if (nextRow != null) {
+                                stale = true;
+                                return true;
+                            }
+                        } catch (Exception e) {
+                            if (operationContext.isPermissive()) {
+                                operationContext.recordBadRecord(e.getLocalizedMessage(), e);
+                            } else
+                                throw StandardException.plainWrapException(e);
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException("Terminal, should have been caught", e);
+                }
+            }
+
+            @Override
+            public ExecRow next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                stale = false;
+                return nextRow;
+            }
+
+            @Override
+            public void remove() {
+                throw new RuntimeException("not supported");
+            }
+        };
+    }
+
     void checkPreference() {
         if (preference==null){
             SConfiguration config =EngineDriver.driver().getConfiguration();
-            int maxQuotedLines = config.getImportMaxQuotedColumnLines();
-            preference=new CsvPreference.Builder(
-                    characterDelimiter!=null && !characterDelimiter.isEmpty() ?characterDelimiter.charAt(0):DEFAULT_STRIP_STRING,
-                    columnDelimiter!=null && !columnDelimiter.isEmpty() ?columnDelimiter.charAt(0):DEFAULT_COLUMN_DELIMITTER,
-                    "\n").maxLinesPerRow(maxQuotedLines).build();
+            preference=buildPreference(characterDelimiter, columnDelimiter, config.getImportMaxQuotedColumnLines());
         }
     }
 
+    /**
+     * @return the CSV preferences for the given quote and column delimiters, either of which
+     *         may be null for the default
+     */
+    public static CsvPreference buildPreference(String characterDelimiter, String columnDelimiter, int maxQuotedLines) {
+        return new CsvPreference.Builder(
+                characterDelimiter!=null && !characterDelimiter.isEmpty() ?characterDelimiter.charAt(0):DEFAULT_STRIP_STRING,
+                columnDelimiter!=null && !columnDelimiter.isEmpty() ?columnDelimiter.charAt(0):DEFAULT_COLUMN_DELIMITTER,
+                "\n").maxLinesPerRow(maxQuotedLines).build();
+    }
+
     /* ****************************************************************************************************************/
     /*private helper methods*/
+    private static DataTypeDescriptor[] getResultColumnTypes(OperationContext operationContext) {
+        if (operationContext != null && operationContext.getOperation() instanceof VTIOperation)
+            return ((VTIOperation) operationContext.getOperation()).getResultColumnTypes();
+        return null;
+    }
+
+    private static boolean isConvertTimestamps(OperationContext operationContext) {
+        if (operationContext != null && operationContext.getOperation() instanceof VTIOperation) {
+            VTIOperation op = (VTIOperation) operationContext.getOperation();
+            if (op.isConvertTimestampsEnabled() &&
+                op.getActivation().getResultSet() != null &&
+                op.getActivation().getResultSet() instanceof InsertOperation) {
+
+                InsertOperation insOp = (InsertOperation)op.getActivation().getResultSet();
+                String tableVersion = insOp.getTableVersion();
+                return tableVersion.equals("2.0");
+            }
+        }
+        return false;
+    }
+
+    private static void setValue(DataValueDescriptor dvd, String value, DataTypeDescriptor dataTypeDescriptor,
+                                 boolean convertTimestamps, Calendar calendar, String timeFormat,
+                                 String dateTimeFormat, String timestampFormat,
+                                 SpliceDateTimeFormatter dateFormatter,
+                                 SpliceDateTimeFormatter timestampFormatter,
+                                 SpliceDateTimeFormatter timeFormatter) throws StandardException {
+        switch(dvd.getTypeFormatId()){
+            case StoredFormatIds.SQL_TIME_ID:
+                if (timeFormat == null || value==null){
+                    ((DateTimeDataValue)dvd).setValue(value,calendar);
+                }else
+                    dvd.setValue(SpliceDateFunctions.TO_TIME(value, timeFormat, timeFormatter), calendar);
+                break;
+            case StoredFormatIds.SQL_DATE_ID:
+                if (dateTimeFormat == null || value == null)
+                    ((DateTimeDataValue)dvd).setValue(value,calendar);
+                else
+                    dvd.setValue(TO_DATE(value, dateTimeFormat, dateFormatter),calendar);
+                break;
+            case StoredFormatIds.SQL_TIMESTAMP_ID:
+                if (timestampFormat == null || value==null)
+                    ((DateTimeDataValue)dvd).setValue(value,calendar);
+                else {
+                    Timestamp ts = SpliceDateFunctions.TO_TIMESTAMP(value, timestampFormat, timestampFormatter);
+                    if (convertTimestamps)
+                        ts = SQLTimestamp.convertTimeStamp(ts);
+                    dvd.setValue(ts, calendar);
+                }
+                break;
+            case StoredFormatIds.SQL_CHAR_ID:
+            case StoredFormatIds.SQL_VARCHAR_ID:
+            case StoredFormatIds.SQL_CLOB_ID:
+            case StoredFormatIds.SQL_DECIMAL_ID:
+                dvd.setValue(value);
+                //normalize the char type
+                if(dataTypeDescriptor != null && !dvd.isNull()){
+                    dvd.normalize(dataTypeDescriptor, dvd);
+                }
+                break;
+            default:
+                dvd.setValue(value);
+        }
+    }
+
+    /**
+     * Set integer, decimal and ISO date columns straight from the bytes of their values.
+     *
+     * @return false if the value is empty or not in the plain form handled here, and has to be
+     *         converted from its String instead
+     */
+    private boolean setFromBytes(DataValueDescriptor dvd, byte[] bytes, int start, int end,
+                                 DataTypeDescriptor dataTypeDescriptor) throws StandardException {
+        if (start == end)
+            return false;
+        switch (dvd.getTypeFormatId()) {
+            case StoredFormatIds.SQL_TINYINT_ID:
+                return setInteger(dvd, bytes, start, end, Byte.MIN_VALUE, Byte.MAX_VALUE);
+            case StoredFormatIds.SQL_SMALLINT_ID:
+                return setInteger(dvd, bytes, start, end, Short.MIN_VALUE, Short.MAX_VALUE);
+            case StoredFormatIds.SQL_INTEGER_ID:
+                return setInteger(dvd, bytes, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            case StoredFormatIds.SQL_LONGINT_ID:
+                return setInteger(dvd, bytes, start, end, Long.MIN_VALUE, Long.MAX_VALUE);
+            case StoredFormatIds.SQL_DECIMAL_ID:
+                return setDecimal(dvd, bytes, start, end, dataTypeDescriptor);
+            case StoredFormatIds.SQL_DATE_ID:
+                return dateFormat == null && setIsoDate(dvd, bytes, start, end);
+            default:
+                return false;
+        }
+    }
+
+    private static boolean setInteger(DataValueDescriptor dvd, byte[] bytes, int start, int end,
+                                      long min, long max) throws StandardException {
+        int i = start;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+')
+            i++;
+        // longer values might not fit in a long, leave them to the String conversion
+        if (i == end || end - i > MAX_LONG_DIGITS)
+            return false;
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9)
+                return false;
+            value = value * 10 + digit;
+        }
+        if (negative)
+            value = -value;
+        if (value < min || value > max)
+            return false;
+        dvd.setValue(value);
+        return true;
+    }
+
+    private static boolean setDecimal(DataValueDescriptor dvd, byte[] bytes, int start, int end,
+                                      DataTypeDescriptor dataTypeDescriptor) throws StandardException {
+        int i = start;
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+')
+            i++;
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            if (bytes[i] == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9 || ++digits > MAX_LONG_DIGITS)
+                return false;
+            unscaled = unscaled * 10 + digit;
+            if (scale >= 0)
+                scale++;
+        }
+        if (digits == 0)
+            return false;
+        dvd.setBigDecimal(BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0)));
+        if (dataTypeDescriptor != null)
+            dvd.normalize(dataTypeDescriptor, dvd);
+        return true;
+    }
+
+    /**
+     * Set a date in the ISO form yyyy-mm-dd, the only one with 4 digits first.
+     */
+    private static boolean setIsoDate(DataValueDescriptor dvd, byte[] bytes, int start, int end) {
+        if (end - start != 10 || bytes[start + 4] != '-' || bytes[start + 7] != '-' || !(dvd instanceof SQLDate))
+            return false;
+        int year = digits(bytes, start, 4);
+        int month = digits(bytes, start + 5, 2);
+        int day = digits(bytes, start + 8, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month))
+            return false;
+        ((SQLDate) dvd).setValue((year << 16) + (month << 8) + day);
+        return true;
+    }
+
+    /**
+     * @return the value of the given number of digits, or -1 if any of them is not a digit
+     */
+    private static int digits(byte[] bytes, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            default:
+                return 31;
+        }
+    }
+
     @SuppressWarnings("SimplifiableIfStatement") //the logic is clearer this way, without a performance penalty
     private static boolean shouldBeNull(String value,boolean wasQuoted){
         if(value==null) return true;
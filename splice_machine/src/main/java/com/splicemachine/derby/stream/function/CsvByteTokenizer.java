@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.derby.stream.utils.BooleanList;
+import com.splicemachine.utils.UnsafeUtil;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+import sun.misc.Unsafe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tokenizer which reads CSV records straight from the bytes of a stream, instead of decoding
+ * the stream into lines of characters first like {@link QuoteTrackingTokenizer}.
+ *
+ * The stream is read in blocks. Runs of ordinary bytes are skipped eight at a time by testing
+ * a whole word for the delimiter, quote and line terminator bytes, and the byte which stops a
+ * run is classified with a lookup table; each run is copied into the record with a single
+ * array copy. The values of a record are kept as byte ranges, so that callers can parse
+ * numbers and dates without creating Strings, and only decode the columns they need as text.
+ *
+ * This follows the rules of {@link QuoteTrackingTokenizer} for the preferences that
+ * {@link AbstractFileFunction} builds: quoted sections may span lines up to the configured
+ * limit, doubled quotes within a quoted section stand for a quote, empty lines are skipped and
+ * empty values are reported as empty. It only supports charsets in which the delimiter, quote
+ * and line terminators are single bytes that never occur within another character, see
+ * {@link #supports(String, CsvPreference)}.
+ */
+public class CsvByteTokenizer {
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private static final byte PLAIN = 0;
+    private static final byte DELIMITER = 1;
+    private static final byte QUOTE = 2;
+    private static final byte TERMINATOR = 3;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_BITS = 0x7f7f7f7f7f7f7f7fL;
+    private static final long LF_WORD = ONES * LF;
+    private static final long CR_WORD = ONES * CR;
+
+    private static final Unsafe UNSAFE = UnsafeUtil.unsafe();
+    private static final long BYTE_ARRAY_OFFSET = UnsafeUtil.byteArrayOffset();
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    private final InputStream in;
+    private final Charset charset;
+    private final byte quote;
+    private final long quoteWord;
+    private final long delimiterWord;
+    private final byte[] classes = new byte[256];
+    private final int maxLinesPerRow;
+    // records starting at or past this offset of the stream are left to whoever reads on from there
+    private final long limit;
+
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private int pos;
+    private int end;
+    private long blockOffset;
+    private boolean eof;
+    private int lineNumber = 1;
+
+    // the values of the current record, back to back
+    private byte[] values = new byte[1024];
+    private int valuesLength;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] quoted = new boolean[16];
+    private int columnCount;
+
+    public CsvByteTokenizer(InputStream in, CsvPreference preferences, Charset charset) {
+        this(in, preferences, charset, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param limit number of bytes of the stream to tokenize. The record which starts before the
+     *              limit and runs past it is read to its end.
+     */
+    public CsvByteTokenizer(InputStream in, CsvPreference preferences, Charset charset, long limit) {
+        this.in = in;
+        this.charset = charset;
+        this.quote = (byte) preferences.getQuoteChar();
+        byte delimiter = (byte) preferences.getDelimiterChar();
+        this.quoteWord = broadcast(quote);
+        this.delimiterWord = broadcast(delimiter);
+        this.maxLinesPerRow = preferences.getMaxLinesPerRow();
+        this.limit = limit;
+        classes[delimiter & 0xff] = DELIMITER;
+        classes[quote & 0xff] = QUOTE;
+        classes[LF] = TERMINATOR;
+        classes[CR] = TERMINATOR;
+    }
+
+    /**
+     * @return true if records in the given charset, with the given preferences, can be read
+     *         with this tokenizer
+     */
+    public static boolean supports(String charset, CsvPreference preferences) {
+        if (charset == null || !Charset.isSupported(charset))
+            return false;
+        Charset cs = Charset.forName(charset);
+        // multi-byte UTF-8 sequences only use bytes past 0x7f, so ASCII bytes are always characters
+        if (!cs.equals(StandardCharsets.UTF_8) && !cs.equals(StandardCharsets.US_ASCII)
+                && !cs.equals(StandardCharsets.ISO_8859_1))
+            return false;
+        char quoteChar = preferences.getQuoteChar();
+        int delimiterChar = preferences.getDelimiterChar();
+        return quoteChar < 0x80 && delimiterChar < 0x80 && quoteChar != delimiterChar
+                && !isTerminator(quoteChar) && !isTerminator(delimiterChar)
+                && !preferences.isSurroundingSpacesNeedQuotes()
+                && preferences.isIgnoreEmptyLines()
+                && preferences.getCommentMatcher() == null;
+    }
+
+    private static boolean isTerminator(int c) {
+        return c == LF || c == CR;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return false if there are no more records to read
+     * @throws SuperCsvException if the record is malformed. The next call goes on with the
+     *                           following line.
+     */
+    public boolean next() throws IOException {
+        columnCount = 0;
+        valuesLength = 0;
+        // skip empty lines
+        while (true) {
+            if (pos == end && !fill())
+                return false;
+            byte b = block[pos];
+            if (b != LF && b != CR)
+                break;
+            pos++;
+            endOfLine(b);
+        }
+        if (blockOffset + pos >= limit)
+            return false;
+
+        int columnStart = 0;
+        boolean wasQuoted = false;
+        boolean inQuotes = false;
+        int quoteStartLine = -1;
+        while (true) {
+            if (pos == end && !fill()) {
+                if (inQuotes) {
+                    // a line terminator right before the end of the stream does not start another line
+                    int lastLine = valuesLength > columnStart && values[valuesLength - 1] == LF ? lineNumber - 1 : lineNumber;
+                    throw new SuperCsvException(String.format("partial record found [%s] while reading quoted column beginning on line %d and ending on line %d",
+                            new String(values, columnStart, valuesLength - columnStart, charset), quoteStartLine, lastLine));
+                }
+                finishColumn(columnStart, wasQuoted);
+                return true;
+            }
+            int runEnd = inQuotes ? scanQuoted(pos) : scanUnquoted(pos);
+            append(block, pos, runEnd - pos);
+            pos = runEnd;
+            if (pos == end)
+                continue;
+
+            byte b = block[pos++];
+            switch (classes[b & 0xff]) {
+                case DELIMITER:
+                    // delimiters within quotes are part of the run
+                    finishColumn(columnStart, wasQuoted);
+                    columnStart = valuesLength;
+                    wasQuoted = false;
+                    break;
+                case QUOTE:
+                    if (!inQuotes) {
+                        inQuotes = true;
+                        wasQuoted = true;
+                        quoteStartLine = lineNumber;
+                    } else if ((pos < end || fill()) && block[pos] == quote) {
+                        // an escaped quote
+                        append(block, pos, 1);
+                        pos++;
+                    } else {
+                        inQuotes = false;
+                    }
+                    break;
+                case TERMINATOR:
+                    if (!inQuotes) {
+                        endOfLine(b);
+                        finishColumn(columnStart, wasQuoted);
+                        return true;
+                    }
+                    if (maxLinesPerRow > 0 && lineNumber - quoteStartLine + 1 >= maxLinesPerRow) {
+                        int line = lineNumber;
+                        endOfLine(b);
+                        throw new SuperCsvException(maxLinesPerRow == 1 ?
+                                String.format("unexpected end of line while reading quoted column on line %d", line) :
+                                String.format("max number of lines to read exceeded while reading quoted column" +
+                                        " beginning on line %d and ending on line %d", quoteStartLine, line));
+                    }
+                    endOfLine(b);
+                    // the specific line terminator is lost, \n will have to suffice
+                    append(LF);
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected byte " + b);
+            }
+        }
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public boolean isQuoted(int column) {
+        return quoted[column];
+    }
+
+    /**
+     * @return true if the column has no characters, which makes it null
+     */
+    public boolean isEmpty(int column) {
+        return starts[column] == ends[column];
+    }
+
+    /**
+     * @return the value of the column, or null if it is empty
+     */
+    public String getString(int column) {
+        int length = ends[column] - starts[column];
+        return length == 0 ? null : new String(values, starts[column], length, charset);
+    }
+
+    /**
+     * @return the buffer holding the values of the current record, see {@link #getStart(int)}
+     *         and {@link #getEnd(int)}. It is overwritten by the next record.
+     */
+    @SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Intentional")
+    public byte[] getBuffer() {
+        return values;
+    }
+
+    public int getStart(int column) {
+        return starts[column];
+    }
+
+    public int getEnd(int column) {
+        return ends[column];
+    }
+
+    /**
+     * @return the values of the current record, in the form {@link QuoteTrackingTokenizer} reports them
+     */
+    public List<String> getColumns() {
+        List<String> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++)
+            columns.add(getString(i));
+        return columns;
+    }
+
+    public BooleanList getQuotedColumns() {
+        return BooleanList.wrap(Arrays.copyOf(quoted, columnCount));
+    }
+
+    /**
+     * @return the line the tokenizer is on, counting from 1 at the start of the stream
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return the index of the first delimiter, quote or line terminator from the given index,
+     *         or the end of the block
+     */
+    private int scanUnquoted(int from) {
+        int i = from;
+        while (i + 8 <= end) {
+            long word = getWord(block, i);
+            if ((matchingBytes(word, delimiterWord) | matchingBytes(word, quoteWord)
+                    | matchingBytes(word, LF_WORD) | matchingBytes(word, CR_WORD)) != 0)
+                break;
+            i += 8;
+        }
+        while (i < end && classes[block[i] & 0xff] == PLAIN)
+            i++;
+        return i;
+    }
+
+    /**
+     * @return the index of the first quote or line terminator from the given index, or the end
+     *         of the block
+     */
+    private int scanQuoted(int from) {
+        int i = from;
+        while (i + 8 <= end) {
+            long word = getWord(block, i);
+            if ((matchingBytes(word, quoteWord) | matchingBytes(word, LF_WORD) | matchingBytes(word, CR_WORD)) != 0)
+                break;
+            i += 8;
+        }
+        byte c;
+        while (i < end && ((c = classes[block[i] & 0xff]) == PLAIN || c == DELIMITER))
+            i++;
+        return i;
+    }
+
+    /**
+     * @return the given byte repeated in each byte of a word, to match against with
+     *         {@link #matchingBytes(long, long)}
+     */
+    public static long broadcast(int b) {
+        return ONES * (b & 0xff);
+    }
+
+    /**
+     * @return a word with the high bit set in exactly those bytes of the word that equal the
+     *         byte repeated in the pattern, and all other bits clear
+     */
+    public static long matchingBytes(long word, long pattern) {
+        long v = word ^ pattern;
+        return ~(((v & LOW_BITS) + LOW_BITS) | v | LOW_BITS);
+    }
+
+    /**
+     * @return the index, within the word, of the first byte set in a result of
+     *         {@link #matchingBytes(long, long)}
+     */
+    public static int firstMatch(long matches) {
+        return (LITTLE_ENDIAN ? Long.numberOfTrailingZeros(matches) : Long.numberOfLeadingZeros(matches)) >>> 3;
+    }
+
+    /**
+     * @return the eight bytes of the array from the given index, in native byte order
+     */
+    public static long getWord(byte[] array, int index) {
+        assert index >= 0 && index + 8 <= array.length;
+        return UNSAFE.getLong(array, BYTE_ARRAY_OFFSET + index);
+    }
+
+    private void endOfLine(byte terminator) throws IOException {
+        // \r\n is a single line terminator
+        if (terminator == CR && (pos < end || fill()) && block[pos] == LF)
+            pos++;
+        lineNumber++;
+    }
+
+    /**
+     * Read the next block, once everything up to the end of the current one has been used.
+     */
+    private boolean fill() throws IOException {
+        assert pos == end;
+        if (eof)
+            return false;
+        blockOffset += end;
+        pos = 0;
+        end = 0;
+        int read;
+        while ((read = in.read(block, end, block.length - end)) == 0) {
+            // keep trying until the stream returns data or reaches its end
+        }
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        end = read;
+        return true;
+    }
+
+    private void finishColumn(int start, boolean wasQuoted) {
+        if (columnCount == starts.length) {
+            int size = columnCount * 2;
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            quoted = Arrays.copyOf(quoted, size);
+        }
+        starts[columnCount] = start;
+        ends[columnCount] = valuesLength;
+        quoted[columnCount] = wasQuoted;
+        columnCount++;
+    }
+
+    private void append(byte[] source, int offset, int length) {
+        if (length == 0)
+            return;
+        ensureCapacity(length);
+        System.arraycopy(source, offset, values, valuesLength, length);
+        valuesLength += length;
+    }
+
+    private void append(byte b) {
+        ensureCapacity(1);
+        values[valuesLength++] = b;
+    }
+
+    private void ensureCapacity(int length) {
+        if (valuesLength + length > values.length)
+            values = Arrays.copyOf(values, Math.max(values.length * 2, valuesLength + length));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.load.CsvFileSplit;
+import com.splicemachine.derby.impl.load.CsvFileSplitter;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Scans a chunk of a CSV file for the {@link CsvFileSplitter}.
+ */
+public class CsvChunkScanFunction extends SpliceFunction<SpliceOperation, CsvFileSplit, CsvFileSplitter.ChunkScan> {
+    private String fileName;
+    private char quoteChar;
+
+    public CsvChunkScanFunction() {
+        super();
+    }
+
+    public CsvChunkScanFunction(String fileName, char quoteChar, OperationContext operationContext) {
+        super(operationContext);
+        this.fileName = fileName;
+        this.quoteChar = quoteChar;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        super.writeExternal(out);
+        out.writeUTF(fileName);
+        out.writeChar(quoteChar);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        super.readExternal(in);
+        fileName = in.readUTF();
+        quoteChar = in.readChar();
+    }
+
+    @Override
+    public CsvFileSplitter.ChunkScan call(CsvFileSplit chunk) throws Exception {
+        try (InputStream in = CsvFileSplitter.open(fileName, chunk.getStart())) {
+            return CsvFileSplitter.scan(in, chunk, quoteChar);
+        }
+    }
+}
@@ -18,21 +18,21 @@ import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.derby.impl.sql.execute.operations.WindowOperation;
 import com.splicemachine.derby.impl.sql.execute.operations.window.WindowAggregator;
 import com.splicemachine.derby.impl.sql.execute.operations.window.WindowContext;
+import com.splicemachine.derby.stream.control.ControlUtils;
+import com.splicemachine.derby.stream.control.ExternalSortIterator;
 import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.derby.stream.window.BaseFrameBuffer;
 import com.splicemachine.derby.stream.window.WindowFrameBuffer;
 import org.apache.spark.InterruptibleIterator;
 import org.apache.spark.TaskContext;
+import org.apache.spark.util.TaskCompletionListener;
 import scala.Tuple2;
 import scala.collection.JavaConverters;
+import splice.com.google.common.collect.Iterators;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.List;
-
-import static java.util.Collections.sort;
 
 /**
  * Created by jleach on 4/24/15.
@@ -49,23 +49,36 @@ public class MergeWindowFunction<Op extends WindowOperation> extends SpliceFlatM
     @Override
     public Iterator<ExecRow> call(Tuple2<ExecRow, Iterable<ExecRow>> tuple) throws Exception {
         Iterable<ExecRow> locatedRows = tuple._2();
-        List<ExecRow> partitionRows =new ArrayList<>();
-        for(ExecRow lr:locatedRows){
-            partitionRows.add(lr);
-        }
         WindowContext windowContext = operationContext.getOperation().getWindowContext();
 
-        sort(partitionRows, new LocatedRowComparator(windowContext.getKeyColumns(),
-                                                     windowContext.getKeyOrders(),
-                                                     windowContext.getNullOrderings()));
+        // sort the partition within the sort buffer budget, spilling runs if it is large
+        final ExternalSortIterator<ExecRow,Object> sortedRows = new ExternalSortIterator<>(
+                Iterators.transform(locatedRows.iterator(), row -> new Tuple2<ExecRow,Object>(row, null)),
+                new LocatedRowComparator(windowContext.getKeyColumns(),
+                                         windowContext.getKeyOrders(),
+                                         windowContext.getNullOrderings()),
+                operationContext);
 
         // window logic
         final WindowFrameBuffer frameBuffer = BaseFrameBuffer.createFrameBuffer(
                 windowContext.getWindowFunctions(),
-                new LocatedToExecRowIter(partitionRows.iterator()),
+                new LocatedToExecRowIter(Iterators.transform(sortedRows, Tuple2::_1)),
                 windowContext.getFrameDefinition(),
                 windowContext.getSortColumns(),
-                operationContext.getOperation().getExecRowDefinition().getClone());
+                operationContext.getOperation().getExecRowDefinition().getClone(),
+                operationContext);
+
+        // the sort and the frame buffer may spill, and the partitions are set up before any of them is read, so
+        // release them with the operation (the sort registers itself) or, on Spark, where the operation isn't
+        // closed on the executors, when the task completes
+        ControlUtils.closeWithOperation(frameBuffer, operationContext);
+        TaskContext taskContext = TaskContext.get();
+        if (taskContext != null) {
+            taskContext.addTaskCompletionListener((TaskCompletionListener) (t) -> {
+                sortedRows.close();
+                frameBuffer.close();
+            });
+        }
 
         return new ExecRowToLocatedRowIterable(new Iterable<ExecRow>() {
             @Override public Iterator<ExecRow> iterator() {
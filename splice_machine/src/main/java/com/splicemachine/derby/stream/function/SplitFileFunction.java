@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.impl.load.CsvFileSplit;
+import com.splicemachine.derby.impl.load.CsvFileSplitter;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Function for parsing one split of a large uncompressed CSV file, so that the splits of a single
+ * file can be imported in parallel. The split starts at a record boundary, see {@link CsvFileSplitter};
+ * the records starting within it are read from the bytes of the file with a {@link CsvByteTokenizer}.
+ */
+public class SplitFileFunction extends AbstractFileFunction<CsvFileSplit> {
+    private String fileName;
+    private String charset;
+
+    public SplitFileFunction() {
+        super();
+    }
+
+    public SplitFileFunction(String characterDelimiter, String columnDelimiter, ExecRow execRow, int[] columnIndex, String timeFormat,
+                             String dateTimeFormat, String timestampFormat, String fileName, String charset, OperationContext operationContext) {
+        super(characterDelimiter,columnDelimiter,execRow,columnIndex,timeFormat,
+                dateTimeFormat,timestampFormat,operationContext);
+        assert charset != null;
+        this.fileName = fileName;
+        this.charset = charset;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        super.writeExternal(out);
+        out.writeUTF(fileName);
+        out.writeUTF(charset);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        super.readExternal(in);
+        fileName = in.readUTF();
+        charset = in.readUTF();
+    }
+
+    @Override
+    public Iterator<ExecRow> call(CsvFileSplit split) throws Exception {
+        if (operationContext.isFailed())
+            return Collections.<ExecRow>emptyList().iterator();
+        checkPreference();
+        InputStream in = CsvFileSplitter.open(fileName, split.getStart());
+        return rows(new CsvByteTokenizer(in, preference, Charset.forName(charset), split.length()), in);
+    }
+}
@@ -23,6 +23,7 @@ import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.derby.stream.utils.BooleanList;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.*;
 
 /**
@@ -60,6 +61,8 @@ import java.util.*;
         if (operationContext.isFailed())
             return Collections.<ExecRow>emptyList().iterator();
         checkPreference();
+        if (CsvByteTokenizer.supports(charset, preference))
+            return rows(new CsvByteTokenizer(s, preference, Charset.forName(charset)), s);
 
         return new Iterator<ExecRow>() {
                     private ExecRow nextRow;
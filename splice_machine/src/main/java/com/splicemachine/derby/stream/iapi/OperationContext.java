@@ -41,6 +41,20 @@ public interface OperationContext<Op extends SpliceOperation> extends Externaliz
     long getRetryAttempts();
     long getRegionTooBusyExceptions();
 
+    /**
+     * Record the number of bytes an operator wrote to local disk because its
+     * working set exceeded the configured memory budget.
+     */
+    void recordSpilledBytes(long bytes);
+    long getSpilledBytes();
+
+    /**
+     * Record the number of bytes an operator held in memory for its working set.
+     * Only the largest value recorded is kept.
+     */
+    void recordBufferedBytes(long bytes);
+    long getMaxBufferedBytes();
+
     BadRecordsRecorder getBadRecordsRecorder();
 
     boolean isPermissive();
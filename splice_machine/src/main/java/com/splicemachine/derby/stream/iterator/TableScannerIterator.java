@@ -26,6 +26,9 @@ import com.splicemachine.derby.impl.sql.execute.operations.scanner.TableScannerB
 import com.splicemachine.derby.stream.function.IteratorUtils;
 import com.splicemachine.derby.stream.utils.StreamLogUtils;
 import com.splicemachine.derby.utils.Scans;
+import com.splicemachine.si.api.server.TransactionalRegion;
+import com.splicemachine.storage.DataScan;
+import com.splicemachine.storage.DataScanner;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Closeable;
 import java.io.IOException;
@@ -48,6 +51,25 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
     protected int[] baseColumnMap;
     protected boolean rowIdKey; // HACK Row ID Qualifiers point to the projection above them ?  TODO JL
     protected HBaseRowLocation hBaseRowLocation;
+    // set when scanning one region of the builder's scan, see below
+    private DataScanner regionScanner;
+    private DataScan regionScan;
+    private TransactionalRegion region;
+    private ExecRow regionTemplate;
+
+    /**
+     * Scans the given region of the builder's scan, with its own row template. Unlike the builder-wide
+     * iterator, this one isn't registered with the operation; the caller is responsible for closing it.
+     */
+    public TableScannerIterator(TableScannerBuilder siTableBuilder, SpliceOperation operation,
+                                DataScanner regionScanner, DataScan regionScan,
+                                TransactionalRegion region, ExecRow regionTemplate) throws StandardException {
+        this(siTableBuilder, operation);
+        this.regionScanner = regionScanner;
+        this.regionScan = regionScan;
+        this.region = region;
+        this.regionTemplate = regionTemplate;
+    }
 
     public TableScannerIterator(TableScannerBuilder siTableBuilder, SpliceOperation operation) throws StandardException {
         this.siTableBuilder = siTableBuilder;
@@ -73,9 +95,11 @@ public class TableScannerIterator implements Iterable<ExecRow>, Iterator<ExecRow
             slotted = true;
             if (!initialized) {
                 initialized = true;
-                tableScanner = siTableBuilder.build();
+                tableScanner = regionScanner == null
+                        ? siTableBuilder.build()
+                        : siTableBuilder.build(regionScanner, region, regionTemplate, regionScan);
                 tableScanner.open();
-                if (operation!= null) {
+                if (operation!= null && regionScanner == null) {
                     operation.registerCloseable(new Closeable() {
                         @Override
                         public void close() throws IOException {
@@ -20,6 +20,8 @@ import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.derby.impl.sql.execute.operations.window.FrameDefinition;
 import com.splicemachine.derby.impl.sql.execute.operations.window.WindowAggregator;
 import com.splicemachine.derby.impl.sql.execute.operations.window.function.SpliceGenericWindowFunction;
+import com.splicemachine.derby.stream.control.SpillingRowQueue;
+import com.splicemachine.derby.stream.iapi.OperationContext;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import splice.com.google.common.collect.Iterators;
 import splice.com.google.common.collect.PeekingIterator;
@@ -38,12 +40,15 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
     protected final long frameEnd;
     private final WindowAggregator[] aggregators;
     private final ExecRow templateRow;
+    private final OperationContext operationContext;
     private ResultBuffer resultBuffer;
 
     protected int start;
     protected int end;
     protected int current;
-    protected ArrayList<ExecRow> rows;
+    // rows of the partition from the start of the window frame (or the current row, if the frame
+    // starts after it) on; rows past the current one are spilled if the partition is large
+    protected SpillingRowQueue rows;
     protected PeekingIterator<ExecRow> source;
     protected int[] sortColumns;
     private boolean initialized;
@@ -54,17 +59,18 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
                                                       Iterator<ExecRow> source,
                                                       FrameDefinition frameDefinition,
                                                       int[] sortColumns,
-                                                      ExecRow templateRow) throws StandardException {
+                                                      ExecRow templateRow,
+                                                      OperationContext operationContext) throws StandardException {
 
         FrameDefinition.FrameMode frameMode = frameDefinition.getFrameMode();
         PeekingIterator<ExecRow> peekingSource = Iterators.peekingIterator(source);
         if (frameMode == FrameDefinition.FrameMode.ROWS) {
             return new PhysicalGroupFrameBuffer(
-                    aggregators, peekingSource, frameDefinition, sortColumns, templateRow);
+                    aggregators, peekingSource, frameDefinition, sortColumns, templateRow, operationContext);
         }
         else {
             return new LogicalGroupFrameBuffer(
-                    aggregators, peekingSource, frameDefinition, sortColumns, templateRow);
+                    aggregators, peekingSource, frameDefinition, sortColumns, templateRow, operationContext);
         }
     }
 
@@ -73,11 +79,13 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
                             PeekingIterator<ExecRow> source,
                             FrameDefinition frameDefinition,
                             int[] sortColumns,
-                            ExecRow templateRow) throws StandardException {
+                            ExecRow templateRow,
+                            OperationContext operationContext) throws StandardException {
         this.aggregators = aggregators;
         this.source = source;
         this.sortColumns = sortColumns;
         this.templateRow = templateRow;
+        this.operationContext = operationContext;
 
         for (WindowAggregator aggregator: this.aggregators) {
             aggregator.initialize(this.templateRow);
@@ -87,8 +95,8 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
         // The frame definition will not change over the life of this frame buffer
         this.frameStart = frameDefinition.getFrameStart().getValue();
         this.frameEnd = frameDefinition.getFrameEnd().getValue();
-        this.rows = new ArrayList<ExecRow>();
-        this.resultBuffer = new ResultBuffer();
+        this.rows = new SpillingRowQueue(operationContext);
+        this.resultBuffer = new ResultBuffer(operationContext);
     }
 
     public ExecRow next() {
@@ -120,6 +128,9 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
     }
 
     private void finishFrame() throws StandardException {
+        if (operationContext != null)
+            operationContext.recordBufferedBytes(rows.getMaxBufferedBytes() + resultBuffer.getMaxBufferedBytes());
+        rows.close();
         for (WindowAggregator aggregator : aggregators) {
             SpliceGenericWindowFunction cachedAggregator = aggregator.getCachedAggregator();
             if (cachedAggregator != null) {
@@ -147,7 +158,10 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
                 throw new RuntimeException(se);
             }
         }
-        return resultBuffer.hasNext();
+        if (resultBuffer.hasNext())
+            return true;
+        close();
+        return false;
     }
 
     @Override
@@ -155,6 +169,12 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void close() {
+        rows.close();
+        resultBuffer.close();
+    }
+
     protected void add(ExecRow row) throws StandardException{
         for(WindowAggregator aggregator : aggregators) {
             aggregator.accumulate(row, templateRow);
@@ -171,7 +191,8 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
     }
 
     protected void reset() throws StandardException, IOException {
-        rows = new ArrayList<ExecRow>();
+        rows.close();
+        rows = new SpillingRowQueue(operationContext);
 
         // Initialize window functions
         for (WindowAggregator aggregator : this.aggregators) {
@@ -188,12 +209,25 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
 
     abstract protected void loadFrame() throws IOException, StandardException;
 
+    /**
+     * Results of the current partition. They are only returned once the whole partition has been
+     * evaluated, so they are buffered in a {@link SpillingRowQueue}. Results of functions computed
+     * over the whole partition at the end are applied to the rows as they are read back.
+     */
     private static class ResultBuffer implements Iterator<ExecRow> {
-        private final List<ExecRow> results = new ArrayList<>();
-        private Iterator<ExecRow> resultItr;
+        private final OperationContext operationContext;
+        private SpillingRowQueue results;
+        private final List<Integer> resultColumnIds = new ArrayList<>();
+        private final List<List<DataValueDescriptor>> columnResults = new ArrayList<>();
+        private int position;
         private boolean finished;
 
-        void bufferResult(ExecRow resultRow) {
+        ResultBuffer(OperationContext operationContext) {
+            this.operationContext = operationContext;
+            this.results = new SpillingRowQueue(operationContext);
+        }
+
+        void bufferResult(ExecRow resultRow) throws IOException {
             results.add(resultRow);
         }
 
@@ -202,31 +236,50 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
         }
 
         void reset() {
-            resultItr = null;
-            results.clear();
+            results.close();
+            results = new SpillingRowQueue(operationContext);
+            resultColumnIds.clear();
+            columnResults.clear();
+            position = 0;
             finished = false;
         }
 
         public void setFinished() {
             finished = true;
-            resultItr = results.iterator();
+        }
+
+        void close() {
+            results.close();
         }
 
         public int size() {
             return results.size();
         }
 
+        long getMaxBufferedBytes() {
+            return results.getMaxBufferedBytes();
+        }
+
         @Override
         public boolean hasNext() {
-            return (resultItr != null && resultItr.hasNext());
+            return finished && !results.isEmpty();
         }
 
         @Override
         public ExecRow next() {
-            if (resultItr == null || ! resultItr.hasNext()) {
+            if (!hasNext()) {
                 return null;
             }
-            ExecRow resultRow = resultItr.next();
+            ExecRow resultRow;
+            try {
+                resultRow = results.removeFirst();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            for (int i = 0; i < resultColumnIds.size(); i++) {
+                resultRow.setColumn(resultColumnIds.get(i), columnResults.get(i).get(position));
+            }
+            position++;
             if (! hasNext()) {
                 reset();
             }
@@ -239,10 +292,8 @@ abstract public class BaseFrameBuffer implements WindowFrameBuffer{
         }
 
         public void setColumnResults(int resultColumnId, List<DataValueDescriptor> columnResults) {
-            for (int i = 0; i < results.size(); i++) {
-                ExecRow row = results.get(i);
-                row.setColumn(resultColumnId, columnResults.get(i));
-            }
+            this.resultColumnIds.add(resultColumnId);
+            this.columnResults.add(columnResults);
         }
     }
 
@@ -20,6 +20,7 @@ import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
 import com.splicemachine.derby.impl.sql.execute.operations.window.FrameDefinition;
 import com.splicemachine.derby.impl.sql.execute.operations.window.WindowAggregator;
+import com.splicemachine.derby.stream.iapi.OperationContext;
 import java.io.IOException;
 
 /**
@@ -32,8 +33,9 @@ public class LogicalGroupFrameBuffer extends BaseFrameBuffer {
                                     PeekingIterator<ExecRow> source,
                                     FrameDefinition frameDefinition,
                                     int[] sortColumns,
-                                    ExecRow templateRow) throws StandardException {
-        super(aggregators, source, frameDefinition, sortColumns, templateRow);
+                                    ExecRow templateRow,
+                                    OperationContext operationContext) throws StandardException {
+        super(aggregators, source, frameDefinition, sortColumns, templateRow, operationContext);
     }
 
     @Override
@@ -93,7 +95,7 @@ public class LogicalGroupFrameBuffer extends BaseFrameBuffer {
                 rows.add(clonedRow);
                 // One more row is added into the frame buffer, include one more row into the window frame
                 end++;
-                add(rows.get(end));
+                add(clonedRow);
             } else {
                 return;
             }
@@ -122,7 +124,7 @@ public class LogicalGroupFrameBuffer extends BaseFrameBuffer {
         // Remove rows from buffer if they are no longer needed
         int minIndex = current < start ? current : start;
         for (int i = 0; i < minIndex; ++i) {
-            rows.remove(0);
+            rows.removeFirst();
             start--;
             current--;
             end--;
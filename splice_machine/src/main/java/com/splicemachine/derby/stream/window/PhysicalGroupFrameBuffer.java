@@ -18,6 +18,7 @@ import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.derby.impl.sql.execute.operations.window.FrameDefinition;
 import com.splicemachine.derby.impl.sql.execute.operations.window.WindowAggregator;
+import com.splicemachine.derby.stream.iapi.OperationContext;
 import splice.com.google.common.collect.PeekingIterator;
 import java.io.IOException;
 
@@ -31,8 +32,9 @@ public class PhysicalGroupFrameBuffer extends BaseFrameBuffer {
                                      PeekingIterator<ExecRow> source,
                                      FrameDefinition frameDefinition,
                                      int[] sortColumns,
-                                     ExecRow templateRow) throws StandardException {
-        super(aggregators, source, frameDefinition, sortColumns, templateRow);
+                                     ExecRow templateRow,
+                                     OperationContext operationContext) throws StandardException {
+        super(aggregators, source, frameDefinition, sortColumns, templateRow, operationContext);
     }
 
     @Override
@@ -80,7 +82,7 @@ public class PhysicalGroupFrameBuffer extends BaseFrameBuffer {
             // 2. the row was just moved out of th window frame
             // 3. window start frame is after the current row
 
-            rows.remove(0);
+            rows.removeFirst();
             start--;
             current--;
             end--;
@@ -96,8 +98,9 @@ public class PhysicalGroupFrameBuffer extends BaseFrameBuffer {
                     rows.add(clonedRow);
                     // One more row is added into the frame buffer, include one more row into the window frame
                     end++;
+                    // end trails the last row read when the frame ends before the current row
                     if (end >=0)
-                        add(rows.get(end));
+                        add(end == rows.size() - 1 ? clonedRow : rows.get(end));
                 }
             }
         }
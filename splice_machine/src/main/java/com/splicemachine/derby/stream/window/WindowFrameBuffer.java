@@ -22,6 +22,12 @@ import java.util.Iterator;
 /**
  * Created by jyuan on 9/15/14.
  */
-public interface WindowFrameBuffer extends Iterator<ExecRow> {
+public interface WindowFrameBuffer extends Iterator<ExecRow>, AutoCloseable {
     void move() throws StandardException, IOException;
+
+    /**
+     * Release the rows buffered for the current partition, including any spilled to disk.
+     */
+    @Override
+    void close();
 }
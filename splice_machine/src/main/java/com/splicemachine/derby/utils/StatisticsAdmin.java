@@ -48,9 +48,11 @@ import com.splicemachine.derby.stream.iapi.DataSetProcessor;
 import com.splicemachine.derby.stream.iapi.DistributedDataSetProcessor;
 import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.derby.stream.iapi.ScanSetBuilder;
+import com.splicemachine.hbase.jmx.JMXUtils;
 import com.splicemachine.metrics.Metrics;
 import com.splicemachine.pipeline.ErrorState;
 import com.splicemachine.pipeline.Exceptions;
+import com.splicemachine.pipeline.PipelineDriver;
 import com.splicemachine.primitives.Bytes;
 import com.splicemachine.protobuf.ProtoUtil;
 import com.splicemachine.si.api.txn.TxnView;
@@ -66,7 +68,10 @@ import splice.com.google.common.collect.FluentIterable;
 import splice.com.google.common.collect.Lists;
 
 import javax.annotation.Nullable;
+import javax.management.MalformedObjectNameException;
+import javax.management.remote.JMXConnector;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.sql.*;
 import java.util.*;
@@ -302,6 +307,17 @@ public class StatisticsAdmin extends BaseAdminProcedures {
                 return;
             }
             authorize(tds);
+            if (staleOnly) {
+                // schema statistics are always merged, so a table is either collected again entirely or not at all
+                List<TableDescriptor> staleTables = new ArrayList<>(tds.size());
+                for (TableDescriptor td : tds) {
+                    if (td.isExternal() || getStalePartitions(td, false, true, dd, tc) == null)
+                        staleTables.add(td);
+                }
+                tds = staleTables;
+                if (tds.isEmpty())
+                    return;
+            }
             TransactionController transactionExecute = lcc.getTransactionExecute();
             transactionExecute.elevate("statistics");
             dropTableStatistics(tds, dd, tc);
@@ -588,16 +604,30 @@ public class StatisticsAdmin extends BaseAdminProcedures {
             DataDictionary dd = conn.getLanguageConnection().getDataDictionary();
             dd.startWriting(conn.getLanguageConnection());
             TransactionController tc = conn.getLanguageConnection().getTransactionExecute();
-            dropTableStatistics(tds,dd,tc);
-            ddlNotification(tc, tds);
+            Pair<List<Partition>,List<String>> stalePartitions = null;
+            if (staleOnly && !tableDesc.isExternal())
+                stalePartitions = getStalePartitions(tableDesc, useSample, mergeStats, dd, tc);
             TxnView txn = ((SpliceTransactionManager) tc).getRawTransaction().getActiveStateTxn();
+            ArrayList<StatisticsOperation> collectOps;
+            if (stalePartitions == null) {
+                dropTableStatistics(tds,dd,tc);
+                collectOps = Lists.newArrayList(
+                        createCollectTableStatisticsOperation(tableDesc, useSample, samplePercent/100, mergeStats, txn, conn));
+            } else {
+                collectOps = new ArrayList<>(stalePartitions.getFirst().size());
+                if (!stalePartitions.getSecond().isEmpty())
+                    dropPartitionStatistics(tableDesc, stalePartitions.getSecond(), dd, tc);
+                for (Partition region : stalePartitions.getFirst()) {
+                    collectOps.add(createCollectTableStatisticsOperation(tableDesc, useSample, samplePercent/100, false, txn, conn, region));
+                }
+            }
+            if (stalePartitions == null || !stalePartitions.getSecond().isEmpty() || !collectOps.isEmpty())
+                ddlNotification(tc, tds);
             HashMap<Long,Pair<String,String>> display = new HashMap<>();
             display.put(tableDesc.getHeapConglomerateId(),Pair.newPair(schema,table));
             IteratorNoPutResultSet resultsToWrap = wrapResults(
                     conn,
-                    displayTableStatistics(Lists.newArrayList(
-                            createCollectTableStatisticsOperation(tableDesc, useSample, samplePercent/100, mergeStats, txn, conn)
-                            ),
+                    displayTableStatistics(collectOps,
                             mergeStats,
                             dd, tc, display), COLLECTED_STATS_OUTPUT_COLUMNS);
             outputResults[0] = new EmbedResultSet40(conn, resultsToWrap, false, null, true);
@@ -614,13 +644,27 @@ public class StatisticsAdmin extends BaseAdminProcedures {
                                                                              boolean mergeStats,
                                                                              TxnView txn,
                                                                              EmbedConnection conn) throws StandardException, ExecutionException {
+        return createCollectTableStatisticsOperation(table, useSample, sampleFraction, mergeStats, txn, conn, null);
+    }
+
+    /**
+     * Creates the operation collecting the statistics of {@code table}, restricted to the rows of {@code region}
+     * if it is not null.
+     */
+    private static StatisticsOperation createCollectTableStatisticsOperation(TableDescriptor table,
+                                                                             boolean useSample,
+                                                                             double sampleFraction,
+                                                                             boolean mergeStats,
+                                                                             TxnView txn,
+                                                                             EmbedConnection conn,
+                                                                             Partition region) throws StandardException, ExecutionException {
         long heapConglomerateId = table.getHeapConglomerateId();
         Activation activation = conn.getLanguageConnection().getLastActivation();
         DistributedDataSetProcessor dsp = EngineDriver.driver().processorFactory().distributedProcessor();
 
         ScanSetBuilder ssb = dsp.newScanSet(null,Long.toString(heapConglomerateId));
         ssb.tableVersion(table.getVersion());
-        ScanSetBuilder scanSetBuilder = createTableScanner(ssb,conn,table,txn,mergeStats);
+        ScanSetBuilder scanSetBuilder = createTableScanner(ssb,conn,table,txn,mergeStats,region);
         String scope = getScopeName(table);
         // no sample stats support on mem platform
         if (dsp.getType() != DataSetProcessor.Type.SPARK) {
@@ -641,9 +685,11 @@ public class StatisticsAdmin extends BaseAdminProcedures {
         return String.format(OperationContext.Scope.COLLECT_STATS.displayName(), td.getName());
     }
 
-    private static DataScan createScan (TxnView txn) {
+    private static DataScan createScan (TxnView txn, Partition region) {
         DataScan scan=SIDriver.driver().getOperationFactory().newDataScan(txn);
         scan.returnAllVersions(); //make sure that we read all versions of the data
+        if (region != null)
+            return scan.startKey(region.getStartKey()).stopKey(region.getEndKey());
         return scan.startKey(new byte[0]).stopKey(new byte[0]);
     }
 
@@ -657,7 +703,8 @@ public class StatisticsAdmin extends BaseAdminProcedures {
     private static ScanSetBuilder createTableScanner(ScanSetBuilder builder,
                                                      EmbedConnection conn,
                                                      TableDescriptor table,
-                                                     TxnView txn, boolean mergeStats) throws StandardException{
+                                                     TxnView txn, boolean mergeStats,
+                                                     Partition region) throws StandardException{
 
         List<ColumnDescriptor> colsToCollect = getCollectedColumns(conn, table);
         ExecRow row = new ValueRow(colsToCollect.size());
@@ -707,7 +754,7 @@ public class StatisticsAdmin extends BaseAdminProcedures {
                 }
             }
         }
-        DataScan scan = createScan(txn);
+        DataScan scan = createScan(txn, region);
         return builder.transaction(txn)
                 .metricFactory(Metrics.basicMetricFactory())
                 .template(row)
@@ -1204,6 +1251,135 @@ public class StatisticsAdmin extends BaseAdminProcedures {
         }
     }
 
+    private static void dropPartitionStatistics(TableDescriptor td, List<String> partitionIds, DataDictionary dd, TransactionController tc) throws StandardException {
+        long conglomerateId = td.getHeapConglomerateId();
+        for (String partitionId : partitionIds) {
+            if (LOG.isDebugEnabled())
+                SpliceLogUtils.debug(LOG,"Dropping partition statistics [%d, %s]",conglomerateId,partitionId);
+            dd.deletePartitionStatistics(conglomerateId,partitionId,tc);
+        }
+    }
+
+    /**
+     * Determines which regions of {@code td} changed enough since their statistics were collected to need a
+     * re-collection, based on the rows written to each region through the write pipeline. A region is stale
+     * when the rows modified since its statistics were collected exceed
+     * {@link com.splicemachine.access.api.SConfiguration#getStalePartitionThreshold()} times its row count,
+     * or when it is not known how many rows were modified (e.g. the region moved since).
+     *
+     * @return null if the whole table must be collected again, otherwise the regions to collect again paired
+     * with the partition ids whose statistics must be dropped first. For merged statistics, either the whole
+     * table is stale or both lists are empty.
+     */
+    private static Pair<List<Partition>,List<String>> getStalePartitions(TableDescriptor td,
+                                                                       boolean useSample,
+                                                                       boolean mergeStats,
+                                                                       DataDictionary dd,
+                                                                       TransactionController tc) throws StandardException {
+        List<PartitionStatisticsDescriptor> partitionStats = dd.getPartitionStatistics(td.getHeapConglomerateId(), tc);
+        if (partitionStats.isEmpty())
+            return null;
+        int expectedStatsType;
+        if (mergeStats)
+            expectedStatsType = useSample ? SYSTABLESTATISTICSRowFactory.SAMPLE_MERGED_STATS : SYSTABLESTATISTICSRowFactory.REGULAR_MERGED_STATS;
+        else
+            expectedStatsType = useSample ? SYSTABLESTATISTICSRowFactory.SAMPLE_NONMERGED_STATS : SYSTABLESTATISTICSRowFactory.REGULAR_NONMERGED_STATS;
+        Map<String,PartitionStatisticsDescriptor> statsByPartition = new HashMap<>(partitionStats.size());
+        for (PartitionStatisticsDescriptor stats : partitionStats) {
+            // statistics of another kind cannot be refreshed partially
+            if (stats.getStatsType() != expectedStatsType)
+                return null;
+            statsByPartition.put(stats.getPartitionId(), stats);
+        }
+
+        List<Partition> regions;
+        String tableName = Long.toString(td.getHeapConglomerateId());
+        try (Partition root = SIDriver.driver().getTableFactory().getTable(tableName)) {
+            if (root == null)
+                return null;
+            regions = root.subPartitions(true);
+        } catch (Exception e) {
+            throw StandardException.plainWrapException(e);
+        }
+        String[] regionNames = new String[regions.size()];
+        for (int i = 0; i < regionNames.length; i++) {
+            regionNames[i] = regions.get(i).getName();
+        }
+        long since = Long.MAX_VALUE;
+        for (PartitionStatisticsDescriptor stats : partitionStats) {
+            since = Math.min(since, stats.getTimestamp());
+        }
+        Map<String,Long> modifiedRows = getModifiedRows(regionNames, since);
+        if (modifiedRows == null)
+            return null;
+
+        double threshold = EngineDriver.driver().getConfiguration().getStalePartitionThreshold();
+        if (mergeStats) {
+            PartitionStatisticsDescriptor stats = partitionStats.get(0);
+            long modified = 0;
+            for (String regionName : regionNames) {
+                Long regionModified = modifiedRows.get(regionName);
+                if (regionModified == null || regionModified < 0)
+                    return null;
+                modified += regionModified;
+            }
+            if (isStale(stats, modified, threshold))
+                return null;
+            return Pair.newPair(Collections.<Partition>emptyList(), Collections.<String>emptyList());
+        }
+
+        // the counts were taken since the oldest collection, so a region may look more modified than it is,
+        // which only costs an unnecessary re-collection of that region
+        List<Partition> staleRegions = new ArrayList<>();
+        List<String> toDrop = new ArrayList<>();
+        Set<String> currentRegions = new HashSet<>(Arrays.asList(regionNames));
+        for (String partitionId : statsByPartition.keySet()) {
+            if (!currentRegions.contains(partitionId))
+                toDrop.add(partitionId);
+        }
+        for (Partition region : regions) {
+            PartitionStatisticsDescriptor stats = statsByPartition.get(region.getName());
+            Long modified = modifiedRows.get(region.getName());
+            if (stats == null || modified == null || modified < 0 || isStale(stats, modified, threshold)) {
+                staleRegions.add(region);
+                if (stats != null)
+                    toDrop.add(region.getName());
+            }
+        }
+        return Pair.newPair(staleRegions, toDrop);
+    }
+
+    private static boolean isStale(PartitionStatisticsDescriptor stats, long modifiedRows, double threshold) {
+        double rowCount = stats.getRowCount();
+        int statsType = stats.getStatsType();
+        if ((statsType == SYSTABLESTATISTICSRowFactory.SAMPLE_NONMERGED_STATS || statsType == SYSTABLESTATISTICSRowFactory.SAMPLE_MERGED_STATS)
+                && stats.getSampleFraction() > 0)
+            rowCount /= stats.getSampleFraction();
+        return modifiedRows > threshold * rowCount;
+    }
+
+    /**
+     * @return the rows written to each of the named regions since {@code timestamp}, as reported by the region
+     * servers hosting them, or null if the region servers could not be reached.
+     */
+    private static Map<String,Long> getModifiedRows(String[] regionNames, long timestamp) {
+        Map<String,Long> modifiedRows = new HashMap<>(regionNames.length);
+        try {
+            operate(new JMXServerOperation() {
+                @Override
+                public void operate(List<Pair<String, JMXConnector>> connections) throws MalformedObjectNameException, IOException, SQLException {
+                    for (PipelineDriver.PartitionModificationsIface modifications : JMXUtils.getPartitionModifications(connections)) {
+                        modifiedRows.putAll(modifications.getModifiedRowsSince(regionNames, timestamp));
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            SpliceLogUtils.warn(LOG, "Unable to fetch partition modifications, collecting all statistics: %s", e.getMessage());
+            return null;
+        }
+        return modifiedRows;
+    }
+
     private static void dropTableStatistics(List<TableDescriptor> tds, DataDictionary dd, TransactionController tc) throws StandardException {
 
         for (TableDescriptor td: tds) {
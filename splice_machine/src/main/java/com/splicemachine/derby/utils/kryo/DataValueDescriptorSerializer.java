@@ -26,6 +26,12 @@ import com.splicemachine.db.iapi.types.DataValueDescriptor;
  *         Created on: 10/9/13
  */
 public abstract class DataValueDescriptorSerializer<T extends DataValueDescriptor> extends Serializer<T> {
+    /*
+     * An instance which is never handed out, used to create new ones through getNewNull()
+     * rather than going through Kryo's reflective instantiation for every value read.
+     */
+    private volatile DataValueDescriptor prototype;
+    private volatile boolean reflectiveOnly;
 
     @Override
     public void write(Kryo kryo, Output output, T object) {
@@ -44,7 +50,7 @@ public abstract class DataValueDescriptorSerializer<T extends DataValueDescripto
     @Override
     public T read(Kryo kryo, Input input, Class<T> type) {
         try {
-            T dvd = kryo.newInstance(type);
+            T dvd = newInstance(kryo, type);
             if(!input.readBoolean())
                 readValue(kryo,input,dvd);
             return dvd;
@@ -54,4 +60,26 @@ public abstract class DataValueDescriptorSerializer<T extends DataValueDescripto
     }
 
     protected abstract void readValue(Kryo kryo, Input input, T dvd) throws StandardException;
+
+    @SuppressWarnings("unchecked")
+    private T newInstance(Kryo kryo, Class<T> type) {
+        DataValueDescriptor p = prototype;
+        if (p != null && p.getClass() == type)
+            return (T) p.getNewNull();
+        T dvd = kryo.newInstance(type);
+        if (!reflectiveOnly) {
+            // only use the fast path for types whose getNewNull() returns their own class
+            DataValueDescriptor copy;
+            try {
+                copy = dvd.getNewNull();
+            } catch (RuntimeException e) {
+                copy = null;
+            }
+            if (copy != null && copy.getClass() == type)
+                prototype = copy;
+            else
+                reflectiveOnly = true;
+        }
+        return dvd;
+    }
 }
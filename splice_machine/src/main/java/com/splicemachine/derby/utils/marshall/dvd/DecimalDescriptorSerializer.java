@@ -20,6 +20,7 @@ import com.splicemachine.encoding.MultiFieldEncoder;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.io.StoredFormatIds;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.DeferredDecodable;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -28,7 +29,7 @@ import java.math.BigDecimal;
  * @author Scott Fines
  * Date: 4/2/14
  */
-class DecimalDescriptorSerializer implements DescriptorSerializer {
+class DecimalDescriptorSerializer implements DescriptorSerializer, DeferredDecodable.Decoder {
 		private static final DescriptorSerializer INSTANCE = new DecimalDescriptorSerializer();
 		public static final Factory INSTANCE_FACTORY = new Factory() {
 				@Override
@@ -66,6 +67,30 @@ class DecimalDescriptorSerializer implements DescriptorSerializer {
 				dvd.setBigDecimal(Encoding.decodeBigDecimal(data,offset,length,desc));
 		}
 
+		@Override
+		public void decodeLazy(MultiFieldDecoder fieldDecoder, DataValueDescriptor destDvd, boolean desc) throws StandardException {
+				if(!(destDvd instanceof DeferredDecodable)){
+						decode(fieldDecoder,destDvd,desc);
+						return;
+				}
+				int offset = fieldDecoder.offset();
+				fieldDecoder.skip();
+				((DeferredDecodable)destDvd).bindDeferred(this,fieldDecoder.array(),offset,fieldDecoder.offset()-offset-1,desc);
+		}
+
+		@Override
+		public void decodeDirectLazy(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException {
+				if(dvd instanceof DeferredDecodable)
+						((DeferredDecodable)dvd).bindDeferred(this,data,offset,length,desc);
+				else
+						decodeDirect(dvd,data,offset,length,desc);
+		}
+
+		@Override
+		public void materialize(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException {
+				decodeDirect(dvd,data,offset,length,desc);
+		}
+
 		@Override public boolean isScalarType() { return false; }
 		@Override public boolean isFloatType() { return false; }
 		@Override public boolean isDoubleType() { return false; }
@@ -35,6 +35,22 @@ public interface DescriptorSerializer extends Closeable {
 
     void decodeDirect(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException;
 
+    /**
+     * Like {@link #decode(MultiFieldDecoder, DataValueDescriptor, boolean)}, but may bind {@code destDvd}
+     * to the encoded field instead of decoding it (see {@link com.splicemachine.db.iapi.types.DeferredDecodable}).
+     * The decoder's array is not copied, so it must not be modified while {@code destDvd} holds the field.
+     */
+    default void decodeLazy(MultiFieldDecoder fieldDecoder, DataValueDescriptor destDvd, boolean desc) throws StandardException {
+        decode(fieldDecoder, destDvd, desc);
+    }
+
+    /**
+     * Lazy counterpart of {@link #decodeDirect(DataValueDescriptor, byte[], int, int, boolean)}.
+     */
+    default void decodeDirectLazy(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException {
+        decodeDirect(dvd, data, offset, length, desc);
+    }
+
     boolean isScalarType();
 
     boolean isFloatType();
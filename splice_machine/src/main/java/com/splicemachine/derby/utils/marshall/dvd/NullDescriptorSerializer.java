@@ -150,6 +150,25 @@ public class NullDescriptorSerializer implements DescriptorSerializer{
 				delegate.decodeDirect(dvd, data, offset, length, desc);
 		}
 
+		@Override
+		public void decodeLazy(MultiFieldDecoder fieldDecoder, DataValueDescriptor destDvd, boolean desc) throws StandardException {
+				if(nextIsNull(fieldDecoder)){
+						destDvd.setToNull();
+						if(!sparse)skip(fieldDecoder);
+						return;
+				}
+				delegate.decodeLazy(fieldDecoder,destDvd,desc);
+		}
+
+		@Override
+		public void decodeDirectLazy(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException {
+				if(isNull(data,offset,length)){
+						dvd.setToNull();
+						return;
+				}
+				delegate.decodeDirectLazy(dvd, data, offset, length, desc);
+		}
+
 
 		/**
 		 * Override to provide different encodings of {@code null}
@@ -21,6 +21,7 @@ import com.splicemachine.encoding.MultiFieldEncoder;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.io.StoredFormatIds;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.DeferredDecodable;
 
 import java.io.IOException;
 
@@ -28,7 +29,7 @@ import java.io.IOException;
  * @author Scott Fines
  * Date: 4/2/14
  */
-public class StringDescriptorSerializer implements DescriptorSerializer{
+public class StringDescriptorSerializer implements DescriptorSerializer,DeferredDecodable.Decoder{
 		private static final DescriptorSerializer INSTANCE = new StringDescriptorSerializer();
 		public static final Factory INSTANCE_FACTORY = new Factory() {
 				@Override public DescriptorSerializer newInstance() { return INSTANCE; }
@@ -76,6 +77,37 @@ public class StringDescriptorSerializer implements DescriptorSerializer{
 				dvd.setValue(Encoding.decodeString(data,offset,length,desc));
 		}
 
+		@Override
+		public void decodeLazy(MultiFieldDecoder fieldDecoder, DataValueDescriptor destDvd, boolean desc) throws StandardException {
+				if(!isDeferrable(destDvd)){
+						decode(fieldDecoder,destDvd,desc);
+						return;
+				}
+				int offset = fieldDecoder.offset();
+				fieldDecoder.skip();
+				((DeferredDecodable)destDvd).bindDeferred(this,fieldDecoder.array(),offset,fieldDecoder.offset()-offset-1,desc);
+		}
+
+		@Override
+		public void decodeDirectLazy(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException {
+				if(isDeferrable(dvd))
+						((DeferredDecodable)dvd).bindDeferred(this,data,offset,length,desc);
+				else
+						decodeDirect(dvd,data,offset,length,desc);
+		}
+
+		@Override
+		public void materialize(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException {
+				decodeDirect(dvd,data,offset,length,desc);
+		}
+
+		/*
+		 * CLOBs keep their own stream and Clob state, so only the plain character types are deferred.
+		 */
+		private static boolean isDeferrable(DataValueDescriptor dvd){
+				return dvd instanceof DeferredDecodable && dvd.getTypeFormatId()!=StoredFormatIds.SQL_CLOB_ID;
+		}
+
 		@Override public boolean isScalarType() { return false; }
 		@Override public boolean isFloatType() { return false; }
 		@Override public boolean isDoubleType() { return false; }
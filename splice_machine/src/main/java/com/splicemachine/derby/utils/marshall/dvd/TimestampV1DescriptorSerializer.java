@@ -20,6 +20,7 @@ import com.splicemachine.encoding.MultiFieldEncoder;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.services.io.StoredFormatIds;
 import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.DeferredDecodable;
 
 import java.sql.Timestamp;
 
@@ -29,7 +30,7 @@ import java.sql.Timestamp;
  * @author Scott Fines
  * Date: 4/2/14
  */
-public class TimestampV1DescriptorSerializer extends AbstractTimeDescriptorSerializer {
+public class TimestampV1DescriptorSerializer extends AbstractTimeDescriptorSerializer implements DeferredDecodable.Decoder {
 		public static final Factory INSTANCE_FACTORY = new AbstractTimeDescriptorSerializer.Factory() {
 				@Override public DescriptorSerializer newInstance() { return new TimestampV1DescriptorSerializer(); }
 				@Override public boolean applies(int typeFormatId) { return typeFormatId == StoredFormatIds.SQL_TIMESTAMP_ID; }
@@ -59,6 +60,30 @@ public class TimestampV1DescriptorSerializer extends AbstractTimeDescriptorSeria
 				dvd.setValue(toTimestamp(Encoding.decodeLong(data, offset, desc)));
 		}
 
+		@Override
+		public void decodeLazy(MultiFieldDecoder fieldDecoder, DataValueDescriptor destDvd, boolean desc) throws StandardException {
+				if(!(destDvd instanceof DeferredDecodable)){
+						decode(fieldDecoder,destDvd,desc);
+						return;
+				}
+				int offset = fieldDecoder.offset();
+				int length = fieldDecoder.skipLong()-1;
+				((DeferredDecodable)destDvd).bindDeferred(this,fieldDecoder.array(),offset,length,desc);
+		}
+
+		@Override
+		public void decodeDirectLazy(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException {
+				if(dvd instanceof DeferredDecodable)
+						((DeferredDecodable)dvd).bindDeferred(this,data,offset,length,desc);
+				else
+						decodeDirect(dvd,data,offset,length,desc);
+		}
+
+		@Override
+		public void materialize(DataValueDescriptor dvd, byte[] data, int offset, int length, boolean desc) throws StandardException {
+				decodeDirect(dvd,data,offset,length,desc);
+		}
+
 		protected long toLong(Timestamp timestamp) throws StandardException {
 				return timestamp.getTime();
 		}
@@ -14,6 +14,7 @@
 
 package com.splicemachine.derby.vti;
 
+import com.splicemachine.EngineDriver;
 import com.splicemachine.access.api.FileInfo;
 import com.splicemachine.db.iapi.error.StandardException;
 import com.splicemachine.db.iapi.reference.SQLState;
@@ -22,8 +23,12 @@ import com.splicemachine.db.iapi.sql.execute.ExecRow;
 import com.splicemachine.db.vti.VTICosting;
 import com.splicemachine.db.vti.VTIEnvironment;
 import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.impl.load.CsvFileSplit;
+import com.splicemachine.derby.impl.load.CsvFileSplitter;
 import com.splicemachine.derby.impl.load.ImportUtils;
+import com.splicemachine.derby.stream.function.AbstractFileFunction;
 import com.splicemachine.derby.stream.function.FileFunction;
+import com.splicemachine.derby.stream.function.SplitFileFunction;
 import com.splicemachine.derby.stream.function.StreamFileFunction;
 import com.splicemachine.derby.stream.iapi.DataSet;
 import com.splicemachine.derby.stream.iapi.DataSetProcessor;
@@ -31,6 +36,7 @@ import com.splicemachine.derby.stream.iapi.OperationContext;
 import com.splicemachine.derby.stream.iapi.PairDataSet;
 import com.splicemachine.derby.vti.iapi.DatasetProvider;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.supercsv.prefs.CsvPreference;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -38,6 +44,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  *
@@ -135,15 +142,26 @@ public class SpliceFileVTI implements DatasetProvider, VTICosting {
             ImportUtils.validateReadable(fileName, false);
             if (statusDirectory != null)
                 operationContext.setPermissive(statusDirectory, fileName, badRecordsAllowed);
+            CsvPreference preference = AbstractFileFunction.buildPreference(characterDelimiter, columnDelimiter, 0);
+            long splitSize = EngineDriver.driver().getConfiguration().getImportCsvSplitSize();
             if (oneLineRecords && (charset==null || charset.toLowerCase().equals("utf-8"))) {
                 DataSet<String> textSet = dsp.readTextFile(fileName, op);
                 operationContext.pushScopeForOp("Parse File");
                 return textSet.flatMap(new FileFunction(characterDelimiter, columnDelimiter, execRow, columnIndex, timeFormat, dateTimeFormat, timestampFormat, true, operationContext), true);
+            } else if (dsp.getType() == DataSetProcessor.Type.SPARK &&
+                    CsvFileSplitter.isSplittable(getFileInfo(), charset, preference, splitSize)) {
+                // a single large file, cut it at record boundaries so that it is not parsed by a single task
+                List<CsvFileSplit> splits = CsvFileSplitter.split(dsp, fileName, getFileInfo().size(), splitSize,
+                        preference.getQuoteChar(), operationContext);
+                operationContext.pushScopeForOp("Parse File");
+                return dsp.createDataSet(splits.iterator()).flatMap(new SplitFileFunction(characterDelimiter, columnDelimiter, execRow, columnIndex, timeFormat, dateTimeFormat, timestampFormat, fileName, charset, operationContext), true);
             } else {
                 PairDataSet<String,InputStream> streamSet = dsp.readWholeTextFile(fileName, op);
                 operationContext.pushScopeForOp("Parse File");
                 return streamSet.values(operationContext).flatMap(new StreamFileFunction(characterDelimiter, columnDelimiter, execRow, columnIndex, timeFormat, dateTimeFormat, timestampFormat, charset, operationContext), true);
             }
+        } catch (IOException e) {
+            throw StandardException.plainWrapException(e);
         } finally {
             operationContext.popScope();
         }
@@ -53,6 +53,7 @@ public class JMXUtils {
     public static final String MONITORED_THREAD_POOL = "com.splicemachine.writer.async:type=ThreadPoolStatus";
 	public static final String STATEMENT_MANAGEMENT_BASE = "com.splicemachine.statement:type=StatementManagement";
     public static final String ACTIVE_WRITE_HANDLERS = "com.splicemachine.derby.hbase:type=ActiveWriteHandlers";
+    public static final String PARTITION_MODIFICATIONS = "com.splicemachine.derby.hbase:type=PartitionModifications";
     public static final String EXECUTOR_SERVICE =  "com.splicemachine.derby.lifecycle:type=ExecutorService";
     public static final String MANAGED_CACHE =  "com.splicemachine.db.impl.sql.catalog:type=";
     public static final String TOTAL_MANAGED_CACHE =  "com.splicemachine.db.impl.sql.catalog:type=TotalManagedCache";
@@ -105,6 +106,14 @@ public class JMXUtils {
         }
         return activeWrites;
     }
+
+    public static List<PipelineDriver.PartitionModificationsIface> getPartitionModifications(List<Pair<String,JMXConnector>> mbscArray) throws MalformedObjectNameException, IOException {
+        List<PipelineDriver.PartitionModificationsIface> modifications =new ArrayList<>();
+        for (Pair<String,JMXConnector> mbsc: mbscArray) {
+            modifications.add(getNewMXBeanProxy(mbsc.getSecond(),PARTITION_MODIFICATIONS,PipelineDriver.PartitionModificationsIface.class));
+        }
+        return modifications;
+    }
     public static List<JMXThreadPool> getExecutorService(List<Pair<String,JMXConnector>> mbscArray) throws MalformedObjectNameException, IOException {
         List<JMXThreadPool> jmxThreadList =new ArrayList<>();
         for (Pair<String,JMXConnector> mbsc: mbscArray) {
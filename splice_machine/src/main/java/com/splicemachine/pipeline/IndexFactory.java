@@ -58,6 +58,7 @@ class IndexFactory implements LocalWriteFactory{
             throw new IOException(e.getCause());
         }
         IndexWriteHandler writeHandler = new IndexWriteHandler(keepState, expectedWrites, transformer);
+        ctx.baseRowCache().register(writeHandler.getIndexedColumns(), writeHandler::needsBaseRow);
         if (txn == null) {
             ctx.addLast(writeHandler);
         } else {
@@ -74,6 +74,26 @@ public class IndexWriteHandler extends RoutingWriteHandler{
             indexBuffer.close(); // Blocks
     }
 
+    /**
+     * @return whether routing {@code mutation} reads the current version of its base row, to delete the old
+     * index entry
+     */
+    boolean needsBaseRow(KVPair mutation) {
+        switch(mutation.getType()) {
+            case UPDATE:
+                return transformer.areIndexKeysModified(mutation, indexedColumns);
+            case UPSERT:
+            case DELETE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    BitSet getIndexedColumns() {
+        return indexedColumns;
+    }
+
     @Override
     protected boolean isHandledMutationType(KVPair.Type type) {
         return type == KVPair.Type.DELETE || type == KVPair.Type.CANCEL ||
@@ -167,12 +187,12 @@ public class IndexWriteHandler extends RoutingWriteHandler{
     	/*
          * To delete the correct index row, we do the following:
          *
-         * 1. do a Get() on all the indexed columns of the main table
+         * 1. read the current base row (fetched once per batch for all the indexes of the table)
          * 2. transform the results into an index row (as if we were inserting it)
          * 3. issue a delete against the index table
          */
         try {
-            KVPair indexDelete = transformer.createIndexDelete(mutation, ctx, indexedColumns);
+            KVPair indexDelete = transformer.createIndexDelete(mutation, ctx);
             if (indexDelete == null) {
                 // we can't find the old row, it may have been deleted already, but we'll have to update the
                 // index anyway in the calling method
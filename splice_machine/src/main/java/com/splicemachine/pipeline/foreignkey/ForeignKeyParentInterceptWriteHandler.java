@@ -14,6 +14,8 @@
 
 package com.splicemachine.pipeline.foreignkey;
 
+import com.carrotsearch.hppc.BitSet;
+import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.ObjectArrayList;
 import com.splicemachine.ddl.DDLMessage;
 import com.splicemachine.pipeline.api.Code;
@@ -31,8 +33,13 @@ import com.splicemachine.pipeline.api.PipelineExceptionFactory;
 import com.splicemachine.pipeline.context.WriteContext;
 import com.splicemachine.pipeline.writehandler.WriteHandler;
 import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.utils.Pair;
+import com.splicemachine.utils.SpliceLogUtils;
+import org.apache.log4j.Logger;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
@@ -42,6 +49,7 @@ import java.util.List;
  */
 @NotThreadSafe
 public class ForeignKeyParentInterceptWriteHandler implements WriteHandler{
+    private static final Logger LOG = Logger.getLogger(ForeignKeyParentInterceptWriteHandler.class);
     private final List<Long> referencingIndexConglomerateIds;
     private final List<DDLMessage.FKConstraintInfo> constraintInfos;
     private final ForeignKeyViolationProcessor violationProcessor;
@@ -49,6 +57,7 @@ public class ForeignKeyParentInterceptWriteHandler implements WriteHandler{
     private HashMap<Long,Partition> childPartitions = new HashMap<>();
     private String parentTableName;
     private ObjectArrayList<KVPair> mutations = new ObjectArrayList<>();
+    private int scansIssued;
 
 
     public ForeignKeyParentInterceptWriteHandler(String parentTableName,
@@ -83,29 +92,52 @@ public class ForeignKeyParentInterceptWriteHandler implements WriteHandler{
 
     @Override
     public void flush(WriteContext ctx) throws IOException {
+        scansIssued = 0;
+        if (mutations.isEmpty())
+            return;
         try {
-            // TODO Buffer with skip scan
-            for (int k = 0; k<mutations.size();k++) {
-                KVPair mutation = mutations.get(k);
-                for (int i = 0; i < referencingIndexConglomerateIds.size(); i++) {
-                    long indexConglomerateId = referencingIndexConglomerateIds.get(i);
-                    Partition table = null;
-                    if (childPartitions.containsKey(indexConglomerateId))
-                        table = childPartitions.get(indexConglomerateId);
-                    else {
-                        table = SIDriver.driver().getTableFactory().getTable(Long.toString((indexConglomerateId)));
-                        childPartitions.put(indexConglomerateId, table);
-                    }
-                    if (hasReferences(indexConglomerateId, table, mutation, ctx))
-                        failRow(mutation, ctx, constraintInfos.get(i));
-                    else
-                        ctx.success(mutation);
+            /*
+             * Rather than probing every referencing index once per deleted row, collect the distinct
+             * delete keys in sorted order and check all of them with a single multi-range scan per index.
+             */
+            int[] locations = new int[mutations.size()];
+            List<byte[]> checkKeys = sortedCheckKeys(locations);
+            DDLMessage.FKConstraintInfo[] violations = new DDLMessage.FKConstraintInfo[checkKeys.size()];
+            BitSet referenced = new BitSet(checkKeys.size());
+            for (int i = 0; i < referencingIndexConglomerateIds.size(); i++) {
+                // a key referenced through one index fails no matter what the others hold
+                if (referenced.cardinality() == checkKeys.size())
+                    break;
+                long indexConglomerateId = referencingIndexConglomerateIds.get(i);
+                findReferences(indexConglomerateId, getChildPartition(indexConglomerateId), checkKeys, referenced, ctx);
+                for (int k = referenced.nextSetBit(0); k >= 0; k = referenced.nextSetBit(k + 1)) {
+                    if (violations[k] == null)
+                        violations[k] = constraintInfos.get(i);
                 }
             }
+            for (int k = 0; k < mutations.size(); k++) {
+                KVPair mutation = mutations.get(k);
+                DDLMessage.FKConstraintInfo violation = violations[locations[k]];
+                if (violation != null)
+                    failRow(mutation, ctx, violation);
+                else
+                    ctx.success(mutation);
+            }
+            if (LOG.isTraceEnabled())
+                SpliceLogUtils.trace(LOG, "checked %d deletes against %d referencing indexes with %d scans",
+                        mutations.size(), referencingIndexConglomerateIds.size(), scansIssued);
         } catch (Exception e) {
             violationProcessor.failWrite(e, ctx);
+        } finally {
+            mutations.clear();
         }
+    }
 
+    /**
+     * @return the number of scans against referencing indexes issued by the last flush
+     */
+    public int getScansIssued() {
+        return scansIssued;
     }
 
     @Override
@@ -122,57 +154,156 @@ public class ForeignKeyParentInterceptWriteHandler implements WriteHandler{
         return getClass().getSimpleName();
     }
 
-            /*
-         * The way prefix keys work is that longer keys sort after shorter keys. We
-         * are already starting exactly where we want to be, and we want to end as soon
-         * as we hit a record which is not this key.
-         *
-         * Historically, we did this by using an HBase PrefixFilter. We can do that again,
-         * but it's a bit of a pain to make that work in an architecture-independent
-         * way (we would need to implement a version of that for other architectures,
-         * for example. It's much easier for us to just make use of row key sorting
-         * to do the job for us.
-         *
-         * We start where we want, and we need to end as soon as we run off that. The
-         * first key which is higher than the start key is the start key as a prefix followed
-         * by 0x00 (in unsigned sort order). Therefore, we make the end key
-         * [startKey | 0x00].
-         */
-
-
-        private boolean hasReferences(Long indexConglomerateId, Partition table, KVPair kvPair, WriteContext ctx) throws IOException {
-        byte[] startKey = kvPair.getRowKey();
-        //make sure this is a transactional scan
-        DataScan scan = txnOperationFactory.newDataScan(null); // Non-Transactional, will resolve on this side
-        scan =scan.startKey(startKey);
-        byte[] endKey = Bytes.unsignedCopyAndIncrement(startKey);//new byte[startKey.length+1];
-        scan = scan.stopKey(endKey);
-
-            SimpleTxnFilter readUncommittedFilter;
-            SimpleTxnFilter readCommittedFilter;
-            if (ctx.getTxn() instanceof ActiveWriteTxn) {
-                readCommittedFilter = new SimpleTxnFilter(Long.toString(indexConglomerateId), ((ActiveWriteTxn) ctx.getTxn()).getReadCommittedActiveTxn(), NoOpReadResolver.INSTANCE, SIDriver.driver().getTxnStore());
-                readUncommittedFilter = new SimpleTxnFilter(Long.toString(indexConglomerateId), ((ActiveWriteTxn) ctx.getTxn()).getReadUncommittedActiveTxn(), NoOpReadResolver.INSTANCE, SIDriver.driver().getTxnStore());
-
+    /*
+     * Sorts and de-duplicates the row keys of the buffered deletes. On return, locations[i] holds the position
+     * of the i-th mutation's key in the returned list.
+     */
+    private List<byte[]> sortedCheckKeys(int[] locations) {
+        Integer[] order = new Integer[mutations.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Bytes.BASE_COMPARATOR.compare(mutations.get(a).getRowKey(), mutations.get(b).getRowKey()));
+        List<byte[]> checkKeys = new ArrayList<>(order.length);
+        byte[] last = null;
+        for (Integer position : order) {
+            byte[] rowKey = mutations.get(position).getRowKey();
+            if (last == null || !Bytes.equals(last, rowKey)) {
+                checkKeys.add(rowKey);
+                last = rowKey;
             }
-            else if (ctx.getTxn() instanceof WritableTxn) {
-                readCommittedFilter = new SimpleTxnFilter(Long.toString(indexConglomerateId), ((WritableTxn) ctx.getTxn()).getReadCommittedActiveTxn(), NoOpReadResolver.INSTANCE, SIDriver.driver().getTxnStore());
-                readUncommittedFilter = new SimpleTxnFilter(Long.toString(indexConglomerateId), ((WritableTxn) ctx.getTxn()).getReadUncommittedActiveTxn(), NoOpReadResolver.INSTANCE, SIDriver.driver().getTxnStore());
+            locations[position] = checkKeys.size() - 1;
+        }
+        return checkKeys;
+    }
+
+    private Partition getChildPartition(long indexConglomerateId) throws IOException {
+        Partition table = childPartitions.get(indexConglomerateId);
+        if (table == null) {
+            table = SIDriver.driver().getTableFactory().getTable(Long.toString(indexConglomerateId));
+            childPartitions.put(indexConglomerateId, table);
+        }
+        return table;
+    }
+
+    /*
+     * The way prefix keys work is that longer keys sort after shorter keys, so the rows of the
+     * referencing index which point at a parent key k all lie in [k, k+1), where k+1 is k
+     * incremented as an unsigned number. Every check key not yet known to be referenced contributes
+     * one such range, and the ranges are handed to the scan as a multi-range filter: the region
+     * servers seek from one range to the next, so each region is visited once no matter how many
+     * keys are checked.
+     *
+     * One visible child row is enough to fail a key, so the rest of its range is not read: when the
+     * scan reaches a row that only falls in ranges of keys already found referenced, it is reopened
+     * past that row over the ranges still unresolved. The scan stops as soon as every key is resolved.
+     *
+     * Sets in referenced the positions (in checkKeys) of the keys for which a visible child row exists.
+     */
+    private void findReferences(long indexConglomerateId, Partition table, List<byte[]> checkKeys, BitSet referenced, WriteContext ctx) throws IOException {
+        int numKeys = checkKeys.size();
+        byte[][] stopKeys = new byte[numKeys][];
+        for (int k = 0; k < numKeys; k++)
+            stopKeys[k] = Bytes.unsignedCopyAndIncrement(checkKeys.get(k));
+
+        SimpleTxnFilter readUncommittedFilter;
+        SimpleTxnFilter readCommittedFilter;
+        if (ctx.getTxn() instanceof ActiveWriteTxn) {
+            readCommittedFilter = new SimpleTxnFilter(Long.toString(indexConglomerateId), ((ActiveWriteTxn) ctx.getTxn()).getReadCommittedActiveTxn(), NoOpReadResolver.INSTANCE, SIDriver.driver().getTxnStore());
+            readUncommittedFilter = new SimpleTxnFilter(Long.toString(indexConglomerateId), ((ActiveWriteTxn) ctx.getTxn()).getReadUncommittedActiveTxn(), NoOpReadResolver.INSTANCE, SIDriver.driver().getTxnStore());
+        }
+        else if (ctx.getTxn() instanceof WritableTxn) {
+            readCommittedFilter = new SimpleTxnFilter(Long.toString(indexConglomerateId), ((WritableTxn) ctx.getTxn()).getReadCommittedActiveTxn(), NoOpReadResolver.INSTANCE, SIDriver.driver().getTxnStore());
+            readUncommittedFilter = new SimpleTxnFilter(Long.toString(indexConglomerateId), ((WritableTxn) ctx.getTxn()).getReadUncommittedActiveTxn(), NoOpReadResolver.INSTANCE, SIDriver.driver().getTxnStore());
+        }
+        else
+            throw new IOException("invalidTxn");
+
+        byte[] resumeAfter = null; // rows up to and including this one have been checked already
+        while (true) {
+            IntArrayList open = new IntArrayList(numKeys);
+            List<Pair<byte[], byte[]>> ranges = new ArrayList<>(numKeys);
+            for (int k = 0; k < numKeys; k++) {
+                if (referenced.get(k) || (resumeAfter != null && compare(resumeAfter, 0, resumeAfter.length, stopKeys[k]) >= 0))
+                    continue;
+                byte[] start = checkKeys.get(k);
+                if (resumeAfter != null && Bytes.BASE_COMPARATOR.compare(start, resumeAfter) <= 0)
+                    start = Arrays.copyOf(resumeAfter, resumeAfter.length + 1); // the smallest key after resumeAfter
+                open.add(k);
+                ranges.add(Pair.newPair(start, stopKeys[k]));
             }
-            else
-                throw new IOException("invalidTxn");
-        try(DataScanner scanner = table.openScanner(scan)) {
-            List<DataCell> next;
-            while ((next = scanner.next(-1)) != null && !next.isEmpty()) {
-                readCommittedFilter.reset();
-                readUncommittedFilter.reset();
-                if (hasData(next, readCommittedFilter) || hasData(next, readUncommittedFilter))
-                    return true;
+            if (open.isEmpty())
+                return;
+
+            byte[][] rangeStops = new byte[ranges.size()][];
+            for (int r = 0; r < rangeStops.length; r++)
+                rangeStops[r] = ranges.get(r).getSecond();
+            DataScan scan = txnOperationFactory.newDataScan(null) // Non-Transactional, will resolve on this side
+                    .startKey(ranges.get(0).getFirst())
+                    .stopKey(maxKey(rangeStops));
+            if (ranges.size() > 1)
+                scan = scan.filter(SIDriver.driver().filterFactory().multiRowRangeFilter(ranges));
+
+            resumeAfter = null;
+            int unresolved = open.size();
+            scansIssued++;
+            try(DataScanner scanner = table.openScanner(scan)) {
+                List<DataCell> next;
+                int firstOpen = 0; // all ranges before this one end at or before the current row
+                while ((next = scanner.next(-1)) != null && !next.isEmpty()) {
+                    DataCell first = next.get(0);
+                    byte[] rowKey = first.keyArray();
+                    int rowOffset = first.keyOffset();
+                    int rowLength = first.keyLength();
+                    while (firstOpen < open.size() && compare(rowKey, rowOffset, rowLength, stopKeys[open.get(firstOpen)]) >= 0)
+                        firstOpen++;
+                    if (firstOpen == open.size())
+                        break;
+                    // ranges nest when one check key is a prefix of another, so look at every range holding the row
+                    int lastHolding = firstOpen;
+                    boolean needed = false;
+                    for (; lastHolding < open.size() && compare(rowKey, rowOffset, rowLength, checkKeys.get(open.get(lastHolding))) >= 0; lastHolding++) {
+                        int k = open.get(lastHolding);
+                        if (!referenced.get(k) && compare(rowKey, rowOffset, rowLength, stopKeys[k]) < 0)
+                            needed = true;
+                    }
+                    if (!needed) {
+                        // the rest of this range can only hold more children of keys already known to be referenced
+                        resumeAfter = Arrays.copyOfRange(rowKey, rowOffset, rowOffset + rowLength);
+                        break;
+                    }
+                    readCommittedFilter.reset();
+                    readUncommittedFilter.reset();
+                    if (!hasData(next, readCommittedFilter) && !hasData(next, readUncommittedFilter))
+                        continue;
+                    for (int r = firstOpen; r < lastHolding; r++) {
+                        int k = open.get(r);
+                        if (!referenced.get(k) && compare(rowKey, rowOffset, rowLength, stopKeys[k]) < 0) {
+                            referenced.set(k);
+                            unresolved--;
+                        }
+                    }
+                    if (unresolved == 0)
+                        return;
+                }
+            }catch (Exception e) {
+                throw new IOException(e);
             }
-            return false;
-        }catch (Exception e) {
-            throw new IOException(e);
+            if (resumeAfter == null)
+                return;
+        }
+    }
+
+    private static int compare(byte[] rowKey, int rowOffset, int rowLength, byte[] key) {
+        return Bytes.BASE_COMPARATOR.compare(rowKey, rowOffset, rowLength, key, 0, key.length);
+    }
+
+    private static byte[] maxKey(byte[][] keys) {
+        byte[] max = keys[0];
+        for (byte[] key : keys) {
+            if (Bytes.BASE_COMPARATOR.compare(key, max) > 0)
+                max = key;
         }
+        return max;
     }
 
     private boolean hasData(List<DataCell> next, SimpleTxnFilter txnFilter) throws IOException {
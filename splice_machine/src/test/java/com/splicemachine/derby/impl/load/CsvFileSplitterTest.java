@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.load;
+
+import com.splicemachine.derby.stream.function.CsvByteTokenizer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.supercsv.prefs.CsvPreference;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CsvFileSplitterTest {
+
+    @Test
+    public void splitsOutsideQuotedLineBreaks() throws Exception {
+        String csv = "a,\"b\nc\"\nd,\"e\n\"\"f\"\"\ng\"\nh,i\n";
+        List<CsvFileSplit> splits = split(csv.getBytes(StandardCharsets.UTF_8), 4);
+        for (CsvFileSplit split : splits) {
+            Assert.assertTrue("Split " + split + " does not start a record",
+                    split.getStart() == 0 || csv.charAt((int) split.getStart() - 1) == '\n');
+        }
+        Assert.assertEquals(records(csv.getBytes(StandardCharsets.UTF_8), splits), records(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void splitsReadTheSameRecordsAsTheWholeFile() throws Exception {
+        Random random = new Random(0L);
+        byte[] csv = randomCsv(random, 2000).getBytes(StandardCharsets.UTF_8);
+        List<List<String>> expected = records(csv);
+        for (int chunkSize : new int[]{7, 64, 1000, csv.length}) {
+            List<CsvFileSplit> splits = split(csv, chunkSize);
+            Assert.assertEquals("Wrong records for chunk size " + chunkSize, expected, records(csv, splits));
+        }
+    }
+
+    @Test
+    public void chunksWithoutBoundariesAreMerged() throws Exception {
+        // a single record with a quoted value running over several chunks
+        String csv = "a,\"" + new String(new char[100]).replace('\0', '\n') + "\"\nb,c\n";
+        List<CsvFileSplit> splits = split(csv.getBytes(StandardCharsets.UTF_8), 10);
+        Assert.assertEquals(2, splits.size());
+        Assert.assertEquals(csv.indexOf('b'), splits.get(1).getStart());
+    }
+
+    private static List<CsvFileSplit> split(byte[] csv, int chunkSize) throws IOException {
+        List<CsvFileSplitter.ChunkScan> scans = new ArrayList<>();
+        for (CsvFileSplit chunk : CsvFileSplitter.chunks(csv.length, chunkSize)) {
+            InputStream in = new ByteArrayInputStream(csv, (int) chunk.getStart(), (int) chunk.length());
+            scans.add(CsvFileSplitter.scan(in, chunk, '"'));
+        }
+        List<CsvFileSplit> splits = CsvFileSplitter.splits(scans, csv.length);
+        long next = 0;
+        for (CsvFileSplit split : splits) {
+            Assert.assertEquals("Splits should cover the file", next, split.getStart());
+            next = split.getEnd();
+        }
+        Assert.assertEquals("Splits should cover the file", csv.length, next);
+        return splits;
+    }
+
+    private static List<List<String>> records(byte[] csv) throws IOException {
+        List<CsvFileSplit> whole = new ArrayList<>();
+        whole.add(new CsvFileSplit(0, csv.length));
+        return records(csv, whole);
+    }
+
+    private static List<List<String>> records(byte[] csv, List<CsvFileSplit> splits) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        for (CsvFileSplit split : splits) {
+            InputStream in = new ByteArrayInputStream(csv, (int) split.getStart(), csv.length - (int) split.getStart());
+            CsvByteTokenizer tokenizer = new CsvByteTokenizer(in, CsvPreference.STANDARD_PREFERENCE,
+                    StandardCharsets.UTF_8, split.length());
+            while (tokenizer.next()) {
+                records.add(tokenizer.getColumns());
+            }
+        }
+        return records;
+    }
+
+    private static String randomCsv(Random random, int rows) {
+        String[] pieces = {"a", "bc", "1234", " ", ",", "\"\"", "\n", "\r\n"};
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < rows; r++) {
+            int columns = 1 + random.nextInt(5);
+            for (int c = 0; c < columns; c++) {
+                if (c > 0)
+                    sb.append(',');
+                boolean quoted = random.nextBoolean();
+                if (quoted)
+                    sb.append('"');
+                int length = random.nextInt(10);
+                for (int i = 0; i < length; i++)
+                    sb.append(pieces[random.nextInt(quoted ? pieces.length : 4)]);
+                if (quoted)
+                    sb.append('"');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
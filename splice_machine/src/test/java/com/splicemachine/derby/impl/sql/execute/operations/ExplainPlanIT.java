@@ -652,6 +652,23 @@ public class ExplainPlanIT extends SpliceUnitTest  {
         Assert.assertFalse(explainStr.contains(expected[0]) || explainStr.contains(expected[1]));
     }
 
+    @Test
+    public void testReportPlanningTime() throws Exception {
+        ResultSet rs  = methodWatcher.executeQuery("explain select * from t3");
+        String explainStr = TestUtils.FormattedResult.ResultFactory.toString(rs);
+        Assert.assertFalse(explainStr, explainStr.contains("Planning time: "));
+
+        methodWatcher.execute("set session_property showPlanningTime=true");
+        try {
+            rs = methodWatcher.executeQuery("explain select * from t3");
+            explainStr = TestUtils.FormattedResult.ResultFactory.toString(rs);
+            Assert.assertTrue(explainStr, explainStr.contains("Planning time: "));
+            Assert.assertFalse(explainStr, explainStr.contains("planning time budget exceeded"));
+        } finally {
+            methodWatcher.execute("set session_property showPlanningTime=null");
+        }
+    }
+
     @Test
     public void testTableSkipStatistics() throws Exception {
         String query ="explain get no statistics select * from t5 --splice-properties skipStats=true";
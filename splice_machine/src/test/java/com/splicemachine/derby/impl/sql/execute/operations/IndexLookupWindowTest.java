@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import static org.junit.Assert.assertEquals;
+
+@Category(ArchitectureIndependent.class)
+public class IndexLookupWindowTest {
+
+    @Test
+    public void batchSizeRampsUpToConfiguredSize() throws Exception {
+        IndexLookupWindow window = new IndexLookupWindow(1000, 5);
+        assertEquals(IndexLookupWindow.INITIAL_BATCH_SIZE, window.nextBatchSize());
+        assertEquals(2 * IndexLookupWindow.INITIAL_BATCH_SIZE, window.nextBatchSize());
+        assertEquals(4 * IndexLookupWindow.INITIAL_BATCH_SIZE, window.nextBatchSize());
+        assertEquals(1000, window.nextBatchSize());
+        assertEquals(1000, window.nextBatchSize());
+    }
+
+    @Test
+    public void smallBatchSizeIsNotExceeded() throws Exception {
+        IndexLookupWindow window = new IndexLookupWindow(10, 5);
+        assertEquals(10, window.nextBatchSize());
+        assertEquals(10, window.nextBatchSize());
+    }
+
+    @Test
+    public void outstandingFollowsLookupLatency() throws Exception {
+        IndexLookupWindow window = new IndexLookupWindow(1000, 8);
+        assertEquals("Should start with two batches in flight", 2, window.targetOutstanding());
+
+        // lookups take 3x as long as consuming their rows
+        window.lookupCompleted(100, 300000L);
+        window.batchConsumed(100, 100000L);
+        assertEquals(4, window.targetOutstanding());
+
+        // consumer is slower than the lookups, one batch ahead is enough
+        window = new IndexLookupWindow(1000, 8);
+        window.lookupCompleted(100, 100000L);
+        window.batchConsumed(100, 500000L);
+        assertEquals(2, window.targetOutstanding());
+
+        // never more than the configured number of lookups
+        window = new IndexLookupWindow(1000, 8);
+        window.lookupCompleted(100, 100000000L);
+        window.batchConsumed(100, 1000L);
+        assertEquals(8, window.targetOutstanding());
+    }
+
+    @Test
+    public void tracksHitRateAndStallTime() throws Exception {
+        IndexLookupWindow window = new IndexLookupWindow(1000, 5);
+        assertEquals(0d, window.getPrefetchHitRate(), 0d);
+        window.batchAwaited(false, 5000L);
+        window.batchAwaited(true, 10L);
+        window.batchAwaited(true, 20L);
+        window.batchAwaited(true, 30L);
+        assertEquals(3, window.getPrefetchHits());
+        assertEquals(1, window.getPrefetchMisses());
+        assertEquals(0.75d, window.getPrefetchHitRate(), 0d);
+        assertEquals(5060L, window.getStallTimeNanos());
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.impl.sql.execute.operations;
+
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.impl.sql.JoinTable;
+import com.splicemachine.derby.stream.BaseStreamTest;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.stream.Streams;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@Category(ArchitectureIndependent.class)
+public class OffHeapJoinTableTest extends BaseStreamTest {
+
+    // enough rows to force the slot table to resize a few times
+    @Test
+    public void testFetchInnerMatchesEveryKey() throws Exception {
+        List<ExecRow> inner = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            inner.add(getExecRow(i % 2500, 3));
+        }
+        JoinTable.Factory factory = OffHeapJoinTableLoader.INSTANCE.load(() -> Streams.wrap(inner),
+                new int[]{0}, new int[]{1}, null);
+        assertTrue("Expected off-heap memory to be accounted for", factory.sizeInBytes() > 0);
+
+        try (JoinTable table = factory.newTable()) {
+            for (int i = 0; i < 2500; i++) {
+                Iterator<ExecRow> it = table.fetchInner(getExecRow(i, 2));
+                int count = 0;
+                while (it.hasNext()) {
+                    assertEquals("Wrong inner row returned", i, it.next().getColumn(1).getInt());
+                    count++;
+                }
+                assertEquals("Expected both duplicates of key " + i, 2, count);
+            }
+            assertFalse("Unexpected match for a missing key", table.fetchInner(getExecRow(-1, 2)).hasNext());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.stream.BaseStreamTest;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import scala.Tuple2;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+@Category(ArchitectureIndependent.class)
+public class ExternalSortIteratorTest extends BaseStreamTest {
+    private static final Comparator<ExecRow> COMPARATOR = ExecRow::compareTo;
+
+    @Test
+    public void sortsInMemoryWithoutSpilling() throws StandardException {
+        OperationContext context = Mockito.mock(OperationContext.class);
+        ExternalSortIterator<ExecRow,ExecRow> it = new ExternalSortIterator<>(reversed(100).iterator(),COMPARATOR,Long.MAX_VALUE,context);
+        assertSorted(it,100);
+        Mockito.verify(context,Mockito.never()).recordSpilledBytes(Mockito.anyLong());
+    }
+
+    @Test
+    public void spillsAndMergesRuns() throws StandardException {
+        OperationContext context = Mockito.mock(OperationContext.class);
+        // a tiny budget forces a run to be written every couple of rows
+        ExternalSortIterator<ExecRow,ExecRow> it = new ExternalSortIterator<>(reversed(100).iterator(),COMPARATOR,128L,context);
+        assertSorted(it,100);
+        Mockito.verify(context,Mockito.atLeastOnce()).recordSpilledBytes(Mockito.anyLong());
+    }
+
+    @Test
+    public void mergeIsStable() throws StandardException {
+        List<Tuple2<ExecRow,ExecRow>> rows = new ArrayList<>();
+        for(int i=0;i<50;i++){
+            rows.add(new Tuple2<>(getExecRow(i%2,1),getExecRow(i,2)));
+        }
+        ExternalSortIterator<ExecRow,ExecRow> it = new ExternalSortIterator<>(rows.iterator(),COMPARATOR,128L,null);
+        int lastKey = -1;
+        int lastValue = -1;
+        int count = 0;
+        while(it.hasNext()){
+            Tuple2<ExecRow,ExecRow> t = it.next();
+            int key = t._1().getColumn(1).getInt();
+            int value = t._2().getColumn(1).getInt();
+            if(key==lastKey)
+                Assert.assertTrue("Equal keys were reordered",value>lastValue);
+            lastKey = key;
+            lastValue = value;
+            count++;
+        }
+        Assert.assertEquals("Incorrect number of rows",50,count);
+    }
+
+    @Test
+    public void runsAreRemovedWhenTheOperationIsClosed() throws Exception {
+        OperationContext context = Mockito.mock(OperationContext.class);
+        SpliceOperation operation = Mockito.mock(SpliceOperation.class);
+        Mockito.when(context.getOperation()).thenReturn(operation);
+        int before = spillFiles();
+        ExternalSortIterator<ExecRow,ExecRow> it = new ExternalSortIterator<>(reversed(100).iterator(),COMPARATOR,128L,context);
+        Mockito.verify(operation).registerCloseable(it);
+
+        // read only part of the sort, like a limit would
+        Assert.assertTrue(it.hasNext());
+        it.next();
+        Assert.assertTrue("No runs were spilled",spillFiles()>before);
+        it.close();
+        Assert.assertEquals("Runs were not removed",before,spillFiles());
+        Assert.assertFalse("Closed sort returned rows",it.hasNext());
+    }
+
+    private static int spillFiles(){
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles((dir,name) -> name.startsWith("splice-spill-"));
+        return files==null?0:files.length;
+    }
+
+    private static List<Tuple2<ExecRow,ExecRow>> reversed(int n){
+        List<Tuple2<ExecRow,ExecRow>> rows = new ArrayList<>(n);
+        for(int i=n-1;i>=0;i--){
+            rows.add(new Tuple2<>(getExecRow(i,1),getExecRow(i,3)));
+        }
+        return rows;
+    }
+
+    private static void assertSorted(Iterator<Tuple2<ExecRow,ExecRow>> it,int expected) throws StandardException {
+        int i = 0;
+        while(it.hasNext()){
+            Tuple2<ExecRow,ExecRow> t = it.next();
+            Assert.assertEquals("Out of order",i,t._1().getColumn(1).getInt());
+            Assert.assertEquals("Value does not match key",i,t._2().getColumn(3).getInt());
+            i++;
+        }
+        Assert.assertEquals("Incorrect number of rows",expected,i);
+    }
+}
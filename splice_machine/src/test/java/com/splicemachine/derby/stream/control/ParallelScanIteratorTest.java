@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import splice.com.google.common.base.Function;
+import splice.com.google.common.base.Functions;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Category(ArchitectureIndependent.class)
+public class ParallelScanIteratorTest {
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void preservesRegionOrder() throws Exception {
+        List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+        for (int r = 0; r < 10; r++)
+            scans.add(range(r * 100, 100, null));
+
+        ParallelScanIterator<Integer> it = new ParallelScanIterator<>(executor, scans, 3, 8, true, Functions.<Integer>identity());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(it.hasNext());
+            Assert.assertEquals(i, it.next().intValue());
+        }
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void unorderedReturnsEveryRow() throws Exception {
+        List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+        for (int r = 0; r < 10; r++)
+            scans.add(range(r * 100, 100, null));
+
+        ParallelScanIterator<Integer> it = new ParallelScanIterator<>(executor, scans, 3, 8, false, Functions.<Integer>identity());
+        List<Integer> rows = new ArrayList<>();
+        while (it.hasNext())
+            rows.add(it.next());
+        Collections.sort(rows);
+        Assert.assertEquals(1000, rows.size());
+        for (int i = 0; i < 1000; i++)
+            Assert.assertEquals(i, rows.get(i).intValue());
+    }
+
+    @Test
+    public void emptyScansAreSkipped() throws Exception {
+        List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+        scans.add(range(0, 0, null));
+        scans.add(range(0, 3, null));
+        scans.add(range(0, 0, null));
+
+        ParallelScanIterator<Integer> it = new ParallelScanIterator<>(executor, scans, 2, 8, true, Functions.<Integer>identity());
+        int count = 0;
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        Assert.assertEquals(3, count);
+    }
+
+    @Test
+    public void rowsAreCopied() throws Exception {
+        List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+        scans.add(range(0, 5, null));
+        ParallelScanIterator<Integer> it = new ParallelScanIterator<>(executor, scans, 1, 8, true, new Function<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer input) {
+                return input * 2;
+            }
+        });
+        Assert.assertEquals(0, it.next().intValue());
+        Assert.assertEquals(2, it.next().intValue());
+    }
+
+    @Test(timeout = 10000)
+    public void limitsConcurrentScans() throws Exception {
+        final AtomicInteger submitted = new AtomicInteger();
+        ExecutorService counting = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>()) {
+            @Override
+            public void execute(Runnable command) {
+                submitted.incrementAndGet();
+                super.execute(command);
+            }
+        };
+        try {
+            final CountDownLatch opened = new CountDownLatch(2);
+            List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+            for (int r = 0; r < 10; r++)
+                scans.add(range(r * 100, 100, opened));
+
+            ParallelScanIterator<Integer> it = new ParallelScanIterator<>(counting, scans, 2, 4, true, Functions.<Integer>identity());
+            Assert.assertEquals(0, it.next().intValue());
+            opened.await();
+            // scans are only submitted by the caller, so nothing beyond the first two can start until the first one is read
+            Assert.assertEquals(2, submitted.get());
+            for (int i = 1; i < 100; i++)
+                Assert.assertEquals(i, it.next().intValue());
+            Assert.assertEquals(2, submitted.get());
+            Assert.assertEquals(100, it.next().intValue());
+            Assert.assertEquals(3, submitted.get());
+            it.close();
+            Assert.assertFalse(it.hasNext());
+        } finally {
+            counting.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failuresAreRethrown() throws Exception {
+        List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+        scans.add(range(0, 2, null));
+        scans.add(new Callable<Iterator<Integer>>() {
+            @Override
+            public Iterator<Integer> call() throws Exception {
+                throw new IllegalStateException("region moved");
+            }
+        });
+
+        ParallelScanIterator<Integer> it = new ParallelScanIterator<>(executor, scans, 2, 8, true, Functions.<Integer>identity());
+        Assert.assertEquals(0, it.next().intValue());
+        Assert.assertEquals(1, it.next().intValue());
+        try {
+            it.hasNext();
+            Assert.fail("Expected the failure of the second scan");
+        } catch (IllegalStateException expected) {
+            Assert.assertEquals("region moved", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void scansAreClosed() throws Exception {
+        final AtomicInteger closed = new AtomicInteger();
+        List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            scans.add(new Callable<Iterator<Integer>>() {
+                @Override
+                public Iterator<Integer> call() throws Exception {
+                    return new ClosingIterator(closed);
+                }
+            });
+        }
+        ParallelScanIterator<Integer> it = new ParallelScanIterator<>(executor, scans, 2, 8, false, Functions.<Integer>identity());
+        while (it.hasNext())
+            it.next();
+        Assert.assertEquals(3, closed.get());
+    }
+
+    @Test(timeout = 10000)
+    public void rejectedScansAreReadByTheCaller() throws Exception {
+        ExecutorService oneThread = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadPoolExecutor.AbortPolicy());
+        try {
+            for (boolean preserveOrder : new boolean[]{true, false}) {
+                List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+                for (int r = 0; r < 10; r++)
+                    scans.add(range(r * 100, 100, null));
+
+                ParallelScanIterator<Integer> it = new ParallelScanIterator<>(oneThread, scans, 4, 4, preserveOrder, Functions.<Integer>identity());
+                Assert.assertTrue(it.start());
+                List<Integer> rows = new ArrayList<>();
+                while (it.hasNext())
+                    rows.add(it.next());
+                if (!preserveOrder)
+                    Collections.sort(rows);
+                Assert.assertEquals(1000, rows.size());
+                for (int i = 0; i < 1000; i++)
+                    Assert.assertEquals(i, rows.get(i).intValue());
+            }
+        } finally {
+            oneThread.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void startFailsWithoutThreads() throws Exception {
+        ExecutorService oneThread = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadPoolExecutor.AbortPolicy());
+        final CountDownLatch busy = new CountDownLatch(1);
+        oneThread.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                busy.await();
+                return null;
+            }
+        });
+        try {
+            List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+            for (int r = 0; r < 3; r++)
+                scans.add(range(r * 10, 10, null));
+
+            ParallelScanIterator<Integer> it = new ParallelScanIterator<>(oneThread, scans, 2, 4, true, Functions.<Integer>identity());
+            Assert.assertFalse(it.start());
+            // nothing runs on the executor, but the caller can still read every scan itself
+            for (int i = 0; i < 30; i++)
+                Assert.assertEquals(i, it.next().intValue());
+            Assert.assertFalse(it.hasNext());
+        } finally {
+            busy.countDown();
+            oneThread.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void closeWaitsForRunningScans() throws Exception {
+        final CountDownLatch opened = new CountDownLatch(4);
+        final AtomicInteger closed = new AtomicInteger();
+        List<Callable<Iterator<Integer>>> scans = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            scans.add(new Callable<Iterator<Integer>>() {
+                @Override
+                public Iterator<Integer> call() throws Exception {
+                    opened.countDown();
+                    return new ClosingIterator(closed, Integer.MAX_VALUE);
+                }
+            });
+        }
+        ParallelScanIterator<Integer> it = new ParallelScanIterator<>(executor, scans, 4, 2, true, Functions.<Integer>identity());
+        Assert.assertTrue(it.hasNext());
+        // every scan is running, blocked on its full buffer
+        opened.await();
+        it.close();
+        // every scan has been released once close returns
+        Assert.assertEquals(4, closed.get());
+        Assert.assertFalse(it.hasNext());
+    }
+
+    private static Callable<Iterator<Integer>> range(final int start, final int count, final CountDownLatch opened) {
+        return new Callable<Iterator<Integer>>() {
+            @Override
+            public Iterator<Integer> call() throws Exception {
+                if (opened != null)
+                    opened.countDown();
+                List<Integer> rows = new ArrayList<>(count);
+                for (int i = 0; i < count; i++)
+                    rows.add(start + i);
+                return rows.iterator();
+            }
+        };
+    }
+
+    private static class ClosingIterator implements Iterator<Integer>, Closeable {
+        private final AtomicInteger closed;
+        private int remaining;
+
+        ClosingIterator(AtomicInteger closed) {
+            this(closed, 5);
+        }
+
+        ClosingIterator(AtomicInteger closed, int remaining) {
+            this.closed = closed;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Integer next() {
+            return remaining--;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.derby.iapi.sql.execute.SpliceOperation;
+import com.splicemachine.derby.stream.BaseStreamTest;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+import scala.Tuple2;
+
+import java.io.File;
+import java.util.*;
+
+@Category(ArchitectureIndependent.class)
+public class SpillingHashAggregatorTest extends BaseStreamTest {
+
+    @Test
+    public void groupsWithoutSpilling() throws StandardException {
+        OperationContext context = Mockito.mock(OperationContext.class);
+        assertGrouped(grouper(rows(200,20),Long.MAX_VALUE,context),20,10);
+        Mockito.verify(context,Mockito.never()).recordSpilledBytes(Mockito.anyLong());
+    }
+
+    @Test
+    public void groupsWithSpilledPartitions() throws StandardException {
+        OperationContext context = Mockito.mock(OperationContext.class);
+        // small enough that every level spills, so the recursion bottoms out at MAX_DEPTH
+        assertGrouped(grouper(rows(200,20),256L,context),20,10);
+        Mockito.verify(context,Mockito.atLeastOnce()).recordSpilledBytes(Mockito.anyLong());
+    }
+
+    @Test
+    public void spilledPartitionsAreRemovedWhenTheOperationIsClosed() throws Exception {
+        OperationContext context = Mockito.mock(OperationContext.class);
+        SpliceOperation operation = Mockito.mock(SpliceOperation.class);
+        Mockito.when(context.getOperation()).thenReturn(operation);
+        int before = spillFiles();
+        SpillingHashAggregator<ExecRow,ExecRow,Iterable<ExecRow>> it = grouper(rows(200,20),256L,context);
+        Mockito.verify(operation).registerCloseable(it);
+
+        // read only the first group, like a limit would
+        Assert.assertTrue(it.hasNext());
+        it.next();
+        Assert.assertTrue("No partitions were spilled",spillFiles()>before);
+        it.close();
+        Assert.assertEquals("Spilled partitions were not removed",before,spillFiles());
+        Assert.assertFalse("Closed aggregator returned groups",it.hasNext());
+    }
+
+    @Test
+    public void partitionsDifferByDepth() {
+        Set<Integer> seen = new HashSet<>();
+        ExecRow key = getExecRow(42,1);
+        for(int depth=0;depth<SpillingHashAggregator.MAX_DEPTH;depth++){
+            seen.add(SpillingHashAggregator.partition(key,depth));
+        }
+        Assert.assertTrue("Partitioning should vary with depth",seen.size()>1);
+    }
+
+    private static SpillingHashAggregator<ExecRow,ExecRow,Iterable<ExecRow>> grouper(List<Tuple2<ExecRow,ExecRow>> rows,long bufferSize,OperationContext context){
+        return new SpillingHashAggregator<ExecRow,ExecRow,Iterable<ExecRow>>(rows.iterator(),bufferSize,context){
+            @Override
+            protected Iterable<ExecRow> create(ExecRow value){
+                List<ExecRow> values = new ArrayList<>();
+                values.add(value);
+                return values;
+            }
+
+            @Override
+            protected Iterable<ExecRow> accumulate(Iterable<ExecRow> aggregate,ExecRow value){
+                ((List<ExecRow>)aggregate).add(value);
+                return aggregate;
+            }
+
+            @Override
+            protected long accumulatedSize(ExecRow value){
+                return ControlSpillFile.estimateSize(value);
+            }
+
+            @Override
+            protected void spill(ExecRow key,Iterable<ExecRow> aggregate,ControlSpillFile<ExecRow,ExecRow> file){
+                for(ExecRow value : aggregate){
+                    file.append(key,value);
+                }
+            }
+        };
+    }
+
+    private static List<Tuple2<ExecRow,ExecRow>> rows(int n,int keys){
+        List<Tuple2<ExecRow,ExecRow>> rows = new ArrayList<>(n);
+        for(int i=0;i<n;i++){
+            rows.add(new Tuple2<>(getExecRow(i%keys,1),getExecRow(i,2)));
+        }
+        return rows;
+    }
+
+    private static int spillFiles(){
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles((dir,name) -> name.startsWith("splice-spill-"));
+        return files==null?0:files.length;
+    }
+
+    private static void assertGrouped(Iterator<Tuple2<ExecRow,Iterable<ExecRow>>> it,int keys,int valuesPerKey) throws StandardException {
+        Set<Integer> seen = new HashSet<>();
+        while(it.hasNext()){
+            Tuple2<ExecRow,Iterable<ExecRow>> t = it.next();
+            int key = t._1().getColumn(1).getInt();
+            Assert.assertTrue("Key returned twice: "+key,seen.add(key));
+            int count = 0;
+            int last = -1;
+            for(ExecRow value : t._2()){
+                int v = value.getColumn(1).getInt();
+                Assert.assertEquals("Value grouped under the wrong key",key,v%keys);
+                Assert.assertTrue("Values were reordered",v>last);
+                last = v;
+                count++;
+            }
+            Assert.assertEquals("Incorrect group size",valuesPerKey,count);
+        }
+        Assert.assertEquals("Incorrect number of groups",keys,seen.size());
+    }
+}
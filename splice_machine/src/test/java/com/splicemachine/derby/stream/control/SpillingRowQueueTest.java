@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.control;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.derby.stream.BaseStreamTest;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+
+@Category(ArchitectureIndependent.class)
+public class SpillingRowQueueTest extends BaseStreamTest {
+
+    @Test
+    public void keepsRowsInMemoryWithinBudget() throws StandardException, IOException {
+        OperationContext context = Mockito.mock(OperationContext.class);
+        SpillingRowQueue queue = new SpillingRowQueue(Long.MAX_VALUE,context);
+        for(int i=0;i<100;i++){
+            queue.add(getExecRow(i,1));
+        }
+        Assert.assertEquals("Incorrect size",100,queue.size());
+        Assert.assertEquals("Incorrect row",50,queue.get(50).getColumn(1).getInt());
+        assertDrained(queue,0,100);
+        Mockito.verify(context,Mockito.never()).recordSpilledBytes(Mockito.anyLong());
+    }
+
+    @Test
+    public void spillsAndPagesInOrder() throws StandardException, IOException {
+        OperationContext context = Mockito.mock(OperationContext.class);
+        // a tiny budget keeps only a couple of rows in memory
+        SpillingRowQueue queue = new SpillingRowQueue(128L,context);
+        for(int i=0;i<100;i++){
+            queue.add(getExecRow(i,1));
+        }
+        Assert.assertEquals("Incorrect size",100,queue.size());
+        Assert.assertEquals("Incorrect row",0,queue.get(0).getColumn(1).getInt());
+        Assert.assertEquals("Incorrect row",10,queue.get(10).getColumn(1).getInt());
+        assertDrained(queue,0,100);
+        Mockito.verify(context,Mockito.atLeastOnce()).recordSpilledBytes(Mockito.anyLong());
+    }
+
+    @Test
+    public void interleavesAddsAndRemoves() throws StandardException, IOException {
+        SpillingRowQueue queue = new SpillingRowQueue(128L,null);
+        int next = 0;
+        for(int i=0;i<100;i++){
+            queue.add(getExecRow(i,1));
+            if(i%3==2){
+                // remove two for every three added, like a frame sliding over a partition
+                for(int j=0;j<2;j++){
+                    Assert.assertEquals("Out of order",next++,queue.removeFirst().getColumn(1).getInt());
+                }
+            }
+        }
+        assertDrained(queue,next,100);
+        queue.close();
+    }
+
+    private static void assertDrained(SpillingRowQueue queue,int from,int to) throws StandardException, IOException {
+        for(int i=from;i<to;i++){
+            Assert.assertEquals("Out of order",i,queue.removeFirst().getColumn(1).getInt());
+        }
+        Assert.assertTrue("Queue should be empty",queue.isEmpty());
+    }
+}
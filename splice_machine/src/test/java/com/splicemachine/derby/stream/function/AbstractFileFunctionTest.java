@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.*;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.sql.execute.operations.VTIOperation;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.supercsv.prefs.CsvPreference;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+
+/**
+ * Integer, decimal and ISO date columns are parsed straight from the bytes of a record; the values
+ * have to be the same as those converted from the Strings of the record.
+ */
+public class AbstractFileFunctionTest {
+
+    @Test
+    public void integersMatchStringConversion() throws Exception {
+        for (String value : new String[]{"5", "+5", "-5", "-0", "+0", "007", "2147483647", "-2147483648",
+                "2147483648", "-2147483649", "1.5", "5-", "+", "-", " 5"}) {
+            assertSameAsStrings(new SQLInteger(), null, value);
+        }
+    }
+
+    @Test
+    public void longsAtTheDigitLimitMatchStringConversion() throws Exception {
+        for (String value : new String[]{"999999999999999999", "-999999999999999999", "+999999999999999999",
+                "1000000000000000000", "9223372036854775807", "-9223372036854775808",
+                "9223372036854775808", "-9223372036854775809", "0000000000000000001"}) {
+            assertSameAsStrings(new SQLLongint(), null, value);
+        }
+    }
+
+    @Test
+    public void outOfRangeSmallIntegersFailAsBefore() throws Exception {
+        for (String value : new String[]{"127", "-128", "128", "-129", "+128"}) {
+            assertSameAsStrings(new SQLTinyint(), null, value);
+        }
+        for (String value : new String[]{"32767", "-32768", "32768", "-32769"}) {
+            assertSameAsStrings(new SQLSmallint(), null, value);
+        }
+        Assert.assertNotNull(failure(new SQLTinyint(), null, "128"));
+        Assert.assertNotNull(failure(new SQLSmallint(), null, "-32769"));
+    }
+
+    @Test
+    public void decimalsMatchStringConversion() throws Exception {
+        for (String value : new String[]{"1.", ".5", "-.5", "+1.50", "-0.00", "0", "-0", "123456789012345678",
+                "1234567890123456789", "0.123456789012345678", "0.1234567890123456789", "1..5", ".", "-"}) {
+            assertSameAsStrings(new SQLDecimal(), null, value);
+        }
+    }
+
+    @Test
+    public void decimalsAreNormalizedToTheColumnType() throws Exception {
+        DataTypeDescriptor decimal52 = new DataTypeDescriptor(TypeId.getBuiltInTypeId(Types.DECIMAL), 5, 2,
+                true, DataTypeUtilities.computeMaxWidth(5, 2));
+        for (String value : new String[]{"1.5", "1.", ".5", "-0.00", "123.456", "-1.005", "999.99", "1000", "12345.6"}) {
+            assertSameAsStrings(new SQLDecimal(), decimal52, value);
+        }
+        Assert.assertEquals("1.50", row(new SQLDecimal(), decimal52, "1.5").getColumn(1).getString());
+    }
+
+    @Test
+    public void isoDatesMatchStringConversion() throws Exception {
+        for (String value : new String[]{"2000-02-29", "1900-02-29", "2019-02-29", "0000-01-01", "0001-01-01",
+                "2019-12-31", "2019-13-01", "2019-04-31", "2019-00-10", "2019-1-01", "2019/01/01"}) {
+            assertSameAsStrings(new SQLDate(), null, value);
+        }
+        Assert.assertEquals("2000-02-29", row(new SQLDate(), null, "2000-02-29").getColumn(1).getString());
+    }
+
+    @Test
+    public void quotedValuesMatchStringConversion() throws Exception {
+        assertSameAsStrings(new SQLInteger(), null, "\"42\"");
+        assertSameAsStrings(new SQLInteger(), null, "\"-0\"");
+        assertSameAsStrings(new SQLInteger(), null, "\"\"");
+        assertSameAsStrings(new SQLLongint(), null, "\"9223372036854775807\"");
+        assertSameAsStrings(new SQLDecimal(), null, "\"-1.50\"");
+        assertSameAsStrings(new SQLDate(), null, "\"2000-02-29\"");
+    }
+
+    private static void assertSameAsStrings(DataValueDescriptor column, DataTypeDescriptor type, String csv) throws Exception {
+        ExecRow expected = null;
+        ExecRow actual = null;
+        StandardException expectedFailure = null;
+        StandardException actualFailure = null;
+        try {
+            CsvByteTokenizer tokenizer = tokenizer(csv);
+            expected = function(column, type).call(tokenizer.getColumns(), tokenizer.getQuotedColumns());
+        } catch (StandardException se) {
+            expectedFailure = se;
+        }
+        try {
+            actual = function(column, type).call(tokenizer(csv));
+        } catch (StandardException se) {
+            actualFailure = se;
+        }
+        if (expectedFailure != null) {
+            Assert.assertNotNull("Expected " + csv + " to fail with " + expectedFailure.getSQLState() + ", got " + actual, actualFailure);
+            Assert.assertEquals("Wrong failure for " + csv, expectedFailure.getSQLState(), actualFailure.getSQLState());
+            return;
+        }
+        if (actualFailure != null)
+            throw new AssertionError("Unexpected failure for " + csv + ", expected " + expected, actualFailure);
+        DataValueDescriptor expectedValue = expected.getColumn(1);
+        DataValueDescriptor actualValue = actual.getColumn(1);
+        Assert.assertEquals("Wrong null for " + csv, expectedValue.isNull(), actualValue.isNull());
+        Assert.assertEquals("Wrong value for " + csv, expectedValue.getString(), actualValue.getString());
+    }
+
+    private static ExecRow row(DataValueDescriptor column, DataTypeDescriptor type, String csv) throws Exception {
+        return function(column, type).call(tokenizer(csv));
+    }
+
+    private static StandardException failure(DataValueDescriptor column, DataTypeDescriptor type, String csv) throws Exception {
+        try {
+            row(column, type, csv);
+            return null;
+        } catch (StandardException se) {
+            return se;
+        }
+    }
+
+    private static CsvByteTokenizer tokenizer(String csv) throws Exception {
+        CsvByteTokenizer tokenizer = new CsvByteTokenizer(new ByteArrayInputStream((csv + "\n").getBytes(StandardCharsets.UTF_8)),
+                CsvPreference.STANDARD_PREFERENCE, StandardCharsets.UTF_8);
+        Assert.assertTrue(tokenizer.next());
+        return tokenizer;
+    }
+
+    private static SplitFileFunction function(DataValueDescriptor column, DataTypeDescriptor type) {
+        ExecRow execRow = new ValueRow(1);
+        execRow.setColumn(1, column);
+        OperationContext context = Mockito.mock(OperationContext.class);
+        if (type != null) {
+            VTIOperation operation = Mockito.mock(VTIOperation.class);
+            Mockito.when(operation.getResultColumnTypes()).thenReturn(new DataTypeDescriptor[]{type});
+            Mockito.when(context.getOperation()).thenReturn(operation);
+        }
+        return new SplitFileFunction(null, null, execRow, null, null, null, null, "unused", "UTF-8", context);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.derby.stream.utils.BooleanList;
+import org.junit.Assert;
+import org.junit.Test;
+import org.supercsv.exception.SuperCsvException;
+import org.supercsv.prefs.CsvPreference;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CsvByteTokenizerTest {
+
+    @Test
+    public void readsQuotedAndUnquotedColumns() throws Exception {
+        CsvByteTokenizer tokenizer = tokenizer("\"hello\",goodbye,,\"\",parseThis!\n");
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals(Arrays.asList("hello", "goodbye", null, null, "parseThis!"), tokenizer.getColumns());
+        Assert.assertEquals(BooleanList.wrap(true, false, false, true, false), tokenizer.getQuotedColumns());
+        Assert.assertFalse(tokenizer.next());
+    }
+
+    @Test
+    public void recordsQuotesAcrossLineBreaks() throws Exception {
+        CsvByteTokenizer tokenizer = tokenizer("\"hello\",\"boots\r\nma\n\ngoo\",\"say \"\"hi\"\"\"\r\nnext,row");
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals(Arrays.asList("hello", "boots\nma\n\ngoo", "say \"hi\""), tokenizer.getColumns());
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals(Arrays.asList("next", "row"), tokenizer.getColumns());
+        Assert.assertEquals(BooleanList.wrap(false, false), tokenizer.getQuotedColumns());
+        Assert.assertFalse(tokenizer.next());
+    }
+
+    @Test
+    public void skipsEmptyLines() throws Exception {
+        CsvByteTokenizer tokenizer = tokenizer("\n\r\na,b\r\n\r\n\nc,d\n\n");
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals(Arrays.asList("a", "b"), tokenizer.getColumns());
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals(Arrays.asList("c", "d"), tokenizer.getColumns());
+        Assert.assertFalse(tokenizer.next());
+    }
+
+    @Test
+    public void missingQuoteIsReportedCorrectly() throws Exception {
+        CsvByteTokenizer tokenizer = tokenizer("\"hello,goodbye,parseThis!,boots\n");
+        try {
+            tokenizer.next();
+            Assert.fail("expected exception to be thrown, but no exception was thrown");
+        } catch (SuperCsvException e) {
+            Assert.assertEquals("partial record found [hello,goodbye,parseThis!,boots\n" +
+                    "] while reading quoted column beginning on line 1 and ending on line 1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void tooManyQuotedLinesAreReported() throws Exception {
+        CsvPreference preference = new CsvPreference.Builder('"', ',', "\n").maxLinesPerRow(2).build();
+        CsvByteTokenizer tokenizer = new CsvByteTokenizer(stream("a,\"b\nc\nd\"\ne,f\n"), preference, StandardCharsets.UTF_8);
+        try {
+            tokenizer.next();
+            Assert.fail("expected exception to be thrown, but no exception was thrown");
+        } catch (SuperCsvException e) {
+            Assert.assertEquals("max number of lines to read exceeded while reading quoted column" +
+                    " beginning on line 1 and ending on line 2", e.getMessage());
+        }
+    }
+
+    @Test
+    public void stopsAtTheLimit() throws Exception {
+        String csv = "a,\"b\nc\"\nd,e\nf,g\n";
+        // the second record starts at offset 8, the third at 12
+        CsvByteTokenizer tokenizer = new CsvByteTokenizer(stream(csv), CsvPreference.STANDARD_PREFERENCE,
+                StandardCharsets.UTF_8, 9);
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals(Arrays.asList("a", "b\nc"), tokenizer.getColumns());
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals(Arrays.asList("d", "e"), tokenizer.getColumns());
+        Assert.assertFalse(tokenizer.next());
+    }
+
+    @Test
+    public void keepsMultiByteCharacters() throws Exception {
+        CsvByteTokenizer tokenizer = tokenizer("été,\"日本,語\"\n");
+        Assert.assertTrue(tokenizer.next());
+        Assert.assertEquals(Arrays.asList("été", "日本,語"), tokenizer.getColumns());
+    }
+
+    @Test
+    public void matchesQuoteTrackingTokenizer() throws Exception {
+        Random random = new Random(0L);
+        // long values cross the blocks the tokenizer reads
+        String csv = randomCsv(random, 500, 70000);
+        QuoteTrackingTokenizer expected = new QuoteTrackingTokenizer(new StringReader(csv), CsvPreference.STANDARD_PREFERENCE, false);
+        CsvByteTokenizer actual = tokenizer(csv);
+        List<String> columns = new ArrayList<>();
+        BooleanList quotes = new BooleanList();
+        int records = 0;
+        while (expected.readColumns(columns, quotes)) {
+            Assert.assertTrue("Missing record " + records, actual.next());
+            Assert.assertEquals("Did not return correct column information", columns, actual.getColumns());
+            Assert.assertEquals("Did not return correct quoted column information", quotes, actual.getQuotedColumns());
+            records++;
+        }
+        Assert.assertFalse("Extra record", actual.next());
+    }
+
+    @Test
+    public void supportsOnlySingleByteDelimiters() {
+        Assert.assertTrue(CsvByteTokenizer.supports("UTF-8", CsvPreference.STANDARD_PREFERENCE));
+        Assert.assertTrue(CsvByteTokenizer.supports("ISO-8859-1", CsvPreference.STANDARD_PREFERENCE));
+        Assert.assertFalse(CsvByteTokenizer.supports("UTF-16", CsvPreference.STANDARD_PREFERENCE));
+        Assert.assertFalse(CsvByteTokenizer.supports("UTF-8", new CsvPreference.Builder('"', '¦', "\n").build()));
+    }
+
+    static String randomCsv(Random random, int rows, int maxValueLength) {
+        String[] pieces = {"a", "bc", "1234", " ", ",", "\"", "\n", "\r\n", "é"};
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < rows; r++) {
+            int columns = 1 + random.nextInt(6);
+            for (int c = 0; c < columns; c++) {
+                if (c > 0)
+                    sb.append(',');
+                int length = random.nextInt(100) == 0 ? maxValueLength : random.nextInt(20);
+                boolean quoted = random.nextBoolean();
+                if (quoted)
+                    sb.append('"');
+                for (int i = 0; i < length; i++) {
+                    String piece = pieces[random.nextInt(quoted ? pieces.length : 4)];
+                    sb.append(piece.equals("\"") ? "\"\"" : piece);
+                }
+                if (quoted)
+                    sb.append('"');
+            }
+            sb.append(random.nextBoolean() ? "\n" : "\r\n");
+            if (random.nextInt(20) == 0)
+                sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static CsvByteTokenizer tokenizer(String csv) {
+        return new CsvByteTokenizer(stream(csv), CsvPreference.STANDARD_PREFERENCE, StandardCharsets.UTF_8);
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.stream.function;
+
+import com.splicemachine.access.api.DistributedFileSystem;
+import com.splicemachine.db.iapi.sql.execute.ExecRow;
+import com.splicemachine.db.iapi.types.SQLDate;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLInteger;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.db.impl.sql.execute.ValueRow;
+import com.splicemachine.derby.impl.load.CsvFileSplit;
+import com.splicemachine.derby.stream.iapi.OperationContext;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.driver.SIEnvironment;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class SplitFileFunctionTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        DistributedFileSystem fileSystem = Mockito.mock(DistributedFileSystem.class);
+        Mockito.when(fileSystem.newInputStream(Mockito.anyString(), Mockito.<OpenOption>anyVararg())).thenAnswer(
+                invocation -> Files.newInputStream(Paths.get((String) invocation.getArguments()[0])));
+        SIEnvironment ese = Mockito.mock(SIEnvironment.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(ese.configuration().getThreadPoolMaxSize()).thenReturn(30);
+        Mockito.when(ese.fileSystem(Mockito.anyString())).thenReturn(fileSystem);
+        SIDriver.loadDriver(ese);
+    }
+
+    @Test
+    public void readsEveryRecordOfAMultiSplitFile() throws Exception {
+        int rows = 2000;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            // some values are quoted and hold line breaks, which splits must not cut
+            String name = i % 7 == 0 ? "\"name, " + i + "\nsecond line\"" : "name" + i;
+            sb.append(i).append(',').append(name).append(',').append(i).append(".25,2000-02-")
+                    .append(String.format("%02d", i % 29 + 1)).append('\n');
+        }
+        byte[] csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+        File file = folder.newFile("split.csv");
+        Files.write(file.toPath(), csv);
+
+        List<CsvFileSplit> splits = splits(csv, 1024);
+        Assert.assertTrue("Expected several splits, got " + splits, splits.size() > 10);
+
+        ExecRow execRow = new ValueRow(4);
+        execRow.setColumn(1, new SQLInteger());
+        execRow.setColumn(2, new SQLVarchar());
+        execRow.setColumn(3, new SQLDecimal());
+        execRow.setColumn(4, new SQLDate());
+        SplitFileFunction function = new SplitFileFunction(null, null, execRow, null, null, null, null,
+                file.getAbsolutePath(), "UTF-8", Mockito.mock(OperationContext.class));
+        function.preference = AbstractFileFunction.buildPreference(null, null, 0);
+
+        List<ExecRow> read = new ArrayList<>();
+        for (CsvFileSplit split : splits) {
+            Iterator<ExecRow> it = function.call(split);
+            while (it.hasNext())
+                read.add(it.next());
+        }
+
+        Assert.assertEquals(rows, read.size());
+        for (int i = 0; i < rows; i++) {
+            ExecRow row = read.get(i);
+            Assert.assertEquals(i, row.getColumn(1).getInt());
+            Assert.assertEquals(i % 7 == 0 ? "name, " + i + "\nsecond line" : "name" + i, row.getColumn(2).getString());
+            Assert.assertEquals(i + ".25", row.getColumn(3).getString());
+            Assert.assertEquals(String.format("2000-02-%02d", i % 29 + 1), row.getColumn(4).getString());
+        }
+    }
+
+    /*
+     * Cuts the file after the first line feed outside quotes past every splitSize bytes, like CsvFileSplitter
+     */
+    private static List<CsvFileSplit> splits(byte[] csv, int splitSize) {
+        List<CsvFileSplit> splits = new ArrayList<>();
+        long start = 0;
+        boolean quoted = false;
+        for (int i = 0; i < csv.length; i++) {
+            if (csv[i] == '"')
+                quoted = !quoted;
+            else if (csv[i] == '\n' && !quoted && i + 1 - start >= splitSize && i + 1 < csv.length) {
+                splits.add(new CsvFileSplit(start, i + 1));
+                start = i + 1;
+            }
+        }
+        splits.add(new CsvFileSplit(start, csv.length));
+        return splits;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.derby.utils.marshall.dvd;
+
+import com.splicemachine.db.iapi.error.StandardException;
+import com.splicemachine.db.iapi.types.DataValueDescriptor;
+import com.splicemachine.db.iapi.types.DeferredDecodable;
+import com.splicemachine.db.iapi.types.SQLDecimal;
+import com.splicemachine.db.iapi.types.SQLTimestamp;
+import com.splicemachine.db.iapi.types.SQLVarchar;
+import com.splicemachine.encoding.MultiFieldDecoder;
+import com.splicemachine.encoding.MultiFieldEncoder;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+@Category(ArchitectureIndependent.class)
+public class LazyDecodingTest {
+    private final SerializerMap serializers = VersionedSerializers.latestVersion(false);
+
+    @Test
+    public void decodeDirectLazyDefersUntilRead() throws StandardException {
+        DataValueDescriptor[] values = {
+                new SQLVarchar("hello"),
+                new SQLDecimal(new BigDecimal("12345.678")),
+                new SQLTimestamp(Timestamp.valueOf("2019-03-04 05:06:07.123456"))
+        };
+        for (DataValueDescriptor value : values) {
+            DescriptorSerializer serializer = serializers.getSerializer(value);
+            byte[] encoded = serializer.encodeDirect(value, false);
+
+            DataValueDescriptor dest = value.getNewNull();
+            serializer.decodeDirectLazy(dest, encoded, 0, encoded.length, false);
+            Assert.assertTrue(((DeferredDecodable) dest).isDeferred());
+            Assert.assertFalse(dest.isNull());
+
+            Assert.assertEquals(value.getObject(), dest.getObject());
+            Assert.assertFalse(((DeferredDecodable) dest).isDeferred());
+        }
+    }
+
+    @Test
+    public void decodeLazyAdvancesPastField() throws StandardException {
+        DataValueDescriptor[] row = {
+                new SQLVarchar("abc"),
+                new SQLDecimal(new BigDecimal("-0.5")),
+                new SQLTimestamp(Timestamp.valueOf("2000-01-01 00:00:00")),
+                new SQLVarchar("trailing")
+        };
+        DescriptorSerializer[] rowSerializers = serializers.getSerializers(row);
+        MultiFieldEncoder encoder = MultiFieldEncoder.create(row.length);
+        for (int i = 0; i < row.length; i++)
+            rowSerializers[i].encode(encoder, row[i], false);
+
+        DataValueDescriptor[] dest = new DataValueDescriptor[row.length];
+        MultiFieldDecoder decoder = MultiFieldDecoder.wrap(encoder.build());
+        for (int i = 0; i < row.length; i++) {
+            dest[i] = row[i].getNewNull();
+            rowSerializers[i].decodeLazy(decoder, dest[i], false);
+        }
+        for (int i = 0; i < row.length; i++)
+            Assert.assertEquals(row[i].getObject(), dest[i].getObject());
+    }
+
+    @Test
+    public void setDiscardsBinding() throws StandardException {
+        SQLVarchar value = new SQLVarchar("first");
+        DescriptorSerializer serializer = serializers.getSerializer(value);
+        byte[] encoded = serializer.encodeDirect(value, false);
+
+        SQLVarchar dest = new SQLVarchar();
+        serializer.decodeDirectLazy(dest, encoded, 0, encoded.length, false);
+        dest.setValue("second");
+        Assert.assertFalse(dest.isDeferred());
+        Assert.assertEquals("second", dest.getString());
+
+        serializer.decodeDirectLazy(dest, encoded, 0, encoded.length, false);
+        dest.setToNull();
+        Assert.assertTrue(dest.isNull());
+        Assert.assertNull(dest.getString());
+    }
+}
@@ -544,6 +544,62 @@ public class ForeignKey_Check_IT {
         }
     }
 
+    /* Deletes of many parent rows are checked against the child index with one multi-range scan. */
+    @Test
+    public void large_deleteManyParentRowsWithFewReferences() throws Exception {
+
+        new TableCreator(conn).withCreate("create table P (a int primary key, b int)").create();
+        new TableCreator(conn).withCreate("create table C (a int CONSTRAINT c1 REFERENCES P(a), b int)").create();
+
+        try(Statement s = conn.createStatement()){
+            s.executeUpdate("insert into P values(1,1),(2,2),(3,3),(4,4),(5,5),(6,6),(7,7),(8,8)");
+            for(int i=0;i<7;i++){
+                s.executeUpdate("insert into P select a+(select max(a) from P),b from P");
+            }
+            assertEquals(1024L,conn.count(s,"select * from P"));
+            s.executeUpdate("insert into C values(500,1),(500,2),(1000,3)");
+
+            // a single referenced key among many fails the whole statement
+            assertQueryFail("delete from P","Operation on table 'P' caused a violation of foreign key constraint 'C1' for key (A).  The statement has been rolled back.");
+            assertQueryFail("delete from P where a > 900","Operation on table 'P' caused a violation of foreign key constraint 'C1' for key (A).  The statement has been rolled back.");
+            assertEquals(1024L,conn.count(s,"select * from P"));
+
+            // keys between and around the referenced ones can be deleted
+            assertEquals(1021L,s.executeUpdate("delete from P where a not in (500,1000,1001)"));
+            s.executeUpdate("delete from C where a = 1000");
+            assertEquals(2L,s.executeUpdate("delete from P where a in (1000,1001)"));
+            assertEquals(1L,conn.count(s,"select * from P"));
+        }
+    }
+
+    /* A parent key with many children is resolved on its first visible child, and the keys after it are still checked. */
+    @Test
+    public void large_deleteParentRowsWithManyReferences() throws Exception {
+
+        new TableCreator(conn).withCreate("create table P (a int primary key, b int)").create();
+        new TableCreator(conn).withCreate("create table C (a int CONSTRAINT c1 REFERENCES P(a), b int)").create();
+
+        try(Statement s = conn.createStatement()){
+            s.executeUpdate("insert into P values(1,1),(2,2),(3,3),(4,4),(5,5),(6,6),(7,7),(8,8)");
+            s.executeUpdate("insert into C values(2,1),(2,2),(2,3),(2,4),(2,5),(2,6),(2,7),(2,8)");
+            for(int i=0;i<7;i++){
+                s.executeUpdate("insert into C select a,b+(select max(b) from C) from C where a = 2");
+            }
+            s.executeUpdate("insert into C values(7,1)");
+            assertEquals(1025L,conn.count(s,"select * from C"));
+
+            assertQueryFail("delete from P where a > 1","Operation on table 'P' caused a violation of foreign key constraint 'C1' for key (A).  The statement has been rolled back.");
+            s.executeUpdate("delete from C where a = 2");
+            // deleted children no longer count, but the key after them is still referenced
+            assertQueryFail("delete from P where a > 1","Operation on table 'P' caused a violation of foreign key constraint 'C1' for key (A).  The statement has been rolled back.");
+            assertEquals(8L,conn.count(s,"select * from P"));
+
+            s.executeUpdate("delete from C where a = 7");
+            assertEquals(7L,s.executeUpdate("delete from P where a > 1"));
+            assertEquals(1L,conn.count(s,"select * from P"));
+        }
+    }
+
     // - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - - -
     //
     // multiple FK per table
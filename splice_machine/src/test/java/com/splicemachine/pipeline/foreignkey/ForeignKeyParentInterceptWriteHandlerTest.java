@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.pipeline.foreignkey;
+
+import com.splicemachine.ddl.DDLMessage;
+import com.splicemachine.kvpair.KVPair;
+import com.splicemachine.pipeline.api.Code;
+import com.splicemachine.pipeline.api.PipelineExceptionFactory;
+import com.splicemachine.pipeline.client.WriteResult;
+import com.splicemachine.pipeline.context.WriteContext;
+import com.splicemachine.primitives.Bytes;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnView;
+import com.splicemachine.si.impl.driver.SIDriver;
+import com.splicemachine.si.impl.driver.SIEnvironment;
+import com.splicemachine.si.impl.txn.ActiveWriteTxn;
+import com.splicemachine.si.testenv.ArchitectureIndependent;
+import com.splicemachine.storage.CellType;
+import com.splicemachine.storage.DataCell;
+import com.splicemachine.storage.DataFilter;
+import com.splicemachine.storage.DataScan;
+import com.splicemachine.storage.DataScanner;
+import com.splicemachine.storage.Partition;
+import com.splicemachine.utils.Pair;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyList;
+
+@Category(ArchitectureIndependent.class)
+public class ForeignKeyParentInterceptWriteHandlerTest{
+    private static final long WRITER_TXN=2L;
+    private static final long WRITER_COMMIT=3L;
+
+    private static SIEnvironment env;
+
+    /*the ranges handed to each multi-range filter the handler asked for*/
+    private final Map<DataFilter,List<Pair<byte[],byte[]>>> filterRanges=new IdentityHashMap<>();
+    private PipelineExceptionFactory exceptionFactory;
+    private WriteContext ctx;
+
+    @BeforeClass
+    public static void setupDriver(){
+        env=Mockito.mock(SIEnvironment.class,Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(env.configuration().getThreadPoolMaxSize()).thenReturn(30);
+        SIDriver.loadDriver(env);
+    }
+
+    @Before
+    public void setUp() throws Exception{
+        filterRanges.clear();
+        Mockito.when(env.operationFactory().newDataScan(any(TxnView.class))).then(invocation -> new ScanSpec());
+        Mockito.when(env.filterFactory().multiRowRangeFilter(anyList())).then(invocation -> {
+            @SuppressWarnings("unchecked") List<Pair<byte[],byte[]>> ranges=(List<Pair<byte[],byte[]>>)invocation.getArguments()[0];
+            DataFilter filter=Mockito.mock(DataFilter.class);
+            filterRanges.put(filter,ranges);
+            return filter;
+        });
+        exceptionFactory=Mockito.mock(PipelineExceptionFactory.class);
+        ctx=Mockito.mock(WriteContext.class);
+        Mockito.when(ctx.getTxn()).thenReturn(new ActiveWriteTxn(10L,10L,Txn.ROOT_TRANSACTION,true,Txn.IsolationLevel.SNAPSHOT_ISOLATION));
+    }
+
+    @Test
+    public void referencedKeyIsReportedOncePerDelete() throws Exception{
+        ChildIndex first=new ChildIndex(1L,"a1","c1");
+        ChildIndex second=new ChildIndex(2L,"b1","c2");
+        ForeignKeyParentInterceptWriteHandler handler=handler(1L,2L);
+
+        KVPair a=delete("a"), b=delete("b"), c=delete("c"), d=delete("d"), c2=delete("c");
+        for(KVPair mutation : Arrays.asList(a,b,c,d,c2)){
+            handler.next(mutation,ctx);
+        }
+        handler.flush(ctx);
+
+        ArgumentCaptor<KVPair> failed=ArgumentCaptor.forClass(KVPair.class);
+        ArgumentCaptor<WriteResult> results=ArgumentCaptor.forClass(WriteResult.class);
+        Mockito.verify(ctx,Mockito.times(4)).failed(failed.capture(),results.capture());
+        Assert.assertEquals(Arrays.asList(a,b,c,c2),failed.getAllValues());
+        List<String> constraints=new ArrayList<>();
+        for(WriteResult result : results.getAllValues()){
+            Assert.assertEquals(Code.FOREIGN_KEY_VIOLATION,result.getCode());
+            constraints.add(result.getConstraintContext().getMessages()[0]);
+        }
+        Assert.assertEquals("c is referenced through both indexes but fails with the first constraint only",
+                Arrays.asList("FK_1","FK_2","FK_1","FK_1"),constraints);
+        Mockito.verify(ctx).success(d);
+        Mockito.verify(ctx,Mockito.times(1)).success(any(KVPair.class));
+
+        Assert.assertEquals(2,handler.getScansIssued());
+        Assert.assertEquals(Arrays.asList("a-b","b-c","c-d","d-e"),first.ranges(0));
+        Assert.assertEquals(Arrays.asList("a1","c1"),first.read());
+        // the second index is only asked about the keys the first one did not resolve
+        Assert.assertEquals(Arrays.asList("b-c","d-e"),second.ranges(0));
+        Assert.assertEquals(Collections.singletonList("b1"),second.read());
+    }
+
+    @Test
+    public void keysAlreadyFoundAreNotRescanned() throws Exception{
+        ChildIndex index=new ChildIndex(1L,"a1","a2","a3","b1");
+        ForeignKeyParentInterceptWriteHandler handler=handler(1L);
+
+        KVPair a=delete("a"), b=delete("b"), c=delete("c");
+        for(KVPair mutation : Arrays.asList(a,b,c)){
+            handler.next(mutation,ctx);
+        }
+        handler.flush(ctx);
+
+        Mockito.verify(ctx).failed(Mockito.eq(a),any(WriteResult.class));
+        Mockito.verify(ctx).failed(Mockito.eq(b),any(WriteResult.class));
+        Mockito.verify(ctx).success(c);
+
+        // a2 only holds children of a, which is already known to be referenced, so the scan is reopened past it
+        Assert.assertEquals(2,handler.getScansIssued());
+        Assert.assertEquals(Arrays.asList("a-b","b-c","c-d"),index.ranges(0));
+        Assert.assertEquals(Arrays.asList("b-c","c-d"),index.ranges(1));
+        Assert.assertEquals(Arrays.asList("a1","a2","b1"),index.read());
+    }
+
+    @Test
+    public void mutationsAreClearedWhenTheCheckFails() throws Exception{
+        ChildIndex index=new ChildIndex(1L,"a1");
+        ForeignKeyParentInterceptWriteHandler handler=handler(1L);
+
+        index.unavailable=true;
+        handler.next(delete("a"),ctx);
+        handler.flush(ctx);
+        Mockito.verify(exceptionFactory).processPipelineException(any(Throwable.class));
+
+        index.unavailable=false;
+        handler.flush(ctx);
+        Assert.assertEquals("the failed deletes should not be checked again",0,handler.getScansIssued());
+
+        KVPair b=delete("b");
+        handler.next(b,ctx);
+        handler.flush(ctx);
+        Assert.assertEquals(1,handler.getScansIssued());
+        Assert.assertEquals(Collections.singletonList("b-c"),index.ranges(0));
+        Mockito.verify(ctx).success(b);
+        Mockito.verify(ctx,Mockito.never()).failed(any(KVPair.class),any(WriteResult.class));
+    }
+
+    /* ****************************************************************************************************************/
+    /*private helper methods*/
+
+    private ForeignKeyParentInterceptWriteHandler handler(long... indexConglomerateIds){
+        List<Long> ids=new ArrayList<>(indexConglomerateIds.length);
+        List<DDLMessage.FKConstraintInfo> constraintInfos=new ArrayList<>(indexConglomerateIds.length);
+        for(long id : indexConglomerateIds){
+            ids.add(id);
+            constraintInfos.add(DDLMessage.FKConstraintInfo.newBuilder()
+                    .setConstraintName("FK_"+id)
+                    .setTableName("CHILD_"+id)
+                    .setColumnNames("ID")
+                    .build());
+        }
+        return new ForeignKeyParentInterceptWriteHandler("PARENT",ids,exceptionFactory,constraintInfos);
+    }
+
+    private static KVPair delete(String rowKey){
+        return new KVPair(Bytes.toBytes(rowKey),new byte[]{},KVPair.Type.DELETE);
+    }
+
+    private static List<DataCell> committedRow(byte[] rowKey){
+        return Arrays.asList(cell(rowKey,CellType.COMMIT_TIMESTAMP),cell(rowKey,CellType.USER_DATA));
+    }
+
+    private static DataCell cell(byte[] rowKey,CellType type){
+        DataCell cell=Mockito.mock(DataCell.class);
+        Mockito.when(cell.keyArray()).thenReturn(rowKey);
+        Mockito.when(cell.keyOffset()).thenReturn(0);
+        Mockito.when(cell.keyLength()).thenReturn(rowKey.length);
+        Mockito.when(cell.dataType()).thenReturn(type);
+        Mockito.when(cell.version()).thenReturn(WRITER_TXN);
+        Mockito.when(cell.valueAsLong()).thenReturn(WRITER_COMMIT);
+        return cell;
+    }
+
+    /*
+     * A referencing index whose rows were all written by a committed transaction. Scans honour their start
+     * and stop keys and the ranges of their multi-range filter, and remember which rows they handed back.
+     */
+    private class ChildIndex{
+        private final TreeMap<byte[],List<DataCell>> rows=new TreeMap<>(Bytes.BASE_COMPARATOR);
+        private final List<ScanSpec> scans=new ArrayList<>();
+        private final List<String> read=new ArrayList<>();
+        private boolean unavailable;
+
+        ChildIndex(long conglomerateId,String... childRows) throws IOException{
+            for(String row : childRows){
+                byte[] rowKey=Bytes.toBytes(row);
+                rows.put(rowKey,committedRow(rowKey));
+            }
+            Partition partition=Mockito.mock(Partition.class);
+            Mockito.when(partition.openScanner(any(DataScan.class))).then(invocation -> open((ScanSpec)invocation.getArguments()[0]));
+            Mockito.when(env.tableFactory().getTable(Long.toString(conglomerateId))).thenReturn(partition);
+        }
+
+        /*the ranges covered by the n-th scan, as start-stop*/
+        List<String> ranges(int n){
+            ScanSpec scan=scans.get(n);
+            List<Pair<byte[],byte[]>> ranges=filterRanges.get(scan.getFilter());
+            if(ranges==null)
+                ranges=Collections.singletonList(Pair.newPair(scan.getStartKey(),scan.getStopKey()));
+            List<String> bounds=new ArrayList<>(ranges.size());
+            for(Pair<byte[],byte[]> range : ranges){
+                bounds.add(Bytes.toString(range.getFirst())+"-"+Bytes.toString(range.getSecond()));
+            }
+            return bounds;
+        }
+
+        List<String> read(){
+            return read;
+        }
+
+        private DataScanner open(ScanSpec scan) throws IOException{
+            if(unavailable)
+                throw new IOException("region unavailable");
+            scans.add(scan);
+            List<Pair<byte[],byte[]>> ranges=filterRanges.get(scan.getFilter());
+            Iterator<Map.Entry<byte[],List<DataCell>>> matching=rows.subMap(scan.getStartKey(),scan.getStopKey()).entrySet().stream()
+                    .filter(row -> ranges==null || inAnyRange(row.getKey(),ranges))
+                    .iterator();
+            DataScanner scanner=Mockito.mock(DataScanner.class);
+            Mockito.when(scanner.next(-1)).then(invocation -> {
+                if(!matching.hasNext())
+                    return Collections.emptyList();
+                Map.Entry<byte[],List<DataCell>> row=matching.next();
+                read.add(Bytes.toString(row.getKey()));
+                return row.getValue();
+            });
+            return scanner;
+        }
+
+        private boolean inAnyRange(byte[] rowKey,List<Pair<byte[],byte[]>> ranges){
+            for(Pair<byte[],byte[]> range : ranges){
+                if(Bytes.BASE_COMPARATOR.compare(rowKey,range.getFirst())>=0 && Bytes.BASE_COMPARATOR.compare(rowKey,range.getSecond())<0)
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    private static class ScanSpec implements DataScan{
+        private byte[] startKey;
+        private byte[] stopKey;
+        private DataFilter filter;
+
+        @Override public DataScan startKey(byte[] startKey){ this.startKey=startKey; return this; }
+        @Override public DataScan stopKey(byte[] stopKey){ this.stopKey=stopKey; return this; }
+        @Override public DataScan filter(DataFilter df){ this.filter=df; return this; }
+        @Override public DataScan reverseOrder(){ return this; }
+        @Override public boolean isDescendingScan(){ return false; }
+        @Override public DataScan cacheRows(int rowsToCache){ return this; }
+        @Override public DataScan batchCells(int cellsToBatch){ return this; }
+        @Override public byte[] getStartKey(){ return startKey; }
+        @Override public byte[] getStopKey(){ return stopKey; }
+        @Override public long highVersion(){ return Long.MAX_VALUE; }
+        @Override public long lowVersion(){ return 0L; }
+        @Override public DataFilter getFilter(){ return filter; }
+        @Override public void setTimeRange(long lowVersion,long highVersion){ }
+        @Override public void returnAllVersions(){ }
+        @Override public void setSmall(boolean small){ }
+        @Override public void addAttribute(String key,byte[] value){ }
+        @Override public byte[] getAttribute(String key){ return null; }
+        @Override public Map<String,byte[]> allAttributes(){ return Collections.emptyMap(); }
+        @Override public void setAllAttributes(Map<String,byte[]> attrMap){ }
+    }
+}
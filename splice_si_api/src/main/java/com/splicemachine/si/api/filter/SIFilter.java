@@ -36,4 +36,13 @@ public interface SIFilter{
     RowAccumulator getAccumulator();
 
     DataFilter.ReturnCode filterCell(DataCell kv) throws IOException;
+
+    /**
+     * Resolve the transactions which wrote {@code cells} in a single batch, ahead of filtering them.
+     *
+     * @return the number of transactions which had to be fetched
+     */
+    default int prefetch(Iterable<DataCell> cells) throws IOException{
+        return 0;
+    }
 }
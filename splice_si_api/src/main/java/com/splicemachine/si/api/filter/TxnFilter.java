@@ -17,6 +17,8 @@ package com.splicemachine.si.api.filter;
 import com.splicemachine.storage.DataCell;
 import com.splicemachine.storage.DataFilter;
 
+import java.io.IOException;
+
 public interface TxnFilter extends DataFilter{
     void nextRow();
 
@@ -24,4 +26,14 @@ public interface TxnFilter extends DataFilter{
     boolean getExcludeRow();
 
     RowAccumulator getAccumulator();
+
+    /**
+     * Resolve the transactions which wrote {@code cells} (typically a block of rows) in a single batch,
+     * so that filtering those cells afterwards doesn't need a transaction lookup per version.
+     *
+     * @return the number of transactions which had to be fetched
+     */
+    default int prefetch(Iterable<DataCell> cells) throws IOException{
+        return 0;
+    }
 }
@@ -25,4 +25,38 @@ import javax.management.MXBean;
 @MXBean
 public interface TransactionCacheManagement {
 
+    /**
+     * @return the total number of lookups against the cache
+     */
+    long getTotalRequests();
+
+    /**
+     * @return the number of lookups which were answered from the cache
+     */
+    long getHits();
+
+    /**
+     * @return the number of lookups which had to go to the transaction store
+     */
+    long getMisses();
+
+    /**
+     * @return the fraction of lookups answered from the cache
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of cached transactions replaced to make room for others
+     */
+    long getEvictions();
+
+    /**
+     * @return the number of transactions currently held in the cache
+     */
+    long getSize();
+
+    /**
+     * @return the maximum number of transactions the cache can hold
+     */
+    long getCapacity();
 }
@@ -86,6 +86,23 @@ public interface TxnSupplier {
 
     TxnView getTransactionFromCache(long txnId);
 
+	/**
+	 * Get the transactions associated with each of {@code txnIds}.
+	 *
+	 * Stores which can reach the transaction table in fewer round trips than one per
+	 * transaction should override this; by default each transaction is fetched in turn.
+	 *
+	 * @param txnIds the transaction ids to fetch.
+	 * @return the transactions, where the i-th entry belongs to {@code txnIds[i]}
+	 */
+	default TxnView[] getTransactions(long[] txnIds) throws IOException{
+		TxnView[] txns = new TxnView[txnIds.length];
+		for(int i=0;i<txnIds.length;i++){
+			txns[i] = getTransaction(txnIds[i]);
+		}
+		return txns;
+	}
+
 
 	/**
 	 * Get the taskId associated with {@code txnId}.
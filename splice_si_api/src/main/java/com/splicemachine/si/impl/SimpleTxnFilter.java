@@ -15,6 +15,8 @@
 package com.splicemachine.si.impl;
 
 import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.LongCursor;
 import com.splicemachine.si.api.filter.RowAccumulator;
 import com.splicemachine.si.api.filter.TxnFilter;
 import com.splicemachine.si.api.readresolve.ReadResolver;
@@ -31,6 +33,7 @@ import com.splicemachine.storage.DataFilter;
 import com.splicemachine.utils.ByteSlice;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Transaction filter which performs basic transactional filtering (i.e. row visibility, tombstones,
@@ -79,6 +82,13 @@ public class SimpleTxnFilter implements TxnFilter{
         return null;
     }
 
+    /*
+     * Transactions resolved by the last call to prefetch(), covering every version in that block
+     * of cells. Kept apart from the local cache above, which is far too small to hold a block.
+     */
+    private final LongObjectHashMap<TxnView> prefetched = new LongObjectHashMap<>();
+    private final LongHashSet toResolve = new LongHashSet();
+
     /**
      * In some cases we can safely ignore any data with a txnId greater than our
      * transaction begin timestamp, for instance during Spark reads
@@ -101,9 +111,8 @@ public class SimpleTxnFilter implements TxnFilter{
         } else {
             ignoreTxnSupplier = driver.getIgnoreTxnSupplier();
             isReplica = driver.lifecycleManager().getReplicationRole().equals(SIConstants.REPLICATION_ROLE_REPLICA);
-            int maxSize = driver.getConfiguration().getActiveTransactionMaxCacheSize();
-            int initialSize = driver.getConfiguration().getActiveTransactionInitialCacheSize();
-            this.transactionStore = new ActiveTxnCacheSupplier(baseSupplier, initialSize, maxSize);
+            // share the server-wide active transaction cache rather than building one per scanner
+            this.transactionStore = driver.getActiveTxnCache().newView(baseSupplier);
         }
     }
 
@@ -271,8 +280,53 @@ public class SimpleTxnFilter implements TxnFilter{
         return toCompare != null ? myTxn.canSee(toCompare) : false;
     }
 
+    @Override
+    public int prefetch(Iterable<DataCell> cells) throws IOException{
+        prefetched.clear();
+        toResolve.clear();
+        for(DataCell cell : cells){
+            long txnId = cell.version();
+            switch(cell.dataType()){
+                case COMMIT_TIMESTAMP:
+                    // already rolled forward, the cell itself tells us everything we need
+                    if (checkLocally(txnId) == null && !prefetched.containsKey(txnId))
+                        prefetched.put(txnId, new CommittedTxn(txnId, cell.valueAsLong()));
+                    break;
+                case USER_DATA:
+                case TOMBSTONE:
+                case ANTI_TOMBSTONE:
+                    if (ignoreNewerTransactions && myTxn.getBeginTimestamp() < txnId)
+                        break;
+                    toResolve.add(txnId);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        int numToFetch = 0;
+        long[] toFetch = new long[toResolve.size()];
+        for(LongCursor c : toResolve){
+            if (!prefetched.containsKey(c.value) && checkLocally(c.value) == null)
+                toFetch[numToFetch++] = c.value;
+        }
+        if (numToFetch == 0)
+            return 0;
+
+        if (numToFetch < toFetch.length)
+            toFetch = Arrays.copyOf(toFetch, numToFetch);
+        TxnView[] txns = transactionStore.getTransactions(toFetch);
+        for (int i = 0; i < txns.length; i++) {
+            if (txns[i] != null)
+                prefetched.put(toFetch[i], txns[i]);
+        }
+        return numToFetch;
+    }
+
     private TxnView fetchTransaction(long txnId) throws IOException {
         TxnView txn = checkLocally(txnId);
+        if (txn == null)
+            txn = prefetched.get(txnId);
         if (txn == null) {
             txn = transactionStore.getTransaction(txnId);
             if (txn != null) {
@@ -46,6 +46,7 @@ import com.splicemachine.si.impl.rollforward.NoopRollForward;
 import com.splicemachine.si.impl.rollforward.RollForwardStatus;
 import com.splicemachine.si.impl.server.SITransactor;
 import com.splicemachine.si.impl.store.IgnoreTxnSupplier;
+import com.splicemachine.si.impl.store.SharedActiveTxnCache;
 import com.splicemachine.si.impl.txn.SITransactionReadController;
 import com.splicemachine.storage.DataFilterFactory;
 import com.splicemachine.storage.Partition;
@@ -106,6 +107,7 @@ public class SIDriver {
     private final SIEnvironment env;
     private final ClusterHealth clusterHealth;
     private final ManagedThreadPool rejectingThreadPool;
+    private final SharedActiveTxnCache activeTxnCache;
     private final NonRejectingExecutor threadPool;
     private boolean engineStarted = false;
 
@@ -137,6 +139,7 @@ public class SIDriver {
         clientTxnLifecycleManager.setKeepAliveScheduler(env.keepAliveScheduler());
         this.lifecycleManager =clientTxnLifecycleManager;
         readController = new SITransactionReadController(txnSupplier);
+        activeTxnCache = new SharedActiveTxnCache(config.getActiveTransactionInitialCacheSize(),config.getActiveTransactionMaxCacheSize());
         readResolver = initializedReadResolver(config,env.keyedReadResolver());
         this.baseOpFactory = env.baseOperationFactory();
         this.env = env;
@@ -189,6 +192,14 @@ public class SIDriver {
     public TxnSupplier getTxnSupplier(){
         return txnSupplier;
     }
+
+    /**
+     * @return the cache of ACTIVE transactions shared by all scan filters on this server
+     */
+    public SharedActiveTxnCache getActiveTxnCache(){
+        return activeTxnCache;
+    }
+
     public IgnoreTxnSupplier getIgnoreTxnSupplier(){
         return ignoreTxnSupplier;
     }
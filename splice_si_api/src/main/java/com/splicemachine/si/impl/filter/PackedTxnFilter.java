@@ -64,6 +64,11 @@ public class PackedTxnFilter implements TxnFilter, SIFilter{
         }
     }
 
+    @Override
+    public int prefetch(Iterable<DataCell> cells) throws IOException{
+        return simpleFilter.prefetch(cells);
+    }
+
     @Override
     public boolean filterRow(){
         return getExcludeRow();
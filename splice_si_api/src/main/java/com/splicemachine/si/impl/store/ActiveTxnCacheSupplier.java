@@ -65,6 +65,31 @@ public class ActiveTxnCacheSupplier implements TxnSupplier {
         return txn;
     }
 
+    @Override
+    public TxnView[] getTransactions(long[] txnIds) throws IOException{
+        TxnView[] txns = new TxnView[txnIds.length];
+        int[] missing = new int[txnIds.length];
+        int numMissing = 0;
+        for(int i=0;i<txnIds.length;i++){
+            if((txns[i] = cache.getIfPresent(txnIds[i]))==null)
+                missing[numMissing++] = i;
+        }
+        if(numMissing==0) return txns;
+
+        long[] toFetch = new long[numMissing];
+        for(int i=0;i<numMissing;i++){
+            toFetch[i] = txnIds[missing[i]];
+        }
+        TxnView[] fetched = delegate.getTransactions(toFetch);
+        for(int i=0;i<numMissing;i++){
+            TxnView txn = fetched[i];
+            txns[missing[i]] = txn;
+            if(txn!=null && txn.getEffectiveState()==Txn.State.ACTIVE)
+                cache.put(toFetch[i],txn);
+        }
+        return txns;
+    }
+
     @Override
     public boolean transactionCached(long txnId) {
         return cache.getIfPresent(txnId) != null ? true : delegate.transactionCached(txnId);
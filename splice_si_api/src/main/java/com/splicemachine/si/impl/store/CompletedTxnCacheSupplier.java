@@ -14,57 +14,104 @@
 
 package com.splicemachine.si.impl.store;
 
+import com.splicemachine.access.api.SConfiguration;
 import com.splicemachine.hash.Hash32;
 import com.splicemachine.hash.HashFunctions;
 import com.splicemachine.si.api.txn.TaskId;
+import com.splicemachine.si.api.txn.TransactionCacheManagement;
 import com.splicemachine.si.api.txn.Txn;
 import com.splicemachine.si.api.txn.TxnSupplier;
 import com.splicemachine.si.api.txn.TxnView;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * TxnSupplier which caches transaction which have "Completed"--i.e. which have entered the COMMITTED or ROLLEDBACK
  * state.
  * <p/>
+ * The cache is split into power-of-two segments. Within a segment a transaction may live in any of
+ * {@link #PROBE_WINDOW} consecutive slots starting at its hash; when all of them are taken, a CLOCK sweep
+ * over the window picks the victim, so recently read transactions survive while cold ones are replaced.
+ * Reads never lock; writes lock only the segment they touch.
+ * <p/>
  * This class is thread-safe, and safe to be shared between many threads.
  *
  * @author Scott Fines
  *         Date: 6/18/14
  */
-public class CompletedTxnCacheSupplier implements TxnSupplier{
-    private TxnView[] cache;
+public class CompletedTxnCacheSupplier implements TxnSupplier, TransactionCacheManagement{
+    static final int PROBE_WINDOW = 8;
+    /*
+     * Approximate heap cost of one cached completed transaction (the TxnView and its fields, plus
+     * the slot pointing at it); used to turn a memory budget into a number of slots.
+     */
+    static final long ENTRY_SIZE = 160L;
+
+    private final Segment[] segments;
+    private final int segmentShift;
     private final TxnSupplier delegate;
-    private Hash32 hashFunction;
+    private final Hash32 hashFunction;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
 
     public CompletedTxnCacheSupplier(TxnSupplier delegate, int maxSize, int concurrencyLevel) {
-        cache = new TxnView[Integer.highestOneBit(maxSize)];    // ensure power of 2
+        int numSegments = Integer.highestOneBit(Math.max(1,concurrencyLevel));
+        int segmentSize = Math.max(PROBE_WINDOW,Integer.highestOneBit(Math.max(1,maxSize/numSegments))); // ensure power of 2
+        this.segments = new Segment[numSegments];
+        for(int i=0;i<numSegments;i++){
+            segments[i] = new Segment(segmentSize);
+        }
+        this.segmentShift = Integer.numberOfTrailingZeros(numSegments);
         this.delegate = delegate;
-        hashFunction = HashFunctions.utilHash();
+        this.hashFunction = HashFunctions.utilHash();
     }
 
-    private int idx(long val) {
-        return hashFunction.hash(val) & (cache.length - 1);
+    /**
+     * Size the cache by the heap it is allowed to use rather than by a number of entries.
+     */
+    public static CompletedTxnCacheSupplier withMemoryBudget(TxnSupplier delegate, long maxBytes, int concurrencyLevel){
+        long entries = Math.max(1L,maxBytes/ENTRY_SIZE);
+        return new CompletedTxnCacheSupplier(delegate,(int)Math.min(1<<30,entries),concurrencyLevel);
     }
 
-    private int idx2(long val, int idx) {
-        return (int)(val + idx) & (cache.length - 1);
+    /**
+     * Build the cache from configuration: by memory budget when {@code splice.txn.completedTxns.cacheBytes}
+     * is set, and by number of entries otherwise.
+     */
+    public static CompletedTxnCacheSupplier create(TxnSupplier delegate, SConfiguration config){
+        long maxBytes = config.getCompletedTxnCacheBytes();
+        if(maxBytes>0)
+            return withMemoryBudget(delegate,maxBytes,config.getCompletedTxnConcurrency());
+        return new CompletedTxnCacheSupplier(delegate,config.getCompletedTxnCacheSize(),config.getCompletedTxnConcurrency());
     }
 
     private TxnView get(long key) {
-        int idx = idx(key);
-        TxnView txn = cache[idx];   // safe to do without synchronization (JLS 17.7)
-        if (txn != null && txn.getTxnId() == key) return txn;
-        idx = idx2(key, idx);
-        txn = cache[idx];
-        return txn != null && txn.getTxnId() == key ? txn : null;
+        int hash = hashFunction.hash(key);
+        TxnView txn = segments[hash & (segments.length-1)].get(key,hash>>>segmentShift);
+        if(txn!=null)
+            hits.increment();
+        else
+            misses.increment();
+        return txn;
     }
 
     private void put(long key, TxnView txn) {
-        int idx = idx(key);
-        cache[idx] = txn;           // safe to do without synchronization (JLS 17.7)
-        idx = idx2(key, idx);
-        cache[idx] = txn;
+        int hash = hashFunction.hash(key);
+        switch(segments[hash & (segments.length-1)].put(txn,hash>>>segmentShift)){
+            case Segment.EVICTED:
+                evictions.increment();
+                break;
+            case Segment.INSERTED:
+                inserts.increment();
+                break;
+            default:
+                break;
+        }
     }
 
     @Override
@@ -84,6 +131,37 @@ public class CompletedTxnCacheSupplier implements TxnSupplier{
 
         // Not in the cache, need to check the delegate
         transaction = delegate.getTransaction(txnId, getDestinationTables);
+        cacheIfCompleted(transaction);
+        return transaction;
+    }
+
+    @Override
+    public TxnView[] getTransactions(long[] txnIds) throws IOException{
+        TxnView[] txns = new TxnView[txnIds.length];
+        int[] missing = new int[txnIds.length];
+        int numMissing = 0;
+        for(int i=0;i<txnIds.length;i++){
+            if(txnIds[i]==-1)
+                txns[i] = Txn.ROOT_TRANSACTION;
+            else if((txns[i] = get(txnIds[i]))==null)
+                missing[numMissing++] = i;
+        }
+        if(numMissing==0) return txns;
+
+        // only the ones we don't have go to the delegate, all in one batch
+        long[] toFetch = new long[numMissing];
+        for(int i=0;i<numMissing;i++){
+            toFetch[i] = txnIds[missing[i]];
+        }
+        TxnView[] fetched = delegate.getTransactions(toFetch);
+        for(int i=0;i<numMissing;i++){
+            txns[missing[i]] = fetched[i];
+            cacheIfCompleted(fetched[i]);
+        }
+        return txns;
+    }
+
+    private void cacheIfCompleted(TxnView transaction){
         if (transaction != null) {
             switch (transaction.getEffectiveState()) {
                 case COMMITTED:
@@ -94,7 +172,6 @@ public class CompletedTxnCacheSupplier implements TxnSupplier{
                     break;
             }
         }
-        return transaction;
     }
 
     @Override
@@ -117,4 +194,107 @@ public class CompletedTxnCacheSupplier implements TxnSupplier{
     public TaskId getTaskId(long txnId) throws IOException {
         return delegate.getTaskId(txnId);
     }
+
+    /*JMX methods*/
+
+    @Override
+    public long getTotalRequests(){
+        return hits.sum()+misses.sum();
+    }
+
+    @Override
+    public long getHits(){
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses(){
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate(){
+        long hit = hits.sum();
+        long total = hit+misses.sum();
+        return total==0?0d:((double)hit)/total;
+    }
+
+    @Override
+    public long getEvictions(){
+        return evictions.sum();
+    }
+
+    @Override
+    public long getSize(){
+        return inserts.sum();
+    }
+
+    @Override
+    public long getCapacity(){
+        return (long)segments.length*segments[0].slots.length();
+    }
+
+    private static final class Segment{
+        static final int UPDATED = 0;
+        static final int INSERTED = 1;
+        static final int EVICTED = 2;
+
+        private final AtomicReferenceArray<TxnView> slots;
+        /*
+         * CLOCK reference bits. Races on these are benign: the worst case is evicting an entry
+         * that was read a moment before, which any approximate LRU may do anyway.
+         */
+        private final byte[] referenced;
+        private final int mask;
+        private int hand;
+
+        Segment(int size){
+            this.slots = new AtomicReferenceArray<>(size);
+            this.referenced = new byte[size];
+            this.mask = size-1;
+        }
+
+        TxnView get(long txnId,int hash){
+            for(int i=0;i<PROBE_WINDOW;i++){
+                int slot = (hash+i) & mask;
+                TxnView txn = slots.get(slot);
+                if(txn==null)
+                    return null; //slots are never cleared, so nothing lives past an empty one
+                if(txn.getTxnId()==txnId){
+                    referenced[slot] = 1;
+                    return txn;
+                }
+            }
+            return null;
+        }
+
+        synchronized int put(TxnView txn,int hash){
+            long txnId = txn.getTxnId();
+            for(int i=0;i<PROBE_WINDOW;i++){
+                int slot = (hash+i) & mask;
+                TxnView existing = slots.get(slot);
+                if(existing==null){
+                    slots.set(slot,txn);
+                    return INSERTED;
+                }else if(existing.getTxnId()==txnId){
+                    slots.set(slot,txn);
+                    return UPDATED;
+                }
+            }
+            // window is full, sweep it for an entry which hasn't been read since the hand last passed
+            int victim = -1;
+            for(int i=0;i<2*PROBE_WINDOW && victim<0;i++){
+                int slot = (hash+(hand++ & (PROBE_WINDOW-1))) & mask;
+                if(referenced[slot]==0)
+                    victim = slot;
+                else
+                    referenced[slot] = 0;
+            }
+            if(victim<0) // readers kept re-marking the window; just take the slot under the hand
+                victim = (hash+(hand & (PROBE_WINDOW-1))) & mask;
+            referenced[victim] = 0;
+            slots.set(victim,txn);
+            return EVICTED;
+        }
+    }
 }
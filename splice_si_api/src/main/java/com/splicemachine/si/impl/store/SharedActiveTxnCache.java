@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.si.impl.store;
+
+import com.splicemachine.si.api.txn.TaskId;
+import com.splicemachine.si.api.txn.Txn;
+import com.splicemachine.si.api.txn.TxnSupplier;
+import com.splicemachine.si.api.txn.TxnView;
+import splice.com.google.common.cache.Cache;
+import splice.com.google.common.cache.CacheBuilder;
+
+import java.io.IOException;
+
+/**
+ * Region-server-wide cache of transactions which were seen in the ACTIVE state, shared by scan filters.
+ * <p>
+ * An ACTIVE view only stays correct for a reader as long as the transaction could not have committed before
+ * that reader started. Each entry therefore remembers when it was fetched, and a reader only trusts entries
+ * fetched after the reader itself was created: the transaction was still active at that point, so any commit
+ * timestamp it gets is later than the reader's begin timestamp and its writes are invisible either way.
+ * Older entries are refreshed from the reader's own supplier.
+ * <p>
+ * This class is thread-safe; the views handed out by {@link #newView(TxnSupplier)} are not.
+ */
+public class SharedActiveTxnCache{
+    private static final int CACHE_DEFAULT_CONCURRENCY_LEVEL = 16;
+    private final Cache<Long,Entry> cache;
+
+    public SharedActiveTxnCache(int initialSize,int maxSize){
+        this.cache = CacheBuilder.newBuilder().initialCapacity(initialSize).maximumSize(maxSize)
+                .concurrencyLevel(CACHE_DEFAULT_CONCURRENCY_LEVEL).build();
+    }
+
+    /**
+     * @return a per-reader supplier which consults this cache before {@code delegate}
+     */
+    public TxnSupplier newView(TxnSupplier delegate){
+        return new View(delegate,System.nanoTime());
+    }
+
+    private static final class Entry{
+        private final TxnView txn;
+        private final long fetchedAt;
+
+        Entry(TxnView txn,long fetchedAt){
+            this.txn=txn;
+            this.fetchedAt=fetchedAt;
+        }
+    }
+
+    private class View implements TxnSupplier{
+        private final TxnSupplier delegate;
+        private final long createdAt;
+
+        View(TxnSupplier delegate,long createdAt){
+            this.delegate=delegate;
+            this.createdAt=createdAt;
+        }
+
+        private TxnView cached(long txnId){
+            Entry e = cache.getIfPresent(txnId);
+            return e!=null && e.fetchedAt-createdAt>=0 ? e.txn : null;
+        }
+
+        @Override
+        public TxnView getTransaction(long txnId) throws IOException{
+            return getTransaction(txnId,false);
+        }
+
+        @Override
+        public TxnView getTransaction(long txnId,boolean getDestinationTables) throws IOException{
+            TxnView txn = cached(txnId);
+            if(txn!=null) return txn;
+            long fetchedAt = System.nanoTime();
+            txn = delegate.getTransaction(txnId,getDestinationTables);
+            if(txn==null) return null;
+
+            if(txn.getEffectiveState()==Txn.State.ACTIVE)
+                cache.put(txnId,new Entry(txn,fetchedAt));
+            return txn;
+        }
+
+        @Override
+        public TxnView[] getTransactions(long[] txnIds) throws IOException{
+            TxnView[] txns = new TxnView[txnIds.length];
+            int[] missing = new int[txnIds.length];
+            int numMissing = 0;
+            for(int i=0;i<txnIds.length;i++){
+                if((txns[i] = cached(txnIds[i]))==null)
+                    missing[numMissing++] = i;
+            }
+            if(numMissing==0) return txns;
+
+            long[] toFetch = new long[numMissing];
+            for(int i=0;i<numMissing;i++){
+                toFetch[i] = txnIds[missing[i]];
+            }
+            long fetchedAt = System.nanoTime();
+            TxnView[] fetched = delegate.getTransactions(toFetch);
+            for(int i=0;i<numMissing;i++){
+                TxnView txn = fetched[i];
+                txns[missing[i]] = txn;
+                if(txn!=null && txn.getEffectiveState()==Txn.State.ACTIVE)
+                    cache.put(toFetch[i],new Entry(txn,fetchedAt));
+            }
+            return txns;
+        }
+
+        @Override
+        public boolean transactionCached(long txnId){
+            return cached(txnId)!=null || delegate.transactionCached(txnId);
+        }
+
+        @Override
+        public void cache(TxnView toCache){
+            /*
+             * We can't tell when an ACTIVE view handed to us was last known to be active, so it
+             * can't be shared safely; completed ones go to the delegate as usual
+             */
+            if(toCache.getState()!=Txn.State.ACTIVE)
+                delegate.cache(toCache);
+        }
+
+        @Override
+        public TxnView getTransactionFromCache(long txnId){
+            TxnView tentative = cached(txnId);
+            return tentative!=null ? tentative : delegate.getTransactionFromCache(txnId);
+        }
+
+        @Override
+        public TaskId getTaskId(long txnId) throws IOException{
+            return delegate.getTaskId(txnId);
+        }
+    }
+}
@@ -47,6 +47,8 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
@@ -162,6 +164,32 @@ public class SimpleTxnFilterTest{
         assertActive(baseStore,child,0x500l);
     }
 
+    @Test
+    public void testPrefetchResolvesBlockInOneBatch() throws Exception{
+        TxnSupplier baseStore=spy(txnStore);
+
+        List<DataCell> block=new ArrayList<>();
+        for(int i=0;i<3;i++){
+            Txn committed=txnLifecycleManager.beginTransaction(Bytes.toBytes("table"));
+            committed.commit();
+            block.add(getUserCell(committed));
+            block.add(getUserCell(committed));
+        }
+
+        TxnView myTxn=new InheritingTxnView(Txn.ROOT_TRANSACTION,0x50000l,0x50000l,Txn.IsolationLevel.SNAPSHOT_ISOLATION,Txn.State.ACTIVE);
+        SimpleTxnFilter filter=new SimpleTxnFilter(null,myTxn,NoOpReadResolver.INSTANCE,baseStore);
+
+        Assert.assertEquals("Each distinct transaction should be fetched",3,filter.prefetch(block));
+        verify(baseStore,times(1)).getTransactions(any(long[].class));
+        for(DataCell cell : block){
+            filter.nextRow();
+            Assert.assertEquals("Incorrect return code for data cell!",DataFilter.ReturnCode.INCLUDE,filter.filterCell(cell));
+        }
+        //all lookups came from the batch, none from filtering the cells
+        verify(baseStore,times(3)).getTransaction(anyLong());
+        Assert.assertEquals("Nothing left to fetch",0,filter.prefetch(block.subList(0,2)));
+    }
+
     /*Tests for Read-Resolution of Committed transactions*/
     @Test
     public void testWillReadResolveCommittedTransaction() throws Exception{
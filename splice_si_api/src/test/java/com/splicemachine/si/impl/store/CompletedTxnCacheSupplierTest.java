@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.splicemachine.si.impl.TxnTestUtils.assertTxnsMatch;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -159,4 +160,34 @@ public class CompletedTxnCacheSupplierTest{
         TxnView fromCache=store.getTransaction(txn.getTxnId());
         assertTxnsMatch("Transaction from store is not correct!",txn,fromCache);
     }
+
+    @Test
+    public void testEvictsOnceFullAndCountsAccesses() throws Exception{
+        TxnSupplier backStore=mock(TxnSupplier.class);
+        when(backStore.getTransaction(anyLong(),anyBoolean())).thenAnswer(new Answer<TxnView>(){
+            @Override
+            public TxnView answer(InvocationOnMock invocationOnMock) throws Throwable{
+                return committed((Long)invocationOnMock.getArguments()[0]);
+            }
+        });
+        CompletedTxnCacheSupplier store=new CompletedTxnCacheSupplier(backStore,64,4);
+        long capacity=store.getCapacity();
+        for(long i=1;i<=4*capacity;i++){
+            store.getTransaction(i);
+        }
+        Assert.assertEquals("Every first lookup should miss",4*capacity,store.getMisses());
+        Assert.assertTrue("Expected evictions once the cache was full",store.getEvictions()>0);
+        Assert.assertTrue("Cache holds more than its capacity",store.getSize()<=capacity);
+
+        store.getTransaction(4*capacity);
+        Assert.assertEquals("Most recent transaction should still be cached",1,store.getHits());
+    }
+
+    private static TxnView committed(long txnId){
+        TxnView txn=mock(TxnView.class);
+        when(txn.getTxnId()).thenReturn(txnId);
+        when(txn.getState()).thenReturn(Txn.State.COMMITTED);
+        when(txn.getEffectiveState()).thenReturn(Txn.State.COMMITTED);
+        return txn;
+    }
 }
@@ -29,5 +29,26 @@ public interface TimestampClientStatistics{
 	long getNumberTimestampRequests();
 	
  	double getAvgTimestampRequestDuration();
-	
+
+	/**
+	 * @return number of GET_NEXT_TIMESTAMP requests sent to the server, each one serving a batch of
+	 * coalesced callers
+	 */
+	long getNumberTimestampBatches();
+
+	double getAvgTimestampBatchSize();
+
+	long getMaxTimestampBatchSize();
+
+	/**
+	 * @return number of batches by size, in power of two buckets: 1, 2, 3-4, 5-8, ..., 65 and above
+	 */
+	long[] getTimestampBatchSizeHistogram();
+
+	/**
+	 * @return average time in milliseconds a caller waits for a new timestamp, including the time spent
+	 * waiting for its batch to be sent
+	 */
+	double getAvgNextTimestampLatency();
+
 }
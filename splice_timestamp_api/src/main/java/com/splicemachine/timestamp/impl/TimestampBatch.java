@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2012 - 2020 Splice Machine, Inc.
+ *
+ * This file is part of Splice Machine.
+ * Splice Machine is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3, or (at your option) any later version.
+ * Splice Machine is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Affero General Public License for more details.
+ * You should have received a copy of the GNU Affero General Public License along with Splice Machine.
+ * If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.splicemachine.timestamp.impl;
+
+import com.splicemachine.timestamp.api.TimestampIOException;
+
+/**
+ * A group of concurrent {@link TimestampClient#getNextTimestamp()} callers sharing a single request to the server.
+ * Each caller takes a slot, and receives the timestamp at that offset of the range the server allocated.
+ */
+class TimestampBatch {
+
+    static final long NOT_GRANTED = -1L;
+
+    /**
+     * Number of callers in this batch, guarded by the client's batch lock until the batch is sent.
+     */
+    int size;
+
+    private boolean promoted;
+    private boolean done;
+    private long firstTimestamp;
+    private int granted;
+    private Exception error;
+
+    /**
+     * Let the sender of this batch know it's its turn to send it.
+     *
+     * @return false if the sender already gave up waiting
+     */
+    synchronized boolean promote() {
+        if (done)
+            return false;
+        promoted = true;
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * @param granted number of timestamps the server allocated from {@code firstTimestamp} on, which may be fewer
+     *                than the batch asked for
+     */
+    synchronized void complete(long firstTimestamp, int granted) {
+        if (done)
+            return;
+        this.firstTimestamp = firstTimestamp;
+        this.granted = granted;
+        done = true;
+        notifyAll();
+    }
+
+    synchronized void fail(Exception e) {
+        if (done)
+            return;
+        error = e;
+        done = true;
+        notifyAll();
+    }
+
+    /**
+     * Wait until this batch is done or, for its sender, until it's its turn to send it. Interrupts are deferred
+     * since other callers depend on the sender.
+     *
+     * @return true if the caller has to send the batch now
+     */
+    synchronized boolean await(boolean sender, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        boolean interrupted = false;
+        try {
+            while (!done && !(sender && promoted)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    // A sender that gives up fails the batch, so nobody else keeps waiting for it
+                    if (sender)
+                        fail(new TimestampIOException("Timed out after " + timeoutMillis + " ms waiting to send timestamp request"));
+                    return false;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            return !done;
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the timestamp at {@code slot}, or {@link #NOT_GRANTED} if the server allocated fewer timestamps
+     */
+    synchronized long getTimestamp(int slot) throws TimestampIOException {
+        if (!done)
+            throw new TimestampIOException("Timed out waiting for coalesced timestamp request");
+        if (error != null)
+            throw new TimestampIOException("Coalesced timestamp request failed", error);
+        if (slot >= granted)
+            return NOT_GRANTED;
+        return firstTimestamp + slot * TimestampOracle.TIMESTAMP_INCREMENT;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TimestampBatch{" +
+                "size=" + size +
+                ", promoted=" + promoted +
+                ", done=" + done +
+                ", firstTimestamp=" + firstTimestamp +
+                ", granted=" + granted +
+                '}';
+    }
+}
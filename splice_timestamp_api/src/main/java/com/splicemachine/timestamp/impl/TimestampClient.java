@@ -19,6 +19,8 @@ import java.net.InetSocketAddress;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.MBeanRegistrationException;
@@ -51,6 +53,11 @@ import org.apache.log4j.Logger;
  * For the caller, the invocation of {@link #getNextTimestamp()}
  * is synchronous.
  * <p>
+ * Concurrent calls to {@link #getNextTimestamp()} are coalesced: only one
+ * request for new timestamps is in flight at a time, and callers arriving
+ * meanwhile join a batch that is sent as a single request for a contiguous
+ * range as soon as the in-flight one completes.
+ * <p>
  * This class should generally not be constructed directly.
  *
  * @author Walt Koetke
@@ -65,6 +72,8 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
 
     private static final short CLIENT_COUNTER_INIT = 100; // actual value doesn't matter
 
+    private static final int BATCH_SIZE_BUCKETS = 8;
+
     /**
      * Fixed number of bytes in the message we expect to receive back from the server.
      */
@@ -103,8 +112,26 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
     // for solid definitions of each metric.
     private AtomicLong numRequests = new AtomicLong(0);
     private AtomicLong totalRequestDuration = new AtomicLong(0);
+    private AtomicLong numBatches = new AtomicLong(0);
+    private AtomicLong totalBatchSize = new AtomicLong(0);
+    private LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+    private AtomicLongArray batchSizeHistogram = new AtomicLongArray(BATCH_SIZE_BUCKETS);
+    private AtomicLong numNextTimestampCalls = new AtomicLong(0);
+    private AtomicLong totalNextTimestampDuration = new AtomicLong(0);
     private TimestampHostProvider timestampHostProvider;
 
+    /**
+     * Guards {@link #openBatch} and {@link #batchInFlight}, and the size of batches that haven't been sent yet.
+     */
+    private final Object batchLock = new Object();
+    private TimestampBatch openBatch;
+    private boolean batchInFlight;
+    /**
+     * False while the server answers without telling how many timestamps it allocated, i.e. it ignores
+     * {@code GetNextTimestamp.count}. Callers then ask for one timestamp each.
+     */
+    private volatile boolean serverAllocatesRanges = true;
+
 
     public TimestampClient(int timeoutMillis,TimestampHostProvider timestampHostProvider) {
         this.timeoutMillis = timeoutMillis;
@@ -243,9 +270,99 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
     }
 
     public long getNextTimestamp() throws TimestampIOException {
+        long startTime = System.currentTimeMillis();
+
+        long timestamp = serverAllocatesRanges ? getCoalescedTimestamp() : TimestampBatch.NOT_GRANTED;
+        if (timestamp == TimestampBatch.NOT_GRANTED) {
+            timestamp = requestNextTimestamps(1).getTimestamp();
+        }
+
+        numNextTimestampCalls.incrementAndGet();
+        totalNextTimestampDuration.addAndGet(System.currentTimeMillis() - startTime);
+        return timestamp;
+    }
+
+    private long getCoalescedTimestamp() throws TimestampIOException {
+        TimestampBatch batch;
+        int slot;
+        boolean sendNow;
+        synchronized (batchLock) {
+            if (batchInFlight) {
+                // Join the batch that goes out when the in-flight request completes
+                if (openBatch == null)
+                    openBatch = new TimestampBatch();
+                batch = openBatch;
+                sendNow = false;
+            } else {
+                batch = new TimestampBatch();
+                batchInFlight = true;
+                sendNow = true;
+            }
+            slot = batch.size++;
+        }
+
+        // The first caller of a batch sends it, either right away or once the in-flight request is done. Everybody
+        // else waits for the sender, which in turn waits at most one request timeout for its turn and one for
+        // the response.
+        if (sendNow || batch.await(slot == 0, 2L * timeoutMillis)) {
+            sendBatch(batch);
+        }
+        return batch.getTimestamp(slot);
+    }
+
+    /**
+     * Request the timestamps for the whole batch and hand them out to its callers, then send the next batch if
+     * one has been accumulated meanwhile.
+     */
+    private void sendBatch(TimestampBatch batch) {
+        try {
+            int count = batch.size; // the batch is closed, nobody joins it anymore
+            TimestampMessage.GetNextTimestampResponse response = requestNextTimestamps(count);
+            // Callers beyond the granted range ask for their own timestamp
+            batch.complete(response.getTimestamp(), response.hasCount() ? response.getCount() : 1);
+            recordBatch(count);
+        } catch (Exception e) { // Correct to catch all Exceptions so the callers waiting on this batch are released
+            batch.fail(e);
+        } finally {
+            promoteNextBatch();
+        }
+    }
+
+    private TimestampMessage.GetNextTimestampResponse requestNextTimestamps(int count) throws TimestampIOException {
         TimestampMessage.TimestampRequest.Builder requestBuilder = TimestampMessage.TimestampRequest.newBuilder()
                 .setTimestampRequestType(TimestampMessage.TimestampRequestType.GET_NEXT_TIMESTAMP);
-        return issueRequest(requestBuilder).getGetNextTimestampResponse().getTimestamp();
+        if (count > 1) {
+            requestBuilder.setGetNextTimestamp(TimestampMessage.GetNextTimestamp.newBuilder().setCount(count));
+        }
+        TimestampMessage.GetNextTimestampResponse response = issueRequest(requestBuilder).getGetNextTimestampResponse();
+        serverAllocatesRanges = response.hasCount();
+        return response;
+    }
+
+    private void promoteNextBatch() {
+        while (true) {
+            TimestampBatch next;
+            synchronized (batchLock) {
+                next = openBatch;
+                openBatch = null;
+                if (next == null) {
+                    batchInFlight = false;
+                    return;
+                }
+            }
+            // The batch is now closed, its sender takes over the in-flight slot. If the sender already gave up,
+            // try with whatever batch has been opened since.
+            if (next.promote())
+                return;
+        }
+    }
+
+    private void recordBatch(int count) {
+        numBatches.incrementAndGet();
+        totalBatchSize.addAndGet(count);
+        maxBatchSize.accumulate(count);
+        int bucket = 32 - Integer.numberOfLeadingZeros(count - 1); // 1 -> 0, 2 -> 1, 3-4 -> 2, 5-8 -> 3, ...
+        batchSizeHistogram.incrementAndGet(Math.min(bucket, BATCH_SIZE_BUCKETS - 1));
     }
 
     public long getCurrentTimestamp() throws TimestampIOException {
@@ -393,6 +510,35 @@ public class TimestampClient extends TimestampBaseHandler implements TimestampCl
         return a / b;
     }
 
+    @Override
+    public long getNumberTimestampBatches() {
+        return numBatches.get();
+    }
+
+    @Override
+    public double getAvgTimestampBatchSize() {
+        return (double) totalBatchSize.get() / (double) numBatches.get();
+    }
+
+    @Override
+    public long getMaxTimestampBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    @Override
+    public long[] getTimestampBatchSizeHistogram() {
+        long[] histogram = new long[BATCH_SIZE_BUCKETS];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = batchSizeHistogram.get(i);
+        }
+        return histogram;
+    }
+
+    @Override
+    public double getAvgNextTimestampLatency() {
+        return (double) totalNextTimestampDuration.get() / (double) numNextTimestampCalls.get();
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) throws Exception {
         if(state.get() != State.SHUTDOWN) {
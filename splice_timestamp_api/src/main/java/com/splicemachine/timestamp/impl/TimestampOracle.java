@@ -29,7 +29,7 @@ import javax.management.NotCompliantMBeanException;
 import javax.management.ObjectName;
 
 public class TimestampOracle implements TimestampOracleStatistics{
-    private static final long TIMESTAMP_INCREMENT = 0x100l;
+    static final long TIMESTAMP_INCREMENT = 0x100l;
 
     private static final Logger LOG = Logger.getLogger(TimestampOracle.class);
 
@@ -116,12 +116,22 @@ public class TimestampOracle implements TimestampOracleStatistics{
     }
 
     public long getNextTimestamp() throws TimestampIOException {
-        long nextTS = _timestampCounter.addAndGet(TIMESTAMP_INCREMENT);
-        if (nextTS > _maxReservedTimestamp) {
-            reserveNextBlock(nextTS);
+        return getNextTimestamps(1);
+    }
+
+    /**
+     * Atomically allocates a contiguous range of {@code count} timestamps.
+     *
+     * @return the first timestamp of the range, the others follow it at {@link #TIMESTAMP_INCREMENT} intervals
+     */
+    public long getNextTimestamps(int count) throws TimestampIOException {
+        assert count > 0;
+        long lastTS = _timestampCounter.addAndGet(TIMESTAMP_INCREMENT * count);
+        if (lastTS > _maxReservedTimestamp) {
+            reserveNextBlock(lastTS);
         }
-        _numTimestampsCreated.incrementAndGet(); // JMX metric
-        return nextTS;
+        _numTimestampsCreated.addAndGet(count); // JMX metric
+        return lastTS - TIMESTAMP_INCREMENT * (count - 1);
     }
 
     private synchronized void reserveNextBlock(long nextTS) throws TimestampIOException {
@@ -68,10 +68,12 @@ public class TimestampServerHandler extends TimestampBaseHandler {
                 break;
             }
             case GET_NEXT_TIMESTAMP: {
-                long timestamp = oracle.getNextTimestamp();
+                // Coalesced client requests ask for a range, the client hands out the rest of it
+                int count = Math.max(request.getGetNextTimestamp().getCount(), 1);
+                long timestamp = count > 1 ? oracle.getNextTimestamps(count) : oracle.getNextTimestamp();
                 assert timestamp > 0;
                 responseBuilder.setGetNextTimestampResponse(
-                        TimestampMessage.GetNextTimestampResponse.newBuilder().setTimestamp(timestamp));
+                        TimestampMessage.GetNextTimestampResponse.newBuilder().setTimestamp(timestamp).setCount(count));
                 break;
             }
             case BUMP_TIMESTAMP:
@@ -24,6 +24,17 @@ import org.jboss.netty.channel.MessageEvent;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.when;
 
@@ -111,4 +122,136 @@ public class TimestampClientTest {
         }
 
     }
+
+    @Test
+    public void testConcurrentRequestsAreCoalesced() throws Exception {
+        TimestampServerHandler tsh = new TimestampServerHandler(Mockito.mock(TimestampBlockManager.class, Mockito.RETURNS_DEEP_STUBS), 1000) {
+            // Slow down the server so callers pile up behind the in-flight request
+            @Override
+            public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+                Thread.sleep(20);
+                super.messageReceived(ctx, e);
+            }
+        };
+
+        TimestampServer ts = new TimestampServer(0, tsh);
+        ts.startServer();
+
+        int port = ts.getBoundPort();
+
+        TimestampHostProvider hostProvider = new TimestampHostProvider() {
+            @Override
+            public String getHost() {
+                return "localhost";
+            }
+            @Override
+            public int getPort() {
+                return port;
+            }
+        };
+        TimestampClient tc = new TimestampClient(10000,  hostProvider);
+        tc.connectIfNeeded();
+
+        int threads = 16;
+        int callsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(() -> {
+                    List<Long> timestamps = new ArrayList<>();
+                    long last = -1;
+                    for (int j = 0; j < callsPerThread; ++j) {
+                        long timestamp = tc.getNextTimestamp();
+                        // timestamps handed to a single caller keep increasing
+                        assertTrue(timestamp > last);
+                        last = timestamp;
+                        timestamps.add(timestamp);
+                    }
+                    return timestamps;
+                }));
+            }
+            Set<Long> unique = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                unique.addAll(future.get());
+            }
+            assertEquals("Timestamps must not be handed out twice", threads * callsPerThread, unique.size());
+        } finally {
+            executor.shutdown();
+            ts.stopServer();
+        }
+
+        long batches = tc.getNumberTimestampBatches();
+        assertTrue("Expected requests to be coalesced, got " + batches + " batches", batches < threads * callsPerThread);
+        long histogramTotal = 0;
+        for (long count : tc.getTimestampBatchSizeHistogram()) {
+            histogramTotal += count;
+        }
+        assertEquals(batches, histogramTotal);
+        assertEquals((double) threads * callsPerThread / batches, tc.getAvgTimestampBatchSize(), 0.0001);
+        assertTrue(tc.getMaxTimestampBatchSize() > 1);
+    }
+
+    @Test
+    public void testServerWithoutRangesGrantsOneTimestampPerRequest() throws Exception {
+        AtomicLong counter = new AtomicLong();
+        TimestampServerHandler tsh = new TimestampServerHandler(Mockito.mock(TimestampBlockManager.class, Mockito.RETURNS_DEEP_STUBS), 1000) {
+            // Behave like a server predating GetNextTimestamp.count: allocate one timestamp and don't echo a count
+            @Override
+            public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+                Thread.sleep(5);
+                TimestampMessage.TimestampRequest request = (TimestampMessage.TimestampRequest) e.getMessage();
+                e.getChannel().write(TimestampMessage.TimestampResponse.newBuilder()
+                        .setCallerId(request.getCallerId())
+                        .setTimestampRequestType(request.getTimestampRequestType())
+                        .setGetNextTimestampResponse(TimestampMessage.GetNextTimestampResponse.newBuilder()
+                                .setTimestamp(counter.addAndGet(TimestampOracle.TIMESTAMP_INCREMENT)))
+                        .build());
+            }
+        };
+
+        TimestampServer ts = new TimestampServer(0, tsh);
+        ts.startServer();
+
+        int port = ts.getBoundPort();
+
+        TimestampHostProvider hostProvider = new TimestampHostProvider() {
+            @Override
+            public String getHost() {
+                return "localhost";
+            }
+            @Override
+            public int getPort() {
+                return port;
+            }
+        };
+        TimestampClient tc = new TimestampClient(10000,  hostProvider);
+        tc.connectIfNeeded();
+
+        int threads = 8;
+        int callsPerThread = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(() -> {
+                    List<Long> timestamps = new ArrayList<>();
+                    for (int j = 0; j < callsPerThread; ++j) {
+                        timestamps.add(tc.getNextTimestamp());
+                    }
+                    return timestamps;
+                }));
+            }
+            Set<Long> unique = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                unique.addAll(future.get());
+            }
+            assertEquals("Timestamps must not be handed out twice", threads * callsPerThread, unique.size());
+            // every timestamp handed out was allocated by the server
+            assertEquals(threads * callsPerThread * TimestampOracle.TIMESTAMP_INCREMENT, counter.get());
+        } finally {
+            executor.shutdown();
+            ts.stopServer();
+        }
+    }
 }